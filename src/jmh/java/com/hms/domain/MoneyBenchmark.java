@@ -0,0 +1,65 @@
+package com.hms.domain;
+
+import com.hms.entity.Invoice;
+import com.hms.entity.InvoiceItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoice totals computed with {@link Money}, as {@link Invoice#recalculateTotal()} does, against the
+ * {@link BigDecimal} product-and-sum it replaced.
+ * <p>
+ * Not part of the test phase; run with {@code mvn -P benchmark -DskipTests verify}. The profile adds JMH's
+ * {@code gc} profiler, whose {@code gc.alloc.rate.norm} is the bytes allocated per total.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyBenchmark {
+
+    @Param({"1", "10", "100", "500"})
+    private int items;
+
+    private Invoice invoice;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        invoice = Invoice.builder().build();
+        for (int i = 0; i < items; i++) {
+            invoice.getItems().add(InvoiceItem.builder()
+                    .amount(BigDecimal.valueOf(1 + random.nextInt(500_000), 2))
+                    .quantity(1 + random.nextInt(12))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public BigDecimal money() {
+        invoice.recalculateTotal();
+        return invoice.getTotalAmount();
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        return invoice.getItems().stream()
+                .map(item -> item.getAmount().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
@@ -0,0 +1,25 @@
+package com.hms.config;
+
+import com.hms.service.AppointmentNotifier;
+import com.hms.service.LoggingAppointmentNotifier;
+import com.hms.service.LoggingPasswordResetNotifier;
+import com.hms.service.PasswordResetNotifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class NotificationConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(AppointmentNotifier.class)
+    public AppointmentNotifier appointmentNotifier() {
+        return new LoggingAppointmentNotifier();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(PasswordResetNotifier.class)
+    public PasswordResetNotifier passwordResetNotifier() {
+        return new LoggingPasswordResetNotifier();
+    }
+}
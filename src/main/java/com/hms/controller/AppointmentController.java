@@ -1,10 +1,15 @@
 package com.hms.controller;
 
+import com.hms.dto.request.AppointmentBatchRequest;
 import com.hms.dto.request.AppointmentRequest;
 import com.hms.dto.request.AppointmentStatusRequest;
 import com.hms.dto.response.ApiResponse;
+import com.hms.dto.response.AppointmentBatchResponse;
 import com.hms.dto.response.AppointmentResponse;
+import com.hms.dto.response.CursorPage;
+import com.hms.dto.response.DoctorSlotsResponse;
 import com.hms.enums.AppointmentStatus;
+import com.hms.service.AppointmentEventStream;
 import com.hms.service.AppointmentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,9 +18,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -28,6 +35,7 @@ import java.util.List;
 public class AppointmentController {
 
     private final AppointmentService appointmentService;
+    private final AppointmentEventStream appointmentEventStream;
 
     @GetMapping
     @Operation(summary = "Get all appointments", description = "Retrieves list of all appointments")
@@ -91,6 +99,97 @@ public class AppointmentController {
         return ResponseEntity.ok(ApiResponse.success(appointments));
     }
 
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR', 'RECEPTIONIST')")
+    @Operation(summary = "Stream appointment changes", description = "Server-sent events with a delta for every created, rescheduled, updated or cancelled appointment, optionally filtered by doctor, date or status")
+    public SseEmitter streamAppointmentChanges(
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) AppointmentStatus status) {
+        log.info("GET /api/v1/appointments/stream - doctor: {}, date: {}, status: {}", doctorId, date, status);
+        return appointmentEventStream.subscribe(doctorId, date, status);
+    }
+
+    @GetMapping("/slots")
+    @Operation(summary = "Search free slots", description = "Finds bookable slots from doctor availability minus booked appointments")
+    public ResponseEntity<ApiResponse<List<DoctorSlotsResponse>>> findAvailableSlots(
+            @RequestParam(required = false) String specialization,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer duration) {
+        log.info("GET /api/v1/appointments/slots?specialization={}&from={}&to={}", specialization, from, to);
+        List<DoctorSlotsResponse> slots = appointmentService.findAvailableSlots(specialization, from, to, duration);
+        return ResponseEntity.ok(ApiResponse.success(slots));
+    }
+
+    // Keyset-paginated listing endpoints
+    @GetMapping("/page")
+    @Operation(summary = "Get appointments page", description = "Retrieves appointments in fixed-size pages using a continuation cursor")
+    public ResponseEntity<ApiResponse<CursorPage<AppointmentResponse>>> getAppointmentsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("GET /api/v1/appointments/page");
+        CursorPage<AppointmentResponse> page = appointmentService.getAppointmentsPage(cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @GetMapping("/patient/{patientId}/page")
+    @Operation(summary = "Get appointments page by patient", description = "Retrieves a patient's appointments in fixed-size pages")
+    public ResponseEntity<ApiResponse<CursorPage<AppointmentResponse>>> getAppointmentsPageByPatient(
+            @PathVariable Long patientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("GET /api/v1/appointments/patient/{}/page", patientId);
+        CursorPage<AppointmentResponse> page = appointmentService.getAppointmentsPageByPatient(patientId, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @GetMapping("/doctor/{doctorId}/page")
+    @Operation(summary = "Get appointments page by doctor", description = "Retrieves a doctor's appointments in fixed-size pages")
+    public ResponseEntity<ApiResponse<CursorPage<AppointmentResponse>>> getAppointmentsPageByDoctor(
+            @PathVariable Long doctorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("GET /api/v1/appointments/doctor/{}/page", doctorId);
+        CursorPage<AppointmentResponse> page = appointmentService.getAppointmentsPageByDoctor(doctorId, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @GetMapping("/status/{status}/page")
+    @Operation(summary = "Get appointments page by status", description = "Retrieves appointments by status in fixed-size pages")
+    public ResponseEntity<ApiResponse<CursorPage<AppointmentResponse>>> getAppointmentsPageByStatus(
+            @PathVariable AppointmentStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("GET /api/v1/appointments/status/{}/page", status);
+        CursorPage<AppointmentResponse> page = appointmentService.getAppointmentsPageByStatus(status, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @GetMapping("/date/{date}/page")
+    @Operation(summary = "Get appointments page by date", description = "Retrieves appointments for a date in fixed-size pages")
+    public ResponseEntity<ApiResponse<CursorPage<AppointmentResponse>>> getAppointmentsPageByDate(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("GET /api/v1/appointments/date/{}/page", date);
+        CursorPage<AppointmentResponse> page = appointmentService.getAppointmentsPageByDate(date, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @GetMapping("/doctor/{doctorId}/date/{date}/page")
+    @Operation(summary = "Get doctor appointments page by date", description = "Retrieves a doctor's appointments for a date in fixed-size pages")
+    public ResponseEntity<ApiResponse<CursorPage<AppointmentResponse>>> getDoctorAppointmentsPageByDate(
+            @PathVariable Long doctorId,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("GET /api/v1/appointments/doctor/{}/date/{}/page", doctorId, date);
+        CursorPage<AppointmentResponse> page = appointmentService.getDoctorAppointmentsPageByDate(
+                doctorId, date, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
     @PostMapping
     @Operation(summary = "Create appointment", description = "Creates a new appointment")
     public ResponseEntity<ApiResponse<AppointmentResponse>> createAppointment(
@@ -102,6 +201,16 @@ public class AppointmentController {
                 .body(ApiResponse.success("Appointment created successfully", appointment));
     }
 
+    @PostMapping("/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'RECEPTIONIST')")
+    @Operation(summary = "Create appointments in bulk", description = "Books many appointments in one request and reports a result per item")
+    public ResponseEntity<ApiResponse<AppointmentBatchResponse>> createAppointmentsBatch(
+            @Valid @RequestBody AppointmentBatchRequest request) {
+        log.info("POST /api/v1/appointments/batch - Creating {} appointments", request.getAppointments().size());
+        AppointmentBatchResponse result = appointmentService.createAppointmentsBatch(request.getAppointments());
+        return ResponseEntity.ok(ApiResponse.success("Appointment batch processed", result));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update appointment", description = "Updates an existing appointment")
     public ResponseEntity<ApiResponse<AppointmentResponse>> updateAppointment(
@@ -1,8 +1,10 @@
 package com.hms.controller;
 
+import com.hms.dto.request.ForgotPasswordRequest;
 import com.hms.dto.request.LoginRequest;
 import com.hms.dto.request.RefreshTokenRequest;
 import com.hms.dto.request.RegisterRequest;
+import com.hms.dto.request.ResetPasswordRequest;
 import com.hms.dto.response.ApiResponse;
 import com.hms.dto.response.AuthResponse;
 import com.hms.service.AuthService;
@@ -52,4 +54,25 @@ public class AuthController {
         AuthResponse response = authService.refreshToken(request);
         return ResponseEntity.ok(ApiResponse.success("Token refreshed successfully", response));
     }
+
+    @PostMapping("/forgot-password")
+    @Operation(summary = "Request password reset",
+            description = "Sends a password reset token to the account's owner; imported accounts use this to set their first password")
+    public ResponseEntity<ApiResponse<Void>> forgotPassword(
+            @Valid @RequestBody ForgotPasswordRequest request) {
+        log.info("Password reset request received for email: {}", request.getEmail());
+        authService.requestPasswordReset(request);
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("If the account exists, a password reset token has been sent"));
+    }
+
+    @PostMapping("/reset-password")
+    @Operation(summary = "Reset password", description = "Sets a new password using a reset token and returns JWT tokens")
+    public ResponseEntity<ApiResponse<AuthResponse>> resetPassword(
+            @Valid @RequestBody ResetPasswordRequest request) {
+        log.info("Password reset request received");
+        AuthResponse response = authService.resetPassword(request);
+        return ResponseEntity.ok(ApiResponse.success("Password reset successfully", response));
+    }
 }
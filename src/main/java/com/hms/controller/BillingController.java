@@ -4,19 +4,33 @@ import com.hms.dto.request.InvoiceRequest;
 import com.hms.dto.request.PaymentRequest;
 import com.hms.dto.response.ApiResponse;
 import com.hms.dto.response.InvoiceResponse;
+import com.hms.dto.response.LedgerVerificationReport;
+import com.hms.dto.response.OverdueInvoiceResponse;
+import com.hms.dto.response.PatientBalanceResponse;
 import com.hms.dto.response.PaymentResponse;
+import com.hms.dto.response.ReconciliationReport;
+import com.hms.enums.ImportFormat;
 import com.hms.enums.PaymentStatus;
+import com.hms.service.AgingReportService;
 import com.hms.service.BillingService;
+import com.hms.service.ReconciliationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -28,6 +42,8 @@ import java.util.List;
 public class BillingController {
 
     private final BillingService billingService;
+    private final ReconciliationService reconciliationService;
+    private final AgingReportService agingReportService;
 
     // Invoice Endpoints
     @GetMapping("/invoices")
@@ -74,10 +90,10 @@ public class BillingController {
     }
 
     @GetMapping("/invoices/overdue")
-    @Operation(summary = "Get overdue invoices", description = "Retrieves all overdue invoices")
-    public ResponseEntity<ApiResponse<List<InvoiceResponse>>> getOverdueInvoices() {
+    @Operation(summary = "Get overdue invoices", description = "Lists invoices marked OVERDUE by the nightly job, oldest due date first")
+    public ResponseEntity<ApiResponse<List<OverdueInvoiceResponse>>> getOverdueInvoices() {
         log.info("GET /api/v1/billing/invoices/overdue");
-        List<InvoiceResponse> invoices = billingService.getOverdueInvoices();
+        List<OverdueInvoiceResponse> invoices = billingService.getOverdueInvoices();
         return ResponseEntity.ok(ApiResponse.success(invoices));
     }
 
@@ -131,4 +147,82 @@ public class BillingController {
                 .status(HttpStatus.CREATED)
                 .body(ApiResponse.success("Payment recorded successfully", payment));
     }
+
+    // Patient Account Endpoints
+    @GetMapping("/patients/{patientId}/balance")
+    @Operation(summary = "Get patient balance", description = "Outstanding balance and total paid across a patient's invoices")
+    public ResponseEntity<ApiResponse<PatientBalanceResponse>> getPatientBalance(@PathVariable Long patientId) {
+        log.info("GET /api/v1/billing/patients/{}/balance", patientId);
+        PatientBalanceResponse balance = billingService.getPatientBalance(patientId);
+        return ResponseEntity.ok(ApiResponse.success(balance));
+    }
+
+    @PostMapping("/accounts/verify")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Verify patient accounts",
+            description = "Recomputes patient balances from invoices and payments and reports drift; repair overwrites drifted accounts (Admin only)")
+    public ResponseEntity<ApiResponse<LedgerVerificationReport>> verifyPatientAccounts(
+            @RequestParam(defaultValue = "false") boolean repair) {
+        log.info("POST /api/v1/billing/accounts/verify - repair: {}", repair);
+        LedgerVerificationReport report = billingService.verifyPatientAccounts(repair);
+        return ResponseEntity.ok(ApiResponse.success(report));
+    }
+
+    // Revenue Endpoints
+    @GetMapping("/revenue")
+    @Operation(summary = "Get total payments", description = "Total of payments received between start and end (inclusive)")
+    public ResponseEntity<ApiResponse<BigDecimal>> getTotalPayments(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        log.info("GET /api/v1/billing/revenue - from {} to {}", start, end);
+        BigDecimal total = billingService.getTotalPaymentsByDateRange(start, end);
+        return ResponseEntity.ok(ApiResponse.success(total));
+    }
+
+    @PostMapping("/revenue/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rebuild revenue rollup", description = "Recomputes the daily revenue rollup from all payments (Admin only)")
+    public ResponseEntity<ApiResponse<Integer>> rebuildRevenueRollup() {
+        log.info("POST /api/v1/billing/revenue/rebuild");
+        int rows = billingService.rebuildRevenueRollup();
+        return ResponseEntity.ok(ApiResponse.success("Revenue rollup rebuilt", rows));
+    }
+
+    // Report Endpoints
+    @GetMapping(value = "/reports/aging", produces = "application/x-ndjson")
+    @Operation(summary = "Receivables aging report",
+            description = "Unpaid balances of open invoices, not yet due and in 0-30/31-60/61-90/90+ day buckets by patient or doctor specialization, streamed as NDJSON")
+    public ResponseEntity<StreamingResponseBody> getAgingReport(
+            @RequestParam(defaultValue = "PATIENT") AgingReportService.GroupBy groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("GET /api/v1/billing/reports/aging - by {} as of {} from {} to {}", groupBy, asOf, from, to);
+        AgingReportService.AgingReport report = agingReportService.prepare(groupBy, asOf, from, to);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(report::writeTo);
+    }
+
+    // Reconciliation Endpoints
+    @PostMapping(value = "/reconciliation", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Import bank statement",
+            description = "Queues a CSV or NDJSON statement whose lines are applied as payments by transaction id")
+    public ResponseEntity<ApiResponse<ReconciliationReport>> importStatement(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) ImportFormat format) {
+        log.info("POST /api/v1/billing/reconciliation - {}", file.getOriginalFilename());
+        ReconciliationReport report = reconciliationService.startImport(file, format);
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Reconciliation import queued", report));
+    }
+
+    @GetMapping("/reconciliation/{importId}")
+    @Operation(summary = "Get import progress", description = "Progress and outcome of a reconciliation import")
+    public ResponseEntity<ApiResponse<ReconciliationReport>> getImport(@PathVariable String importId) {
+        log.info("GET /api/v1/billing/reconciliation/{}", importId);
+        ReconciliationReport report = reconciliationService.getImport(importId);
+        return ResponseEntity.ok(ApiResponse.success(report));
+    }
 }
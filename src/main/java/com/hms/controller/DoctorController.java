@@ -41,6 +41,16 @@ public class DoctorController {
         return ResponseEntity.ok(ApiResponse.success(doctor));
     }
 
+    @GetMapping("/search")
+    @Operation(summary = "Search doctors", description = "Search doctors by name, phone or email; best matches first")
+    public ResponseEntity<ApiResponse<List<DoctorResponse>>> searchDoctors(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "20") int limit) {
+        log.info("GET /api/v1/doctors/search?name={}&limit={}", name, limit);
+        List<DoctorResponse> doctors = doctorService.searchDoctors(name, limit);
+        return ResponseEntity.ok(ApiResponse.success(doctors));
+    }
+
     @GetMapping("/specialization/{specialization}")
     @Operation(summary = "Get doctors by specialization", description = "Retrieves doctors by their specialization")
     public ResponseEntity<ApiResponse<List<DoctorResponse>>> getDoctorsBySpecialization(
@@ -3,8 +3,16 @@ package com.hms.controller;
 import com.hms.dto.request.MedicalHistoryRequest;
 import com.hms.dto.request.PatientRequest;
 import com.hms.dto.response.ApiResponse;
+import com.hms.dto.response.CursorPage;
+import com.hms.dto.response.DuplicateScanReport;
 import com.hms.dto.response.MedicalHistoryResponse;
+import com.hms.dto.response.MedicalHistorySummary;
+import com.hms.dto.response.PatientChartResponse;
+import com.hms.dto.response.PatientImportReport;
 import com.hms.dto.response.PatientResponse;
+import com.hms.enums.ImportFormat;
+import com.hms.service.PatientChartService;
+import com.hms.service.PatientImportService;
 import com.hms.service.PatientService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,9 +20,12 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 
@@ -26,6 +37,8 @@ import java.util.List;
 public class PatientController {
 
     private final PatientService patientService;
+    private final PatientChartService patientChartService;
+    private final PatientImportService patientImportService;
 
     @GetMapping
     @Operation(summary = "Get all patients", description = "Retrieves list of all patients")
@@ -43,12 +56,25 @@ public class PatientController {
         return ResponseEntity.ok(ApiResponse.success(patient));
     }
 
+    @GetMapping("/{id}/chart")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR', 'RECEPTIONIST')")
+    @Operation(summary = "Get patient chart", description = "Retrieves the patient, medical history, appointments, invoices and balance in one call; sections are loaded in parallel and those the caller's role may not see are omitted")
+    public ResponseEntity<ApiResponse<PatientChartResponse>> getPatientChart(
+            @PathVariable Long id,
+            Authentication authentication) {
+        log.info("GET /api/v1/patients/{}/chart", id);
+        PatientChartResponse chart = patientChartService.getChart(id,
+                PatientChartService.visibleSections(authentication.getAuthorities()));
+        return ResponseEntity.ok(ApiResponse.success(chart));
+    }
+
     @GetMapping("/search")
-    @Operation(summary = "Search patients", description = "Search patients by name")
+    @Operation(summary = "Search patients", description = "Search patients by name, phone or email; best matches first")
     public ResponseEntity<ApiResponse<List<PatientResponse>>> searchPatients(
-            @RequestParam String name) {
-        log.info("GET /api/v1/patients/search?name={}", name);
-        List<PatientResponse> patients = patientService.searchPatients(name);
+            @RequestParam String name,
+            @RequestParam(defaultValue = "20") int limit) {
+        log.info("GET /api/v1/patients/search?name={}&limit={}", name, limit);
+        List<PatientResponse> patients = patientService.searchPatients(name, limit);
         return ResponseEntity.ok(ApiResponse.success(patients));
     }
 
@@ -64,6 +90,38 @@ public class PatientController {
                 .body(ApiResponse.success("Patient created successfully", patient));
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Import patients",
+            description = "Queues a CSV or NDJSON file of patients to register; imported accounts must reset their password (Admin only)")
+    public ResponseEntity<ApiResponse<PatientImportReport>> importPatients(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) ImportFormat format) {
+        log.info("POST /api/v1/patients/import - {}", file.getOriginalFilename());
+        PatientImportReport report = patientImportService.startImport(file, format);
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Patient import queued", report));
+    }
+
+    @GetMapping("/import/{importId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get patient import progress", description = "Progress and outcome of a patient import (Admin only)")
+    public ResponseEntity<ApiResponse<PatientImportReport>> getImport(@PathVariable String importId) {
+        log.info("GET /api/v1/patients/import/{}", importId);
+        PatientImportReport report = patientImportService.getImport(importId);
+        return ResponseEntity.ok(ApiResponse.success(report));
+    }
+
+    @PostMapping("/duplicates/scan")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Scan for duplicate patients", description = "Lists pairs of patient records that are likely the same person (Admin only)")
+    public ResponseEntity<ApiResponse<DuplicateScanReport>> scanForDuplicates() {
+        log.info("POST /api/v1/patients/duplicates/scan - Scanning for duplicate patients");
+        DuplicateScanReport report = patientService.scanForDuplicates();
+        return ResponseEntity.ok(ApiResponse.success(report));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update patient", description = "Updates an existing patient record")
     public ResponseEntity<ApiResponse<PatientResponse>> updatePatient(
@@ -94,6 +152,29 @@ public class PatientController {
         return ResponseEntity.ok(ApiResponse.success(history));
     }
 
+    @GetMapping("/{patientId}/medical-history/timeline")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR')")
+    @Operation(summary = "Get medical history timeline", description = "Retrieves medical history summaries, newest first, in fixed-size pages using a continuation cursor")
+    public ResponseEntity<ApiResponse<CursorPage<MedicalHistorySummary>>> getMedicalHistoryTimeline(
+            @PathVariable Long patientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("GET /api/v1/patients/{}/medical-history/timeline", patientId);
+        CursorPage<MedicalHistorySummary> page = patientService.getMedicalHistoryTimeline(patientId, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @GetMapping("/{patientId}/medical-history/{historyId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR')")
+    @Operation(summary = "Get medical history entry", description = "Retrieves one medical history record with its treatment, notes and medications")
+    public ResponseEntity<ApiResponse<MedicalHistoryResponse>> getMedicalHistoryEntry(
+            @PathVariable Long patientId,
+            @PathVariable Long historyId) {
+        log.info("GET /api/v1/patients/{}/medical-history/{}", patientId, historyId);
+        MedicalHistoryResponse history = patientService.getMedicalHistoryEntry(patientId, historyId);
+        return ResponseEntity.ok(ApiResponse.success(history));
+    }
+
     @PostMapping("/{patientId}/medical-history")
     @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR')")
     @Operation(summary = "Add medical history", description = "Adds a new medical history record for a patient")
@@ -0,0 +1,96 @@
+package com.hms.domain;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * An amount held as a whole number of the currency's minor units, so line totals and sums are
+ * {@code long} arithmetic rather than a {@link BigDecimal} per step. Amounts are converted from and to
+ * {@code BigDecimal} only where they are persisted or returned by the API.
+ * <p>
+ * Arithmetic overflow, amounts finer than the currency's minor unit and mixed currencies all throw
+ * instead of rounding.
+ */
+public record Money(long minorUnits, Currency currency) implements Comparable<Money> {
+
+    // Amount columns hold two decimal places, which is this currency's minor unit
+    public static final Currency BILLING_CURRENCY = Currency.getInstance("USD");
+
+    public static final Money ZERO = new Money(0, BILLING_CURRENCY);
+
+    public Money {
+        Objects.requireNonNull(currency, "currency");
+    }
+
+    public static Money of(BigDecimal amount) {
+        return of(amount, BILLING_CURRENCY);
+    }
+
+    public static Money of(BigDecimal amount, Currency currency) {
+        return new Money(toMinorUnits(amount, currency), currency);
+    }
+
+    /**
+     * The amount in minor units of the billing currency, for loops that sum without creating a {@code Money} per step.
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        return toMinorUnits(amount, BILLING_CURRENCY);
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return new Money(minorUnits, BILLING_CURRENCY);
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money times(long quantity) {
+        return new Money(Math.multiplyExact(minorUnits, quantity), currency);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), currency);
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits());
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency.getCurrencyCode();
+    }
+
+    private static long toMinorUnits(BigDecimal amount, Currency currency) {
+        // One scale-0 BigDecimal; longValueExact rejects a leftover fraction and values beyond a long
+        return amount.scaleByPowerOfTen(currency.getDefaultFractionDigits()).longValueExact();
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Cannot combine " + currency + " with " + other.currency);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.hms.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentBatchRequest {
+
+    @NotEmpty(message = "At least one appointment is required")
+    @Size(max = 5000, message = "A batch can contain at most 5000 appointments")
+    private List<AppointmentRequest> appointments;
+}
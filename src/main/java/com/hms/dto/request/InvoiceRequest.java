@@ -1,6 +1,7 @@
 package com.hms.dto.request;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
@@ -40,6 +41,7 @@ public class InvoiceRequest {
 
         @NotNull(message = "Amount is required")
         @Positive(message = "Amount must be positive")
+        @Digits(integer = 15, fraction = 2, message = "Amount must have at most 2 decimal places")
         private BigDecimal amount;
 
         @Positive(message = "Quantity must be at least 1")
@@ -1,5 +1,6 @@
 package com.hms.dto.request;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -21,6 +22,7 @@ public class PaymentRequest {
 
     @NotNull(message = "Amount is required")
     @Positive(message = "Amount must be positive")
+    @Digits(integer = 15, fraction = 2, message = "Amount must have at most 2 decimal places")
     private BigDecimal amount;
 
     @NotBlank(message = "Payment method is required")
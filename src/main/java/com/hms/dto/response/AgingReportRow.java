@@ -0,0 +1,27 @@
+package com.hms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgingReportRow {
+
+    // Patient id or doctor specialization, depending on the grouping
+    private String key;
+    private String name;
+    private long invoiceCount;
+    // Aging date after asOf
+    private BigDecimal notYetDue;
+    private BigDecimal days0To30;
+    private BigDecimal days31To60;
+    private BigDecimal days61To90;
+    private BigDecimal over90Days;
+    private BigDecimal total;
+}
@@ -0,0 +1,27 @@
+package com.hms.dto.response;
+
+import com.hms.enums.AppointmentStatus;
+import com.hms.event.AppointmentChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentDeltaResponse {
+
+    private AppointmentChangedEvent.Type type;
+    private Long appointmentId;
+    private Long doctorId;
+    private Long patientId;
+    private LocalDateTime appointmentTime;
+    private LocalDateTime previousTime;
+    private Integer durationMinutes;
+    private AppointmentStatus status;
+    private AppointmentStatus previousStatus;
+}
@@ -0,0 +1,26 @@
+package com.hms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateCandidate {
+
+    private Long patientId;
+    private String firstName;
+    private String lastName;
+    private LocalDate dateOfBirth;
+    private String phone;
+    // 0 to 1; higher is more likely the same person
+    private double score;
+    // Which of NAME, DATE_OF_BIRTH and PHONE agree
+    private List<String> reasons;
+}
@@ -0,0 +1,40 @@
+package com.hms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateScanReport {
+
+    private long patientsScanned;
+    private long blocks;
+    // Blocks over the size limit, whose members were not compared with each other
+    private long oversizedBlocks;
+    private long pairsCompared;
+    private long duplicatePairs;
+    // Highest scores first; capped, duplicatePairs is the exact count
+    @Builder.Default
+    private List<Pair> pairs = new ArrayList<>();
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Pair {
+        private Long patientId;
+        private Long otherPatientId;
+        private double score;
+        private List<String> reasons;
+    }
+}
@@ -0,0 +1,40 @@
+package com.hms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerVerificationReport {
+
+    private long patientsChecked;
+    private long drifted;
+    private long repaired;
+    // Capped; drifted is the exact count
+    @Builder.Default
+    private List<Drift> drifts = new ArrayList<>();
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Drift {
+        private Long patientId;
+        private BigDecimal recordedOutstanding;
+        private BigDecimal actualOutstanding;
+        private BigDecimal recordedPaid;
+        private BigDecimal actualPaid;
+        private boolean repaired;
+    }
+}
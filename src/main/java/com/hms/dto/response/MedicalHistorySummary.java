@@ -0,0 +1,20 @@
+package com.hms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MedicalHistorySummary {
+
+    private Long id;
+    private String conditionName;
+    private LocalDate diagnosisDate;
+    private Boolean isChronic;
+}
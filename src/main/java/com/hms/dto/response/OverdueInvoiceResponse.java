@@ -0,0 +1,25 @@
+package com.hms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OverdueInvoiceResponse {
+
+    private Long id;
+    private String invoiceNumber;
+    private InvoiceResponse.PatientSummary patient;
+    private BigDecimal totalAmount;
+    private BigDecimal paidAmount;
+    private BigDecimal remainingBalance;
+    private LocalDate dueDate;
+    private long daysOverdue;
+}
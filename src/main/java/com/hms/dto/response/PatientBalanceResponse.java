@@ -0,0 +1,21 @@
+package com.hms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientBalanceResponse {
+
+    private Long patientId;
+    private BigDecimal outstandingBalance;
+    private BigDecimal totalPaid;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,36 @@
+package com.hms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientChartResponse {
+
+    // Sections are null when unavailable or not visible to the caller's role
+    private PatientResponse patient;
+    private CursorPage<MedicalHistorySummary> medicalHistory;
+    private List<AppointmentResponse> appointments;
+    private List<InvoiceResponse> invoices;
+    private PatientBalanceResponse balance;
+    @Builder.Default
+    private List<UnavailableSection> unavailableSections = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class UnavailableSection {
+
+        private String section;
+        // TIMED_OUT, FAILED or REJECTED (the chart pool was saturated)
+        private String reason;
+    }
+}
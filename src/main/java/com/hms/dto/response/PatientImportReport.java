@@ -0,0 +1,42 @@
+package com.hms.dto.response;
+
+import com.hms.enums.ImportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientImportReport {
+
+    private String importId;
+    private String fileName;
+    private String format;
+    private ImportStatus status;
+    private long totalBytes;
+    private long bytesRead;
+    private long linesRead;
+    private long imported;
+    // Rows whose email is already registered, or appeared earlier in the file
+    private long duplicates;
+    private long invalid;
+    private List<LineError> errors;
+    private String failure;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineError {
+        private long line;
+        private String error;
+    }
+}
@@ -30,4 +30,6 @@ public class PatientResponse {
     private String emergencyContactName;
     private LocalDateTime createdAt;
     private List<MedicalHistoryResponse> medicalHistory;
+    // Only set on registration, when existing patients look like the same person
+    private List<DuplicateCandidate> possibleDuplicates;
 }
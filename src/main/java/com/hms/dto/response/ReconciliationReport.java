@@ -0,0 +1,46 @@
+package com.hms.dto.response;
+
+import com.hms.enums.ImportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationReport {
+
+    private String importId;
+    private String fileName;
+    private String format;
+    private ImportStatus status;
+    private long totalBytes;
+    private long bytesRead;
+    private long linesRead;
+    private long applied;
+    private BigDecimal appliedAmount;
+    private long duplicates;
+    private long unmatched;
+    private long rejected;
+    private long invalid;
+    private List<LineError> errors;
+    private String failure;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineError {
+        private long line;
+        private String transactionId;
+        private String error;
+    }
+}
@@ -8,13 +8,28 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+        @Index(name = "idx_appointments_status_time", columnList = "status, appointment_time")
+})
+@NamedEntityGraph(name = Appointment.GRAPH_SUMMARY,
+        attributeNodes = {
+                @NamedAttributeNode(value = "patient", subgraph = "patient"),
+                @NamedAttributeNode(value = "doctor", subgraph = "doctor"),
+                @NamedAttributeNode("invoice")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "patient", attributeNodes = @NamedAttributeNode("user")),
+                @NamedSubgraph(name = "doctor", attributeNodes = @NamedAttributeNode("user"))
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Appointment {
 
+    // Everything AppointmentResponse needs, fetched in the listing query itself
+    public static final String GRAPH_SUMMARY = "Appointment.summary";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -59,6 +74,10 @@ public class Appointment {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Set when AppointmentSweeper finalised the appointment rather than a user
+    @Column(name = "swept_at")
+    private LocalDateTime sweptAt;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -1,10 +1,12 @@
 package com.hms.entity;
 
+import com.hms.domain.Money;
 import com.hms.enums.PaymentStatus;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -13,13 +15,23 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = {
+        @Index(name = "idx_invoices_status_due_date", columnList = "status, due_date")
+})
+@NamedEntityGraph(name = Invoice.GRAPH_SUMMARY,
+        attributeNodes = @NamedAttributeNode(value = "patient", subgraph = "patient"),
+        subgraphs = @NamedSubgraph(name = "patient", attributeNodes = @NamedAttributeNode("user")))
+// Only write changed columns, so editing an invoice never overwrites a concurrently applied payment
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Invoice {
 
+    // Invoice header plus the patient name, fetched in the listing query itself
+    public static final String GRAPH_SUMMARY = "Invoice.summary";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -74,9 +86,6 @@ public class Invoice {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
-        if (invoiceNumber == null) {
-            invoiceNumber = "INV-" + System.currentTimeMillis();
-        }
     }
 
     @PreUpdate
@@ -100,14 +109,22 @@ public class Invoice {
 
     // Recalculate total amount
     public void recalculateTotal() {
-        this.totalAmount = items.stream()
-                .map(item -> item.getAmount().multiply(BigDecimal.valueOf(item.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Summed in minor units: one short-lived BigDecimal per line instead of a product and a running sum
+        long total = 0;
+        for (InvoiceItem item : items) {
+            total = Math.addExact(total, item.lineTotalMinorUnits());
+        }
+        this.totalAmount = Money.ofMinor(total).toBigDecimal();
+    }
+
+    // Unpaid amount, for billing computations
+    public Money balance() {
+        return Money.of(totalAmount).minus(Money.of(paidAmount));
     }
 
     // Calculate remaining balance
     public BigDecimal getRemainingBalance() {
-        return totalAmount.subtract(paidAmount);
+        return balance().toBigDecimal();
     }
 
     // Update payment status based on paid amount
@@ -1,5 +1,6 @@
 package com.hms.entity;
 
+import com.hms.domain.Money;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -38,8 +39,16 @@ public class InvoiceItem {
     @Builder.Default
     private Integer quantity = 1;
 
+    public Money lineTotal() {
+        return Money.ofMinor(lineTotalMinorUnits());
+    }
+
+    long lineTotalMinorUnits() {
+        return Math.multiplyExact(Money.toMinorUnits(amount), quantity);
+    }
+
     // Get total for this line item
     public BigDecimal getLineTotal() {
-        return amount.multiply(BigDecimal.valueOf(quantity));
+        return lineTotal().toBigDecimal();
     }
 }
@@ -8,7 +8,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "medical_history")
+@Table(name = "medical_history", indexes = {
+        @Index(name = "idx_medical_history_patient_date", columnList = "patient_id, diagnosis_date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,33 @@
+package com.hms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A patient's running billing totals, adjusted in the same transaction as every invoice and payment change.
+ */
+@Entity
+@Table(name = "patient_accounts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PatientAccount {
+
+    @Id
+    @Column(name = "patient_id")
+    private Long patientId;
+
+    // Remaining balance of all invoices that are not cancelled
+    @Column(name = "outstanding_balance", nullable = false)
+    private BigDecimal outstandingBalance;
+
+    @Column(name = "total_paid", nullable = false)
+    private BigDecimal totalPaid;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
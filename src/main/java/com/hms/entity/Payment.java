@@ -10,7 +10,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_payment_date", columnList = "payment_date"),
+        // Unique, so a transaction id is applied once even across nodes; rows without one are not constrained
+        @Index(name = "uk_payments_transaction_id", columnList = "transaction_id", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
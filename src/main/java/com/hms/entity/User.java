@@ -24,6 +24,9 @@ import java.util.stream.Collectors;
 @Builder
 public class User implements UserDetails {
 
+    // Stored instead of a hash for accounts created without a password; no encoder output starts with '!'
+    public static final String UNUSABLE_PASSWORD = "!unusable";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -53,6 +56,11 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private Boolean enabled = true;
 
+    // Set for imported accounts; they must choose a password before they can sign in
+    @Builder.Default
+    @Column(name = "password_reset_required", nullable = false, columnDefinition = "boolean default false")
+    private Boolean passwordResetRequired = false;
+
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
     @Enumerated(EnumType.STRING)
@@ -102,7 +110,7 @@ public class User implements UserDetails {
 
     @Override
     public boolean isCredentialsNonExpired() {
-        return true;
+        return !Boolean.TRUE.equals(passwordResetRequired);
     }
 
     @Override
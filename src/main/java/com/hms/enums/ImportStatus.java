@@ -0,0 +1,8 @@
+package com.hms.enums;
+
+public enum ImportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,58 @@
+package com.hms.event;
+
+import com.hms.entity.Appointment;
+import com.hms.enums.AppointmentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by AppointmentService whenever an appointment is created or changed, and by AppointmentSweeper
+ * for the appointments it finalises. Listeners should use {@code @TransactionalEventListener} so they only
+ * observe committed changes.
+ */
+public record AppointmentChangedEvent(
+        Type type,
+        Long appointmentId,
+        Long doctorId,
+        Long patientId,
+        LocalDateTime previousTime,
+        LocalDateTime appointmentTime,
+        Integer durationMinutes,
+        AppointmentStatus previousStatus,
+        AppointmentStatus status,
+        Source source) {
+
+    public enum Type {
+        CREATED,
+        RESCHEDULED,
+        UPDATED,
+        STATUS_CHANGED,
+        CANCELLED
+    }
+
+    public enum Source {
+        // Changed through the API by staff or the patient
+        USER,
+        // Finalised by AppointmentSweeper long after the appointment ended, without anyone attending to it
+        SWEEPER
+    }
+
+    public static AppointmentChangedEvent of(Type type, Appointment appointment,
+                                             LocalDateTime previousTime, AppointmentStatus previousStatus) {
+        return new AppointmentChangedEvent(
+                type,
+                appointment.getId(),
+                appointment.getDoctor().getId(),
+                appointment.getPatient().getId(),
+                previousTime,
+                appointment.getAppointmentTime(),
+                appointment.getDurationMinutes(),
+                previousStatus,
+                appointment.getStatus(),
+                Source.USER);
+    }
+
+    public static AppointmentChangedEvent created(Appointment appointment) {
+        return of(Type.CREATED, appointment, null, null);
+    }
+}
@@ -0,0 +1,14 @@
+package com.hms.repository;
+
+import com.hms.entity.Appointment;
+
+import java.util.List;
+
+public interface AppointmentBatchRepository {
+
+    /**
+     * Inserts new appointments with JDBC batching, bypassing the persistence context, and assigns
+     * the generated ids back onto the given instances.
+     */
+    void insertAll(List<Appointment> appointments);
+}
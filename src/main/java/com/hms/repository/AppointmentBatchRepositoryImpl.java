@@ -0,0 +1,66 @@
+package com.hms.repository;
+
+import com.hms.entity.Appointment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class AppointmentBatchRepositoryImpl implements AppointmentBatchRepository {
+
+    // IDENTITY ids disable Hibernate's insert batching, so bulk inserts go through JDBC directly
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL = "INSERT INTO appointments " +
+            "(patient_id, doctor_id, appointment_time, status, reason, notes, duration_minutes, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<Appointment> appointments) {
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < appointments.size(); from += BATCH_SIZE) {
+            List<Appointment> chunk = appointments.subList(from, Math.min(from + BATCH_SIZE, appointments.size()));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Appointment appointment = chunk.get(i);
+                            appointment.setCreatedAt(now);
+                            appointment.setUpdatedAt(now);
+                            ps.setLong(1, appointment.getPatient().getId());
+                            ps.setLong(2, appointment.getDoctor().getId());
+                            ps.setTimestamp(3, Timestamp.valueOf(appointment.getAppointmentTime()));
+                            ps.setString(4, appointment.getStatus().name());
+                            ps.setString(5, appointment.getReason());
+                            ps.setString(6, appointment.getNotes());
+                            ps.setInt(7, appointment.getDurationMinutes());
+                            ps.setTimestamp(8, Timestamp.valueOf(now));
+                            ps.setTimestamp(9, Timestamp.valueOf(now));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    }, keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < chunk.size(); i++) {
+                chunk.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            }
+        }
+    }
+}
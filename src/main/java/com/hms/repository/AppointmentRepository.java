@@ -2,46 +2,180 @@ package com.hms.repository;
 
 import com.hms.entity.Appointment;
 import com.hms.enums.AppointmentStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>, AppointmentBatchRepository {
 
+    @Override
+    @EntityGraph(Appointment.GRAPH_SUMMARY)
+    List<Appointment> findAll();
+
+    @EntityGraph(Appointment.GRAPH_SUMMARY)
     List<Appointment> findByPatientId(Long patientId);
 
+    @EntityGraph(Appointment.GRAPH_SUMMARY)
     List<Appointment> findByDoctorId(Long doctorId);
 
+    @EntityGraph(Appointment.GRAPH_SUMMARY)
     List<Appointment> findByStatus(AppointmentStatus status);
 
     List<Appointment> findByPatientIdAndStatus(Long patientId, AppointmentStatus status);
 
     List<Appointment> findByDoctorIdAndStatus(Long doctorId, AppointmentStatus status);
 
+    @EntityGraph(Appointment.GRAPH_SUMMARY)
     @Query("SELECT a FROM Appointment a WHERE a.doctor.id = :doctorId AND a.appointmentTime BETWEEN :start AND :end")
     List<Appointment> findByDoctorIdAndDateRange(
             @Param("doctorId") Long doctorId,
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end);
 
+    @EntityGraph(Appointment.GRAPH_SUMMARY)
     @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId AND a.appointmentTime BETWEEN :start AND :end")
     List<Appointment> findByPatientIdAndDateRange(
             @Param("patientId") Long patientId,
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end);
 
+    @EntityGraph(Appointment.GRAPH_SUMMARY)
     @Query("SELECT a FROM Appointment a WHERE a.appointmentTime BETWEEN :start AND :end")
     List<Appointment> findByDateRange(
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end);
 
-    @Query("SELECT COUNT(a) > 0 FROM Appointment a WHERE a.doctor.id = :doctorId AND a.appointmentTime = :time AND a.status NOT IN ('CANCELLED', 'COMPLETED')")
-    boolean existsConflictingAppointment(
+    // Keyset-paginated variants; position/sort must be on (appointmentTime, id)
+    @EntityGraph(Appointment.GRAPH_SUMMARY)
+    Window<Appointment> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(Appointment.GRAPH_SUMMARY)
+    Window<Appointment> findByPatientId(Long patientId, ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(Appointment.GRAPH_SUMMARY)
+    Window<Appointment> findByDoctorId(Long doctorId, ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(Appointment.GRAPH_SUMMARY)
+    Window<Appointment> findByStatus(AppointmentStatus status, ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(Appointment.GRAPH_SUMMARY)
+    Window<Appointment> findByAppointmentTimeBetween(
+            LocalDateTime start, LocalDateTime end, ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(Appointment.GRAPH_SUMMARY)
+    Window<Appointment> findByDoctorIdAndAppointmentTimeBetween(
+            Long doctorId, LocalDateTime start, LocalDateTime end, ScrollPosition position, Sort sort, Limit limit);
+
+    @Query("SELECT COUNT(a) > 0 FROM Appointment a WHERE a.doctor.id = :doctorId " +
+            "AND a.status NOT IN ('CANCELLED', 'COMPLETED') " +
+            "AND a.appointmentTime < :end AND a.appointmentTime + (a.durationMinutes) minute > :start " +
+            "AND (:excludeId IS NULL OR a.id <> :excludeId)")
+    boolean existsOverlappingAppointment(
             @Param("doctorId") Long doctorId,
-            @Param("time") LocalDateTime time);
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("excludeId") Long excludeId);
+
+    @Query("SELECT a.id AS id, a.doctor.id AS doctorId, a.appointmentTime AS appointmentTime, " +
+            "a.durationMinutes AS durationMinutes " +
+            "FROM Appointment a WHERE a.doctor.id = :doctorId AND a.appointmentTime >= :start AND a.appointmentTime < :end " +
+            "AND a.status NOT IN ('CANCELLED', 'COMPLETED')")
+    List<TimeSlot> findActiveIntervals(
+            @Param("doctorId") Long doctorId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
+
+    @Query("SELECT a.id AS id, a.doctor.id AS doctorId, a.appointmentTime AS appointmentTime, " +
+            "a.durationMinutes AS durationMinutes " +
+            "FROM Appointment a WHERE a.doctor.id IN :doctorIds AND a.appointmentTime >= :start AND a.appointmentTime < :end " +
+            "AND a.status NOT IN ('CANCELLED', 'COMPLETED')")
+    List<TimeSlot> findActiveIntervalsForDoctors(
+            @Param("doctorIds") Collection<Long> doctorIds,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
+
+    @Query("SELECT a.id AS id, a.doctor.id AS doctorId, a.patient.id AS patientId, " +
+            "a.appointmentTime AS appointmentTime, a.durationMinutes AS durationMinutes, a.status AS status " +
+            "FROM Appointment a WHERE a.appointmentTime >= :start AND a.appointmentTime < :end " +
+            "AND a.status IN ('PENDING', 'CONFIRMED')")
+    List<ScheduledSlot> findActiveStartingBetween(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
+
+    // Appointments in the given status that ended before the cutoff, oldest id first
+    @Query("SELECT a.id AS id, a.doctor.id AS doctorId, a.patient.id AS patientId, " +
+            "a.appointmentTime AS appointmentTime, a.durationMinutes AS durationMinutes, a.status AS status " +
+            "FROM Appointment a WHERE a.status = :status AND a.appointmentTime < :cutoff " +
+            "AND a.appointmentTime + (a.durationMinutes) minute < :cutoff ORDER BY a.id")
+    List<ScheduledSlot> findEndedBefore(
+            @Param("status") AppointmentStatus status,
+            @Param("cutoff") LocalDateTime cutoff,
+            Limit limit);
+
+    // Used by the sweeper only, so it also stamps sweptAt
+    @Modifying
+    @Query("UPDATE Appointment a SET a.status = :to, a.updatedAt = :updatedAt, a.sweptAt = :updatedAt " +
+            "WHERE a.id IN :ids AND a.status = :from")
+    int updateStatusWhereCurrent(
+            @Param("ids") Collection<Long> ids,
+            @Param("from") AppointmentStatus from,
+            @Param("to") AppointmentStatus to,
+            @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query("SELECT a.id FROM Appointment a WHERE a.id IN :ids AND a.status = :status")
+    List<Long> findIdsByIdInAndStatus(
+            @Param("ids") Collection<Long> ids,
+            @Param("status") AppointmentStatus status);
+
+    // Completed appointments that still have no invoice, with what their invoice is built from
+    @Query("SELECT a.id AS id, a.patient.id AS patientId, d.specialization AS specialization, " +
+            "d.consultationFee AS consultationFee FROM Appointment a JOIN a.doctor d " +
+            "WHERE a.id IN :ids AND a.status = com.hms.enums.AppointmentStatus.COMPLETED " +
+            "AND NOT EXISTS (SELECT 1 FROM Invoice i WHERE i.appointment.id = a.id) ORDER BY a.id")
+    List<BillableAppointment> findBillable(@Param("ids") Collection<Long> ids);
+
+    // Sweeper completions are not billed automatically, so they are not caught up either
+    @Query("SELECT a.id FROM Appointment a WHERE a.status = com.hms.enums.AppointmentStatus.COMPLETED " +
+            "AND a.sweptAt IS NULL AND a.updatedAt >= :since AND NOT EXISTS (SELECT 1 FROM Invoice i WHERE i.appointment.id = a.id) " +
+            "ORDER BY a.id")
+    List<Long> findUninvoicedCompletedSince(@Param("since") LocalDateTime since, Limit limit);
+
+    interface BillableAppointment {
+        Long getId();
+
+        Long getPatientId();
+
+        String getSpecialization();
+
+        BigDecimal getConsultationFee();
+    }
+
+    interface TimeSlot {
+        Long getId();
+
+        Long getDoctorId();
+
+        LocalDateTime getAppointmentTime();
+
+        Integer getDurationMinutes();
+    }
+
+    interface ScheduledSlot extends TimeSlot {
+        Long getPatientId();
+
+        AppointmentStatus getStatus();
+    }
 }
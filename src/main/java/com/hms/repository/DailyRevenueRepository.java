@@ -0,0 +1,77 @@
+package com.hms.repository;
+
+import com.hms.entity.DailyRevenue;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DailyRevenueRepository extends JpaRepository<DailyRevenue, DailyRevenue.Key> {
+
+    @Modifying
+    @Query(value = "UPDATE daily_revenue SET total_amount = total_amount + :amount, " +
+            "payment_count = payment_count + :count, updated_at = :now " +
+            "WHERE revenue_date = :day AND payment_method = :paymentMethod", nativeQuery = true)
+    int increment(
+            @Param("day") LocalDate day,
+            @Param("paymentMethod") String paymentMethod,
+            @Param("amount") BigDecimal amount,
+            @Param("count") long count,
+            @Param("now") LocalDateTime now);
+
+    // Returns 0 when the row already exists, including one inserted by a concurrent transaction
+    @Modifying
+    @Query(value = "INSERT INTO daily_revenue (revenue_date, payment_method, total_amount, payment_count, updated_at) " +
+            "VALUES (:day, :paymentMethod, :amount, :count, :now) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(
+            @Param("day") LocalDate day,
+            @Param("paymentMethod") String paymentMethod,
+            @Param("amount") BigDecimal amount,
+            @Param("count") long count,
+            @Param("now") LocalDateTime now);
+
+    // Rebuild, in order: add a row for every day and method with payments, lock all rows, mark them as pending
+    // (payment_count -1), set the marked rows from payments and drop the ones with none. A payment's transaction
+    // increments its row before committing, so once a row is locked every payment counted in it is visible.
+
+    @Modifying
+    @Query(value = "INSERT INTO daily_revenue (revenue_date, payment_method, total_amount, payment_count, updated_at) " +
+            "SELECT DISTINCT CAST(p.payment_date AS DATE), p.payment_method, 0, -1, :now FROM payments p " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertPendingFromPayments(@Param("now") LocalDateTime now);
+
+    // Same order as DailyRevenueRollup.recordAll takes row locks in
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM DailyRevenue r ORDER BY r.revenueDate, r.paymentMethod")
+    List<DailyRevenue> lockAll();
+
+    @Modifying
+    @Query(value = "UPDATE daily_revenue SET total_amount = 0, payment_count = -1, updated_at = :now", nativeQuery = true)
+    int markAllPending(@Param("now") LocalDateTime now);
+
+    // Rows created after markAllPending are not pending; their own payments keep them correct
+    @Modifying
+    @Query(value = "UPDATE daily_revenue r SET total_amount = t.total_amount, payment_count = t.payment_count " +
+            "FROM (SELECT CAST(p.payment_date AS DATE) AS revenue_date, p.payment_method, " +
+            "SUM(p.amount) AS total_amount, COUNT(*) AS payment_count " +
+            "FROM payments p GROUP BY CAST(p.payment_date AS DATE), p.payment_method) t " +
+            "WHERE r.revenue_date = t.revenue_date AND r.payment_method = t.payment_method AND r.payment_count = -1",
+            nativeQuery = true)
+    int updatePendingFromPayments();
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM daily_revenue WHERE payment_count = -1", nativeQuery = true)
+    int deletePending();
+
+    @Query("SELECT COALESCE(SUM(r.totalAmount), 0) FROM DailyRevenue r WHERE r.revenueDate BETWEEN :from AND :to")
+    BigDecimal sumBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -5,6 +5,7 @@ import com.hms.enums.DayOfWeek;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,5 +17,7 @@ public interface DoctorAvailabilityRepository extends JpaRepository<DoctorAvaila
 
     List<DoctorAvailability> findByDoctorIdAndIsAvailable(Long doctorId, Boolean isAvailable);
 
+    List<DoctorAvailability> findByDoctorIdInAndIsAvailableTrue(Collection<Long> doctorIds);
+
     void deleteByDoctorId(Long doctorId);
 }
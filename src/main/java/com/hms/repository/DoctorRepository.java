@@ -1,11 +1,13 @@
 package com.hms.repository;
 
 import com.hms.entity.Doctor;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,9 +24,34 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
 
     List<Doctor> findByIsAvailable(Boolean isAvailable);
 
-    @Query("SELECT d FROM Doctor d WHERE LOWER(d.user.firstName) LIKE LOWER(CONCAT('%', :name, '%')) OR LOWER(d.user.lastName) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<Doctor> searchByName(@Param("name") String name);
+    // Rows for the in-memory name search index
+    @Query("SELECT d.id AS id, u.firstName AS firstName, u.lastName AS lastName, u.phone AS phone, u.email AS email " +
+            "FROM Doctor d JOIN d.user u")
+    List<SearchEntry> findSearchEntries();
+
+    // Fetch graph for the same reason as findBookableDoctors
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT d FROM Doctor d WHERE d.id IN :ids")
+    List<Doctor> findAllWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    // A fetch graph rather than JOIN FETCH: it also keeps the user's EAGER roles from loading one query per doctor
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT d FROM Doctor d WHERE d.isAvailable = true " +
+            "AND (:specialization IS NULL OR d.specialization = :specialization)")
+    List<Doctor> findBookableDoctors(@Param("specialization") String specialization);
 
     @Query("SELECT DISTINCT d.specialization FROM Doctor d")
     List<String> findAllSpecializations();
+
+    interface SearchEntry {
+        Long getId();
+
+        String getFirstName();
+
+        String getLastName();
+
+        String getPhone();
+
+        String getEmail();
+    }
 }
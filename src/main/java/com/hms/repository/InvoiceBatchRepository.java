@@ -0,0 +1,14 @@
+package com.hms.repository;
+
+import com.hms.entity.Invoice;
+
+import java.util.List;
+
+public interface InvoiceBatchRepository {
+
+    /**
+     * Inserts new invoices and their items as JDBC batches, one statement per table, and sets the
+     * generated invoice ids. Entity callbacks and the persistence context are bypassed.
+     */
+    void insertAll(List<Invoice> invoices);
+}
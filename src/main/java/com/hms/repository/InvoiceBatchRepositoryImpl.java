@@ -0,0 +1,87 @@
+package com.hms.repository;
+
+import com.hms.entity.Invoice;
+import com.hms.entity.InvoiceItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class InvoiceBatchRepositoryImpl implements InvoiceBatchRepository {
+
+    private static final String INSERT_INVOICE_SQL = "INSERT INTO invoices " +
+            "(invoice_number, appointment_id, patient_id, total_amount, paid_amount, status, due_date, notes, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ITEM_SQL = "INSERT INTO invoice_items (invoice_id, description, amount, quantity) " +
+            "VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<Invoice> invoices) {
+        if (invoices.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_INVOICE_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Invoice invoice = invoices.get(i);
+                        ps.setString(1, invoice.getInvoiceNumber());
+                        if (invoice.getAppointment() != null) {
+                            ps.setLong(2, invoice.getAppointment().getId());
+                        } else {
+                            ps.setNull(2, Types.BIGINT);
+                        }
+                        ps.setLong(3, invoice.getPatient().getId());
+                        ps.setBigDecimal(4, invoice.getTotalAmount());
+                        ps.setBigDecimal(5, invoice.getPaidAmount());
+                        ps.setString(6, invoice.getStatus().name());
+                        ps.setDate(7, invoice.getDueDate() != null ? Date.valueOf(invoice.getDueDate()) : null);
+                        ps.setString(8, invoice.getNotes());
+                        ps.setTimestamp(9, now);
+                        ps.setTimestamp(10, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return invoices.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        if (generated.size() != invoices.size()) {
+            throw new IllegalStateException("JDBC driver returned " + generated.size() + " keys for " + invoices.size() + " invoices");
+        }
+        for (int i = 0; i < invoices.size(); i++) {
+            // Key column name case differs between drivers
+            invoices.get(i).setId(((Number) generated.get(i).values().iterator().next()).longValue());
+            invoices.get(i).setCreatedAt(now.toLocalDateTime());
+            invoices.get(i).setUpdatedAt(now.toLocalDateTime());
+        }
+
+        List<InvoiceItem> items = invoices.stream().flatMap(invoice -> invoice.getItems().stream()).toList();
+        if (items.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, items, items.size(), (ps, item) -> {
+            ps.setLong(1, item.getInvoice().getId());
+            ps.setString(2, item.getDescription());
+            ps.setBigDecimal(3, item.getAmount());
+            ps.setInt(4, item.getQuantity());
+        });
+    }
+}
@@ -1,18 +1,32 @@
 package com.hms.repository;
 
 import com.hms.entity.Invoice;
+import com.hms.entity.InvoiceItem;
+import com.hms.entity.Payment;
 import com.hms.enums.PaymentStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
+public interface InvoiceRepository extends JpaRepository<Invoice, Long>, InvoiceBatchRepository {
 
     Optional<Invoice> findByInvoiceNumber(String invoiceNumber);
 
@@ -24,9 +38,179 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
 
     Optional<Invoice> findByAppointmentId(Long appointmentId);
 
-    @Query("SELECT i FROM Invoice i WHERE i.dueDate < :date AND i.status NOT IN ('PAID', 'CANCELLED')")
-    List<Invoice> findOverdueInvoices(@Param("date") LocalDate date);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Invoice i WHERE i.id = :id")
+    Optional<Invoice> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT i.id AS id, i.invoiceNumber AS invoiceNumber, i.patient.id AS patientId, i.status AS status, " +
+            "i.totalAmount AS totalAmount, i.paidAmount AS paidAmount " +
+            "FROM Invoice i WHERE i.invoiceNumber IN :invoiceNumbers")
+    List<InvoiceBalance> findBalancesByInvoiceNumbers(@Param("invoiceNumbers") Collection<String> invoiceNumbers);
+
+    // Invoice read model: headers with patient and user in one query; items and payments in one IN query each
+    @EntityGraph(Invoice.GRAPH_SUMMARY)
+    @Query("SELECT i FROM Invoice i ORDER BY i.id")
+    List<Invoice> findAllHeaders();
+
+    @EntityGraph(Invoice.GRAPH_SUMMARY)
+    @Query("SELECT i FROM Invoice i WHERE i.patient.id = :patientId ORDER BY i.id")
+    List<Invoice> findHeadersByPatientId(@Param("patientId") Long patientId);
+
+    @EntityGraph(Invoice.GRAPH_SUMMARY)
+    @Query("SELECT i FROM Invoice i WHERE i.status = :status ORDER BY i.id")
+    List<Invoice> findHeadersByStatus(@Param("status") PaymentStatus status);
+
+    @Query("SELECT it FROM InvoiceItem it WHERE it.invoice.id IN :invoiceIds ORDER BY it.id")
+    List<InvoiceItem> findItemsByInvoiceIds(@Param("invoiceIds") Collection<Long> invoiceIds);
+
+    @Query("SELECT p FROM Payment p WHERE p.invoice.id IN :invoiceIds ORDER BY p.paymentDate, p.id")
+    List<Payment> findPaymentsByInvoiceIds(@Param("invoiceIds") Collection<Long> invoiceIds);
+
+    @Query("SELECT i.id FROM Invoice i WHERE i.status IN :statuses AND i.dueDate < :today")
+    List<Long> findIdsDueBefore(
+            @Param("statuses") Collection<PaymentStatus> statuses,
+            @Param("today") LocalDate today,
+            Limit limit);
+
+    // Re-checks status and due date so rows paid or rescheduled since the select are left alone
+    @Modifying
+    @Query("UPDATE Invoice i SET i.status = com.hms.enums.PaymentStatus.OVERDUE, i.updatedAt = :now " +
+            "WHERE i.id IN :ids AND i.status IN :statuses AND i.dueDate < :today")
+    int markOverdue(
+            @Param("ids") List<Long> ids,
+            @Param("statuses") Collection<PaymentStatus> statuses,
+            @Param("today") LocalDate today,
+            @Param("now") LocalDateTime now);
+
+    @Query("SELECT i.id AS id, i.invoiceNumber AS invoiceNumber, p.id AS patientId, " +
+            "u.firstName AS patientFirstName, u.lastName AS patientLastName, " +
+            "i.totalAmount AS totalAmount, COALESCE(i.paidAmount, 0) AS paidAmount, i.dueDate AS dueDate " +
+            "FROM Invoice i JOIN i.patient p JOIN p.user u " +
+            "WHERE i.status = com.hms.enums.PaymentStatus.OVERDUE ORDER BY i.dueDate, i.id")
+    List<OverdueInvoice> findOverdueSummaries();
+
+    // Receivables aging: invoices are aged by due date, or by invoice date when they have none; those dated after
+    // asOf are not yet due and are kept out of the age buckets
+    String AGING_DATE = "COALESCE(i.dueDate, CAST(i.createdAt AS LocalDate))";
+    String AGING_BALANCE = "i.totalAmount - COALESCE(i.paidAmount, 0)";
+    String AGING_COLUMNS = "COUNT(i) AS invoiceCount, " +
+            "SUM(CASE WHEN " + AGING_DATE + " > :asOf THEN " + AGING_BALANCE + " ELSE 0 END) AS notYetDue, " +
+            "SUM(CASE WHEN " + AGING_DATE + " <= :asOf AND " + AGING_DATE + " >= :cutoff30 THEN " + AGING_BALANCE + " ELSE 0 END) AS days0To30, " +
+            "SUM(CASE WHEN " + AGING_DATE + " < :cutoff30 AND " + AGING_DATE + " >= :cutoff60 THEN " + AGING_BALANCE + " ELSE 0 END) AS days31To60, " +
+            "SUM(CASE WHEN " + AGING_DATE + " < :cutoff60 AND " + AGING_DATE + " >= :cutoff90 THEN " + AGING_BALANCE + " ELSE 0 END) AS days61To90, " +
+            "SUM(CASE WHEN " + AGING_DATE + " < :cutoff90 THEN " + AGING_BALANCE + " ELSE 0 END) AS over90Days";
+    // Split so the due_date range can use idx_invoices_status_due_date
+    String AGING_RANGE = "i.status IN :statuses AND ((i.dueDate >= :from AND i.dueDate < :to) " +
+            "OR (i.dueDate IS NULL AND i.createdAt >= :fromTime AND i.createdAt < :toTime))";
+
+    @Query("SELECT MIN(" + AGING_DATE + ") AS first, MAX(" + AGING_DATE + ") AS last " +
+            "FROM Invoice i WHERE i.status IN :statuses")
+    AgingSpan findAgingSpan(@Param("statuses") Collection<PaymentStatus> statuses);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT CAST(p.id AS String) AS groupKey, CONCAT(u.firstName, ' ', u.lastName) AS groupName, " + AGING_COLUMNS +
+            " FROM Invoice i JOIN i.patient p JOIN p.user u WHERE " + AGING_RANGE +
+            " GROUP BY p.id, u.firstName, u.lastName ORDER BY p.id")
+    Stream<AgingTotals> streamAgingByPatient(
+            @Param("statuses") Collection<PaymentStatus> statuses,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("fromTime") LocalDateTime fromTime,
+            @Param("toTime") LocalDateTime toTime,
+            @Param("asOf") LocalDate asOf,
+            @Param("cutoff30") LocalDate cutoff30,
+            @Param("cutoff60") LocalDate cutoff60,
+            @Param("cutoff90") LocalDate cutoff90);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT COALESCE(d.specialization, 'Unassigned') AS groupKey, COALESCE(d.specialization, 'Unassigned') AS groupName, " +
+            AGING_COLUMNS + " FROM Invoice i LEFT JOIN i.appointment a LEFT JOIN a.doctor d WHERE " + AGING_RANGE +
+            " GROUP BY d.specialization ORDER BY COALESCE(d.specialization, 'Unassigned')")
+    Stream<AgingTotals> streamAgingBySpecialization(
+            @Param("statuses") Collection<PaymentStatus> statuses,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("fromTime") LocalDateTime fromTime,
+            @Param("toTime") LocalDateTime toTime,
+            @Param("asOf") LocalDate asOf,
+            @Param("cutoff30") LocalDate cutoff30,
+            @Param("cutoff60") LocalDate cutoff60,
+            @Param("cutoff90") LocalDate cutoff90);
 
     @Query("SELECT SUM(i.totalAmount) FROM Invoice i WHERE i.patient.id = :patientId AND i.status = 'PAID'")
     java.math.BigDecimal getTotalPaidByPatient(@Param("patientId") Long patientId);
+
+    // Applies a payment atomically: the balance check, the increment and the new status are one statement
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Invoice i SET i.paidAmount = COALESCE(i.paidAmount, 0) + :amount, " +
+            "i.status = CASE WHEN COALESCE(i.paidAmount, 0) + :amount >= i.totalAmount " +
+            "THEN com.hms.enums.PaymentStatus.PAID " +
+            "WHEN i.status = com.hms.enums.PaymentStatus.OVERDUE THEN com.hms.enums.PaymentStatus.OVERDUE " +
+            "ELSE com.hms.enums.PaymentStatus.PARTIALLY_PAID END, " +
+            "i.updatedAt = :now " +
+            "WHERE i.id = :id AND i.status NOT IN ('PAID', 'CANCELLED') " +
+            "AND COALESCE(i.paidAmount, 0) + :amount <= i.totalAmount")
+    int applyPayment(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+
+    // Skips invoices already cancelled too, so a cancellation is only ever counted once
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Invoice i SET i.status = com.hms.enums.PaymentStatus.CANCELLED, i.updatedAt = :now " +
+            "WHERE i.id = :id AND i.status NOT IN ('PAID', 'CANCELLED')")
+    int cancelIfOpen(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    interface OverdueInvoice {
+        Long getId();
+
+        String getInvoiceNumber();
+
+        Long getPatientId();
+
+        String getPatientFirstName();
+
+        String getPatientLastName();
+
+        BigDecimal getTotalAmount();
+
+        BigDecimal getPaidAmount();
+
+        LocalDate getDueDate();
+    }
+
+    interface AgingSpan {
+        LocalDate getFirst();
+
+        LocalDate getLast();
+    }
+
+    interface AgingTotals {
+        String getGroupKey();
+
+        String getGroupName();
+
+        Long getInvoiceCount();
+
+        BigDecimal getNotYetDue();
+
+        BigDecimal getDays0To30();
+
+        BigDecimal getDays31To60();
+
+        BigDecimal getDays61To90();
+
+        BigDecimal getOver90Days();
+    }
+
+    interface InvoiceBalance {
+        Long getId();
+
+        String getInvoiceNumber();
+
+        Long getPatientId();
+
+        PaymentStatus getStatus();
+
+        BigDecimal getTotalAmount();
+
+        BigDecimal getPaidAmount();
+    }
 }
@@ -1,10 +1,15 @@
 package com.hms.repository;
 
 import com.hms.entity.MedicalHistory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MedicalHistoryRepository extends JpaRepository<MedicalHistory, Long> {
@@ -16,4 +21,35 @@ public interface MedicalHistoryRepository extends JpaRepository<MedicalHistory,
     List<MedicalHistory> findByIsChronic(Boolean isChronic);
 
     List<MedicalHistory> findByPatientIdAndIsChronic(Long patientId, Boolean isChronic);
+
+    Optional<MedicalHistory> findByIdAndPatientId(Long id, Long patientId);
+
+    // Timeline pages, newest first with undated entries last; the TEXT columns are not read
+    @Query("SELECT h.id AS id, h.conditionName AS conditionName, h.diagnosisDate AS diagnosisDate, " +
+            "h.isChronic AS isChronic FROM MedicalHistory h WHERE h.patient.id = :patientId " +
+            "ORDER BY h.diagnosisDate DESC NULLS LAST, h.id DESC")
+    List<TimelineEntry> findTimeline(@Param("patientId") Long patientId, Limit limit);
+
+    @Query("SELECT h.id AS id, h.conditionName AS conditionName, h.diagnosisDate AS diagnosisDate, " +
+            "h.isChronic AS isChronic FROM MedicalHistory h WHERE h.patient.id = :patientId " +
+            "AND (h.diagnosisDate < :date OR (h.diagnosisDate = :date AND h.id < :id) OR h.diagnosisDate IS NULL) " +
+            "ORDER BY h.diagnosisDate DESC NULLS LAST, h.id DESC")
+    List<TimelineEntry> findTimelineAfter(@Param("patientId") Long patientId, @Param("date") LocalDate date,
+                                          @Param("id") Long id, Limit limit);
+
+    @Query("SELECT h.id AS id, h.conditionName AS conditionName, h.diagnosisDate AS diagnosisDate, " +
+            "h.isChronic AS isChronic FROM MedicalHistory h WHERE h.patient.id = :patientId " +
+            "AND h.diagnosisDate IS NULL AND h.id < :id ORDER BY h.id DESC")
+    List<TimelineEntry> findUndatedTimelineAfter(@Param("patientId") Long patientId, @Param("id") Long id,
+                                                 Limit limit);
+
+    interface TimelineEntry {
+        Long getId();
+
+        String getConditionName();
+
+        LocalDate getDiagnosisDate();
+
+        Boolean getIsChronic();
+    }
 }
@@ -0,0 +1,98 @@
+package com.hms.repository;
+
+import com.hms.entity.PatientAccount;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PatientAccountRepository extends JpaRepository<PatientAccount, Long> {
+
+    @Modifying
+    @Query(value = "UPDATE patient_accounts SET outstanding_balance = outstanding_balance + :outstanding, " +
+            "total_paid = total_paid + :paid, updated_at = :now WHERE patient_id = :patientId", nativeQuery = true)
+    int adjust(
+            @Param("patientId") Long patientId,
+            @Param("outstanding") BigDecimal outstanding,
+            @Param("paid") BigDecimal paid,
+            @Param("now") LocalDateTime now);
+
+    // Returns 0 when the row already exists, including one inserted by a concurrent transaction
+    @Modifying
+    @Query(value = "INSERT INTO patient_accounts (patient_id, outstanding_balance, total_paid, updated_at) " +
+            "VALUES (:patientId, :outstanding, :paid, :now) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(
+            @Param("patientId") Long patientId,
+            @Param("outstanding") BigDecimal outstanding,
+            @Param("paid") BigDecimal paid,
+            @Param("now") LocalDateTime now);
+
+    // First account row for a patient, seeded from all of their invoices and payments, including the caller's own
+    // uncommitted change; returns 0 when the row already exists
+    @Modifying
+    @Query(value = "INSERT INTO patient_accounts (patient_id, outstanding_balance, total_paid, updated_at) " +
+            "SELECT :patientId, " +
+            "COALESCE((SELECT SUM(i.total_amount - COALESCE(i.paid_amount, 0)) FROM invoices i " +
+            "WHERE i.patient_id = :patientId AND i.status <> 'CANCELLED'), 0), " +
+            "COALESCE((SELECT SUM(p.amount) FROM payments p JOIN invoices i ON i.id = p.invoice_id " +
+            "WHERE i.patient_id = :patientId), 0), :now " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertFromInvoices(@Param("patientId") Long patientId, @Param("now") LocalDateTime now);
+
+    // Account rows for every invoiced patient that has none, e.g. invoices from before the ledger existed
+    @Modifying
+    @Query(value = "INSERT INTO patient_accounts (patient_id, outstanding_balance, total_paid, updated_at) " +
+            "SELECT o.patient_id, o.outstanding, COALESCE(pd.paid, 0), :now FROM " +
+            "(SELECT i.patient_id, SUM(CASE WHEN i.status <> 'CANCELLED' " +
+            "THEN i.total_amount - COALESCE(i.paid_amount, 0) ELSE 0 END) AS outstanding FROM invoices i " +
+            "WHERE NOT EXISTS (SELECT 1 FROM patient_accounts a WHERE a.patient_id = i.patient_id) " +
+            "GROUP BY i.patient_id) o " +
+            "LEFT JOIN (SELECT i.patient_id, SUM(p.amount) AS paid FROM payments p JOIN invoices i ON i.id = p.invoice_id " +
+            "GROUP BY i.patient_id) pd ON pd.patient_id = o.patient_id " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertMissingFromInvoices(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE PatientAccount a SET a.outstandingBalance = :outstanding, a.totalPaid = :paid, a.updatedAt = :now " +
+            "WHERE a.patientId = :patientId")
+    int overwrite(
+            @Param("patientId") Long patientId,
+            @Param("outstanding") BigDecimal outstanding,
+            @Param("paid") BigDecimal paid,
+            @Param("now") LocalDateTime now);
+
+    // Writers adjust the account last in their transaction, so holding this lock means no invoice change is in flight
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM PatientAccount a WHERE a.patientId = :patientId")
+    Optional<PatientAccount> lockByPatientId(@Param("patientId") Long patientId);
+
+    // Verification: the same totals recomputed from invoices and payments, a chunk of patients at a time
+    @Query("SELECT p.id FROM Patient p WHERE p.id > :after ORDER BY p.id")
+    List<Long> findPatientIdsAfter(@Param("after") Long after, Limit limit);
+
+    @Query("SELECT i.patient.id AS patientId, SUM(i.totalAmount - COALESCE(i.paidAmount, 0)) AS amount " +
+            "FROM Invoice i WHERE i.patient.id IN :patientIds AND i.status <> com.hms.enums.PaymentStatus.CANCELLED " +
+            "GROUP BY i.patient.id")
+    List<PatientTotal> sumOutstandingByPatient(@Param("patientIds") Collection<Long> patientIds);
+
+    @Query("SELECT i.patient.id AS patientId, SUM(p.amount) AS amount " +
+            "FROM Payment p JOIN p.invoice i WHERE i.patient.id IN :patientIds GROUP BY i.patient.id")
+    List<PatientTotal> sumPaidByPatient(@Param("patientIds") Collection<Long> patientIds);
+
+    interface PatientTotal {
+        Long getPatientId();
+
+        BigDecimal getAmount();
+    }
+}
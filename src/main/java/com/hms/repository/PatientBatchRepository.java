@@ -0,0 +1,14 @@
+package com.hms.repository;
+
+import com.hms.entity.Patient;
+
+import java.util.List;
+
+public interface PatientBatchRepository {
+
+    /**
+     * Inserts new patients with their users and user roles as JDBC batches, one statement per table, and
+     * sets the generated user and patient ids. Entity callbacks and the persistence context are bypassed.
+     */
+    void insertAll(List<Patient> patients);
+}
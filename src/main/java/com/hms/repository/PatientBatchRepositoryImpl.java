@@ -0,0 +1,111 @@
+package com.hms.repository;
+
+import com.hms.entity.Patient;
+import com.hms.entity.User;
+import com.hms.enums.Role;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class PatientBatchRepositoryImpl implements PatientBatchRepository {
+
+    private static final String INSERT_USER_SQL = "INSERT INTO users " +
+            "(email, password, first_name, last_name, phone, enabled, password_reset_required, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ROLE_SQL = "INSERT INTO user_roles (user_id, role) VALUES (?, ?)";
+
+    private static final String INSERT_PATIENT_SQL = "INSERT INTO patients " +
+            "(user_id, date_of_birth, gender, blood_group, address, emergency_contact, emergency_contact_name, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<Patient> patients) {
+        if (patients.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<User> users = patients.stream().map(Patient::getUser).toList();
+        List<Long> userIds = insert(INSERT_USER_SQL, users.size(), (ps, i) -> {
+            User user = users.get(i);
+            ps.setString(1, user.getEmail());
+            ps.setString(2, user.getPassword());
+            ps.setString(3, user.getFirstName());
+            ps.setString(4, user.getLastName());
+            ps.setString(5, user.getPhone());
+            ps.setBoolean(6, user.getEnabled());
+            ps.setBoolean(7, user.getPasswordResetRequired());
+            ps.setTimestamp(8, now);
+            ps.setTimestamp(9, now);
+        });
+        List<Object[]> roles = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            user.setId(userIds.get(i));
+            user.setCreatedAt(now.toLocalDateTime());
+            user.setUpdatedAt(now.toLocalDateTime());
+            for (Role role : user.getRoles()) {
+                roles.add(new Object[]{user.getId(), role.name()});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ROLE_SQL, roles);
+
+        List<Long> patientIds = insert(INSERT_PATIENT_SQL, patients.size(), (ps, i) -> {
+            Patient patient = patients.get(i);
+            ps.setLong(1, patient.getUser().getId());
+            ps.setDate(2, Date.valueOf(patient.getDateOfBirth()));
+            ps.setString(3, patient.getGender().name());
+            ps.setString(4, patient.getBloodGroup());
+            ps.setString(5, patient.getAddress());
+            ps.setString(6, patient.getEmergencyContact());
+            ps.setString(7, patient.getEmergencyContactName());
+            ps.setTimestamp(8, now);
+            ps.setTimestamp(9, now);
+        });
+        for (int i = 0; i < patients.size(); i++) {
+            patients.get(i).setId(patientIds.get(i));
+            patients.get(i).setCreatedAt(now.toLocalDateTime());
+            patients.get(i).setUpdatedAt(now.toLocalDateTime());
+        }
+    }
+
+    private interface RowSetter {
+        void setValues(PreparedStatement ps, int i) throws SQLException;
+    }
+
+    private List<Long> insert(String sql, int rows, RowSetter setter) {
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        setter.setValues(ps, i);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows;
+                    }
+                }, keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        if (generated.size() != rows) {
+            throw new IllegalStateException("JDBC driver returned " + generated.size() + " keys for " + rows + " rows");
+        }
+        // Key column name case differs between drivers
+        return generated.stream().map(key -> ((Number) key.values().iterator().next()).longValue()).toList();
+    }
+}
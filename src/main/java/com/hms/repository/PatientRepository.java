@@ -1,26 +1,68 @@
 package com.hms.repository;
 
 import com.hms.entity.Patient;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PatientRepository extends JpaRepository<Patient, Long> {
+public interface PatientRepository extends JpaRepository<Patient, Long>, PatientBatchRepository {
 
     Optional<Patient> findByUserId(Long userId);
 
     Optional<Patient> findByUserEmail(String email);
 
-    @Query("SELECT p FROM Patient p WHERE LOWER(p.user.firstName) LIKE LOWER(CONCAT('%', :name, '%')) OR LOWER(p.user.lastName) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<Patient> searchByName(@Param("name") String name);
+    // Rows for both in-memory patient indexes, name search and duplicate blocks, read in one pass
+    @Query("SELECT p.id AS id, u.firstName AS firstName, u.lastName AS lastName, p.dateOfBirth AS dateOfBirth, " +
+            "u.phone AS phone, u.email AS email FROM Patient p JOIN p.user u")
+    List<IndexEntry> findIndexEntries();
+
+    // Rows for the duplicate scan
+    @Query("SELECT p.id AS id, u.firstName AS firstName, u.lastName AS lastName, p.dateOfBirth AS dateOfBirth, " +
+            "u.phone AS phone FROM Patient p JOIN p.user u")
+    List<DuplicateCheckEntry> findDuplicateCheckEntries();
+
+    // A fetch graph rather than JOIN FETCH: it also keeps the user's EAGER roles from loading one query per patient
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT p FROM Patient p WHERE p.id IN :ids")
+    List<Patient> findAllWithUserByIdIn(@Param("ids") Collection<Long> ids);
 
     @Query("SELECT p FROM Patient p WHERE p.user.phone = :phone")
     Optional<Patient> findByPhone(@Param("phone") String phone);
 
     List<Patient> findByBloodGroup(String bloodGroup);
+
+    interface SearchEntry {
+        Long getId();
+
+        String getFirstName();
+
+        String getLastName();
+
+        String getPhone();
+
+        String getEmail();
+    }
+
+    interface DuplicateCheckEntry {
+        Long getId();
+
+        String getFirstName();
+
+        String getLastName();
+
+        LocalDate getDateOfBirth();
+
+        String getPhone();
+    }
+
+    interface IndexEntry extends SearchEntry, DuplicateCheckEntry {
+    }
 }
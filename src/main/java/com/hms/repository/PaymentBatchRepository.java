@@ -0,0 +1,24 @@
+package com.hms.repository;
+
+import com.hms.entity.Payment;
+
+import java.util.List;
+
+public interface PaymentBatchRepository {
+
+    enum Outcome {
+        APPLIED,
+        // Another payment already carries the transaction id, possibly inserted concurrently
+        DUPLICATE,
+        // The invoice is paid, cancelled or would be overpaid
+        REJECTED
+    }
+
+    /**
+     * Inserts the payments, skipping transaction ids that are already recorded, then applies each inserted
+     * payment to its invoice with the same guard as {@link InvoiceRepository#applyPayment} and deletes those the
+     * guard rejects, all with JDBC batching. Every payment must carry a transaction id. Returns each payment's
+     * outcome.
+     */
+    Outcome[] applyAll(List<Payment> payments);
+}
@@ -0,0 +1,98 @@
+package com.hms.repository;
+
+import com.hms.entity.Payment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+class PaymentBatchRepositoryImpl implements PaymentBatchRepository {
+
+    // Same guard and status rules as InvoiceRepository.applyPayment, as a batchable native statement
+    private static final String APPLY_SQL = "UPDATE invoices SET paid_amount = COALESCE(paid_amount, 0) + ?, " +
+            "status = CASE WHEN COALESCE(paid_amount, 0) + ? >= total_amount THEN 'PAID' " +
+            "WHEN status = 'OVERDUE' THEN 'OVERDUE' ELSE 'PARTIALLY_PAID' END, updated_at = ? " +
+            "WHERE id = ? AND status NOT IN ('PAID', 'CANCELLED') AND COALESCE(paid_amount, 0) + ? <= total_amount";
+
+    // The unique transaction id turns a payment recorded concurrently, by POST /payments or another node, into a no-op
+    private static final String INSERT_SQL = "INSERT INTO payments " +
+            "(invoice_id, amount, payment_method, transaction_id, payment_date, notes, received_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String DELETE_SQL = "DELETE FROM payments WHERE transaction_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Outcome[] applyAll(List<Payment> payments) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Outcome[] outcomes = new Outcome[payments.size()];
+        if (payments.isEmpty()) {
+            return outcomes;
+        }
+        for (Payment payment : payments) {
+            if (payment.getTransactionId() == null) {
+                throw new IllegalArgumentException("Batched payments need a transaction id");
+            }
+        }
+
+        // Insert first: the row claims the transaction id before the invoice is touched
+        int[][] inserts = jdbcTemplate.batchUpdate(INSERT_SQL, payments, payments.size(), (ps, payment) -> {
+            ps.setLong(1, payment.getInvoice().getId());
+            ps.setBigDecimal(2, payment.getAmount());
+            ps.setString(3, payment.getPaymentMethod());
+            ps.setString(4, payment.getTransactionId());
+            ps.setTimestamp(5, Timestamp.valueOf(payment.getPaymentDate()));
+            ps.setString(6, payment.getNotes());
+            ps.setString(7, payment.getReceivedBy());
+        });
+        List<Integer> inserted = new ArrayList<>(payments.size());
+        for (int i = 0; i < payments.size(); i++) {
+            if (updateCount(inserts, i) > 0) {
+                inserted.add(i);
+            } else {
+                outcomes[i] = Outcome.DUPLICATE;
+            }
+        }
+        if (inserted.isEmpty()) {
+            return outcomes;
+        }
+
+        // Statements run in order, so several payments for one invoice are checked against the running balance
+        int[][] counts = jdbcTemplate.batchUpdate(APPLY_SQL, inserted, inserted.size(), (ps, index) -> {
+            Payment payment = payments.get(index);
+            ps.setBigDecimal(1, payment.getAmount());
+            ps.setBigDecimal(2, payment.getAmount());
+            ps.setTimestamp(3, now);
+            ps.setLong(4, payment.getInvoice().getId());
+            ps.setBigDecimal(5, payment.getAmount());
+        });
+        List<String> rejected = new ArrayList<>();
+        for (int i = 0; i < inserted.size(); i++) {
+            int index = inserted.get(i);
+            if (updateCount(counts, i) > 0) {
+                outcomes[index] = Outcome.APPLIED;
+            } else {
+                outcomes[index] = Outcome.REJECTED;
+                rejected.add(payments.get(index).getTransactionId());
+            }
+        }
+
+        if (!rejected.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_SQL, rejected, rejected.size(), (ps, transactionId) -> ps.setString(1, transactionId));
+        }
+        return outcomes;
+    }
+
+    private static int updateCount(int[][] counts, int index) {
+        int count = counts[0][index];
+        if (count < 0) {
+            throw new IllegalStateException("JDBC driver did not report batch update counts");
+        }
+        return count;
+    }
+}
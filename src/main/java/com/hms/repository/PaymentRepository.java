@@ -7,10 +7,11 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, Long> {
+public interface PaymentRepository extends JpaRepository<Payment, Long>, PaymentBatchRepository {
 
     List<Payment> findByInvoiceId(Long invoiceId);
 
@@ -21,8 +22,17 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     List<Payment> findByPaymentMethod(String paymentMethod);
 
+    @Query("SELECT p.transactionId FROM Payment p WHERE p.transactionId IN :transactionIds")
+    List<String> findExistingTransactionIds(@Param("transactionIds") Collection<String> transactionIds);
+
     @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.paymentDate BETWEEN :start AND :end")
     java.math.BigDecimal getTotalPaymentsByDateRange(
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end);
+
+    // Half-open [start, end), unlike getTotalPaymentsByDateRange, so adjacent ranges never count a payment twice
+    @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.paymentDate >= :start AND p.paymentDate < :end")
+    java.math.BigDecimal sumPaymentsFromUntil(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
 }
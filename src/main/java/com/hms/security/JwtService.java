@@ -9,6 +9,10 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -18,6 +22,11 @@ import java.util.function.Function;
 @Slf4j
 public class JwtService {
 
+    private static final String PURPOSE_CLAIM = "purpose";
+    private static final String PASSWORD_RESET_PURPOSE = "password-reset";
+    // Digest of the password the token was issued against, so the token stops working once it is used
+    private static final String PASSWORD_FINGERPRINT_CLAIM = "pwd";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
@@ -27,6 +36,9 @@ public class JwtService {
     @Value("${jwt.refresh-expiration}")
     private Long refreshExpiration;
 
+    @Value("${jwt.password-reset-expiration}")
+    private Long passwordResetExpiration;
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -48,6 +60,13 @@ public class JwtService {
         return buildToken(new HashMap<>(), userDetails, refreshExpiration);
     }
 
+    public String generatePasswordResetToken(UserDetails userDetails) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(PURPOSE_CLAIM, PASSWORD_RESET_PURPOSE);
+        claims.put(PASSWORD_FINGERPRINT_CLAIM, passwordFingerprint(userDetails.getPassword()));
+        return buildToken(claims, userDetails, passwordResetExpiration);
+    }
+
     private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, Long expiration) {
         return Jwts.builder()
                 .claims(extraClaims)
@@ -61,13 +80,28 @@ public class JwtService {
     public boolean isTokenValid(String token, UserDetails userDetails) {
         try {
             final String username = extractUsername(token);
-            return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+            return (username.equals(userDetails.getUsername()))
+                    && extractClaim(token, claims -> claims.get(PURPOSE_CLAIM)) == null
+                    && !isTokenExpired(token);
         } catch (JwtException | IllegalArgumentException e) {
             log.error("Invalid JWT token: {}", e.getMessage());
             return false;
         }
     }
 
+    public boolean isPasswordResetTokenValid(String token, UserDetails userDetails) {
+        try {
+            Claims claims = extractAllClaims(token);
+            return userDetails.getUsername().equals(claims.getSubject())
+                    && PASSWORD_RESET_PURPOSE.equals(claims.get(PURPOSE_CLAIM, String.class))
+                    && passwordFingerprint(userDetails.getPassword()).equals(claims.get(PASSWORD_FINGERPRINT_CLAIM, String.class))
+                    && !claims.getExpiration().before(new Date());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.error("Invalid password reset token: {}", e.getMessage());
+            return false;
+        }
+    }
+
     public boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
@@ -89,6 +123,19 @@ public class JwtService {
         return Keys.hmacShaKeyFor(keyBytes);
     }
 
+    private static String passwordFingerprint(String password) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(password.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public Long getPasswordResetExpiration() {
+        return passwordResetExpiration;
+    }
+
     public Long getJwtExpiration() {
         return jwtExpiration;
     }
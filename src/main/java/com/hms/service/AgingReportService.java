@@ -0,0 +1,272 @@
+package com.hms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.domain.Money;
+import com.hms.dto.response.AgingReportRow;
+import com.hms.enums.PaymentStatus;
+import com.hms.exception.BadRequestException;
+import com.hms.repository.InvoiceRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Receivables aging: the unpaid balance of open invoices in 0-30, 31-60, 61-90 and 90+ day buckets,
+ * grouped by patient or by the specialization of the appointment's doctor. Invoices not yet due on the
+ * report date have a bucket of their own.
+ * <p>
+ * Each bucket sum comes from one grouped aggregate query. A range longer than {@code partition-days}
+ * is split into partitions that are aggregated in parallel and merged; a shorter one is streamed
+ * straight from the query to the response.
+ */
+@Service
+@Slf4j
+public class AgingReportService {
+
+    static final Set<PaymentStatus> OPEN_STATUSES =
+            EnumSet.of(PaymentStatus.PENDING, PaymentStatus.PARTIALLY_PAID, PaymentStatus.OVERDUE);
+
+    public enum GroupBy {
+        PATIENT, SPECIALIZATION
+    }
+
+    private final InvoiceRepository invoiceRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readTransaction;
+    private final int partitionDays;
+    private final ExecutorService partitionPool;
+
+    public AgingReportService(InvoiceRepository invoiceRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${hms.billing.aging.partition-days:90}") int partitionDays,
+                              @Value("${hms.billing.aging.parallelism:4}") int parallelism,
+                              @Value("${hms.billing.aging.query-timeout-seconds:60}") int queryTimeoutSeconds) {
+        this.invoiceRepository = invoiceRepository;
+        this.objectMapper = objectMapper;
+        this.partitionDays = partitionDays;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setTimeout(queryTimeoutSeconds);
+        AtomicInteger threads = new AtomicInteger();
+        this.partitionPool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "aging-report-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        partitionPool.shutdownNow();
+    }
+
+    /**
+     * Validates the request. The report is computed while it is written, by {@link AgingReport#writeTo}.
+     *
+     * @param asOf the day ages are counted to; defaults to today
+     * @param from first aging date (due date, or invoice date without one) to include; defaults to the oldest
+     * @param to   last aging date to include; defaults to the newest
+     */
+    public AgingReport prepare(GroupBy groupBy, LocalDate asOf, LocalDate from, LocalDate to) {
+        log.info("Preparing aging report by {} as of {} for {} to {}", groupBy, asOf, from, to);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        return new AgingReport(groupBy, asOf != null ? asOf : LocalDate.now(), from, to);
+    }
+
+    public final class AgingReport {
+
+        private final GroupBy groupBy;
+        private final LocalDate asOf;
+        private final LocalDate from;
+        private final LocalDate to;
+
+        private AgingReport(GroupBy groupBy, LocalDate asOf, LocalDate from, LocalDate to) {
+            this.groupBy = groupBy;
+            this.asOf = asOf;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Writes one JSON row per group, newline-delimited.
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            LocalDate first = from;
+            LocalDate last = to;
+            if (first == null || last == null) {
+                InvoiceRepository.AgingSpan span = readTransaction.execute(status -> invoiceRepository.findAgingSpan(OPEN_STATUSES));
+                if (span == null || span.getFirst() == null) {
+                    return;
+                }
+                first = first != null ? first : span.getFirst();
+                last = last != null ? last : span.getLast();
+            }
+            if (first.isAfter(last)) {
+                return;
+            }
+
+            List<LocalDate> bounds = new ArrayList<>();
+            for (LocalDate start = first; !start.isAfter(last); start = start.plusDays(partitionDays)) {
+                bounds.add(start);
+            }
+            bounds.add(last.plusDays(1));
+
+            if (bounds.size() == 2) {
+                streamPartition(first, last.plusDays(1), out);
+            } else {
+                for (AgingReportRow row : aggregatePartitions(bounds)) {
+                    write(row, out);
+                }
+            }
+            out.flush();
+        }
+
+        private void streamPartition(LocalDate start, LocalDate end, OutputStream out) throws IOException {
+            try {
+                readTransaction.executeWithoutResult(status -> {
+                    try (Stream<InvoiceRepository.AgingTotals> rows = query(start, end)) {
+                        Iterator<InvoiceRepository.AgingTotals> iterator = rows.iterator();
+                        while (iterator.hasNext()) {
+                            write(toRow(iterator.next()), out);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        private List<AgingReportRow> aggregatePartitions(List<LocalDate> bounds) throws IOException {
+            List<Future<List<AgingReportRow>>> partitions = new ArrayList<>(bounds.size() - 1);
+            for (int i = 0; i < bounds.size() - 1; i++) {
+                LocalDate start = bounds.get(i);
+                LocalDate end = bounds.get(i + 1);
+                partitions.add(partitionPool.submit(() -> readTransaction.execute(status -> {
+                    try (Stream<InvoiceRepository.AgingTotals> rows = query(start, end)) {
+                        return rows.map(AgingReportService::toRow).toList();
+                    }
+                })));
+            }
+
+            Map<String, GroupTotals> merged = new HashMap<>();
+            try {
+                for (Future<List<AgingReportRow>> partition : partitions) {
+                    for (AgingReportRow row : partition.get()) {
+                        merged.computeIfAbsent(row.getKey(), key -> new GroupTotals(key, row.getName())).add(row);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while aggregating the aging report", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Aging report partition failed", e.getCause());
+            } finally {
+                partitions.forEach(partition -> partition.cancel(true));
+            }
+            log.info("Aging report by {} merged {} partitions into {} rows", groupBy, partitions.size(), merged.size());
+
+            // Same order as the single-query path
+            Comparator<AgingReportRow> order = groupBy == GroupBy.PATIENT
+                    ? Comparator.comparing(row -> Long.valueOf(row.getKey()))
+                    : Comparator.comparing(AgingReportRow::getKey);
+            return merged.values().stream().map(GroupTotals::toRow).sorted(order).toList();
+        }
+
+        private Stream<InvoiceRepository.AgingTotals> query(LocalDate start, LocalDate end) {
+            return groupBy == GroupBy.PATIENT
+                    ? invoiceRepository.streamAgingByPatient(OPEN_STATUSES, start, end, start.atStartOfDay(),
+                    end.atStartOfDay(), asOf, asOf.minusDays(30), asOf.minusDays(60), asOf.minusDays(90))
+                    : invoiceRepository.streamAgingBySpecialization(OPEN_STATUSES, start, end, start.atStartOfDay(),
+                    end.atStartOfDay(), asOf, asOf.minusDays(30), asOf.minusDays(60), asOf.minusDays(90));
+        }
+
+        private void write(AgingReportRow row, OutputStream out) throws IOException {
+            out.write(objectMapper.writeValueAsBytes(row));
+            out.write('\n');
+        }
+    }
+
+    private static AgingReportRow toRow(InvoiceRepository.AgingTotals totals) {
+        return toRow(totals.getGroupKey(), totals.getGroupName(), totals.getInvoiceCount(),
+                moneyOf(totals.getNotYetDue()), moneyOf(totals.getDays0To30()), moneyOf(totals.getDays31To60()),
+                moneyOf(totals.getDays61To90()), moneyOf(totals.getOver90Days()));
+    }
+
+    private static AgingReportRow toRow(String key, String name, long invoiceCount, Money notYetDue, Money days0To30,
+                                        Money days31To60, Money days61To90, Money over90Days) {
+        return AgingReportRow.builder()
+                .key(key)
+                .name(name)
+                .invoiceCount(invoiceCount)
+                .notYetDue(notYetDue.toBigDecimal())
+                .days0To30(days0To30.toBigDecimal())
+                .days31To60(days31To60.toBigDecimal())
+                .days61To90(days61To90.toBigDecimal())
+                .over90Days(over90Days.toBigDecimal())
+                .total(notYetDue.plus(days0To30).plus(days31To60).plus(days61To90).plus(over90Days).toBigDecimal())
+                .build();
+    }
+
+    private static Money moneyOf(BigDecimal value) {
+        return value != null ? Money.of(value) : Money.ZERO;
+    }
+
+    // One group's buckets summed across partitions; the row is built once all partitions are in
+    private static final class GroupTotals {
+
+        private final String key;
+        private final String name;
+        private long invoiceCount;
+        private Money notYetDue = Money.ZERO;
+        private Money days0To30 = Money.ZERO;
+        private Money days31To60 = Money.ZERO;
+        private Money days61To90 = Money.ZERO;
+        private Money over90Days = Money.ZERO;
+
+        GroupTotals(String key, String name) {
+            this.key = key;
+            this.name = name;
+        }
+
+        void add(AgingReportRow row) {
+            invoiceCount += row.getInvoiceCount();
+            notYetDue = notYetDue.plus(Money.of(row.getNotYetDue()));
+            days0To30 = days0To30.plus(Money.of(row.getDays0To30()));
+            days31To60 = days31To60.plus(Money.of(row.getDays31To60()));
+            days61To90 = days61To90.plus(Money.of(row.getDays61To90()));
+            over90Days = over90Days.plus(Money.of(row.getOver90Days()));
+        }
+
+        AgingReportRow toRow() {
+            return AgingReportService.toRow(key, name, invoiceCount, notYetDue, days0To30, days31To60, days61To90, over90Days);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.hms.service;
+
+import com.hms.entity.Appointment;
+import com.hms.enums.AppointmentStatus;
+import com.hms.repository.AppointmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory index of active (PENDING/CONFIRMED) appointment intervals per doctor and day.
+ * <p>
+ * Days are loaded lazily from {@link AppointmentRepository} on first use and then kept current
+ * by {@link #track(Appointment)} / {@link #untrack(Appointment)}, which apply after the surrounding
+ * transaction commits. Each day is an immutable sorted snapshot, so reads never lock.
+ * <p>
+ * The index only sees this node's writes, so it is advisory: {@code AppointmentService} confirms a hit
+ * against the database, and by default checks the database on a miss as well.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentConflictIndex {
+
+    private final AppointmentRepository appointmentRepository;
+
+    private final ConcurrentMap<DoctorDay, DaySchedule> schedules = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, DoctorDay> locations = new ConcurrentHashMap<>();
+    // Bumped before every change, so a day loaded while one was applied is not cached without it
+    private final AtomicLong changes = new AtomicLong();
+
+    public boolean hasConflict(Long doctorId, LocalDateTime start, LocalDateTime end, Long excludeId) {
+        // An appointment that started the previous day may still be running
+        for (LocalDate day = start.toLocalDate().minusDays(1); !day.isAfter(end.toLocalDate()); day = day.plusDays(1)) {
+            if (schedule(doctorId, day).overlaps(start, end, excludeId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<Interval> getIntervals(Long doctorId, LocalDate day) {
+        return schedule(doctorId, day).intervals;
+    }
+
+    public void track(Appointment appointment) {
+        Long doctorId = appointment.getDoctor().getId();
+        Interval interval = Interval.of(appointment);
+        boolean active = isActive(appointment.getStatus());
+        AfterCommit.run(() -> {
+            remove(interval.id());
+            if (active) {
+                changes.incrementAndGet();
+                schedules.computeIfPresent(new DoctorDay(doctorId, interval.start().toLocalDate()), (key, schedule) -> {
+                    locations.put(interval.id(), key);
+                    return schedule.with(interval);
+                });
+            }
+        });
+    }
+
+    public void untrack(Appointment appointment) {
+        Long id = appointment.getId();
+        AfterCommit.run(() -> remove(id));
+    }
+
+    /**
+     * Drops the cached days covering {@code start}..{@code end} so they are reloaded on next use.
+     */
+    public void invalidate(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        changes.incrementAndGet();
+        for (LocalDate day = start.toLocalDate().minusDays(1); !day.isAfter(end.toLocalDate()); day = day.plusDays(1)) {
+            DoctorDay key = new DoctorDay(doctorId, day);
+            schedules.remove(key);
+            locations.values().removeIf(key::equals);
+        }
+    }
+
+    public void clear() {
+        changes.incrementAndGet();
+        schedules.clear();
+        locations.clear();
+    }
+
+    private DaySchedule schedule(Long doctorId, LocalDate day) {
+        DoctorDay key = new DoctorDay(doctorId, day);
+        DaySchedule schedule = schedules.get(key);
+        if (schedule != null) {
+            return schedule;
+        }
+        evictPastDays();
+        // The query runs outside the map, so it never holds a map lock that updates to other days wait on.
+        // If a change was applied meanwhile the snapshot may lack it: it then answers this read only.
+        long changesBefore = changes.get();
+        DaySchedule loaded = load(key);
+        DaySchedule cached = schedules.compute(key, (k, existing) -> {
+            if (existing != null || changes.get() != changesBefore) {
+                return existing;
+            }
+            loaded.intervals.forEach(interval -> locations.put(interval.id(), k));
+            return loaded;
+        });
+        return cached != null ? cached : loaded;
+    }
+
+    private DaySchedule load(DoctorDay key) {
+        log.debug("Warming conflict index for doctor {} on {}", key.doctorId(), key.day());
+        List<Interval> intervals = appointmentRepository.findActiveIntervals(
+                        key.doctorId(), key.day().atStartOfDay(), key.day().plusDays(1).atStartOfDay()).stream()
+                .map(slot -> new Interval(slot.getId(), slot.getAppointmentTime(),
+                        slot.getAppointmentTime().plusMinutes(durationOf(slot.getDurationMinutes()))))
+                .sorted(Interval.ORDER)
+                .toList();
+        return new DaySchedule(intervals);
+    }
+
+    private void remove(Long appointmentId) {
+        changes.incrementAndGet();
+        DoctorDay location = locations.remove(appointmentId);
+        if (location != null) {
+            schedules.computeIfPresent(location, (key, schedule) -> schedule.without(appointmentId));
+        }
+    }
+
+    private void evictPastDays() {
+        LocalDate cutoff = LocalDate.now().minusDays(1);
+        schedules.keySet().removeIf(key -> key.day().isBefore(cutoff));
+        locations.values().removeIf(key -> key.day().isBefore(cutoff));
+    }
+
+    static boolean isActive(AppointmentStatus status) {
+        return status == AppointmentStatus.PENDING || status == AppointmentStatus.CONFIRMED;
+    }
+
+    static int durationOf(Integer durationMinutes) {
+        return durationMinutes != null ? durationMinutes : 30;
+    }
+
+    public record Interval(Long id, LocalDateTime start, LocalDateTime end) {
+
+        static final Comparator<Interval> ORDER = Comparator.comparing(Interval::start).thenComparing(Interval::id);
+
+        static Interval of(Appointment appointment) {
+            return new Interval(appointment.getId(), appointment.getAppointmentTime(),
+                    appointment.getAppointmentTime().plusMinutes(durationOf(appointment.getDurationMinutes())));
+        }
+    }
+
+    private record DoctorDay(Long doctorId, LocalDate day) {
+    }
+
+    private static final class DaySchedule {
+
+        private final List<Interval> intervals;
+        private final long longestMinutes;
+
+        DaySchedule(List<Interval> intervals) {
+            this.intervals = Collections.unmodifiableList(intervals);
+            this.longestMinutes = intervals.stream()
+                    .mapToLong(i -> Duration.between(i.start(), i.end()).toMinutes())
+                    .max().orElse(0);
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end, Long excludeId) {
+            // Walk back from the last interval starting before `end`; nothing earlier than
+            // start - longestMinutes can still be running at `start`
+            LocalDateTime horizon = start.minusMinutes(longestMinutes);
+            for (int i = firstStartingAtOrAfter(end) - 1; i >= 0; i--) {
+                Interval interval = intervals.get(i);
+                if (!interval.start().isAfter(horizon)) {
+                    break;
+                }
+                if (interval.end().isAfter(start) && !interval.id().equals(excludeId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        DaySchedule with(Interval interval) {
+            List<Interval> copy = new ArrayList<>(intervals);
+            copy.removeIf(existing -> existing.id().equals(interval.id()));
+            int position = Collections.binarySearch(copy, interval, Interval.ORDER);
+            copy.add(position < 0 ? -position - 1 : position, interval);
+            return new DaySchedule(copy);
+        }
+
+        DaySchedule without(Long appointmentId) {
+            if (intervals.stream().noneMatch(interval -> interval.id().equals(appointmentId))) {
+                return this;
+            }
+            List<Interval> copy = new ArrayList<>(intervals);
+            copy.removeIf(interval -> interval.id().equals(appointmentId));
+            return new DaySchedule(copy);
+        }
+
+        private int firstStartingAtOrAfter(LocalDateTime time) {
+            int low = 0;
+            int high = intervals.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (intervals.get(mid).start().isBefore(time)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
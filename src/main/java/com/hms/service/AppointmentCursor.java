@@ -0,0 +1,49 @@
+package com.hms.service;
+
+import com.hms.entity.Appointment;
+import com.hms.exception.BadRequestException;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opaque continuation token for keyset pagination over appointments,
+ * ordered by (appointmentTime, id).
+ */
+final class AppointmentCursor {
+
+    static final Sort ORDER = Sort.by(Sort.Direction.ASC, "appointmentTime", "id");
+
+    private static final String SEPARATOR = "|";
+
+    private AppointmentCursor() {
+    }
+
+    static String encode(Appointment last) {
+        String raw = last.getAppointmentTime() + SEPARATOR + last.getId();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ScrollPosition decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(SEPARATOR);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("appointmentTime", LocalDateTime.parse(raw.substring(0, split)));
+            keys.put("id", Long.valueOf(raw.substring(split + 1)));
+            return ScrollPosition.forward(keys);
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid pagination cursor");
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.hms.service;
+
+import com.hms.dto.response.AppointmentDeltaResponse;
+import com.hms.enums.AppointmentStatus;
+import com.hms.event.AppointmentChangedEvent;
+import com.hms.exception.BadRequestException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes committed appointment changes to server-sent event subscribers.
+ * <p>
+ * Publishing only offers the delta to each matching subscriber's bounded buffer; a small dispatcher
+ * pool does the socket writes. A subscriber whose buffer fills up is sent an {@code overflow} event
+ * and disconnected, so a slow consumer never holds up writers or other subscribers.
+ */
+@Component
+@Slf4j
+public class AppointmentEventStream {
+
+    static final String EVENT_APPOINTMENT = "appointment";
+    static final String EVENT_OVERFLOW = "overflow";
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService dispatcher;
+    private final int bufferSize;
+    private final long emitterTimeoutMillis;
+    private final int maxSubscribers;
+
+    public AppointmentEventStream(@Value("${hms.appointments.stream.buffer-size:256}") int bufferSize,
+                                  @Value("${hms.appointments.stream.timeout-ms:1800000}") long emitterTimeoutMillis,
+                                  @Value("${hms.appointments.stream.max-subscribers:500}") int maxSubscribers,
+                                  @Value("${hms.appointments.stream.dispatch-threads:4}") int dispatchThreads) {
+        this.bufferSize = bufferSize;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.maxSubscribers = maxSubscribers;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "appointment-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter subscribe(Long doctorId, LocalDate date, AppointmentStatus status) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new BadRequestException("Too many appointment stream subscribers, please retry later");
+        }
+        SseEmitter emitter = createEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, doctorId, date, status, bufferSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        log.debug("Appointment stream subscriber added (doctor={}, date={}, status={}), {} active",
+                doctorId, date, status, subscribers.size());
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        AppointmentDeltaResponse delta = AppointmentDeltaResponse.builder()
+                .type(event.type())
+                .appointmentId(event.appointmentId())
+                .doctorId(event.doctorId())
+                .patientId(event.patientId())
+                .appointmentTime(event.appointmentTime())
+                .previousTime(event.previousTime())
+                .durationMinutes(event.durationMinutes())
+                .status(event.status())
+                .previousStatus(event.previousStatus())
+                .build();
+        long id = sequence.incrementAndGet();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.matches(event)) {
+                subscriber.offer(new Delta(id, delta));
+            }
+        }
+    }
+
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        dispatcher.shutdownNow();
+    }
+
+    private record Delta(long id, AppointmentDeltaResponse payload) {
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Long doctorId;
+        private final LocalDate date;
+        private final AppointmentStatus status;
+        private final BlockingQueue<Delta> buffer;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean overflowed;
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, Long doctorId, LocalDate date, AppointmentStatus status, int capacity) {
+            this.emitter = emitter;
+            this.doctorId = doctorId;
+            this.date = date;
+            this.status = status;
+            this.buffer = new ArrayBlockingQueue<>(capacity);
+        }
+
+        // Moves into or out of the filtered view both count, so dashboards can drop stale rows
+        boolean matches(AppointmentChangedEvent event) {
+            return (doctorId == null || doctorId.equals(event.doctorId()))
+                    && (date == null || date.equals(event.appointmentTime().toLocalDate())
+                            || (event.previousTime() != null && date.equals(event.previousTime().toLocalDate())))
+                    && (status == null || status == event.status() || status == event.previousStatus());
+        }
+
+        void offer(Delta delta) {
+            if (closed || overflowed) {
+                return;
+            }
+            if (!buffer.offer(delta)) {
+                overflowed = true;
+                buffer.clear();
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                if (overflowed) {
+                    close(SseEmitter.event().name(EVENT_OVERFLOW).data("More than " + bufferSize
+                            + " undelivered events, reload and resubscribe"));
+                    return;
+                }
+                Delta delta;
+                while (!closed && !overflowed && (delta = buffer.poll()) != null) {
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(delta.id()))
+                            .name(EVENT_APPOINTMENT)
+                            .data(delta.payload()));
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping appointment stream subscriber: {}", e.getMessage());
+                closed = true;
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+            } finally {
+                scheduled.set(false);
+                if (!closed && (overflowed || !buffer.isEmpty())) {
+                    schedule();
+                }
+            }
+        }
+
+        private void close(SseEmitter.SseEventBuilder lastEvent) throws IOException {
+            closed = true;
+            subscribers.remove(this);
+            try {
+                emitter.send(lastEvent);
+            } finally {
+                emitter.complete();
+            }
+        }
+    }
+}
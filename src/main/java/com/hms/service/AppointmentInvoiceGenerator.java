@@ -0,0 +1,231 @@
+package com.hms.service;
+
+import com.hms.domain.Money;
+import com.hms.entity.Appointment;
+import com.hms.entity.Invoice;
+import com.hms.entity.InvoiceItem;
+import com.hms.entity.Patient;
+import com.hms.enums.AppointmentStatus;
+import com.hms.enums.PaymentStatus;
+import com.hms.event.AppointmentChangedEvent;
+import com.hms.repository.AppointmentRepository;
+import com.hms.repository.InvoiceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoices completed appointments for the doctor's consultation fee.
+ * <p>
+ * The status change only queues the appointment id once it has committed. A single worker drains the
+ * queue in batches and writes each batch in one transaction: one query for the appointments that still
+ * have no invoice, then JDBC-batched invoice and item inserts. Ids lost with a full queue or a restart
+ * are picked up again by a periodic catch-up query.
+ * <p>
+ * Only completions made through the API are billed. Appointments the sweeper completes were never closed by
+ * staff and may be no-shows; they are left for billing staff to invoice by hand.
+ */
+@Component
+@Slf4j
+public class AppointmentInvoiceGenerator {
+
+    private final AppointmentRepository appointmentRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final PatientAccountLedger patientAccountLedger;
+    private final TransactionTemplate batchTransaction;
+    private final Counter generatedCounter;
+    private final Counter droppedCounter;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long batchWaitMillis;
+    private final int paymentTermsDays;
+    private final long catchUpLookbackHours;
+    private final BlockingQueue<Long> queue;
+    private Thread worker;
+
+    public AppointmentInvoiceGenerator(AppointmentRepository appointmentRepository,
+                                       InvoiceRepository invoiceRepository,
+                                       InvoiceNumberAllocator invoiceNumberAllocator,
+                                       PatientAccountLedger patientAccountLedger,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${hms.billing.auto-invoice.enabled:true}") boolean enabled,
+                                       @Value("${hms.billing.auto-invoice.batch-size:100}") int batchSize,
+                                       @Value("${hms.billing.auto-invoice.batch-wait-ms:200}") long batchWaitMillis,
+                                       @Value("${hms.billing.auto-invoice.queue-capacity:10000}") int queueCapacity,
+                                       @Value("${hms.billing.auto-invoice.payment-terms-days:30}") int paymentTermsDays,
+                                       @Value("${hms.billing.auto-invoice.catch-up-lookback-hours:48}") long catchUpLookbackHours,
+                                       @Value("${hms.billing.auto-invoice.batch-timeout-seconds:30}") int batchTimeoutSeconds) {
+        this.appointmentRepository = appointmentRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.invoiceNumberAllocator = invoiceNumberAllocator;
+        this.patientAccountLedger = patientAccountLedger;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.batchWaitMillis = batchWaitMillis;
+        this.paymentTermsDays = paymentTermsDays;
+        this.catchUpLookbackHours = catchUpLookbackHours;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.generatedCounter = Counter.builder("hms.billing.invoices.generated").register(meterRegistry);
+        this.droppedCounter = Counter.builder("hms.billing.invoices.generation-dropped").register(meterRegistry);
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setTimeout(batchTimeoutSeconds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Invoice generation for completed appointments disabled");
+            return;
+        }
+        worker = new Thread(this::drain, "appointment-invoice-generator");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        // Sweeper completions are confirmed appointments nobody closed; they may be no-shows, so they are not billed
+        if (enabled && event.source() == AppointmentChangedEvent.Source.USER
+                && event.status() == AppointmentStatus.COMPLETED && event.previousStatus() != AppointmentStatus.COMPLETED) {
+            enqueue(event.appointmentId());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${hms.billing.auto-invoice.catch-up-initial-delay-ms:120000}",
+            fixedDelayString = "${hms.billing.auto-invoice.catch-up-interval-ms:600000}")
+    public void catchUp() {
+        if (!enabled || queue.remainingCapacity() == 0) {
+            return;
+        }
+        List<Long> missed = appointmentRepository.findUninvoicedCompletedSince(
+                LocalDateTime.now().minusHours(catchUpLookbackHours), Limit.of(queue.remainingCapacity()));
+        if (!missed.isEmpty()) {
+            log.info("Queueing {} completed appointments without an invoice", missed.size());
+            missed.forEach(this::enqueue);
+        }
+    }
+
+    /**
+     * Invoices those of the given appointments that are completed and not yet invoiced, in one transaction.
+     * Returns the number of invoices created.
+     */
+    public int generate(Collection<Long> appointmentIds) {
+        Integer created = batchTransaction.execute(status -> generateInTransaction(appointmentIds));
+        int count = created != null ? created : 0;
+        generatedCounter.increment(count);
+        return count;
+    }
+
+    private int generateInTransaction(Collection<Long> appointmentIds) {
+        List<AppointmentRepository.BillableAppointment> billable = appointmentRepository.findBillable(appointmentIds);
+        LocalDate dueDate = LocalDate.now().plusDays(paymentTermsDays);
+        List<Invoice> invoices = new ArrayList<>(billable.size());
+        Map<Long, Money> totalsByPatient = new HashMap<>();
+        for (AppointmentRepository.BillableAppointment appointment : billable) {
+            BigDecimal fee = appointment.getConsultationFee();
+            if (fee == null || fee.signum() <= 0) {
+                log.warn("Appointment {} not invoiced: its doctor has no consultation fee", appointment.getId());
+                continue;
+            }
+            Invoice invoice = Invoice.builder()
+                    .invoiceNumber(invoiceNumberAllocator.nextInvoiceNumber())
+                    .patient(Patient.builder().id(appointment.getPatientId()).build())
+                    .appointment(Appointment.builder().id(appointment.getId()).build())
+                    .dueDate(dueDate)
+                    .status(PaymentStatus.PENDING)
+                    .paidAmount(BigDecimal.ZERO)
+                    .totalAmount(fee)
+                    .build();
+            invoice.getItems().add(InvoiceItem.builder()
+                    .invoice(invoice)
+                    .description("Consultation - " + appointment.getSpecialization())
+                    .amount(fee)
+                    .quantity(1)
+                    .build());
+            invoices.add(invoice);
+            totalsByPatient.merge(appointment.getPatientId(), Money.of(fee), Money::plus);
+        }
+        invoiceRepository.insertAll(invoices);
+        patientAccountLedger.invoicesIssued(totalsByPatient);
+        return invoices.size();
+    }
+
+    private void enqueue(Long appointmentId) {
+        if (!queue.offer(appointmentId)) {
+            droppedCounter.increment();
+            log.warn("Invoice generation queue full; appointment {} is left for the catch-up run", appointmentId);
+        }
+    }
+
+    private void drain() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Set<Long> batch = new LinkedHashSet<>();
+            try {
+                batch.add(queue.take());
+                // Give a burst of completions a moment to share the batch
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchWaitMillis);
+                while (batch.size() < batchSize) {
+                    Long next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            process(batch);
+        }
+    }
+
+    private void process(Set<Long> batch) {
+        try {
+            int created = generate(batch);
+            log.debug("Generated {} invoices for {} completed appointments", created, batch.size());
+        } catch (Exception e) {
+            // e.g. an invoice created by hand for one of them meanwhile; retry one by one so the rest still get theirs
+            log.warn("Invoice generation batch of {} failed, retrying individually", batch.size(), e);
+            for (Long appointmentId : batch) {
+                try {
+                    generate(List.of(appointmentId));
+                } catch (Exception single) {
+                    log.error("Invoice generation failed for appointment {}", appointmentId, single);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.hms.service;
+
+import java.util.List;
+
+/**
+ * Receives batches of due appointment timers from {@link AppointmentTimerScheduler}.
+ * Register a bean of this type to replace the logging default.
+ */
+public interface AppointmentNotifier {
+
+    void dispatch(List<AppointmentTimer> timers);
+}
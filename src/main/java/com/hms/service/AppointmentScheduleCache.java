@@ -0,0 +1,122 @@
+package com.hms.service;
+
+import com.hms.dto.response.AppointmentResponse;
+import com.hms.event.AppointmentChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Immutable per-day schedule snapshots for the date-based appointment listings, keyed by (date)
+ * and (doctorId, date).
+ * <p>
+ * Entries are evicted after an appointment change commits, for the old and new day of that
+ * appointment only. The TTL bounds staleness from changes made elsewhere (patient or doctor
+ * names, invoices being attached).
+ */
+@Component
+@Slf4j
+public class AppointmentScheduleCache {
+
+    private final ConcurrentMap<ScheduleKey, Snapshot> snapshots = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so loads that raced with a write are not stored
+    private final AtomicLong generation = new AtomicLong();
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+
+    public AppointmentScheduleCache(MeterRegistry meterRegistry,
+                                    @Value("${hms.appointments.schedule-cache.ttl-seconds:300}") long ttlSeconds,
+                                    @Value("${hms.appointments.schedule-cache.max-entries:5000}") int maxEntries) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder("hms.appointments.schedule.cache")
+                .tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("hms.appointments.schedule.cache")
+                .tag("result", "miss").register(meterRegistry);
+        this.invalidations = Counter.builder("hms.appointments.schedule.cache.invalidations")
+                .register(meterRegistry);
+        Gauge.builder("hms.appointments.schedule.cache.size", snapshots, ConcurrentMap::size)
+                .register(meterRegistry);
+    }
+
+    public List<AppointmentResponse> getDaySchedule(LocalDate date, Supplier<List<AppointmentResponse>> loader) {
+        return get(new ScheduleKey(null, date), loader);
+    }
+
+    public List<AppointmentResponse> getDoctorDaySchedule(Long doctorId, LocalDate date,
+                                                          Supplier<List<AppointmentResponse>> loader) {
+        return get(new ScheduleKey(doctorId, date), loader);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        invalidate(event.doctorId(), event.appointmentTime().toLocalDate());
+        if (event.previousTime() != null
+                && !event.previousTime().toLocalDate().equals(event.appointmentTime().toLocalDate())) {
+            invalidate(event.doctorId(), event.previousTime().toLocalDate());
+        }
+    }
+
+    public void invalidate(Long doctorId, LocalDate date) {
+        generation.incrementAndGet();
+        snapshots.remove(new ScheduleKey(null, date));
+        snapshots.remove(new ScheduleKey(doctorId, date));
+        invalidations.increment();
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        snapshots.clear();
+    }
+
+    private List<AppointmentResponse> get(ScheduleKey key, Supplier<List<AppointmentResponse>> loader) {
+        long now = System.nanoTime();
+        Snapshot cached = snapshots.get(key);
+        if (cached != null && now - cached.loadedAt() < ttlNanos) {
+            hits.increment();
+            return cached.appointments();
+        }
+        misses.increment();
+
+        long stamp = generation.get();
+        List<AppointmentResponse> appointments = List.copyOf(loader.get());
+        Snapshot loaded = new Snapshot(appointments, System.nanoTime());
+        // Checked inside compute so an invalidation cannot slip in between the check and the store
+        snapshots.compute(key, (k, existing) -> generation.get() == stamp ? loaded : existing);
+        if (snapshots.size() > maxEntries) {
+            evictStale(now);
+        }
+        return appointments;
+    }
+
+    private void evictStale(long now) {
+        LocalDate today = LocalDate.now();
+        snapshots.entrySet().removeIf(entry -> entry.getKey().date().isBefore(today)
+                || now - entry.getValue().loadedAt() >= ttlNanos);
+        if (snapshots.size() > maxEntries) {
+            log.debug("Schedule cache over {} entries, clearing", maxEntries);
+            snapshots.clear();
+        }
+    }
+
+    private record ScheduleKey(Long doctorId, LocalDate date) {
+    }
+
+    private record Snapshot(List<AppointmentResponse> appointments, long loadedAt) {
+    }
+}
@@ -1,25 +1,50 @@
 package com.hms.service;
 
 import com.hms.dto.request.AppointmentRequest;
+import com.hms.dto.response.AppointmentBatchResponse;
 import com.hms.dto.request.AppointmentStatusRequest;
 import com.hms.dto.response.AppointmentResponse;
+import com.hms.dto.response.CursorPage;
+import com.hms.dto.response.DoctorSlotsResponse;
 import com.hms.entity.Appointment;
 import com.hms.entity.Doctor;
+import com.hms.entity.DoctorAvailability;
 import com.hms.entity.Patient;
 import com.hms.enums.AppointmentStatus;
+import com.hms.enums.DayOfWeek;
+import com.hms.event.AppointmentChangedEvent;
 import com.hms.exception.BadRequestException;
 import com.hms.exception.ResourceNotFoundException;
 import com.hms.repository.AppointmentRepository;
+import com.hms.repository.DoctorAvailabilityRepository;
 import com.hms.repository.DoctorRepository;
 import com.hms.repository.PatientRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,6 +55,20 @@ public class AppointmentService {
     private final AppointmentRepository appointmentRepository;
     private final PatientRepository patientRepository;
     private final DoctorRepository doctorRepository;
+    private final DoctorAvailabilityRepository availabilityRepository;
+    private final AppointmentConflictIndex conflictIndex;
+    private final BookingCoordinator bookingCoordinator;
+    private final AppointmentScheduleCache scheduleCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // The conflict index is advisory: it only sees this node's writes, so by default every booking still runs the
+    // overlap query. Only a single-node deployment can turn this off and let an index miss skip the query.
+    @Value("${hms.appointments.verify-conflicts-with-database:true}")
+    private boolean verifyConflictsWithDatabase = true;
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+    static final int MAX_SLOT_SEARCH_DAYS = 31;
 
     public List<AppointmentResponse> getAllAppointments() {
         log.info("Fetching all appointments");
@@ -70,17 +109,109 @@ public class AppointmentService {
         log.info("Fetching appointments for date: {}", date);
         LocalDateTime startOfDay = date.atStartOfDay();
         LocalDateTime endOfDay = date.atTime(23, 59, 59);
-        return appointmentRepository.findByDateRange(startOfDay, endOfDay).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return scheduleCache.getDaySchedule(date, () ->
+                appointmentRepository.findByDateRange(startOfDay, endOfDay).stream()
+                        .map(this::mapToResponse)
+                        .collect(Collectors.toList()));
     }
 
     public List<AppointmentResponse> getDoctorAppointmentsByDate(Long doctorId, LocalDate date) {
         log.info("Fetching appointments for doctor {} on date: {}", doctorId, date);
         LocalDateTime startOfDay = date.atStartOfDay();
         LocalDateTime endOfDay = date.atTime(23, 59, 59);
-        return appointmentRepository.findByDoctorIdAndDateRange(doctorId, startOfDay, endOfDay).stream()
-                .map(this::mapToResponse)
+        return scheduleCache.getDoctorDaySchedule(doctorId, date, () ->
+                appointmentRepository.findByDoctorIdAndDateRange(doctorId, startOfDay, endOfDay).stream()
+                        .map(this::mapToResponse)
+                        .collect(Collectors.toList()));
+    }
+
+    // Keyset-paginated listings, ordered by (appointmentTime, id)
+    public CursorPage<AppointmentResponse> getAppointmentsPage(String cursor, Integer size) {
+        log.info("Fetching appointments page");
+        return scroll(cursor, size, (position, limit) ->
+                appointmentRepository.findAllBy(position, AppointmentCursor.ORDER, limit));
+    }
+
+    public CursorPage<AppointmentResponse> getAppointmentsPageByPatient(Long patientId, String cursor, Integer size) {
+        log.info("Fetching appointments page for patient ID: {}", patientId);
+        return scroll(cursor, size, (position, limit) ->
+                appointmentRepository.findByPatientId(patientId, position, AppointmentCursor.ORDER, limit));
+    }
+
+    public CursorPage<AppointmentResponse> getAppointmentsPageByDoctor(Long doctorId, String cursor, Integer size) {
+        log.info("Fetching appointments page for doctor ID: {}", doctorId);
+        return scroll(cursor, size, (position, limit) ->
+                appointmentRepository.findByDoctorId(doctorId, position, AppointmentCursor.ORDER, limit));
+    }
+
+    public CursorPage<AppointmentResponse> getAppointmentsPageByStatus(AppointmentStatus status, String cursor,
+            Integer size) {
+        log.info("Fetching appointments page by status: {}", status);
+        return scroll(cursor, size, (position, limit) ->
+                appointmentRepository.findByStatus(status, position, AppointmentCursor.ORDER, limit));
+    }
+
+    public CursorPage<AppointmentResponse> getAppointmentsPageByDate(LocalDate date, String cursor, Integer size) {
+        log.info("Fetching appointments page for date: {}", date);
+        LocalDateTime startOfDay = date.atStartOfDay();
+        LocalDateTime endOfDay = date.atTime(23, 59, 59);
+        return scroll(cursor, size, (position, limit) ->
+                appointmentRepository.findByAppointmentTimeBetween(
+                        startOfDay, endOfDay, position, AppointmentCursor.ORDER, limit));
+    }
+
+    public CursorPage<AppointmentResponse> getDoctorAppointmentsPageByDate(Long doctorId, LocalDate date,
+            String cursor, Integer size) {
+        log.info("Fetching appointments page for doctor {} on date: {}", doctorId, date);
+        LocalDateTime startOfDay = date.atStartOfDay();
+        LocalDateTime endOfDay = date.atTime(23, 59, 59);
+        return scroll(cursor, size, (position, limit) ->
+                appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(
+                        doctorId, startOfDay, endOfDay, position, AppointmentCursor.ORDER, limit));
+    }
+
+    // Free-slot search: weekly availability windows minus booked appointments
+    public List<DoctorSlotsResponse> findAvailableSlots(String specialization, LocalDate from, LocalDate to,
+            Integer durationMinutes) {
+        log.info("Searching free slots for specialization {} from {} to {}", specialization, from, to);
+
+        if (to.isBefore(from)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_SLOT_SEARCH_DAYS) {
+            throw new BadRequestException("Slot search range cannot exceed " + MAX_SLOT_SEARCH_DAYS + " days");
+        }
+        int slotMinutes = durationMinutes != null ? durationMinutes : 30;
+        if (slotMinutes <= 0) {
+            throw new BadRequestException("Slot duration must be positive");
+        }
+
+        List<Doctor> doctors = doctorRepository.findBookableDoctors(
+                specialization == null || specialization.isBlank() ? null : specialization);
+        if (doctors.isEmpty()) {
+            return List.of();
+        }
+        List<Long> doctorIds = doctors.stream().map(Doctor::getId).toList();
+
+        // One query each for windows and bookings; per-doctor work is then pure computation
+        Map<Long, List<DoctorAvailability>> windowsByDoctor = availabilityRepository
+                .findByDoctorIdInAndIsAvailableTrue(doctorIds).stream()
+                .collect(Collectors.groupingBy(window -> window.getDoctor().getId()));
+        Map<Long, List<AppointmentRepository.TimeSlot>> bookedByDoctor = appointmentRepository
+                .findActiveIntervalsForDoctors(doctorIds, from.minusDays(1).atStartOfDay(), to.plusDays(1).atStartOfDay())
+                .stream()
+                .collect(Collectors.groupingBy(AppointmentRepository.TimeSlot::getDoctorId));
+
+        LocalDateTime now = LocalDateTime.now();
+        return doctors.parallelStream()
+                .map(doctor -> DoctorSlotsResponse.builder()
+                        .doctor(mapToDoctorSummary(doctor))
+                        .durationMinutes(slotMinutes)
+                        .slots(freeSlots(windowsByDoctor.getOrDefault(doctor.getId(), List.of()),
+                                bookedByDoctor.getOrDefault(doctor.getId(), List.of()), from, to, slotMinutes, now))
+                        .build())
+                .filter(result -> !result.getSlots().isEmpty())
+                .sorted(Comparator.comparing(result -> result.getDoctor().getId()))
                 .collect(Collectors.toList());
     }
 
@@ -101,16 +232,17 @@ public class AppointmentService {
             throw new BadRequestException("Doctor is not available for appointments");
         }
 
-        // Check for conflicting appointments
-        if (appointmentRepository.existsConflictingAppointment(request.getDoctorId(), request.getAppointmentTime())) {
-            throw new BadRequestException("Doctor already has an appointment at this time");
-        }
-
         // Validate appointment time is in the future
         if (request.getAppointmentTime().isBefore(LocalDateTime.now())) {
             throw new BadRequestException("Appointment time must be in the future");
         }
 
+        // Serialise with concurrent bookings for this doctor-day, then check for overlaps
+        int durationMinutes = request.getDurationMinutes() != null ? request.getDurationMinutes() : 30;
+        bookingCoordinator.lockInterval(doctor.getId(), request.getAppointmentTime(),
+                request.getAppointmentTime().plusMinutes(durationMinutes));
+        assertNoConflict(doctor.getId(), request.getAppointmentTime(), durationMinutes, null);
+
         Appointment appointment = Appointment.builder()
                 .patient(patient)
                 .doctor(doctor)
@@ -118,15 +250,129 @@ public class AppointmentService {
                 .status(AppointmentStatus.PENDING)
                 .reason(request.getReason())
                 .notes(request.getNotes())
-                .durationMinutes(request.getDurationMinutes() != null ? request.getDurationMinutes() : 30)
+                .durationMinutes(durationMinutes)
                 .build();
 
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        conflictIndex.track(savedAppointment);
+        eventPublisher.publishEvent(AppointmentChangedEvent.created(savedAppointment));
         log.info("Appointment created with ID: {}", savedAppointment.getId());
 
         return mapToResponse(savedAppointment);
     }
 
+    @Transactional
+    public AppointmentBatchResponse createAppointmentsBatch(List<AppointmentRequest> requests) {
+        log.info("Creating {} appointments in batch", requests.size());
+
+        // Resolve every referenced patient and doctor with one query each
+        Map<Long, Patient> patients = patientRepository.findAllById(requests.stream()
+                        .map(AppointmentRequest::getPatientId).filter(Objects::nonNull).distinct().toList())
+                .stream().collect(Collectors.toMap(Patient::getId, Function.identity()));
+        Map<Long, Doctor> doctors = doctorRepository.findAllById(requests.stream()
+                        .map(AppointmentRequest::getDoctorId).filter(Objects::nonNull).distinct().toList())
+                .stream().collect(Collectors.toMap(Doctor::getId, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        String[] errors = new String[requests.size()];
+        Appointment[] candidates = new Appointment[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            AppointmentRequest request = requests.get(i);
+            int durationMinutes = request.getDurationMinutes() != null ? request.getDurationMinutes() : 30;
+            Patient patient = patients.get(request.getPatientId());
+            Doctor doctor = doctors.get(request.getDoctorId());
+
+            if (request.getPatientId() == null || request.getDoctorId() == null || request.getAppointmentTime() == null) {
+                errors[i] = "Patient ID, doctor ID and appointment time are required";
+            } else if (patient == null) {
+                errors[i] = "Patient not found with id: '" + request.getPatientId() + "'";
+            } else if (doctor == null) {
+                errors[i] = "Doctor not found with id: '" + request.getDoctorId() + "'";
+            } else if (!doctor.getIsAvailable()) {
+                errors[i] = "Doctor is not available for appointments";
+            } else if (request.getAppointmentTime().isBefore(now)) {
+                errors[i] = "Appointment time must be in the future";
+            } else if (durationMinutes <= 0) {
+                errors[i] = "Duration must be positive";
+            } else {
+                candidates[i] = Appointment.builder()
+                        .patient(patient)
+                        .doctor(doctor)
+                        .appointmentTime(request.getAppointmentTime())
+                        .status(AppointmentStatus.PENDING)
+                        .reason(request.getReason())
+                        .notes(request.getNotes())
+                        .durationMinutes(durationMinutes)
+                        .build();
+            }
+        }
+
+        List<Appointment> accepted = new ArrayList<>();
+        List<Appointment> valid = Arrays.stream(candidates).filter(Objects::nonNull).toList();
+        if (!valid.isEmpty()) {
+            // Lock every touched doctor-day once, then check conflicts in memory against one bulk read
+            Set<BookingCoordinator.DoctorDay> keys = new HashSet<>();
+            LocalDateTime earliest = null;
+            LocalDateTime latest = null;
+            for (Appointment appointment : valid) {
+                LocalDateTime start = appointment.getAppointmentTime();
+                LocalDateTime end = start.plusMinutes(appointment.getDurationMinutes());
+                for (LocalDate day = start.toLocalDate(); !day.isAfter(end.minusNanos(1).toLocalDate()); day = day.plusDays(1)) {
+                    keys.add(new BookingCoordinator.DoctorDay(appointment.getDoctor().getId(), day));
+                }
+                earliest = earliest == null || start.isBefore(earliest) ? start : earliest;
+                latest = latest == null || end.isAfter(latest) ? end : latest;
+            }
+            bookingCoordinator.lock(keys);
+
+            Map<Long, BatchTimeline> timelines = new HashMap<>();
+            List<Long> doctorIds = valid.stream().map(a -> a.getDoctor().getId()).distinct().toList();
+            appointmentRepository.findActiveIntervalsForDoctors(doctorIds, earliest.minusDays(1), latest)
+                    .forEach(slot -> timelines.computeIfAbsent(slot.getDoctorId(), id -> new BatchTimeline())
+                            .add(slot.getAppointmentTime(), slot.getAppointmentTime()
+                                    .plusMinutes(AppointmentConflictIndex.durationOf(slot.getDurationMinutes()))));
+
+            for (int i = 0; i < candidates.length; i++) {
+                Appointment appointment = candidates[i];
+                if (appointment == null) {
+                    continue;
+                }
+                LocalDateTime start = appointment.getAppointmentTime();
+                LocalDateTime end = start.plusMinutes(appointment.getDurationMinutes());
+                BatchTimeline timeline = timelines.computeIfAbsent(appointment.getDoctor().getId(), id -> new BatchTimeline());
+                if (timeline.overlaps(start, end)) {
+                    errors[i] = "Doctor already has an appointment at this time";
+                    candidates[i] = null;
+                } else {
+                    timeline.add(start, end);
+                    accepted.add(appointment);
+                }
+            }
+
+            appointmentRepository.insertAll(accepted);
+            accepted.forEach(conflictIndex::track);
+            accepted.forEach(appointment -> eventPublisher.publishEvent(AppointmentChangedEvent.created(appointment)));
+        }
+
+        List<AppointmentBatchResponse.ItemResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(AppointmentBatchResponse.ItemResult.builder()
+                    .index(i)
+                    .success(candidates[i] != null)
+                    .appointmentId(candidates[i] != null ? candidates[i].getId() : null)
+                    .error(errors[i])
+                    .build());
+        }
+        log.info("Batch created {} of {} appointments", accepted.size(), requests.size());
+
+        return AppointmentBatchResponse.builder()
+                .requested(requests.size())
+                .created(accepted.size())
+                .failed(requests.size() - accepted.size())
+                .results(results)
+                .build();
+    }
+
     @Transactional
     public AppointmentResponse updateAppointment(Long id, AppointmentRequest request) {
         log.info("Updating appointment with ID: {}", id);
@@ -141,29 +387,35 @@ public class AppointmentService {
         }
 
         // Update appointment time if provided
-        if (request.getAppointmentTime() != null) {
-            if (request.getAppointmentTime().isBefore(LocalDateTime.now())) {
-                throw new BadRequestException("Appointment time must be in the future");
-            }
+        if (request.getAppointmentTime() != null
+                && request.getAppointmentTime().isBefore(LocalDateTime.now())) {
+            throw new BadRequestException("Appointment time must be in the future");
+        }
 
-            // Check for conflicts (excluding current appointment)
-            if (!request.getAppointmentTime().equals(appointment.getAppointmentTime())) {
-                if (appointmentRepository.existsConflictingAppointment(
-                        appointment.getDoctor().getId(), request.getAppointmentTime())) {
-                    throw new BadRequestException("Doctor already has an appointment at this time");
-                }
-            }
-            appointment.setAppointmentTime(request.getAppointmentTime());
+        // Check for conflicts (excluding current appointment) when the booked interval changes
+        LocalDateTime previousTime = appointment.getAppointmentTime();
+        LocalDateTime newTime = request.getAppointmentTime() != null
+                ? request.getAppointmentTime() : appointment.getAppointmentTime();
+        Integer newDuration = request.getDurationMinutes() != null
+                ? request.getDurationMinutes() : appointment.getDurationMinutes();
+        if (!newTime.equals(appointment.getAppointmentTime())
+                || !newDuration.equals(appointment.getDurationMinutes())) {
+            bookingCoordinator.lockInterval(appointment.getDoctor().getId(), newTime, newTime.plusMinutes(newDuration));
+            assertNoConflict(appointment.getDoctor().getId(), newTime, newDuration, appointment.getId());
         }
+        appointment.setAppointmentTime(newTime);
+        appointment.setDurationMinutes(newDuration);
 
         if (request.getReason() != null)
             appointment.setReason(request.getReason());
         if (request.getNotes() != null)
             appointment.setNotes(request.getNotes());
-        if (request.getDurationMinutes() != null)
-            appointment.setDurationMinutes(request.getDurationMinutes());
 
         Appointment updatedAppointment = appointmentRepository.save(appointment);
+        conflictIndex.track(updatedAppointment);
+        eventPublisher.publishEvent(AppointmentChangedEvent.of(
+                newTime.equals(previousTime) ? AppointmentChangedEvent.Type.UPDATED : AppointmentChangedEvent.Type.RESCHEDULED,
+                updatedAppointment, previousTime, updatedAppointment.getStatus()));
         log.info("Appointment updated successfully");
 
         return mapToResponse(updatedAppointment);
@@ -183,12 +435,16 @@ public class AppointmentService {
                             appointment.getStatus(), request.getStatus()));
         }
 
+        AppointmentStatus previousStatus = appointment.getStatus();
         appointment.setStatus(request.getStatus());
         if (request.getDoctorNotes() != null) {
             appointment.setDoctorNotes(request.getDoctorNotes());
         }
 
         Appointment updatedAppointment = appointmentRepository.save(appointment);
+        conflictIndex.track(updatedAppointment);
+        eventPublisher.publishEvent(AppointmentChangedEvent.of(AppointmentChangedEvent.Type.STATUS_CHANGED,
+                updatedAppointment, null, previousStatus));
         log.info("Appointment status updated successfully");
 
         return mapToResponse(updatedAppointment);
@@ -205,11 +461,133 @@ public class AppointmentService {
             throw new BadRequestException("Cannot cancel this appointment");
         }
 
+        AppointmentStatus previousStatus = appointment.getStatus();
         appointment.setStatus(AppointmentStatus.CANCELLED);
         appointmentRepository.save(appointment);
+        conflictIndex.untrack(appointment);
+        eventPublisher.publishEvent(AppointmentChangedEvent.of(AppointmentChangedEvent.Type.CANCELLED,
+                appointment, null, previousStatus));
         log.info("Appointment cancelled successfully");
     }
 
+    static List<DoctorSlotsResponse.Slot> freeSlots(List<DoctorAvailability> windows,
+            List<AppointmentRepository.TimeSlot> booked, LocalDate from, LocalDate to, int slotMinutes,
+            LocalDateTime notBefore) {
+        if (windows.isEmpty()) {
+            return List.of();
+        }
+
+        // Merge bookings into disjoint busy ranges so a single forward sweep can skip them
+        List<LocalDateTime[]> busy = new ArrayList<>();
+        booked.stream()
+                .sorted(Comparator.comparing(AppointmentRepository.TimeSlot::getAppointmentTime))
+                .forEach(slot -> {
+                    LocalDateTime start = slot.getAppointmentTime();
+                    LocalDateTime end = start.plusMinutes(AppointmentConflictIndex.durationOf(slot.getDurationMinutes()));
+                    LocalDateTime[] last = busy.isEmpty() ? null : busy.get(busy.size() - 1);
+                    if (last != null && !start.isAfter(last[1])) {
+                        if (end.isAfter(last[1])) {
+                            last[1] = end;
+                        }
+                    } else {
+                        busy.add(new LocalDateTime[]{start, end});
+                    }
+                });
+
+        List<DoctorSlotsResponse.Slot> slots = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            DayOfWeek dayOfWeek = DayOfWeek.valueOf(day.getDayOfWeek().name());
+            LocalDate date = day;
+            List<DoctorAvailability> dayWindows = windows.stream()
+                    .filter(window -> window.getDayOfWeek() == dayOfWeek)
+                    .sorted(Comparator.comparing(DoctorAvailability::getStartTime))
+                    .toList();
+            for (DoctorAvailability window : dayWindows) {
+                LocalDateTime windowEnd = date.atTime(window.getEndTime());
+                for (LocalDateTime start = date.atTime(window.getStartTime());
+                     !start.plusMinutes(slotMinutes).isAfter(windowEnd);
+                     start = start.plusMinutes(slotMinutes)) {
+                    LocalDateTime end = start.plusMinutes(slotMinutes);
+                    if (!start.isBefore(notBefore) && !isBusy(busy, start, end)) {
+                        slots.add(DoctorSlotsResponse.Slot.builder().start(start).end(end).build());
+                    }
+                }
+            }
+        }
+        return slots;
+    }
+
+    private static boolean isBusy(List<LocalDateTime[]> busy, LocalDateTime start, LocalDateTime end) {
+        // Ranges are disjoint and sorted, so their ends are sorted too: find the first one ending after start
+        int low = 0;
+        int high = busy.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (busy.get(mid)[1].isAfter(start)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low < busy.size() && busy.get(low)[0].isBefore(end);
+    }
+
+    private void assertNoConflict(Long doctorId, LocalDateTime start, int durationMinutes, Long excludeId) {
+        LocalDateTime end = start.plusMinutes(durationMinutes);
+        // The index can be stale (a cancel or move on another node), so a hit is only a hint: the database decides
+        boolean indexHit = conflictIndex.hasConflict(doctorId, start, end, excludeId);
+        if ((indexHit || verifyConflictsWithDatabase)
+                && appointmentRepository.existsOverlappingAppointment(doctorId, start, end, excludeId)) {
+            throw new BadRequestException("Doctor already has an appointment at this time");
+        }
+        if (indexHit) {
+            log.debug("Conflict index reported a stale overlap for doctor {} at {}, reloading", doctorId, start);
+            conflictIndex.invalidate(doctorId, start, end);
+        }
+    }
+
+    private CursorPage<AppointmentResponse> scroll(String cursor, Integer size,
+            BiFunction<ScrollPosition, Limit, Window<Appointment>> query) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Window<Appointment> window = query.apply(AppointmentCursor.decode(cursor), Limit.of(pageSize));
+        List<Appointment> appointments = window.getContent();
+
+        return CursorPage.<AppointmentResponse>builder()
+                .content(appointments.stream().map(this::mapToResponse).collect(Collectors.toList()))
+                .size(appointments.size())
+                .hasNext(window.hasNext())
+                .nextCursor(window.hasNext() && !appointments.isEmpty()
+                        ? AppointmentCursor.encode(appointments.get(appointments.size() - 1))
+                        : null)
+                .build();
+    }
+
+    // Per-doctor booked intervals for one batch: start -> latest end starting at that instant
+    private static final class BatchTimeline {
+
+        private final NavigableMap<LocalDateTime, LocalDateTime> intervals = new TreeMap<>();
+        private long longestMinutes;
+
+        void add(LocalDateTime start, LocalDateTime end) {
+            intervals.merge(start, end, (a, b) -> a.isAfter(b) ? a : b);
+            longestMinutes = Math.max(longestMinutes, ChronoUnit.MINUTES.between(start, end));
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            return intervals.subMap(start.minusMinutes(longestMinutes), false, end, false).values().stream()
+                    .anyMatch(existingEnd -> existingEnd.isAfter(start));
+        }
+    }
+
+    private AppointmentResponse.DoctorSummary mapToDoctorSummary(Doctor doctor) {
+        return AppointmentResponse.DoctorSummary.builder()
+                .id(doctor.getId())
+                .firstName(doctor.getUser().getFirstName())
+                .lastName(doctor.getUser().getLastName())
+                .specialization(doctor.getSpecialization())
+                .build();
+    }
+
     private AppointmentResponse mapToResponse(Appointment appointment) {
         Patient patient = appointment.getPatient();
         Doctor doctor = appointment.getDoctor();
@@ -222,12 +600,7 @@ public class AppointmentService {
                         .lastName(patient.getUser().getLastName())
                         .phone(patient.getUser().getPhone())
                         .build())
-                .doctor(AppointmentResponse.DoctorSummary.builder()
-                        .id(doctor.getId())
-                        .firstName(doctor.getUser().getFirstName())
-                        .lastName(doctor.getUser().getLastName())
-                        .specialization(doctor.getSpecialization())
-                        .build())
+                .doctor(mapToDoctorSummary(doctor))
                 .appointmentTime(appointment.getAppointmentTime())
                 .status(appointment.getStatus())
                 .reason(appointment.getReason())
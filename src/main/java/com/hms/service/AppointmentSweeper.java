@@ -0,0 +1,141 @@
+package com.hms.service;
+
+import com.hms.entity.Appointment;
+import com.hms.enums.AppointmentStatus;
+import com.hms.event.AppointmentChangedEvent;
+import com.hms.repository.AppointmentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves appointments that ended long ago out of PENDING/CONFIRMED: never-confirmed ones are
+ * cancelled, confirmed ones are completed.
+ * <p>
+ * Works in chunks: one projection query picks the next ids, one bulk UPDATE (guarded by the current
+ * status) moves them, each chunk in its own short transaction. No entities are loaded.
+ */
+@Component
+@Slf4j
+public class AppointmentSweeper {
+
+    // Terminal state for each stale status; checked against Appointment.canTransitionTo on startup
+    static final Map<AppointmentStatus, AppointmentStatus> FINAL_STATUS = new EnumMap<>(Map.of(
+            AppointmentStatus.PENDING, AppointmentStatus.CANCELLED,
+            AppointmentStatus.CONFIRMED, AppointmentStatus.COMPLETED));
+
+    private final AppointmentRepository appointmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate chunkTransaction;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long graceHours;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+
+    public AppointmentSweeper(AppointmentRepository appointmentRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${hms.appointments.sweeper.enabled:true}") boolean enabled,
+                              @Value("${hms.appointments.sweeper.grace-hours:12}") long graceHours,
+                              @Value("${hms.appointments.sweeper.chunk-size:500}") int chunkSize,
+                              @Value("${hms.appointments.sweeper.max-chunks-per-run:200}") int maxChunksPerRun,
+                              @Value("${hms.appointments.sweeper.chunk-timeout-seconds:10}") int chunkTimeoutSeconds) {
+        FINAL_STATUS.forEach((from, to) -> {
+            if (!Appointment.builder().status(from).build().canTransitionTo(to)) {
+                throw new IllegalStateException("Sweeper transition " + from + " -> " + to + " is not allowed");
+            }
+        });
+        this.appointmentRepository = appointmentRepository;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.graceHours = graceHours;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setTimeout(chunkTimeoutSeconds);
+    }
+
+    @Scheduled(initialDelayString = "${hms.appointments.sweeper.initial-delay-ms:60000}",
+            fixedDelayString = "${hms.appointments.sweeper.interval-ms:900000}")
+    public void sweep() {
+        if (enabled) {
+            sweep(LocalDateTime.now().minusHours(graceHours));
+        }
+    }
+
+    /**
+     * Finalises appointments that ended before {@code cutoff}. Returns the number of rows moved per source status.
+     */
+    public Map<AppointmentStatus, Integer> sweep(LocalDateTime cutoff) {
+        Map<AppointmentStatus, Integer> moved = new EnumMap<>(AppointmentStatus.class);
+        int chunks = 0;
+        boolean capped = false;
+        for (Map.Entry<AppointmentStatus, AppointmentStatus> transition : FINAL_STATUS.entrySet()) {
+            AppointmentStatus from = transition.getKey();
+            AppointmentStatus to = transition.getValue();
+            Counter counter = Counter.builder("hms.appointments.sweeper.finalised")
+                    .tag("from", from.name()).tag("to", to.name())
+                    .register(meterRegistry);
+            int total = 0;
+            while (true) {
+                if (chunks >= maxChunksPerRun) {
+                    capped = true;
+                    break;
+                }
+                Integer updated = chunkTransaction.execute(status -> sweepChunk(from, to, cutoff));
+                chunks++;
+                if (updated == null || updated == 0) {
+                    break;
+                }
+                total += updated;
+                counter.increment(updated);
+            }
+            moved.put(from, total);
+        }
+        if (capped) {
+            log.warn("Appointment sweep stopped after {} chunks; the rest is left for the next run", chunks);
+        }
+        log.info("Appointment sweep before {} finalised {}", cutoff, moved);
+        return moved;
+    }
+
+    private int sweepChunk(AppointmentStatus from, AppointmentStatus to, LocalDateTime cutoff) {
+        List<AppointmentRepository.ScheduledSlot> stale =
+                appointmentRepository.findEndedBefore(from, cutoff, Limit.of(chunkSize));
+        if (stale.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = stale.stream().map(AppointmentRepository.ScheduledSlot::getId).toList();
+        int updated = appointmentRepository.updateStatusWhereCurrent(ids, from, to, LocalDateTime.now());
+
+        // The status guard skips rows changed since the select; only announce the ones actually moved
+        Set<Long> movedIds = updated == ids.size()
+                ? null
+                : new HashSet<>(appointmentRepository.findIdsByIdInAndStatus(ids, to));
+        for (AppointmentRepository.ScheduledSlot slot : stale) {
+            if (movedIds == null || movedIds.contains(slot.getId())) {
+                eventPublisher.publishEvent(new AppointmentChangedEvent(AppointmentChangedEvent.Type.STATUS_CHANGED,
+                        slot.getId(), slot.getDoctorId(), slot.getPatientId(), null, slot.getAppointmentTime(),
+                        slot.getDurationMinutes(), from, to, AppointmentChangedEvent.Source.SWEEPER));
+            }
+        }
+        return updated;
+    }
+}
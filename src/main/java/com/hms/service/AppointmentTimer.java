@@ -0,0 +1,22 @@
+package com.hms.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * A due appointment timer handed to {@link AppointmentNotifier}.
+ */
+public record AppointmentTimer(
+        Kind kind,
+        Long appointmentId,
+        Long doctorId,
+        Long patientId,
+        LocalDateTime appointmentTime,
+        LocalDateTime dueAt) {
+
+    public enum Kind {
+        /** Fires a configured lead time before the appointment starts. */
+        REMINDER,
+        /** Fires once a still PENDING/CONFIRMED appointment has ended plus a grace period. */
+        OVERDUE
+    }
+}
@@ -0,0 +1,248 @@
+package com.hms.service;
+
+import com.hms.event.AppointmentChangedEvent;
+import com.hms.repository.AppointmentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reminder and overdue timers for active appointments, kept in a {@link HashedTimingWheel}.
+ * <p>
+ * Only appointments starting within a sliding horizon are loaded; the horizon is extended
+ * incrementally with one range query per refill. Committed appointment changes cancel and
+ * re-arm that appointment's timers. Due timers are handed to the {@link AppointmentNotifier}
+ * in batches on a separate thread, so a slow notifier never delays the tick.
+ */
+@Component
+@Slf4j
+public class AppointmentTimerScheduler {
+
+    private static final int WHEEL_SLOTS = 4096;
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentNotifier notifier;
+    private final boolean enabled;
+    private final long tickMillis;
+    private final Duration horizon;
+    private final Duration refillInterval;
+    private final Duration overdueGrace;
+    private final List<Duration> reminderLeads;
+    private final int batchSize;
+
+    private final HashedTimingWheel<Long, AppointmentTimer> wheel;
+    // Guarded by wheel; appointments starting before loadedUntil are in the wheel
+    private LocalDateTime loadedUntil;
+    private LocalDateTime loadingUntil;
+    private final Set<Long> changedWhileLoading = new HashSet<>();
+    private LocalDateTime nextRefill;
+
+    private ScheduledExecutorService ticker;
+    private ExecutorService dispatcher;
+
+    public AppointmentTimerScheduler(AppointmentRepository appointmentRepository,
+                                     AppointmentNotifier notifier,
+                                     @Value("${hms.appointments.timers.enabled:true}") boolean enabled,
+                                     @Value("${hms.appointments.timers.tick-ms:1000}") long tickMillis,
+                                     @Value("${hms.appointments.timers.horizon-hours:48}") long horizonHours,
+                                     @Value("${hms.appointments.timers.refill-minutes:30}") long refillMinutes,
+                                     @Value("${hms.appointments.timers.overdue-grace-minutes:15}") long overdueGraceMinutes,
+                                     @Value("${hms.appointments.timers.reminder-leads-minutes:1440,60}") List<Long> reminderLeadMinutes,
+                                     @Value("${hms.appointments.timers.dispatch-batch-size:500}") int batchSize) {
+        this.appointmentRepository = appointmentRepository;
+        this.notifier = notifier;
+        this.enabled = enabled;
+        this.tickMillis = tickMillis;
+        this.horizon = Duration.ofHours(horizonHours);
+        this.refillInterval = Duration.ofMinutes(refillMinutes);
+        this.overdueGrace = Duration.ofMinutes(overdueGraceMinutes);
+        this.reminderLeads = reminderLeadMinutes.stream().map(Duration::ofMinutes).toList();
+        this.batchSize = batchSize;
+        this.wheel = new HashedTimingWheel<>(tickMillis, WHEEL_SLOTS, System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Appointment timers disabled");
+            return;
+        }
+        dispatcher = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "appointment-timer-dispatch"));
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "appointment-timer-tick"));
+        // Start one grace period back so appointments that ended just before startup still get their overdue timer
+        initialise(LocalDateTime.now().minus(overdueGrace).minusDays(1));
+        dispatcher.execute(() -> extendHorizon(LocalDateTime.now()));
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (wheel) {
+            if (loadingUntil == null) {
+                return;
+            }
+            wheel.cancel(event.appointmentId());
+            if (event.appointmentTime().isBefore(loadingUntil)) {
+                if (AppointmentConflictIndex.isActive(event.status())) {
+                    arm(event.appointmentId(), event.doctorId(), event.patientId(), event.appointmentTime(),
+                            event.durationMinutes(), LocalDateTime.now());
+                }
+                if (!loadingUntil.equals(loadedUntil)) {
+                    changedWhileLoading.add(event.appointmentId());
+                }
+            }
+        }
+    }
+
+    void initialise(LocalDateTime loadFrom) {
+        synchronized (wheel) {
+            loadedUntil = loadFrom;
+            loadingUntil = loadFrom;
+        }
+    }
+
+    /**
+     * Loads appointments starting between the current horizon and {@code now + horizon}.
+     */
+    void extendHorizon(LocalDateTime now) {
+        LocalDateTime from;
+        LocalDateTime to = now.plus(horizon);
+        synchronized (wheel) {
+            if (!to.isAfter(loadedUntil)) {
+                return;
+            }
+            from = loadedUntil;
+            loadingUntil = to;
+            changedWhileLoading.clear();
+            nextRefill = now.plus(refillInterval);
+        }
+
+        List<AppointmentRepository.ScheduledSlot> slots;
+        try {
+            slots = appointmentRepository.findActiveStartingBetween(from, to);
+        } catch (RuntimeException e) {
+            log.warn("Failed to load appointment timers from {} to {}", from, to, e);
+            synchronized (wheel) {
+                loadingUntil = loadedUntil;
+            }
+            return;
+        }
+
+        synchronized (wheel) {
+            int armed = 0;
+            for (AppointmentRepository.ScheduledSlot slot : slots) {
+                // A change committed during the query is newer than what the query may have read
+                if (!changedWhileLoading.contains(slot.getId())) {
+                    arm(slot.getId(), slot.getDoctorId(), slot.getPatientId(), slot.getAppointmentTime(),
+                            slot.getDurationMinutes(), now);
+                    armed++;
+                }
+            }
+            changedWhileLoading.clear();
+            loadedUntil = to;
+            log.debug("Loaded {} appointment timers from {} to {} ({} pending)", armed, from, to, wheel.size());
+        }
+    }
+
+    /**
+     * Fires every timer due at {@code now} and returns them.
+     */
+    List<AppointmentTimer> advance(LocalDateTime now) {
+        synchronized (wheel) {
+            return wheel.advance(toMillis(now));
+        }
+    }
+
+    int pendingTimers() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    private void tick() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<AppointmentTimer> due = advance(now);
+            for (int from = 0; from < due.size(); from += batchSize) {
+                List<AppointmentTimer> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+                dispatcher.execute(() -> dispatch(batch));
+            }
+            boolean refill;
+            synchronized (wheel) {
+                refill = nextRefill != null && !now.isBefore(nextRefill);
+                if (refill) {
+                    nextRefill = now.plus(refillInterval);
+                }
+            }
+            if (refill) {
+                dispatcher.execute(() -> extendHorizon(now));
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the fixed-rate task
+            log.error("Appointment timer tick failed", e);
+        }
+    }
+
+    private void dispatch(List<AppointmentTimer> batch) {
+        try {
+            notifier.dispatch(batch);
+        } catch (RuntimeException e) {
+            log.error("Appointment notifier failed for {} timers", batch.size(), e);
+        }
+    }
+
+    private void arm(Long appointmentId, Long doctorId, Long patientId, LocalDateTime appointmentTime,
+                     Integer durationMinutes, LocalDateTime now) {
+        for (Duration lead : reminderLeads) {
+            LocalDateTime dueAt = appointmentTime.minus(lead);
+            // Reminders whose moment has already passed are not worth sending late
+            if (dueAt.isAfter(now)) {
+                wheel.schedule(appointmentId, new AppointmentTimer(AppointmentTimer.Kind.REMINDER,
+                        appointmentId, doctorId, patientId, appointmentTime, dueAt), toMillis(dueAt));
+            }
+        }
+        LocalDateTime overdueAt = appointmentTime
+                .plusMinutes(AppointmentConflictIndex.durationOf(durationMinutes))
+                .plus(overdueGrace);
+        wheel.schedule(appointmentId, new AppointmentTimer(AppointmentTimer.Kind.OVERDUE,
+                appointmentId, doctorId, patientId, appointmentTime, overdueAt), toMillis(overdueAt));
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -1,8 +1,10 @@
 package com.hms.service;
 
+import com.hms.dto.request.ForgotPasswordRequest;
 import com.hms.dto.request.LoginRequest;
 import com.hms.dto.request.RefreshTokenRequest;
 import com.hms.dto.request.RegisterRequest;
+import com.hms.dto.request.ResetPasswordRequest;
 import com.hms.dto.response.AuthResponse;
 import com.hms.entity.User;
 import com.hms.enums.Role;
@@ -10,6 +12,7 @@ import com.hms.exception.DuplicateResourceException;
 import com.hms.exception.UnauthorizedException;
 import com.hms.repository.UserRepository;
 import com.hms.security.JwtService;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,6 +21,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -30,6 +34,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final PasswordResetNotifier passwordResetNotifier;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -109,6 +114,59 @@ public class AuthService {
         return buildAuthResponse(user, newAccessToken, newRefreshToken);
     }
 
+    /**
+     * Sends a password reset token to the account's owner. This is also how imported accounts, which have no
+     * usable password, set their first one. Unknown or disabled emails are ignored so the response does not
+     * reveal which accounts exist.
+     */
+    public void requestPasswordReset(ForgotPasswordRequest request) {
+        log.info("Password reset requested for email: {}", request.getEmail());
+
+        userRepository.findByEmail(request.getEmail())
+                .filter(User::getEnabled)
+                .ifPresent(user -> {
+                    String token = jwtService.generatePasswordResetToken(user);
+                    Instant expiresAt = Instant.now().plusMillis(jwtService.getPasswordResetExpiration());
+                    passwordResetNotifier.sendResetToken(user, token, expiresAt);
+                });
+    }
+
+    /**
+     * Sets a new password using a token from {@link #requestPasswordReset} and signs the user in. The token is
+     * bound to the password it was issued against, so it cannot be used twice.
+     */
+    @Transactional
+    public AuthResponse resetPassword(ResetPasswordRequest request) {
+        log.info("Password reset submitted");
+
+        String userEmail;
+        try {
+            userEmail = jwtService.extractUsername(request.getToken());
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new UnauthorizedException("Password reset token is invalid or expired");
+        }
+
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new UnauthorizedException("Password reset token is invalid or expired"));
+
+        if (!jwtService.isPasswordResetTokenValid(request.getToken(), user)) {
+            throw new UnauthorizedException("Password reset token is invalid or expired");
+        }
+        if (!user.getEnabled()) {
+            throw new UnauthorizedException("User account is disabled");
+        }
+
+        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        user.setPasswordResetRequired(false);
+        User savedUser = userRepository.save(user);
+
+        String accessToken = jwtService.generateToken(savedUser);
+        String refreshToken = jwtService.generateRefreshToken(savedUser);
+
+        log.info("Password reset for user: {}", userEmail);
+        return buildAuthResponse(savedUser, accessToken, refreshToken);
+    }
+
     private AuthResponse buildAuthResponse(User user, String accessToken, String refreshToken) {
         return AuthResponse.builder()
                 .accessToken(accessToken)
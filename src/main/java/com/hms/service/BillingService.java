@@ -1,23 +1,33 @@
 package com.hms.service;
 
+import com.hms.domain.Money;
 import com.hms.dto.request.InvoiceRequest;
 import com.hms.dto.request.PaymentRequest;
 import com.hms.dto.response.InvoiceResponse;
+import com.hms.dto.response.LedgerVerificationReport;
+import com.hms.dto.response.OverdueInvoiceResponse;
+import com.hms.dto.response.PatientBalanceResponse;
 import com.hms.dto.response.PaymentResponse;
 import com.hms.entity.*;
 import com.hms.enums.PaymentStatus;
 import com.hms.exception.BadRequestException;
+import com.hms.exception.DuplicateResourceException;
 import com.hms.exception.ResourceNotFoundException;
 import com.hms.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,17 +35,23 @@ import java.util.stream.Collectors;
 @Slf4j
 public class BillingService {
 
+    // Keeps IN lists well below driver bind-parameter limits
+    private static final int READ_MODEL_CHUNK_SIZE = 1000;
+
     private final InvoiceRepository invoiceRepository;
     private final PaymentRepository paymentRepository;
     private final PatientRepository patientRepository;
     private final AppointmentRepository appointmentRepository;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final DailyRevenueRollup dailyRevenueRollup;
+    private final PatientAccountLedger patientAccountLedger;
+    private final PatientAccountVerifier patientAccountVerifier;
 
     // Invoice Methods
+    @Transactional(readOnly = true)
     public List<InvoiceResponse> getAllInvoices() {
         log.info("Fetching all invoices");
-        return invoiceRepository.findAll().stream()
-                .map(this::mapToInvoiceResponse)
-                .collect(Collectors.toList());
+        return mapToInvoiceResponses(invoiceRepository.findAllHeaders());
     }
 
     public InvoiceResponse getInvoiceById(Long id) {
@@ -52,24 +68,36 @@ public class BillingService {
         return mapToInvoiceResponse(invoice);
     }
 
+    @Transactional(readOnly = true)
     public List<InvoiceResponse> getInvoicesByPatient(Long patientId) {
         log.info("Fetching invoices for patient ID: {}", patientId);
-        return invoiceRepository.findByPatientId(patientId).stream()
-                .map(this::mapToInvoiceResponse)
-                .collect(Collectors.toList());
+        return mapToInvoiceResponses(invoiceRepository.findHeadersByPatientId(patientId));
     }
 
+    @Transactional(readOnly = true)
     public List<InvoiceResponse> getInvoicesByStatus(PaymentStatus status) {
         log.info("Fetching invoices by status: {}", status);
-        return invoiceRepository.findByStatus(status).stream()
-                .map(this::mapToInvoiceResponse)
-                .collect(Collectors.toList());
+        return mapToInvoiceResponses(invoiceRepository.findHeadersByStatus(status));
     }
 
-    public List<InvoiceResponse> getOverdueInvoices() {
+    public List<OverdueInvoiceResponse> getOverdueInvoices() {
         log.info("Fetching overdue invoices");
-        return invoiceRepository.findOverdueInvoices(LocalDate.now()).stream()
-                .map(this::mapToInvoiceResponse)
+        LocalDate today = LocalDate.now();
+        return invoiceRepository.findOverdueSummaries().stream()
+                .map(overdue -> OverdueInvoiceResponse.builder()
+                        .id(overdue.getId())
+                        .invoiceNumber(overdue.getInvoiceNumber())
+                        .patient(InvoiceResponse.PatientSummary.builder()
+                                .id(overdue.getPatientId())
+                                .firstName(overdue.getPatientFirstName())
+                                .lastName(overdue.getPatientLastName())
+                                .build())
+                        .totalAmount(overdue.getTotalAmount())
+                        .paidAmount(overdue.getPaidAmount())
+                        .remainingBalance(overdue.getTotalAmount().subtract(overdue.getPaidAmount()))
+                        .dueDate(overdue.getDueDate())
+                        .daysOverdue(ChronoUnit.DAYS.between(overdue.getDueDate(), today))
+                        .build())
                 .collect(Collectors.toList());
     }
 
@@ -92,6 +120,7 @@ public class BillingService {
         }
 
         Invoice invoice = Invoice.builder()
+                .invoiceNumber(invoiceNumberAllocator.nextInvoiceNumber())
                 .patient(patient)
                 .appointment(appointment)
                 .dueDate(request.getDueDate())
@@ -116,6 +145,7 @@ public class BillingService {
         }
 
         Invoice savedInvoice = invoiceRepository.save(invoice);
+        patientAccountLedger.invoiceIssued(patient.getId(), Money.of(savedInvoice.getTotalAmount()));
         log.info("Invoice created with ID: {} and number: {}", savedInvoice.getId(), savedInvoice.getInvoiceNumber());
 
         return mapToInvoiceResponse(savedInvoice);
@@ -125,15 +155,22 @@ public class BillingService {
     public InvoiceResponse updateInvoice(Long id, InvoiceRequest request) {
         log.info("Updating invoice with ID: {}", id);
 
-        Invoice invoice = invoiceRepository.findById(id)
+        // Locked so concurrent edits cannot both adjust the patient account from the same old total
+        Invoice invoice = invoiceRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Invoice", "id", id));
+        Money oldTotal = Money.of(invoice.getTotalAmount());
 
         if (invoice.getStatus() == PaymentStatus.PAID) {
             throw new BadRequestException("Cannot update a fully paid invoice");
         }
 
-        if (request.getDueDate() != null)
+        if (request.getDueDate() != null) {
             invoice.setDueDate(request.getDueDate());
+            // Moving the due date out of the past lifts OVERDUE; the nightly job marks it again once it lapses
+            if (invoice.getStatus() == PaymentStatus.OVERDUE && !request.getDueDate().isBefore(LocalDate.now())) {
+                invoice.updatePaymentStatus();
+            }
+        }
         if (request.getNotes() != null)
             invoice.setNotes(request.getNotes());
 
@@ -153,6 +190,10 @@ public class BillingService {
         }
 
         Invoice updatedInvoice = invoiceRepository.save(invoice);
+        if (updatedInvoice.getStatus() != PaymentStatus.CANCELLED) {
+            patientAccountLedger.invoiceRevised(updatedInvoice.getPatient().getId(), oldTotal,
+                    Money.of(updatedInvoice.getTotalAmount()));
+        }
         log.info("Invoice updated successfully");
 
         return mapToInvoiceResponse(updatedInvoice);
@@ -168,9 +209,24 @@ public class BillingService {
         if (invoice.getStatus() == PaymentStatus.PAID) {
             throw new BadRequestException("Cannot cancel a paid invoice");
         }
+        if (invoice.getStatus() == PaymentStatus.CANCELLED) {
+            log.info("Invoice already cancelled");
+            return;
+        }
 
-        invoice.setStatus(PaymentStatus.CANCELLED);
-        invoiceRepository.save(invoice);
+        // Conditional so a payment completing concurrently cannot be turned into a cancellation
+        if (invoiceRepository.cancelIfOpen(id, LocalDateTime.now()) == 0) {
+            Invoice current = invoiceRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Invoice", "id", id));
+            if (current.getStatus() == PaymentStatus.CANCELLED) {
+                return;
+            }
+            throw new BadRequestException("Cannot cancel a paid invoice");
+        }
+        // Re-read under the row lock taken by the update, so the paid amount is final
+        Invoice cancelled = invoiceRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Invoice", "id", id));
+        patientAccountLedger.invoiceCancelled(cancelled.getPatient().getId(), cancelled.balance());
         log.info("Invoice cancelled successfully");
     }
 
@@ -197,10 +253,10 @@ public class BillingService {
             throw new BadRequestException("Cannot make payment on a cancelled invoice");
         }
 
-        // Validate payment amount
-        BigDecimal remainingBalance = invoice.getRemainingBalance();
-        if (request.getAmount().compareTo(remainingBalance) > 0) {
-            throw new BadRequestException("Payment amount exceeds remaining balance of " + remainingBalance);
+        // Fail fast on the snapshot; the conditional update below is what actually guards the balance
+        Money remainingBalance = invoice.balance();
+        if (Money.of(request.getAmount()).compareTo(remainingBalance) > 0) {
+            throw new BadRequestException("Payment amount exceeds remaining balance of " + remainingBalance.toBigDecimal());
         }
 
         Payment payment = Payment.builder()
@@ -213,25 +269,102 @@ public class BillingService {
                 .paymentDate(LocalDateTime.now())
                 .build();
 
-        Payment savedPayment = paymentRepository.save(payment);
+        Payment savedPayment;
+        try {
+            savedPayment = paymentRepository.save(payment);
+        } catch (DataIntegrityViolationException e) {
+            // Only the unique transaction id can fail here, e.g. the same transfer posted twice or imported concurrently
+            throw new DuplicateResourceException("Payment", "transactionId", request.getTransactionId());
+        }
 
-        // Update invoice paid amount and status
-        invoice.setPaidAmount(invoice.getPaidAmount().add(request.getAmount()));
-        invoice.updatePaymentStatus();
-        invoiceRepository.save(invoice);
+        // Apply last so the invoice row is only locked for the rest of the commit
+        if (invoiceRepository.applyPayment(invoice.getId(), request.getAmount(), LocalDateTime.now()) == 0) {
+            throw paymentRejected(request);
+        }
+        dailyRevenueRollup.record(savedPayment);
+        patientAccountLedger.paymentReceived(invoice.getPatient().getId(), Money.of(savedPayment.getAmount()));
 
         log.info("Payment recorded with ID: {}", savedPayment.getId());
 
         return mapToPaymentResponse(savedPayment);
     }
 
+    // The invoice changed between the read and the update; report its current state
+    private BadRequestException paymentRejected(PaymentRequest request) {
+        Invoice current = invoiceRepository.findById(request.getInvoiceId())
+                .orElseThrow(() -> new ResourceNotFoundException("Invoice", "id", request.getInvoiceId()));
+        if (current.getStatus() == PaymentStatus.PAID) {
+            return new BadRequestException("Invoice is already fully paid");
+        }
+        if (current.getStatus() == PaymentStatus.CANCELLED) {
+            return new BadRequestException("Cannot make payment on a cancelled invoice");
+        }
+        return new BadRequestException("Payment amount exceeds remaining balance of " + current.getRemainingBalance());
+    }
+
+    public PatientBalanceResponse getPatientBalance(Long patientId) {
+        log.info("Fetching balance for patient ID: {}", patientId);
+        PatientAccount account = patientAccountLedger.getAccount(patientId)
+                .orElseGet(() -> {
+                    // No account row until the patient's first invoice, or until the startup backfill has run
+                    if (!patientRepository.existsById(patientId)) {
+                        throw new ResourceNotFoundException("Patient", "id", patientId);
+                    }
+                    return patientAccountLedger.computeAccount(patientId);
+                });
+        return PatientBalanceResponse.builder()
+                .patientId(patientId)
+                .outstandingBalance(account.getOutstandingBalance())
+                .totalPaid(account.getTotalPaid())
+                .updatedAt(account.getUpdatedAt())
+                .build();
+    }
+
+    public LedgerVerificationReport verifyPatientAccounts(boolean repair) {
+        log.info("Verifying patient accounts");
+        return patientAccountVerifier.verify(repair);
+    }
+
     public BigDecimal getTotalPaymentsByDateRange(LocalDateTime start, LocalDateTime end) {
-        BigDecimal total = paymentRepository.getTotalPaymentsByDateRange(start, end);
-        return total != null ? total : BigDecimal.ZERO;
+        log.info("Fetching total payments from {} to {}", start, end);
+        if (end.isBefore(start)) {
+            throw new BadRequestException("End must not be before start");
+        }
+        return dailyRevenueRollup.getTotal(start, end);
+    }
+
+    public int rebuildRevenueRollup() {
+        log.info("Rebuilding revenue rollup");
+        return dailyRevenueRollup.rebuild();
+    }
+
+    // Loads items and payments for all headers with one IN query each (per chunk) and assembles in memory
+    private List<InvoiceResponse> mapToInvoiceResponses(List<Invoice> invoices) {
+        List<Long> ids = invoices.stream().map(Invoice::getId).toList();
+        Map<Long, List<InvoiceItem>> itemsByInvoice = new HashMap<>();
+        Map<Long, List<Payment>> paymentsByInvoice = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += READ_MODEL_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + READ_MODEL_CHUNK_SIZE, ids.size()));
+            for (InvoiceItem item : invoiceRepository.findItemsByInvoiceIds(chunk)) {
+                itemsByInvoice.computeIfAbsent(item.getInvoice().getId(), id -> new ArrayList<>()).add(item);
+            }
+            for (Payment payment : invoiceRepository.findPaymentsByInvoiceIds(chunk)) {
+                paymentsByInvoice.computeIfAbsent(payment.getInvoice().getId(), id -> new ArrayList<>()).add(payment);
+            }
+        }
+        return invoices.stream()
+                .map(invoice -> mapToInvoiceResponse(invoice,
+                        itemsByInvoice.getOrDefault(invoice.getId(), List.of()),
+                        paymentsByInvoice.getOrDefault(invoice.getId(), List.of())))
+                .collect(Collectors.toList());
     }
 
     private InvoiceResponse mapToInvoiceResponse(Invoice invoice) {
-        List<InvoiceResponse.InvoiceItemResponse> items = invoice.getItems().stream()
+        return mapToInvoiceResponse(invoice, invoice.getItems(), invoice.getPayments());
+    }
+
+    private InvoiceResponse mapToInvoiceResponse(Invoice invoice, List<InvoiceItem> invoiceItems, List<Payment> invoicePayments) {
+        List<InvoiceResponse.InvoiceItemResponse> items = invoiceItems.stream()
                 .map(item -> InvoiceResponse.InvoiceItemResponse.builder()
                         .id(item.getId())
                         .description(item.getDescription())
@@ -241,7 +374,7 @@ public class BillingService {
                         .build())
                 .collect(Collectors.toList());
 
-        List<InvoiceResponse.PaymentSummary> payments = invoice.getPayments().stream()
+        List<InvoiceResponse.PaymentSummary> payments = invoicePayments.stream()
                 .map(payment -> InvoiceResponse.PaymentSummary.builder()
                         .id(payment.getId())
                         .amount(payment.getAmount())
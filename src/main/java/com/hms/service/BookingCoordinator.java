@@ -0,0 +1,128 @@
+package com.hms.service;
+
+import com.hms.exception.BadRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serialises bookings that touch the same doctor on the same day.
+ * <p>
+ * Locks are striped in-JVM by (doctorId, date) and, on PostgreSQL, also taken as transaction-scoped
+ * advisory locks so that several application nodes serialise on the same key. Both are held until
+ * the surrounding transaction completes, so the next booking for that doctor-day only checks for
+ * conflicts once the previous one is committed (or rolled back).
+ */
+@Component
+@Slf4j
+public class BookingCoordinator {
+
+    private static final int STRIPES = 256;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean advisoryLocksEnabled;
+    private final long lockTimeoutMillis;
+    private volatile Boolean postgres;
+
+    public BookingCoordinator(JdbcTemplate jdbcTemplate,
+                              @Value("${hms.appointments.booking.advisory-locks:true}") boolean advisoryLocksEnabled,
+                              @Value("${hms.appointments.booking.lock-timeout-ms:10000}") long lockTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.advisoryLocksEnabled = advisoryLocksEnabled;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Locks every day the interval [start, end) touches until the current transaction completes.
+     * Any two overlapping intervals share at least one of those days.
+     */
+    public void lockInterval(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        List<DoctorDay> keys = new ArrayList<>();
+        LocalDate last = end.minusNanos(1).toLocalDate();
+        for (LocalDate day = start.toLocalDate(); !day.isAfter(last); day = day.plusDays(1)) {
+            keys.add(new DoctorDay(doctorId, day));
+        }
+        lock(keys);
+    }
+
+    /**
+     * Locks a set of doctor-days until the current transaction completes. Stripes and advisory keys
+     * are always taken in ascending order, so concurrent multi-key callers cannot deadlock.
+     */
+    public void lock(Collection<DoctorDay> keys) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Booking locks require an active transaction");
+        }
+
+        List<ReentrantLock> held = new ArrayList<>();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                held.forEach(ReentrantLock::unlock);
+            }
+        });
+
+        int[] stripeIndexes = keys.stream().mapToInt(BookingCoordinator::stripe).distinct().sorted().toArray();
+        for (int index : stripeIndexes) {
+            ReentrantLock lock = stripes[index];
+            try {
+                if (!lock.tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new BadRequestException("Doctor's schedule is busy, please retry the booking");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BadRequestException("Booking was interrupted, please retry");
+            }
+            held.add(lock);
+        }
+
+        if (usesAdvisoryLocks()) {
+            keys.stream().distinct().sorted(DoctorDay.ORDER).forEach(key ->
+                    jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, ?)", rs -> {
+                    }, key.doctorId().intValue(), (int) key.day().toEpochDay()));
+        }
+    }
+
+    public record DoctorDay(Long doctorId, LocalDate day) {
+
+        static final Comparator<DoctorDay> ORDER =
+                Comparator.comparing(DoctorDay::doctorId).thenComparing(DoctorDay::day);
+    }
+
+    static int stripe(DoctorDay key) {
+        int hash = Long.hashCode(key.doctorId()) * 31 + Long.hashCode(key.day().toEpochDay());
+        hash ^= (hash >>> 16);
+        return hash & (STRIPES - 1);
+    }
+
+    private boolean usesAdvisoryLocks() {
+        if (!advisoryLocksEnabled) {
+            return false;
+        }
+        Boolean isPostgres = postgres;
+        if (isPostgres == null) {
+            isPostgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()));
+            postgres = isPostgres;
+            log.info("Booking advisory locks {}", Boolean.TRUE.equals(isPostgres) ? "enabled" : "not supported by database");
+        }
+        return Boolean.TRUE.equals(isPostgres);
+    }
+}
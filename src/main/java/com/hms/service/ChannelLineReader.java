@@ -0,0 +1,112 @@
+package com.hms.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads UTF-8 lines from a channel through fixed-size buffers, so memory stays bounded by the buffer
+ * size and {@code maxLineLength} whatever the size of the input. Longer lines are cut off and flagged.
+ * Not thread-safe.
+ */
+final class ChannelLineReader implements Closeable {
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer bytes;
+    private final CharBuffer chars;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final int maxLineLength;
+    private final StringBuilder line = new StringBuilder();
+    private long bytesRead;
+    private boolean endOfInput;
+    private boolean truncated;
+    private boolean lastLineTruncated;
+    private boolean firstLine = true;
+
+    ChannelLineReader(ReadableByteChannel channel, int bufferSize, int maxLineLength) {
+        this.channel = channel;
+        this.bytes = ByteBuffer.allocate(bufferSize);
+        // UTF-8 never decodes to more chars than bytes
+        this.chars = CharBuffer.allocate(bufferSize);
+        this.chars.flip();
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Returns the next line without its terminator, or {@code null} at the end of the input.
+     */
+    String readLine() throws IOException {
+        while (true) {
+            while (chars.hasRemaining()) {
+                char c = chars.get();
+                if (c == '\n') {
+                    return takeLine();
+                }
+                if (line.length() < maxLineLength) {
+                    line.append(c);
+                } else {
+                    truncated = true;
+                }
+            }
+            if (endOfInput) {
+                return line.length() > 0 || truncated ? takeLine() : null;
+            }
+            fill();
+        }
+    }
+
+    /**
+     * Whether the line last returned by {@link #readLine()} was longer than the limit and cut off.
+     */
+    boolean wasTruncated() {
+        return lastLineTruncated;
+    }
+
+    long getBytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void fill() throws IOException {
+        chars.clear();
+        int read = channel.read(bytes);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            bytesRead += read;
+        }
+        bytes.flip();
+        decoder.decode(bytes, chars, endOfInput);
+        if (endOfInput) {
+            decoder.flush(chars);
+        }
+        // Keeps a multi-byte character split across reads for the next round
+        bytes.compact();
+        chars.flip();
+    }
+
+    private String takeLine() {
+        int end = line.length();
+        if (end > 0 && line.charAt(end - 1) == '\r') {
+            end--;
+        }
+        int start = firstLine && end > 0 && line.charAt(0) == '\uFEFF' ? 1 : 0;
+        String result = line.substring(start, end);
+        line.setLength(0);
+        lastLineTruncated = truncated;
+        truncated = false;
+        firstLine = false;
+        return result;
+    }
+}
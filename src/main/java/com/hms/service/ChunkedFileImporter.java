@@ -0,0 +1,205 @@
+package com.hms.service;
+
+import com.hms.enums.ImportFormat;
+import com.hms.exception.BadRequestException;
+import com.hms.exception.ResourceNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Background import of CSV or NDJSON files, one record per line, shared by {@link ReconciliationService} and
+ * {@link PatientImportService}.
+ * <p>
+ * Uploads are spooled to a temporary file and imported one at a time on a single worker thread. The file is
+ * read through a {@link ChannelLineReader}; blank lines are skipped, overlong or unparseable lines are counted
+ * as invalid, and parsed lines are handed to the service in chunks, which it writes one transaction per
+ * chunk. The progress of recent imports is kept in a bounded in-memory registry.
+ *
+ * @param <L> a parsed line
+ * @param <P> the service's progress, which also builds its report
+ */
+@Slf4j
+final class ChunkedFileImporter<L, P extends ImportProgress<?>> {
+
+    interface LineParser<L> {
+        // Returns null for lines that carry no record, such as a CSV header
+        L parse(long lineNumber, String text);
+    }
+
+    interface ProgressFactory<P> {
+        P create(String importId, String fileName, ImportFormat format, long totalBytes);
+    }
+
+    private final String name;
+    private final String threadName;
+    private final Function<ImportFormat, LineParser<L>> parsers;
+    private final BiConsumer<List<L>, P> chunkHandler;
+    private final ProgressFactory<P> progressFactory;
+    private final int chunkLines;
+    private final int readBufferBytes;
+    private final int maxLineLength;
+    private final ExecutorService worker;
+    private final Map<String, P> imports;
+
+    /**
+     * @param name         what the import is called in logs and errors, e.g. "Patient import"
+     * @param threadName   the worker thread's name, also the spooled files' prefix
+     * @param parsers      a fresh parser for each file
+     * @param chunkHandler writes a chunk and adds its outcome to the progress
+     */
+    ChunkedFileImporter(String name,
+                        String threadName,
+                        Function<ImportFormat, LineParser<L>> parsers,
+                        BiConsumer<List<L>, P> chunkHandler,
+                        ProgressFactory<P> progressFactory,
+                        int chunkLines,
+                        int readBufferBytes,
+                        int maxLineLength,
+                        int retainedImports) {
+        this.name = name;
+        this.threadName = threadName;
+        this.parsers = parsers;
+        this.chunkHandler = chunkHandler;
+        this.progressFactory = progressFactory;
+        this.chunkLines = chunkLines;
+        this.readBufferBytes = readBufferBytes;
+        this.maxLineLength = maxLineLength;
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.imports = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, P> eldest) {
+                return size() > retainedImports && eldest.getValue().isFinished();
+            }
+        };
+    }
+
+    void stop() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Spools the upload to a temporary file and queues it for import. Returns the queued import's progress.
+     */
+    P submit(MultipartFile file, ImportFormat format) {
+        if (file.isEmpty()) {
+            throw new BadRequestException(name + " file is empty");
+        }
+        ImportFormat resolved = format != null ? format : ImportFormat.detect(file.getOriginalFilename());
+        Path spooled;
+        try {
+            spooled = Files.createTempFile(threadName + "-", "." + resolved.name().toLowerCase(Locale.ROOT));
+            file.transferTo(spooled);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not store " + name.toLowerCase(Locale.ROOT) + " file", e);
+        }
+
+        P progress = register(file.getOriginalFilename(), resolved, file.getSize());
+        worker.execute(() -> {
+            try {
+                run(progress, spooled);
+            } finally {
+                try {
+                    Files.deleteIfExists(spooled);
+                } catch (IOException e) {
+                    log.warn("Could not delete spooled {} file {}", name.toLowerCase(Locale.ROOT), spooled, e);
+                }
+            }
+        });
+        return progress;
+    }
+
+    /**
+     * Imports {@code file} on the calling thread and returns its final progress.
+     */
+    P importFile(Path file, ImportFormat format) throws IOException {
+        P progress = register(file.getFileName().toString(), format, Files.size(file));
+        run(progress, file);
+        return progress;
+    }
+
+    P get(String importId) {
+        P progress;
+        synchronized (imports) {
+            progress = imports.get(importId);
+        }
+        if (progress == null) {
+            throw new ResourceNotFoundException(name, "id", importId);
+        }
+        return progress;
+    }
+
+    private P register(String fileName, ImportFormat format, long totalBytes) {
+        P progress = progressFactory.create(UUID.randomUUID().toString(), fileName, format, totalBytes);
+        synchronized (imports) {
+            imports.put(progress.importId(), progress);
+        }
+        return progress;
+    }
+
+    private void run(P progress, Path file) {
+        progress.start();
+        log.info("{} {} of {} started", name, progress.importId(), progress.fileName());
+        long started = System.nanoTime();
+        try (ChannelLineReader reader = new ChannelLineReader(
+                FileChannel.open(file, StandardOpenOption.READ), readBufferBytes, maxLineLength)) {
+            LineParser<L> parser = parsers.apply(progress.format());
+            List<L> chunk = new ArrayList<>(chunkLines);
+            long lineNumber = 0;
+            String text;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                if (reader.wasTruncated()) {
+                    progress.invalid(lineNumber, "Line is longer than " + maxLineLength + " characters");
+                    continue;
+                }
+                try {
+                    L line = parser.parse(lineNumber, text);
+                    if (line != null) {
+                        chunk.add(line);
+                    }
+                } catch (IllegalArgumentException e) {
+                    progress.invalid(lineNumber, e.getMessage());
+                }
+                if (chunk.size() >= chunkLines) {
+                    chunkHandler.accept(chunk, progress);
+                    chunk.clear();
+                }
+                progress.read(lineNumber, reader.getBytesRead());
+            }
+            if (!chunk.isEmpty()) {
+                chunkHandler.accept(chunk, progress);
+            }
+            progress.read(lineNumber, reader.getBytesRead());
+            progress.complete();
+            log.info("{} {} finished in {} ms: {}", name, progress.importId(),
+                    (System.nanoTime() - started) / 1_000_000, progress.summary());
+        } catch (Exception e) {
+            // Committed chunks stay written; the services skip them when the file is run again
+            log.error("{} {} failed", name, progress.importId(), e);
+            progress.fail(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+}
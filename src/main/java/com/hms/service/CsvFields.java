@@ -0,0 +1,42 @@
+package com.hms.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits one CSV line into its fields. Fields may be double-quoted, with {@code ""} for a literal quote;
+ * quoted line breaks are not supported, as imports are read line by line.
+ */
+final class CsvFields {
+
+    private CsvFields() {
+    }
+
+    static List<String> split(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,124 @@
+package com.hms.service;
+
+import com.hms.domain.Money;
+import com.hms.entity.DailyRevenue;
+import com.hms.entity.Payment;
+import com.hms.repository.DailyRevenueRepository;
+import com.hms.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains the {@code daily_revenue} rollup and answers payment totals from it.
+ * <p>
+ * Whole days in a range are summed from the rollup (one row per day and payment method); only the
+ * partial days at either end of the range are read from {@code payments}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DailyRevenueRollup {
+
+    private static final Comparator<DailyRevenue.Key> KEY_ORDER = Comparator
+            .comparing(DailyRevenue.Key::getRevenueDate)
+            .thenComparing(DailyRevenue.Key::getPaymentMethod);
+
+    private final DailyRevenueRepository dailyRevenueRepository;
+    private final PaymentRepository paymentRepository;
+
+    /**
+     * Adds a payment to its day's row. Must run in the transaction that inserts the payment.
+     */
+    @Transactional
+    public void record(Payment payment) {
+        add(payment.getPaymentDate().toLocalDate(), payment.getPaymentMethod(), payment.getAmount(), 1);
+    }
+
+    /**
+     * Adds many payments with one increment per day and payment method. Must run in the transaction that inserts them.
+     */
+    @Transactional
+    public void recordAll(List<Payment> payments) {
+        // Rows are incremented in the order rebuild() locks them, so the two cannot deadlock
+        Map<DailyRevenue.Key, Money> amounts = new TreeMap<>(KEY_ORDER);
+        Map<DailyRevenue.Key, Long> counts = new HashMap<>();
+        for (Payment payment : payments) {
+            DailyRevenue.Key key = new DailyRevenue.Key(payment.getPaymentDate().toLocalDate(), payment.getPaymentMethod());
+            amounts.merge(key, Money.of(payment.getAmount()), Money::plus);
+            counts.merge(key, 1L, Long::sum);
+        }
+        amounts.forEach((key, amount) -> add(key.getRevenueDate(), key.getPaymentMethod(), amount.toBigDecimal(), counts.get(key)));
+    }
+
+    private void add(LocalDate day, String method, BigDecimal amount, long count) {
+        LocalDateTime now = LocalDateTime.now();
+        // The first payment of a day inserts the row; losing that race to another payment just means incrementing it
+        if (dailyRevenueRepository.increment(day, method, amount, count, now) == 0
+                && dailyRevenueRepository.insertIfAbsent(day, method, amount, count, now) == 0
+                && dailyRevenueRepository.increment(day, method, amount, count, now) == 0) {
+            throw new IllegalStateException("Daily revenue row for " + day + " / " + method + " is missing");
+        }
+    }
+
+    /**
+     * Recomputes the whole rollup from {@code payments}.
+     * <p>
+     * Every row is rewritten under a row lock rather than deleted and reinserted. A payment recorded while the
+     * rebuild runs either incremented its row before the lock was taken, and is then counted by the rebuild, or
+     * waits for the rebuild to commit and increments the rebuilt row.
+     */
+    @Transactional
+    public int rebuild() {
+        log.info("Rebuilding daily revenue rollup");
+        LocalDateTime now = LocalDateTime.now();
+        dailyRevenueRepository.insertPendingFromPayments(now);
+        dailyRevenueRepository.lockAll();
+        dailyRevenueRepository.markAllPending(now);
+        int rows = dailyRevenueRepository.updatePendingFromPayments();
+        int removed = dailyRevenueRepository.deletePending();
+        log.info("Daily revenue rollup rebuilt with {} rows, {} removed", rows, removed);
+        return rows;
+    }
+
+    /**
+     * Total of payments made between {@code start} and {@code end}, both inclusive.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getTotal(LocalDateTime start, LocalDateTime end) {
+        LocalDate firstFullDay = start.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? start.toLocalDate()
+                : start.toLocalDate().plusDays(1);
+        LocalDate lastFullDay = end.toLocalTime().equals(LocalTime.MAX)
+                ? end.toLocalDate()
+                : end.toLocalDate().minusDays(1);
+        if (firstFullDay.isAfter(lastFullDay)) {
+            return orZero(paymentRepository.getTotalPaymentsByDateRange(start, end));
+        }
+
+        BigDecimal total = dailyRevenueRepository.sumBetween(firstFullDay, lastFullDay);
+        if (start.isBefore(firstFullDay.atStartOfDay())) {
+            total = total.add(orZero(paymentRepository.sumPaymentsFromUntil(start, firstFullDay.atStartOfDay())));
+        }
+        LocalDateTime tailStart = lastFullDay.plusDays(1).atStartOfDay();
+        if (!end.isBefore(tailStart)) {
+            total = total.add(orZero(paymentRepository.getTotalPaymentsByDateRange(tailStart, end)));
+        }
+        return total;
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
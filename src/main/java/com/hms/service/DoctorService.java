@@ -6,6 +6,7 @@ import com.hms.entity.Doctor;
 import com.hms.entity.DoctorAvailability;
 import com.hms.entity.User;
 import com.hms.enums.Role;
+import com.hms.exception.BadRequestException;
 import com.hms.exception.DuplicateResourceException;
 import com.hms.exception.ResourceNotFoundException;
 import com.hms.repository.DoctorAvailabilityRepository;
@@ -19,7 +20,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,6 +35,7 @@ public class DoctorService {
     private final UserRepository userRepository;
     private final DoctorAvailabilityRepository availabilityRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PersonSearchIndex personSearchIndex;
 
     public List<DoctorResponse> getAllDoctors() {
         log.info("Fetching all doctors");
@@ -46,6 +51,26 @@ public class DoctorService {
         return mapToResponse(doctor);
     }
 
+    @Transactional(readOnly = true)
+    public List<DoctorResponse> searchDoctors(String query, int limit) {
+        log.info("Searching doctors by name: {}", query);
+        if (limit < 1) {
+            throw new BadRequestException("Limit must be at least 1");
+        }
+        List<Long> ids = personSearchIndex.searchDoctors(query, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // Loaded in one query and returned in the index's ranking order
+        Map<Long, Doctor> doctors = doctorRepository.findAllWithUserByIdIn(ids).stream()
+                .collect(Collectors.toMap(Doctor::getId, Function.identity()));
+        return ids.stream()
+                .map(doctors::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
     public List<DoctorResponse> getDoctorsBySpecialization(String specialization) {
         log.info("Fetching doctors by specialization: {}", specialization);
         return doctorRepository.findBySpecialization(specialization).stream()
@@ -108,6 +133,7 @@ public class DoctorService {
                 .build();
 
         Doctor savedDoctor = doctorRepository.save(doctor);
+        personSearchIndex.doctorSaved(savedDoctor);
 
         // Add availability if provided
         if (request.getAvailabilities() != null && !request.getAvailabilities().isEmpty()) {
@@ -172,6 +198,7 @@ public class DoctorService {
         }
 
         Doctor updatedDoctor = doctorRepository.save(doctor);
+        personSearchIndex.doctorSaved(updatedDoctor);
         log.info("Doctor updated successfully");
 
         return mapToResponse(updatedDoctor);
@@ -185,6 +212,7 @@ public class DoctorService {
                 .orElseThrow(() -> new ResourceNotFoundException("Doctor", "id", id));
 
         doctorRepository.delete(doctor);
+        personSearchIndex.doctorDeleted(id);
         log.info("Doctor deleted successfully");
     }
 
@@ -0,0 +1,118 @@
+package com.hms.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hashed timing wheel: timers are hashed into {@code slots} buckets by their deadline tick, so
+ * scheduling and cancelling are O(1) and each tick only visits one bucket. Timers further out than
+ * one rotation stay in their bucket until the wheel comes round to their tick.
+ * <p>
+ * Timers are grouped by key so that all timers of one owner can be cancelled together.
+ * Not thread-safe; callers synchronise.
+ */
+final class HashedTimingWheel<K, T> {
+
+    private final long tickMillis;
+    private final int mask;
+    private final Set<Entry<K, T>>[] buckets;
+    private final Map<K, List<Entry<K, T>>> byKey = new HashMap<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    HashedTimingWheel(long tickMillis, int slots, long startMillis) {
+        if (Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.mask = slots - 1;
+        this.buckets = new Set[slots];
+        for (int i = 0; i < slots; i++) {
+            buckets[i] = new LinkedHashSet<>();
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    void schedule(K key, T timer, long deadlineMillis) {
+        // Overdue timers land in the current bucket and fire on the next advance
+        long deadlineTick = Math.max(ceilDiv(deadlineMillis, tickMillis), currentTick);
+        Entry<K, T> entry = new Entry<>(key, timer, deadlineTick);
+        buckets[(int) (deadlineTick & mask)].add(entry);
+        byKey.computeIfAbsent(key, k -> new ArrayList<>(2)).add(entry);
+        size++;
+    }
+
+    void cancel(K key) {
+        List<Entry<K, T>> entries = byKey.remove(key);
+        if (entries != null) {
+            entries.forEach(entry -> buckets[(int) (entry.deadlineTick & mask)].remove(entry));
+            size -= entries.size();
+        }
+    }
+
+    /**
+     * Advances the wheel up to {@code nowMillis} and returns the timers that fell due, tick by tick.
+     */
+    List<T> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<T> due = new ArrayList<>();
+        // Never walk more than one rotation: after that every bucket has been visited once
+        long from = Math.max(currentTick, targetTick - mask);
+        for (long tick = from; tick <= targetTick; tick++) {
+            Set<Entry<K, T>> bucket = buckets[(int) (tick & mask)];
+            if (bucket.isEmpty()) {
+                continue;
+            }
+            List<Entry<K, T>> expired = new ArrayList<>();
+            for (Entry<K, T> entry : bucket) {
+                if (entry.deadlineTick <= targetTick) {
+                    expired.add(entry);
+                }
+            }
+            for (Entry<K, T> entry : expired) {
+                bucket.remove(entry);
+                List<Entry<K, T>> siblings = byKey.get(entry.key);
+                if (siblings != null) {
+                    siblings.remove(entry);
+                    if (siblings.isEmpty()) {
+                        byKey.remove(entry.key);
+                    }
+                }
+                size--;
+                due.add(entry.timer);
+            }
+        }
+        currentTick = Math.max(currentTick, targetTick + 1);
+        return due;
+    }
+
+    boolean isScheduled(K key) {
+        return byKey.containsKey(key);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    private static final class Entry<K, T> {
+
+        private final K key;
+        private final T timer;
+        private final long deadlineTick;
+
+        Entry(K key, T timer, long deadlineTick) {
+            this.key = key;
+            this.timer = timer;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.hms.service;
+
+import com.hms.enums.ImportFormat;
+import com.hms.enums.ImportStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * State of one {@link ChunkedFileImporter} run that every import reports: status, how far the file has been
+ * read, invalid lines and a bounded sample of line errors. Subclasses add their own counters and build the
+ * report from the getters; all state is guarded by the instance.
+ *
+ * @param <E> the report's line error type
+ */
+abstract class ImportProgress<E> {
+
+    private final String importId;
+    private final String fileName;
+    private final ImportFormat format;
+    private final long totalBytes;
+    private final int maxErrors;
+
+    // Guarded by this
+    private ImportStatus status = ImportStatus.QUEUED;
+    private long bytesRead;
+    private long linesRead;
+    private long invalid;
+    private final List<E> errors = new ArrayList<>();
+    private String failure;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    ImportProgress(String importId, String fileName, ImportFormat format, long totalBytes, int maxErrors) {
+        this.importId = importId;
+        this.fileName = fileName;
+        this.format = format;
+        this.totalBytes = totalBytes;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * The report entry for a line that could not be parsed.
+     */
+    abstract E lineError(long line, String message);
+
+    /**
+     * One-line account of the counters, for the log.
+     */
+    abstract String summary();
+
+    synchronized void start() {
+        status = ImportStatus.RUNNING;
+        startedAt = LocalDateTime.now();
+    }
+
+    synchronized void read(long lines, long bytes) {
+        linesRead = lines;
+        bytesRead = bytes;
+    }
+
+    synchronized void invalid(long line, String message) {
+        invalid++;
+        addError(lineError(line, message));
+    }
+
+    synchronized void complete() {
+        status = ImportStatus.COMPLETED;
+        finishedAt = LocalDateTime.now();
+    }
+
+    synchronized void fail(String message) {
+        status = ImportStatus.FAILED;
+        failure = message;
+        finishedAt = LocalDateTime.now();
+    }
+
+    synchronized boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    // Keeps memory flat on files full of bad lines; the counters stay exact
+    synchronized void addError(E error) {
+        if (errors.size() < maxErrors) {
+            errors.add(error);
+        }
+    }
+
+    String importId() {
+        return importId;
+    }
+
+    String fileName() {
+        return fileName;
+    }
+
+    ImportFormat format() {
+        return format;
+    }
+
+    long totalBytes() {
+        return totalBytes;
+    }
+
+    synchronized ImportStatus status() {
+        return status;
+    }
+
+    synchronized long bytesRead() {
+        return bytesRead;
+    }
+
+    synchronized long linesRead() {
+        return linesRead;
+    }
+
+    synchronized long invalid() {
+        return invalid;
+    }
+
+    synchronized List<E> errors() {
+        return List.copyOf(errors);
+    }
+
+    synchronized String failure() {
+        return failure;
+    }
+
+    synchronized LocalDateTime startedAt() {
+        return startedAt;
+    }
+
+    synchronized LocalDateTime finishedAt() {
+        return finishedAt;
+    }
+}
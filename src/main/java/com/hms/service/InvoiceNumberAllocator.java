@@ -0,0 +1,87 @@
+package com.hms.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out invoice numbers such as {@code INV-01-00012345}.
+ * <p>
+ * Numbers come from blocks drawn from the {@code invoice_number_seq} database sequence, whose increment is
+ * the block size, so the database is only touched once per block; within a node they are strictly increasing.
+ * The node prefix keeps numbers traceable to the node that issued them. Numbers of rolled-back invoices are
+ * not reused.
+ * <p>
+ * A sequence value is never rolled back, so the block is drawn on the caller's own connection: call this
+ * from the transaction that stores the number, and a refill never waits for a second pooled connection.
+ */
+@Component
+@Slf4j
+public class InvoiceNumberAllocator {
+
+    static final String DATABASE_SEQUENCE = "invoice_number_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String prefix;
+    private final int configuredBlockSize;
+
+    // Guarded by this
+    private long blockSize;
+    private long next;
+    private long blockEnd;
+    private long reservations;
+
+    public InvoiceNumberAllocator(JdbcTemplate jdbcTemplate,
+                                  @Value("${hms.billing.invoice-number.node-id:01}") String nodeId,
+                                  @Value("${hms.billing.invoice-number.block-size:1000}") int blockSize) {
+        if (!nodeId.matches("[A-Za-z0-9]{1,8}")) {
+            throw new IllegalArgumentException("Invoice number node id must be 1-8 letters or digits: " + nodeId);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.prefix = "INV-" + nodeId.toUpperCase() + "-";
+        this.configuredBlockSize = blockSize;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Creates the sequence on first start, incrementing by the configured block size. Every node must draw
+     * blocks of the sequence's increment, whatever the configured size, or their blocks would overlap.
+     */
+    @PostConstruct
+    public synchronized void createSequence() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + DATABASE_SEQUENCE
+                + " START WITH 1 INCREMENT BY " + configuredBlockSize);
+        Long increment = jdbcTemplate.queryForObject("SELECT CAST(increment AS BIGINT) FROM information_schema.sequences "
+                + "WHERE LOWER(sequence_name) = '" + DATABASE_SEQUENCE + "'", Long.class);
+        if (increment != null && increment != configuredBlockSize) {
+            log.warn("Invoice number sequence increments by {}, not the configured block size {}; using {}",
+                    increment, configuredBlockSize, increment);
+            blockSize = increment;
+        }
+    }
+
+    public String nextInvoiceNumber() {
+        return format(nextValue());
+    }
+
+    synchronized long nextValue() {
+        if (next >= blockEnd) {
+            long start = jdbcTemplate.queryForObject("SELECT nextval('" + DATABASE_SEQUENCE + "')", Long.class);
+            next = start;
+            blockEnd = start + blockSize;
+            reservations++;
+            log.debug("Reserved invoice numbers [{}, {})", next, blockEnd);
+        }
+        return next++;
+    }
+
+    synchronized long getReservations() {
+        return reservations;
+    }
+
+    String format(long value) {
+        return prefix + String.format("%08d", value);
+    }
+}
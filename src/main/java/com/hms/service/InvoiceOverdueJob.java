@@ -0,0 +1,92 @@
+package com.hms.service;
+
+import com.hms.enums.PaymentStatus;
+import com.hms.repository.InvoiceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Marks unpaid invoices whose due date has passed as OVERDUE, so the overdue listing is a plain
+ * lookup on (status, due_date).
+ * <p>
+ * Works in chunks like {@link AppointmentSweeper}: one id query and one guarded bulk UPDATE per
+ * chunk, each in its own short transaction.
+ */
+@Component
+@Slf4j
+public class InvoiceOverdueJob {
+
+    static final Set<PaymentStatus> OPEN_STATUSES = EnumSet.of(PaymentStatus.PENDING, PaymentStatus.PARTIALLY_PAID);
+
+    private final InvoiceRepository invoiceRepository;
+    private final TransactionTemplate chunkTransaction;
+    private final Counter markedCounter;
+    private final boolean enabled;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+
+    public InvoiceOverdueJob(InvoiceRepository invoiceRepository,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${hms.billing.overdue.enabled:true}") boolean enabled,
+                             @Value("${hms.billing.overdue.chunk-size:1000}") int chunkSize,
+                             @Value("${hms.billing.overdue.max-chunks-per-run:500}") int maxChunksPerRun,
+                             @Value("${hms.billing.overdue.chunk-timeout-seconds:10}") int chunkTimeoutSeconds) {
+        this.invoiceRepository = invoiceRepository;
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.markedCounter = Counter.builder("hms.billing.invoices.marked-overdue").register(meterRegistry);
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setTimeout(chunkTimeoutSeconds);
+    }
+
+    @Scheduled(cron = "${hms.billing.overdue.cron:0 5 0 * * *}")
+    public void run() {
+        if (enabled) {
+            markOverdue(LocalDate.now());
+        }
+    }
+
+    /**
+     * Marks open invoices due before {@code today} as OVERDUE. Returns the number of invoices marked.
+     */
+    public int markOverdue(LocalDate today) {
+        int total = 0;
+        for (int chunk = 0; ; chunk++) {
+            if (chunk >= maxChunksPerRun) {
+                log.warn("Overdue marking stopped after {} chunks; the rest is left for the next run", chunk);
+                break;
+            }
+            Integer updated = chunkTransaction.execute(status -> markChunk(today));
+            if (updated == null || updated == 0) {
+                break;
+            }
+            total += updated;
+            markedCounter.increment(updated);
+        }
+        log.info("Marked {} invoices due before {} as overdue", total, today);
+        return total;
+    }
+
+    private int markChunk(LocalDate today) {
+        List<Long> ids = invoiceRepository.findIdsDueBefore(OPEN_STATUSES, today, Limit.of(chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return invoiceRepository.markOverdue(ids, OPEN_STATUSES, today, LocalDateTime.now());
+    }
+}
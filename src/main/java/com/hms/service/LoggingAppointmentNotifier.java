@@ -0,0 +1,20 @@
+package com.hms.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Slf4j
+public class LoggingAppointmentNotifier implements AppointmentNotifier {
+
+    @Override
+    public void dispatch(List<AppointmentTimer> timers) {
+        Map<AppointmentTimer.Kind, Long> counts = timers.stream()
+                .collect(Collectors.groupingBy(AppointmentTimer::kind, Collectors.counting()));
+        log.info("Dispatching appointment timers: {}", counts);
+        timers.forEach(timer -> log.debug("{} for appointment {} (patient {}, doctor {}) at {}",
+                timer.kind(), timer.appointmentId(), timer.patientId(), timer.doctorId(), timer.appointmentTime()));
+    }
+}
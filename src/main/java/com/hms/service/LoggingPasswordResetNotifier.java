@@ -0,0 +1,17 @@
+package com.hms.service;
+
+import com.hms.entity.User;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+
+@Slf4j
+public class LoggingPasswordResetNotifier implements PasswordResetNotifier {
+
+    @Override
+    public void sendResetToken(User user, String token, Instant expiresAt) {
+        log.info("Password reset token issued for user {}, valid until {}", user.getId(), expiresAt);
+        // The token grants access to the account; only logged at debug for local development
+        log.debug("Password reset token for {}: {}", user.getEmail(), token);
+    }
+}
@@ -0,0 +1,44 @@
+package com.hms.service;
+
+import com.hms.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pagination over a patient's medical history,
+ * ordered by (diagnosisDate DESC NULLS LAST, id DESC). Undated entries carry an empty date.
+ */
+final class MedicalHistoryCursor {
+
+    private static final String SEPARATOR = "|";
+
+    record Position(LocalDate diagnosisDate, long id) {
+    }
+
+    private MedicalHistoryCursor() {
+    }
+
+    static String encode(LocalDate diagnosisDate, Long id) {
+        String raw = (diagnosisDate != null ? diagnosisDate.toString() : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // null for the first page
+    static Position decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(SEPARATOR);
+            String date = raw.substring(0, split);
+            return new Position(date.isEmpty() ? null : LocalDate.parse(date), Long.parseLong(raw.substring(split + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid pagination cursor");
+        }
+    }
+}
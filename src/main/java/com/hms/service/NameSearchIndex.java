@@ -0,0 +1,182 @@
+package com.hms.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted trigram index over people's names, phone number and email local part.
+ * <p>
+ * Words are padded as in PostgreSQL's pg_trgm: each is indexed as the trigrams of {@code "  word "}, while a
+ * query word contributes those of {@code "  word"} only, so a word still being typed matches as a prefix.
+ * A document's score is the share of query trigrams it contains: prefixes score 1, inner substrings and
+ * small typos score lower, and documents below {@code minSimilarity} are dropped. Phone numbers are indexed and queried as one run of digits.
+ * <p>
+ * Updated in place and rebuilt as described in {@link RebuildableIndex}.
+ */
+final class NameSearchIndex extends RebuildableIndex<NameSearchIndex.Document, NameSearchIndex.Postings> {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern NON_DIGITS = Pattern.compile("\\D+");
+
+    private static final Comparator<Match> RANKING = Comparator.comparingInt(Match::hits).reversed()
+            .thenComparing(match -> match.document().sortKey())
+            .thenComparingLong(match -> match.document().id());
+
+    NameSearchIndex() {
+        super(Postings::new, Document::id);
+    }
+
+    record Document(long id, String firstName, String lastName, String phone, String email) {
+
+        private String sortKey() {
+            return normalize(lastName) + " " + normalize(firstName);
+        }
+
+        private Set<String> trigrams() {
+            Set<String> trigrams = new HashSet<>();
+            for (String field : new String[]{firstName, lastName, localPart(email)}) {
+                for (String word : words(field)) {
+                    addTrigrams("  " + word + " ", trigrams);
+                }
+            }
+            String digits = digits(phone);
+            if (!digits.isEmpty()) {
+                addTrigrams("  " + digits + " ", trigrams);
+            }
+            return trigrams;
+        }
+    }
+
+    private record Match(Document document, int hits) {
+    }
+
+    /**
+     * Ids of the best {@code limit} matches, best first; ties go by last name, first name, then id.
+     */
+    List<Long> search(String query, int limit, double minSimilarity) {
+        Set<String> trigrams = queryTrigrams(query);
+        if (trigrams.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int required = Math.max(1, (int) Math.ceil(minSimilarity * trigrams.size()));
+        List<Match> matches = read(postings -> {
+            List<Match> found = new ArrayList<>();
+            Map<Long, int[]> hits = new HashMap<>();
+            for (String trigram : trigrams) {
+                Set<Long> ids = postings.index.get(trigram);
+                if (ids != null) {
+                    for (Long id : ids) {
+                        hits.computeIfAbsent(id, key -> new int[1])[0]++;
+                    }
+                }
+            }
+            hits.forEach((id, count) -> {
+                if (count[0] >= required) {
+                    found.add(new Match(postings.documents.get(id), count[0]));
+                }
+            });
+            return found;
+        });
+        matches.sort(RANKING);
+        return matches.stream().limit(limit).map(match -> match.document().id()).toList();
+    }
+
+    static Set<String> queryTrigrams(String query) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        if (query == null) {
+            return trigrams;
+        }
+        // "555-0134" or "+1 (555) 0134" is a phone number, not four words
+        List<String> words = normalize(query).chars().anyMatch(Character::isLetter)
+                ? words(query)
+                : List.of(digits(query));
+        for (String word : words) {
+            if (!word.isEmpty()) {
+                addTrigrams("  " + word, trigrams);
+            }
+        }
+        return trigrams;
+    }
+
+    private static void addTrigrams(String padded, Set<String> trigrams) {
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+    }
+
+    private static List<String> words(String value) {
+        List<String> words = new ArrayList<>();
+        for (String word : SEPARATORS.split(normalize(value))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static String digits(String value) {
+        return value == null ? "" : NON_DIGITS.matcher(value).replaceAll("");
+    }
+
+    private static String localPart(String email) {
+        if (email == null) {
+            return "";
+        }
+        int at = email.indexOf('@');
+        return at >= 0 ? email.substring(0, at) : email;
+    }
+
+    static final class Postings implements RebuildableIndex.Contents<Document> {
+
+        private final Map<Long, Document> documents = new HashMap<>();
+        private final Map<String, Set<Long>> index = new HashMap<>();
+
+        @Override
+        public void put(Document document) {
+            remove(document.id());
+            documents.put(document.id(), document);
+            for (String trigram : document.trigrams()) {
+                index.computeIfAbsent(trigram, key -> new HashSet<>()).add(document.id());
+            }
+        }
+
+        @Override
+        public void remove(long id) {
+            Document previous = documents.remove(id);
+            if (previous == null) {
+                return;
+            }
+            for (String trigram : previous.trigrams()) {
+                Set<Long> ids = index.get(trigram);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        index.remove(trigram);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public int size() {
+            return documents.size();
+        }
+    }
+}
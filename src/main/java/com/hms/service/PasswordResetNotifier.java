@@ -0,0 +1,14 @@
+package com.hms.service;
+
+import com.hms.entity.User;
+
+import java.time.Instant;
+
+/**
+ * Delivers password reset tokens issued by {@link AuthService#requestPasswordReset}, e.g. as an emailed link.
+ * Register a bean of this type to replace the logging default.
+ */
+public interface PasswordResetNotifier {
+
+    void sendResetToken(User user, String token, Instant expiresAt);
+}
@@ -0,0 +1,134 @@
+package com.hms.service;
+
+import com.hms.domain.Money;
+import com.hms.entity.PatientAccount;
+import com.hms.repository.PatientAccountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Keeps each patient's {@code patient_accounts} row in step with their invoices and payments, so the
+ * outstanding balance is a primary-key lookup.
+ * <p>
+ * Every method must run in the transaction that makes the change, after the invoice rows have been
+ * written: {@link PatientAccountVerifier} relies on the account row being the last one touched, and a
+ * patient's first row is seeded from all of their invoices and payments, this change included. Rows for
+ * patients invoiced before the ledger existed are backfilled at startup; until then their balance is
+ * computed from the invoices.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PatientAccountLedger {
+
+    private final PatientAccountRepository patientAccountRepository;
+
+    @Value("${hms.billing.ledger.backfill-on-startup:true}")
+    private boolean backfillOnStartup = true;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillOnStartup() {
+        if (backfillOnStartup) {
+            backfill();
+        }
+    }
+
+    /**
+     * Creates the missing account rows of invoiced patients in one grouped insert; a no-op once every
+     * invoiced patient has one.
+     */
+    @Transactional
+    public int backfill() {
+        int created = patientAccountRepository.insertMissingFromInvoices(LocalDateTime.now());
+        if (created > 0) {
+            log.info("Backfilled {} patient accounts from existing invoices", created);
+        }
+        return created;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<PatientAccount> getAccount(Long patientId) {
+        return patientAccountRepository.findById(patientId);
+    }
+
+    /**
+     * The balance recomputed from invoices and payments, for a patient without an account row.
+     */
+    @Transactional(readOnly = true)
+    public PatientAccount computeAccount(Long patientId) {
+        return PatientAccount.builder()
+                .patientId(patientId)
+                .outstandingBalance(total(patientAccountRepository.sumOutstandingByPatient(List.of(patientId))))
+                .totalPaid(total(patientAccountRepository.sumPaidByPatient(List.of(patientId))))
+                .build();
+    }
+
+    @Transactional
+    public void invoiceIssued(Long patientId, Money totalAmount) {
+        adjust(patientId, totalAmount, Money.ZERO);
+    }
+
+    /**
+     * Adds invoice totals for many patients, one row update each.
+     */
+    @Transactional
+    public void invoicesIssued(Map<Long, Money> totalsByPatient) {
+        new TreeMap<>(totalsByPatient).forEach(this::invoiceIssued);
+    }
+
+    @Transactional
+    public void invoiceRevised(Long patientId, Money oldTotal, Money newTotal) {
+        adjust(patientId, newTotal.minus(oldTotal), Money.ZERO);
+    }
+
+    @Transactional
+    public void invoiceCancelled(Long patientId, Money remainingBalance) {
+        adjust(patientId, remainingBalance.negate(), Money.ZERO);
+    }
+
+    @Transactional
+    public void paymentReceived(Long patientId, Money amount) {
+        adjust(patientId, amount.negate(), amount);
+    }
+
+    /**
+     * Applies payment totals for many patients, one row update each.
+     */
+    @Transactional
+    public void paymentsReceived(Map<Long, Money> amountsByPatient) {
+        // Ascending patient order, so two batches never wait on each other's rows in opposite order
+        new TreeMap<>(amountsByPatient).forEach(this::paymentReceived);
+    }
+
+    private void adjust(Long patientId, Money outstandingDelta, Money paidDelta) {
+        if (outstandingDelta.isZero() && paidDelta.isZero()) {
+            return;
+        }
+        BigDecimal outstanding = outstandingDelta.toBigDecimal();
+        BigDecimal paid = paidDelta.toBigDecimal();
+        LocalDateTime now = LocalDateTime.now();
+        // Same insert-or-increment sequence as the daily revenue rollup, except that a new row already includes this change
+        if (patientAccountRepository.adjust(patientId, outstanding, paid, now) == 0
+                && patientAccountRepository.insertFromInvoices(patientId, now) == 0
+                && patientAccountRepository.adjust(patientId, outstanding, paid, now) == 0) {
+            throw new IllegalStateException("Account row for patient " + patientId + " is missing");
+        }
+    }
+
+    private static BigDecimal total(List<PatientAccountRepository.PatientTotal> totals) {
+        return totals.isEmpty() || totals.get(0).getAmount() == null ? BigDecimal.ZERO : totals.get(0).getAmount();
+    }
+}
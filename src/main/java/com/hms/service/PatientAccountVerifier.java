@@ -0,0 +1,173 @@
+package com.hms.service;
+
+import com.hms.dto.response.LedgerVerificationReport;
+import com.hms.entity.PatientAccount;
+import com.hms.repository.PatientAccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Recomputes patient balances from invoices and payments and flags accounts that have drifted from
+ * {@link PatientAccountLedger}, optionally overwriting them with the recomputed values.
+ * <p>
+ * Patients are compared a chunk at a time with grouped aggregates. A mismatch there can just be a change
+ * committed between two reads, so each one is checked again with the account row locked before it is
+ * reported.
+ */
+@Component
+@Slf4j
+public class PatientAccountVerifier {
+
+    static final int MAX_REPORTED_DRIFTS = 100;
+
+    private final PatientAccountRepository patientAccountRepository;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate recheckTransaction;
+    private final Counter driftCounter;
+    private final boolean enabled;
+    private final boolean repair;
+    private final int chunkSize;
+
+    public PatientAccountVerifier(PatientAccountRepository patientAccountRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${hms.billing.ledger.verify-enabled:true}") boolean enabled,
+                                  @Value("${hms.billing.ledger.repair:false}") boolean repair,
+                                  @Value("${hms.billing.ledger.chunk-size:1000}") int chunkSize) {
+        this.patientAccountRepository = patientAccountRepository;
+        this.enabled = enabled;
+        this.repair = repair;
+        this.chunkSize = chunkSize;
+        this.driftCounter = Counter.builder("hms.billing.ledger.drift").register(meterRegistry);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.recheckTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${hms.billing.ledger.verify-cron:0 30 1 * * *}")
+    public void run() {
+        if (enabled) {
+            verify(repair);
+        }
+    }
+
+    public LedgerVerificationReport verify(boolean repair) {
+        log.info("Verifying patient accounts (repair: {})", repair);
+        LedgerVerificationReport report = LedgerVerificationReport.builder()
+                .startedAt(LocalDateTime.now())
+                .build();
+        long after = 0;
+        while (true) {
+            long from = after;
+            List<Long> patientIds = patientAccountRepository.findPatientIdsAfter(from, Limit.of(chunkSize));
+            if (patientIds.isEmpty()) {
+                break;
+            }
+            List<Long> suspects = readTransaction.execute(status -> findMismatches(patientIds));
+            for (Long patientId : suspects) {
+                LedgerVerificationReport.Drift drift = recheckTransaction.execute(status -> recheck(patientId, repair));
+                if (drift != null) {
+                    record(report, drift);
+                }
+            }
+            report.setPatientsChecked(report.getPatientsChecked() + patientIds.size());
+            after = patientIds.get(patientIds.size() - 1);
+        }
+        report.setFinishedAt(LocalDateTime.now());
+        log.info("Verified {} patient accounts: {} drifted, {} repaired",
+                report.getPatientsChecked(), report.getDrifted(), report.getRepaired());
+        return report;
+    }
+
+    private List<Long> findMismatches(List<Long> patientIds) {
+        Map<Long, BigDecimal> outstanding = totals(patientAccountRepository.sumOutstandingByPatient(patientIds));
+        Map<Long, BigDecimal> paid = totals(patientAccountRepository.sumPaidByPatient(patientIds));
+        Map<Long, PatientAccount> accounts = patientAccountRepository.findAllById(patientIds).stream()
+                .collect(Collectors.toMap(PatientAccount::getPatientId, Function.identity()));
+        List<Long> mismatches = new ArrayList<>();
+        for (Long patientId : patientIds) {
+            PatientAccount account = accounts.get(patientId);
+            if (differs(account != null ? account.getOutstandingBalance() : null, outstanding.get(patientId))
+                    || differs(account != null ? account.getTotalPaid() : null, paid.get(patientId))) {
+                mismatches.add(patientId);
+            }
+        }
+        return mismatches;
+    }
+
+    private LedgerVerificationReport.Drift recheck(Long patientId, boolean repair) {
+        Optional<PatientAccount> account = patientAccountRepository.lockByPatientId(patientId);
+        BigDecimal actualOutstanding = single(patientAccountRepository.sumOutstandingByPatient(List.of(patientId)));
+        BigDecimal actualPaid = single(patientAccountRepository.sumPaidByPatient(List.of(patientId)));
+        BigDecimal recordedOutstanding = account.map(PatientAccount::getOutstandingBalance).orElse(null);
+        BigDecimal recordedPaid = account.map(PatientAccount::getTotalPaid).orElse(null);
+        if (!differs(recordedOutstanding, actualOutstanding) && !differs(recordedPaid, actualPaid)) {
+            return null;
+        }
+
+        boolean repaired = false;
+        if (repair) {
+            LocalDateTime now = LocalDateTime.now();
+            // A missing row may be inserted concurrently by a writer; that one is left for the next run
+            repaired = account.isPresent()
+                    ? patientAccountRepository.overwrite(patientId, actualOutstanding, actualPaid, now) == 1
+                    : patientAccountRepository.insertIfAbsent(patientId, actualOutstanding, actualPaid, now) == 1;
+        }
+        return LedgerVerificationReport.Drift.builder()
+                .patientId(patientId)
+                .recordedOutstanding(orZero(recordedOutstanding))
+                .actualOutstanding(actualOutstanding)
+                .recordedPaid(orZero(recordedPaid))
+                .actualPaid(actualPaid)
+                .repaired(repaired)
+                .build();
+    }
+
+    private void record(LedgerVerificationReport report, LedgerVerificationReport.Drift drift) {
+        log.warn("Patient {} account drifted: outstanding {} (actual {}), paid {} (actual {}){}",
+                drift.getPatientId(), drift.getRecordedOutstanding(), drift.getActualOutstanding(),
+                drift.getRecordedPaid(), drift.getActualPaid(), drift.isRepaired() ? ", repaired" : "");
+        driftCounter.increment();
+        report.setDrifted(report.getDrifted() + 1);
+        if (drift.isRepaired()) {
+            report.setRepaired(report.getRepaired() + 1);
+        }
+        if (report.getDrifts().size() < MAX_REPORTED_DRIFTS) {
+            report.getDrifts().add(drift);
+        }
+    }
+
+    private static Map<Long, BigDecimal> totals(List<PatientAccountRepository.PatientTotal> totals) {
+        return totals.stream().collect(Collectors.toMap(
+                PatientAccountRepository.PatientTotal::getPatientId,
+                PatientAccountRepository.PatientTotal::getAmount));
+    }
+
+    private static BigDecimal single(List<PatientAccountRepository.PatientTotal> totals) {
+        return totals.isEmpty() ? BigDecimal.ZERO : orZero(totals.get(0).getAmount());
+    }
+
+    private static boolean differs(BigDecimal recorded, BigDecimal actual) {
+        return orZero(recorded).compareTo(orZero(actual)) != 0;
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,81 @@
+package com.hms.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Patients grouped by their {@link PatientMatcher#blockKeys blocking keys}, so the records worth comparing
+ * with a new registration are a few map lookups away. Updated in place and rebuilt as described in
+ * {@link RebuildableIndex}.
+ */
+final class PatientBlockIndex extends RebuildableIndex<PatientMatcher.Person, PatientBlockIndex.Blocks> {
+
+    PatientBlockIndex() {
+        super(Blocks::new, PatientMatcher.Person::id);
+    }
+
+    /**
+     * Everyone sharing a block with {@code person}, other than {@code person} itself. Blocks larger than
+     * {@code maxBlockSize} are skipped: a key that common (a shared clinic phone number) says nothing.
+     */
+    List<PatientMatcher.Person> candidates(PatientMatcher.Person person, int maxBlockSize) {
+        return read(blocks -> {
+            List<PatientMatcher.Person> candidates = new ArrayList<>();
+            Set<Long> seen = new HashSet<>();
+            seen.add(person.id());
+            for (String key : PatientMatcher.blockKeys(person)) {
+                Set<Long> ids = blocks.index.get(key);
+                if (ids == null || ids.size() > maxBlockSize) {
+                    continue;
+                }
+                for (Long id : ids) {
+                    if (seen.add(id)) {
+                        candidates.add(blocks.people.get(id));
+                    }
+                }
+            }
+            return candidates;
+        });
+    }
+
+    static final class Blocks implements RebuildableIndex.Contents<PatientMatcher.Person> {
+
+        private final Map<Long, PatientMatcher.Person> people = new HashMap<>();
+        private final Map<String, Set<Long>> index = new HashMap<>();
+
+        @Override
+        public void put(PatientMatcher.Person person) {
+            remove(person.id());
+            people.put(person.id(), person);
+            for (String key : PatientMatcher.blockKeys(person)) {
+                index.computeIfAbsent(key, k -> new HashSet<>()).add(person.id());
+            }
+        }
+
+        @Override
+        public void remove(long id) {
+            PatientMatcher.Person previous = people.remove(id);
+            if (previous == null) {
+                return;
+            }
+            for (String key : PatientMatcher.blockKeys(previous)) {
+                Set<Long> ids = index.get(key);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        index.remove(key);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public int size() {
+            return people.size();
+        }
+    }
+}
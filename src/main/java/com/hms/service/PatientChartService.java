@@ -0,0 +1,172 @@
+package com.hms.service;
+
+import com.hms.dto.response.PatientChartResponse;
+import com.hms.enums.Role;
+import com.hms.exception.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Assembles a patient's chart from the patient, appointment and billing services in one call.
+ * <p>
+ * Each section is loaded on a bounded pool in its own read-only transaction, so the chart takes as long
+ * as its slowest section rather than their sum. All sections share one deadline; a section that fails,
+ * misses the deadline or finds the pool saturated is left out and listed in
+ * {@link PatientChartResponse#getUnavailableSections()}. Only an unknown patient fails the whole chart.
+ */
+@Service
+@Slf4j
+public class PatientChartService {
+
+    public enum Section {
+        PATIENT, MEDICAL_HISTORY, APPOINTMENTS, INVOICES, BALANCE
+    }
+
+    private final PatientService patientService;
+    private final AppointmentService appointmentService;
+    private final BillingService billingService;
+    private final TransactionTemplate readTransaction;
+    private final long sectionTimeoutMillis;
+    private final ThreadPoolExecutor chartPool;
+
+    public PatientChartService(PatientService patientService,
+                               AppointmentService appointmentService,
+                               BillingService billingService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${hms.patients.chart.parallelism:8}") int parallelism,
+                               @Value("${hms.patients.chart.queue-capacity:100}") int queueCapacity,
+                               @Value("${hms.patients.chart.section-timeout-ms:2000}") long sectionTimeoutMillis) {
+        this.patientService = patientService;
+        this.appointmentService = appointmentService;
+        this.billingService = billingService;
+        this.sectionTimeoutMillis = sectionTimeoutMillis;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(sectionTimeoutMillis + 999)));
+        AtomicInteger threads = new AtomicInteger();
+        this.chartPool = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "patient-chart-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stop() {
+        chartPool.shutdownNow();
+    }
+
+    /**
+     * Sections a caller with these authorities may see: medical history is clinical (admins and doctors),
+     * invoices and balance are billing (admins and receptionists).
+     */
+    public static Set<Section> visibleSections(Collection<? extends GrantedAuthority> authorities) {
+        Set<String> roles = authorities.stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
+        boolean admin = roles.contains(Role.ROLE_ADMIN.name());
+        Set<Section> sections = EnumSet.of(Section.PATIENT, Section.APPOINTMENTS);
+        if (admin || roles.contains(Role.ROLE_DOCTOR.name())) {
+            sections.add(Section.MEDICAL_HISTORY);
+        }
+        if (admin || roles.contains(Role.ROLE_RECEPTIONIST.name())) {
+            sections.add(Section.INVOICES);
+            sections.add(Section.BALANCE);
+        }
+        return sections;
+    }
+
+    public PatientChartResponse getChart(Long patientId, Set<Section> sections) {
+        log.info("Assembling chart for patient ID: {} with sections {}", patientId, sections);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sectionTimeoutMillis);
+        PatientChartResponse chart = new PatientChartResponse();
+        Map<Section, Future<Consumer<PatientChartResponse>>> futures = new EnumMap<>(Section.class);
+        for (Part<?> part : parts(patientId)) {
+            if (!sections.contains(part.section())) {
+                continue;
+            }
+            try {
+                futures.put(part.section(), chartPool.submit(() -> readTransaction.execute(status -> part.load())));
+            } catch (RejectedExecutionException e) {
+                unavailable(chart, part.section(), "REJECTED", e);
+            }
+        }
+
+        try {
+            for (Map.Entry<Section, Future<Consumer<PatientChartResponse>>> entry : futures.entrySet()) {
+                Section section = entry.getKey();
+                try {
+                    long remaining = Math.max(0, deadline - System.nanoTime());
+                    entry.getValue().get(remaining, TimeUnit.NANOSECONDS).accept(chart);
+                } catch (TimeoutException e) {
+                    unavailable(chart, section, "TIMED_OUT", e);
+                } catch (ExecutionException e) {
+                    if (section == Section.PATIENT && e.getCause() instanceof ResourceNotFoundException notFound) {
+                        throw notFound;
+                    }
+                    unavailable(chart, section, "FAILED", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while assembling the patient chart", e);
+        } finally {
+            futures.values().forEach(future -> future.cancel(true));
+        }
+        return chart;
+    }
+
+    private List<Part<?>> parts(Long patientId) {
+        return List.of(
+                new Part<>(Section.PATIENT, () -> patientService.getPatientById(patientId),
+                        PatientChartResponse::setPatient),
+                new Part<>(Section.MEDICAL_HISTORY, () -> patientService.getMedicalHistoryTimeline(patientId, null, null),
+                        PatientChartResponse::setMedicalHistory),
+                new Part<>(Section.APPOINTMENTS, () -> appointmentService.getAppointmentsByPatient(patientId),
+                        PatientChartResponse::setAppointments),
+                new Part<>(Section.INVOICES, () -> billingService.getInvoicesByPatient(patientId),
+                        PatientChartResponse::setInvoices),
+                new Part<>(Section.BALANCE, () -> billingService.getPatientBalance(patientId),
+                        PatientChartResponse::setBalance));
+    }
+
+    // Loads a section off the request thread; the returned setter is applied back on it
+    private record Part<T>(Section section, Supplier<T> loader, BiConsumer<PatientChartResponse, T> setter) {
+
+        Consumer<PatientChartResponse> load() {
+            T value = loader.get();
+            return chart -> setter.accept(chart, value);
+        }
+    }
+
+    private static void unavailable(PatientChartResponse chart, Section section, String reason, Throwable cause) {
+        log.warn("Chart section {} unavailable ({}): {}", section, reason, cause.toString());
+        chart.getUnavailableSections().add(PatientChartResponse.UnavailableSection.builder()
+                .section(section.name())
+                .reason(reason)
+                .build());
+    }
+}
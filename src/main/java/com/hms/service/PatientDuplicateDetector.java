@@ -0,0 +1,262 @@
+package com.hms.service;
+
+import com.hms.dto.response.DuplicateScanReport;
+import com.hms.entity.Patient;
+import com.hms.repository.PatientRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds patient records that are probably the same person, using {@link PatientMatcher}'s blocking keys
+ * and score.
+ * <p>
+ * Registrations are checked inline against a {@link PatientBlockIndex} kept in memory: updated after commit
+ * by {@link PatientService}, loaded on startup and rebuilt periodically by {@link PatientIndexRefresher}. The
+ * batch {@link #scan()} reads the whole {@code patients} table instead, groups it into blocks and compares
+ * within blocks in parallel.
+ */
+@Component
+@Slf4j
+public class PatientDuplicateDetector {
+
+    static final int MAX_REPORTED_PAIRS = 1000;
+    static final int MAX_CANDIDATES = 5;
+
+    private static final Comparator<DuplicateScanReport.Pair> BY_SCORE =
+            Comparator.comparingDouble(DuplicateScanReport.Pair::getScore).reversed()
+                    .thenComparing(DuplicateScanReport.Pair::getPatientId)
+                    .thenComparing(DuplicateScanReport.Pair::getOtherPatientId);
+
+    private final PatientRepository patientRepository;
+    private final TransactionTemplate readTransaction;
+    private final Counter flaggedCounter;
+    private final boolean scanEnabled;
+    private final double minScore;
+    private final int maxBlockSize;
+    private final int parallelism;
+    private final ExecutorService scanPool;
+    private final PatientBlockIndex index = new PatientBlockIndex();
+
+    public record Candidate(long patientId, double score, List<String> reasons) {
+    }
+
+    public PatientDuplicateDetector(PatientRepository patientRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${hms.patients.duplicates.scan-enabled:true}") boolean scanEnabled,
+                                    @Value("${hms.patients.duplicates.min-score:0.85}") double minScore,
+                                    @Value("${hms.patients.duplicates.max-block-size:500}") int maxBlockSize,
+                                    @Value("${hms.patients.duplicates.parallelism:4}") int parallelism) {
+        this.patientRepository = patientRepository;
+        this.scanEnabled = scanEnabled;
+        this.minScore = minScore;
+        this.maxBlockSize = maxBlockSize;
+        this.parallelism = parallelism;
+        this.flaggedCounter = Counter.builder("hms.patients.duplicates.flagged").register(meterRegistry);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        AtomicInteger threads = new AtomicInteger();
+        this.scanPool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "duplicate-scan-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        scanPool.shutdownNow();
+    }
+
+    @Scheduled(cron = "${hms.patients.duplicates.scan-cron:0 0 3 * * SUN}")
+    public void run() {
+        if (scanEnabled) {
+            DuplicateScanReport report = scan();
+            log.info("Duplicate scan found {} likely duplicate pairs among {} patients",
+                    report.getDuplicatePairs(), report.getPatientsScanned());
+        }
+    }
+
+    /**
+     * Existing patients that look like the same person as {@code patient}, best first, at most {@value #MAX_CANDIDATES}.
+     */
+    public List<Candidate> findPossibleDuplicates(Patient patient) {
+        PatientMatcher.Person person = person(patient);
+        List<Candidate> candidates = new ArrayList<>();
+        for (PatientMatcher.Person other : index.candidates(person, maxBlockSize)) {
+            PatientMatcher.Match match = PatientMatcher.score(person, other);
+            if (match.score() >= minScore) {
+                candidates.add(new Candidate(other.id(), match.score(), match.reasons()));
+            }
+        }
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        flaggedCounter.increment();
+        return candidates.stream()
+                .sorted(Comparator.comparingDouble(Candidate::score).reversed().thenComparingLong(Candidate::patientId))
+                .limit(MAX_CANDIDATES)
+                .toList();
+    }
+
+    public void patientSaved(Patient patient) {
+        PatientMatcher.Person person = person(patient);
+        AfterCommit.run(() -> index.put(person));
+    }
+
+    public void patientDeleted(Long patientId) {
+        AfterCommit.run(() -> index.remove(patientId));
+    }
+
+    /**
+     * Compares every pair of patients that share a block and reports those scoring at least {@code min-score}.
+     */
+    public DuplicateScanReport scan() {
+        log.info("Scanning patients for duplicates");
+        DuplicateScanReport report = DuplicateScanReport.builder()
+                .startedAt(LocalDateTime.now())
+                .build();
+        List<PatientMatcher.Person> people = loadAll();
+        Map<String, List<PatientMatcher.Person>> blocks = new HashMap<>();
+        for (PatientMatcher.Person person : people) {
+            for (String key : PatientMatcher.blockKeys(person)) {
+                blocks.computeIfAbsent(key, k -> new ArrayList<>(2)).add(person);
+            }
+        }
+        List<Map.Entry<String, List<PatientMatcher.Person>>> comparable = new ArrayList<>();
+        for (Map.Entry<String, List<PatientMatcher.Person>> block : blocks.entrySet()) {
+            if (block.getValue().size() > maxBlockSize) {
+                report.setOversizedBlocks(report.getOversizedBlocks() + 1);
+            } else if (block.getValue().size() > 1) {
+                comparable.add(block);
+            }
+        }
+
+        // Round-robin, so large blocks are spread over the tasks
+        int taskCount = Math.max(1, Math.min(parallelism * 4, comparable.size()));
+        List<List<Map.Entry<String, List<PatientMatcher.Person>>>> tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(new ArrayList<>());
+        }
+        for (int i = 0; i < comparable.size(); i++) {
+            tasks.get(i % taskCount).add(comparable.get(i));
+        }
+        List<Future<BlockResult>> futures = new ArrayList<>(taskCount);
+        for (List<Map.Entry<String, List<PatientMatcher.Person>>> task : tasks) {
+            futures.add(scanPool.submit((Callable<BlockResult>) () -> compare(task, blocks)));
+        }
+
+        List<DuplicateScanReport.Pair> pairs = new ArrayList<>();
+        try {
+            for (Future<BlockResult> future : futures) {
+                BlockResult result = future.get();
+                report.setPairsCompared(report.getPairsCompared() + result.compared);
+                pairs.addAll(result.pairs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scanning for duplicates", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Duplicate scan failed", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        pairs.sort(BY_SCORE);
+        report.setPatientsScanned(people.size());
+        report.setBlocks(blocks.size());
+        report.setDuplicatePairs(pairs.size());
+        report.setPairs(new ArrayList<>(pairs.subList(0, Math.min(pairs.size(), MAX_REPORTED_PAIRS))));
+        report.setFinishedAt(LocalDateTime.now());
+        log.info("Duplicate scan compared {} pairs in {} blocks ({} oversized)",
+                report.getPairsCompared(), report.getBlocks(), report.getOversizedBlocks());
+        return report;
+    }
+
+    private BlockResult compare(List<Map.Entry<String, List<PatientMatcher.Person>>> task,
+                                Map<String, List<PatientMatcher.Person>> blocks) {
+        BlockResult result = new BlockResult();
+        for (Map.Entry<String, List<PatientMatcher.Person>> block : task) {
+            List<PatientMatcher.Person> members = block.getValue();
+            for (int i = 0; i < members.size(); i++) {
+                PatientMatcher.Person a = members.get(i);
+                List<String> aKeys = PatientMatcher.blockKeys(a);
+                for (int j = i + 1; j < members.size(); j++) {
+                    PatientMatcher.Person b = members.get(j);
+                    // A pair sharing several blocks is scored only in the first one, without a shared seen-set
+                    if (!block.getKey().equals(firstSharedKey(aKeys, PatientMatcher.blockKeys(b), blocks))) {
+                        continue;
+                    }
+                    result.compared++;
+                    PatientMatcher.Match match = PatientMatcher.score(a, b);
+                    if (match.score() >= minScore) {
+                        result.pairs.add(DuplicateScanReport.Pair.builder()
+                                .patientId(Math.min(a.id(), b.id()))
+                                .otherPatientId(Math.max(a.id(), b.id()))
+                                .score(match.score())
+                                .reasons(match.reasons())
+                                .build());
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    // Smallest key both have whose block is compared; keys of oversized blocks never win
+    private String firstSharedKey(List<String> aKeys, List<String> bKeys, Map<String, List<PatientMatcher.Person>> blocks) {
+        String first = null;
+        for (String key : aKeys) {
+            if (bKeys.contains(key) && blocks.get(key).size() <= maxBlockSize
+                    && (first == null || key.compareTo(first) < 0)) {
+                first = key;
+            }
+        }
+        return first;
+    }
+
+    PatientBlockIndex blockIndex() {
+        return index;
+    }
+
+    static PatientMatcher.Person person(PatientRepository.DuplicateCheckEntry entry) {
+        return PatientMatcher.Person.of(entry.getId(), entry.getFirstName(), entry.getLastName(),
+                entry.getDateOfBirth(), entry.getPhone());
+    }
+
+    private List<PatientMatcher.Person> loadAll() {
+        return readTransaction.execute(status -> patientRepository.findDuplicateCheckEntries().stream()
+                .map(PatientDuplicateDetector::person)
+                .toList());
+    }
+
+    private static PatientMatcher.Person person(Patient patient) {
+        return PatientMatcher.Person.of(patient.getId() != null ? patient.getId() : -1, patient.getUser().getFirstName(),
+                patient.getUser().getLastName(), patient.getDateOfBirth(), patient.getUser().getPhone());
+    }
+
+    private static final class BlockResult {
+        private long compared;
+        private final List<DuplicateScanReport.Pair> pairs = new ArrayList<>();
+    }
+}
@@ -0,0 +1,66 @@
+package com.hms.service;
+
+import com.hms.repository.PatientRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Loads the in-memory patient indexes, {@link PersonSearchIndex}'s name search and
+ * {@link PatientDuplicateDetector}'s blocks, on startup and periodically, from one read of {@code patients}.
+ * <p>
+ * Both indexes start journalling before the read, so changes committed while it runs are kept by both.
+ */
+@Component
+@Slf4j
+public class PatientIndexRefresher {
+
+    private final PatientRepository patientRepository;
+    private final PersonSearchIndex personSearchIndex;
+    private final PatientDuplicateDetector duplicateDetector;
+    private final TransactionTemplate readTransaction;
+
+    public PatientIndexRefresher(PatientRepository patientRepository,
+                                 PersonSearchIndex personSearchIndex,
+                                 PatientDuplicateDetector duplicateDetector,
+                                 PlatformTransactionManager transactionManager) {
+        this.patientRepository = patientRepository;
+        this.personSearchIndex = personSearchIndex;
+        this.duplicateDetector = duplicateDetector;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    @Scheduled(initialDelayString = "${hms.patients.index-rebuild-interval-ms:600000}",
+            fixedDelayString = "${hms.patients.index-rebuild-interval-ms:600000}")
+    public void refresh() {
+        long started = System.nanoTime();
+        NameSearchIndex names = personSearchIndex.patientIndex();
+        PatientBlockIndex blocks = duplicateDetector.blockIndex();
+        names.startRebuild();
+        blocks.startRebuild();
+        List<PatientRepository.IndexEntry> entries;
+        try {
+            entries = readTransaction.execute(status -> patientRepository.findIndexEntries());
+        } catch (RuntimeException e) {
+            names.abandonRebuild();
+            blocks.abandonRebuild();
+            throw e;
+        }
+        int nameCount = names.finishRebuild(entries.stream().map(PersonSearchIndex::document).toList());
+        int blockCount = blocks.finishRebuild(entries.stream().map(PatientDuplicateDetector::person).toList());
+        log.info("Patient indexes rebuilt with {} searchable and {} blocked patients in {} ms",
+                nameCount, blockCount, (System.nanoTime() - started) / 1_000_000);
+    }
+}
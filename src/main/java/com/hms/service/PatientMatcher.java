@@ -0,0 +1,218 @@
+package com.hms.service;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Blocking keys and pairwise scoring for duplicate patient records.
+ * <p>
+ * Two records are only compared when they share a block: the same Soundex codes for last and first name,
+ * the same date of birth and Soundex of either name, or the same phone number. The score weighs name
+ * similarity (Jaro-Winkler, either name order) and date of birth agreement; a shared phone number closes
+ * half of the remaining gap. A differing phone number never counts against a pair.
+ */
+final class PatientMatcher {
+
+    static final String NAME = "NAME";
+    static final String DATE_OF_BIRTH = "DATE_OF_BIRTH";
+    static final String PHONE = "PHONE";
+
+    private static final double NAME_WEIGHT = 0.6;
+    private static final double DATE_OF_BIRTH_WEIGHT = 0.4;
+    private static final double PHONE_SHARE = 0.5;
+    private static final double SIMILAR_NAME = 0.9;
+    // Shorter numbers are extensions or placeholders rather than someone's phone
+    private static final int MIN_PHONE_DIGITS = 7;
+    private static final int PHONE_DIGITS = 10;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_LETTERS = Pattern.compile("[^a-z]+");
+    private static final Pattern NON_DIGITS = Pattern.compile("\\D+");
+
+    private PatientMatcher() {
+    }
+
+    /**
+     * A patient reduced to the fields that are matched, already normalised: names are lower-case letters
+     * only and the phone is its last ten digits, or {@code null}.
+     */
+    record Person(long id, String firstName, String lastName, LocalDate dateOfBirth, String phone) {
+
+        static Person of(long id, String firstName, String lastName, LocalDate dateOfBirth, String phone) {
+            return new Person(id, normalizeName(firstName), normalizeName(lastName), dateOfBirth, normalizePhone(phone));
+        }
+    }
+
+    record Match(double score, List<String> reasons) {
+    }
+
+    static List<String> blockKeys(Person person) {
+        List<String> keys = new ArrayList<>(4);
+        String first = soundex(person.firstName());
+        String last = soundex(person.lastName());
+        if (!first.isEmpty() && !last.isEmpty()) {
+            keys.add("n:" + last + first);
+        }
+        if (person.dateOfBirth() != null) {
+            if (!last.isEmpty()) {
+                keys.add("l:" + person.dateOfBirth() + last);
+            }
+            if (!first.isEmpty()) {
+                keys.add("f:" + person.dateOfBirth() + first);
+            }
+        }
+        if (person.phone() != null) {
+            keys.add("p:" + person.phone());
+        }
+        return keys;
+    }
+
+    static Match score(Person a, Person b) {
+        double sameOrder = jaroWinkler(a.firstName(), b.firstName()) + jaroWinkler(a.lastName(), b.lastName());
+        double swapped = jaroWinkler(a.firstName(), b.lastName()) + jaroWinkler(a.lastName(), b.firstName());
+        double name = Math.max(sameOrder, swapped) / 2;
+        double dateOfBirth = dateOfBirthSimilarity(a.dateOfBirth(), b.dateOfBirth());
+        boolean samePhone = a.phone() != null && a.phone().equals(b.phone());
+
+        double score = NAME_WEIGHT * name + DATE_OF_BIRTH_WEIGHT * dateOfBirth;
+        if (samePhone) {
+            score += (1 - score) * PHONE_SHARE;
+        }
+        List<String> reasons = new ArrayList<>(3);
+        if (name >= SIMILAR_NAME) {
+            reasons.add(NAME);
+        }
+        if (dateOfBirth == 1) {
+            reasons.add(DATE_OF_BIRTH);
+        }
+        if (samePhone) {
+            reasons.add(PHONE);
+        }
+        return new Match(score, reasons);
+    }
+
+    /**
+     * American Soundex of a normalised name, or an empty string for an empty name.
+     */
+    static String soundex(String name) {
+        if (name == null || name.isEmpty()) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder(4).append(Character.toUpperCase(name.charAt(0)));
+        char previous = soundexCode(name.charAt(0));
+        for (int i = 1; i < name.length() && key.length() < 4; i++) {
+            char c = name.charAt(i);
+            char code = soundexCode(c);
+            if (code != '0') {
+                if (code != previous) {
+                    key.append(code);
+                }
+                previous = code;
+            } else if (c != 'h' && c != 'w') {
+                // A vowel separates two letters with the same code; h and w do not
+                previous = '0';
+            }
+        }
+        while (key.length() < 4) {
+            key.append('0');
+        }
+        return key.toString();
+    }
+
+    static double jaroWinkler(String a, String b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        if (a.equals(b)) {
+            return 1;
+        }
+        int window = Math.max(0, Math.max(a.length(), b.length()) / 2 - 1);
+        boolean[] aMatched = new boolean[a.length()];
+        boolean[] bMatched = new boolean[b.length()];
+        int matches = 0;
+        for (int i = 0; i < a.length(); i++) {
+            int end = Math.min(b.length(), i + window + 1);
+            for (int j = Math.max(0, i - window); j < end; j++) {
+                if (!bMatched[j] && a.charAt(i) == b.charAt(j)) {
+                    aMatched[i] = true;
+                    bMatched[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0;
+        }
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < a.length(); i++) {
+            if (aMatched[i]) {
+                while (!bMatched[j]) {
+                    j++;
+                }
+                if (a.charAt(i) != b.charAt(j)) {
+                    transpositions++;
+                }
+                j++;
+            }
+        }
+        double m = matches;
+        double jaro = (m / a.length() + m / b.length() + (m - transpositions / 2.0) / m) / 3;
+        int prefix = 0;
+        while (prefix < Math.min(4, Math.min(a.length(), b.length())) && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1 - jaro);
+    }
+
+    // 1 for the same date, 0.5 for one typo (one of day, month or year differs, or day and month swapped)
+    static double dateOfBirthSimilarity(LocalDate a, LocalDate b) {
+        if (a == null || b == null) {
+            return 0;
+        }
+        if (a.equals(b)) {
+            return 1;
+        }
+        int same = (a.getYear() == b.getYear() ? 1 : 0) + (a.getMonthValue() == b.getMonthValue() ? 1 : 0)
+                + (a.getDayOfMonth() == b.getDayOfMonth() ? 1 : 0);
+        boolean swapped = a.getYear() == b.getYear()
+                && a.getMonthValue() == b.getDayOfMonth() && a.getDayOfMonth() == b.getMonthValue();
+        return same == 2 || swapped ? 0.5 : 0;
+    }
+
+    static String normalizeName(String name) {
+        if (name == null) {
+            return "";
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        return NON_LETTERS.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll("");
+    }
+
+    static String normalizePhone(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        String digits = NON_DIGITS.matcher(phone).replaceAll("");
+        if (digits.length() < MIN_PHONE_DIGITS) {
+            return null;
+        }
+        // Drops a country or trunk prefix
+        return digits.length() > PHONE_DIGITS ? digits.substring(digits.length() - PHONE_DIGITS) : digits;
+    }
+
+    private static char soundexCode(char c) {
+        return switch (c) {
+            case 'b', 'f', 'p', 'v' -> '1';
+            case 'c', 'g', 'j', 'k', 'q', 's', 'x', 'z' -> '2';
+            case 'd', 't' -> '3';
+            case 'l' -> '4';
+            case 'm', 'n' -> '5';
+            case 'r' -> '6';
+            default -> '0';
+        };
+    }
+}
@@ -2,12 +2,17 @@ package com.hms.service;
 
 import com.hms.dto.request.MedicalHistoryRequest;
 import com.hms.dto.request.PatientRequest;
+import com.hms.dto.response.CursorPage;
+import com.hms.dto.response.DuplicateCandidate;
+import com.hms.dto.response.DuplicateScanReport;
 import com.hms.dto.response.MedicalHistoryResponse;
+import com.hms.dto.response.MedicalHistorySummary;
 import com.hms.dto.response.PatientResponse;
 import com.hms.entity.MedicalHistory;
 import com.hms.entity.Patient;
 import com.hms.entity.User;
 import com.hms.enums.Role;
+import com.hms.exception.BadRequestException;
 import com.hms.exception.DuplicateResourceException;
 import com.hms.exception.ResourceNotFoundException;
 import com.hms.repository.MedicalHistoryRepository;
@@ -15,13 +20,17 @@ import com.hms.repository.PatientRepository;
 import com.hms.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,10 +38,15 @@ import java.util.stream.Collectors;
 @Slf4j
 public class PatientService {
 
+    static final int DEFAULT_HISTORY_PAGE_SIZE = 50;
+    static final int MAX_HISTORY_PAGE_SIZE = 200;
+
     private final PatientRepository patientRepository;
     private final UserRepository userRepository;
     private final MedicalHistoryRepository medicalHistoryRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PersonSearchIndex personSearchIndex;
+    private final PatientDuplicateDetector patientDuplicateDetector;
 
     public List<PatientResponse> getAllPatients() {
         log.info("Fetching all patients");
@@ -48,9 +62,21 @@ public class PatientService {
         return mapToResponse(patient);
     }
 
-    public List<PatientResponse> searchPatients(String name) {
-        log.info("Searching patients by name: {}", name);
-        return patientRepository.searchByName(name).stream()
+    public List<PatientResponse> searchPatients(String query, int limit) {
+        log.info("Searching patients by name: {}", query);
+        if (limit < 1) {
+            throw new BadRequestException("Limit must be at least 1");
+        }
+        List<Long> ids = personSearchIndex.searchPatients(query, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // Loaded in one query and returned in the index's ranking order
+        Map<Long, Patient> patients = patientRepository.findAllWithUserByIdIn(ids).stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+        return ids.stream()
+                .map(patients::get)
+                .filter(Objects::nonNull)
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
@@ -93,9 +119,47 @@ public class PatientService {
                 .build();
 
         Patient savedPatient = patientRepository.save(patient);
+        personSearchIndex.patientSaved(savedPatient);
+        List<DuplicateCandidate> possibleDuplicates = findPossibleDuplicates(savedPatient);
+        patientDuplicateDetector.patientSaved(savedPatient);
         log.info("Patient created with ID: {}", savedPatient.getId());
 
-        return mapToResponse(savedPatient);
+        PatientResponse response = mapToResponse(savedPatient);
+        response.setPossibleDuplicates(possibleDuplicates);
+        return response;
+    }
+
+    public DuplicateScanReport scanForDuplicates() {
+        log.info("Scanning all patients for likely duplicates");
+        return patientDuplicateDetector.scan();
+    }
+
+    // Registration goes ahead either way; staff decide whether to merge
+    private List<DuplicateCandidate> findPossibleDuplicates(Patient patient) {
+        List<PatientDuplicateDetector.Candidate> candidates = patientDuplicateDetector.findPossibleDuplicates(patient);
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        log.warn("Patient {} may duplicate {} existing record(s)", patient.getId(), candidates.size());
+        Map<Long, Patient> patients = patientRepository.findAllWithUserByIdIn(candidates.stream()
+                        .map(PatientDuplicateDetector.Candidate::patientId)
+                        .toList()).stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+        return candidates.stream()
+                .filter(candidate -> patients.containsKey(candidate.patientId()))
+                .map(candidate -> {
+                    Patient match = patients.get(candidate.patientId());
+                    return DuplicateCandidate.builder()
+                            .patientId(match.getId())
+                            .firstName(match.getUser().getFirstName())
+                            .lastName(match.getUser().getLastName())
+                            .dateOfBirth(match.getDateOfBirth())
+                            .phone(match.getUser().getPhone())
+                            .score(candidate.score())
+                            .reasons(candidate.reasons())
+                            .build();
+                })
+                .collect(Collectors.toList());
     }
 
     @Transactional
@@ -130,6 +194,8 @@ public class PatientService {
             patient.setEmergencyContactName(request.getEmergencyContactName());
 
         Patient updatedPatient = patientRepository.save(patient);
+        personSearchIndex.patientSaved(updatedPatient);
+        patientDuplicateDetector.patientSaved(updatedPatient);
         log.info("Patient updated successfully");
 
         return mapToResponse(updatedPatient);
@@ -143,6 +209,8 @@ public class PatientService {
                 .orElseThrow(() -> new ResourceNotFoundException("Patient", "id", id));
 
         patientRepository.delete(patient);
+        personSearchIndex.patientDeleted(id);
+        patientDuplicateDetector.patientDeleted(id);
         log.info("Patient deleted successfully");
     }
 
@@ -159,6 +227,53 @@ public class PatientService {
                 .collect(Collectors.toList());
     }
 
+    // Keyset-paginated timeline of summaries; full entries are fetched one at a time
+    public CursorPage<MedicalHistorySummary> getMedicalHistoryTimeline(Long patientId, String cursor, Integer size) {
+        log.info("Fetching medical history timeline for patient ID: {}", patientId);
+
+        if (!patientRepository.existsById(patientId)) {
+            throw new ResourceNotFoundException("Patient", "id", patientId);
+        }
+
+        int pageSize = size == null ? DEFAULT_HISTORY_PAGE_SIZE : Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+        MedicalHistoryCursor.Position after = MedicalHistoryCursor.decode(cursor);
+        // One extra row tells whether there is a next page
+        Limit limit = Limit.of(pageSize + 1);
+        List<MedicalHistoryRepository.TimelineEntry> entries;
+        if (after == null) {
+            entries = medicalHistoryRepository.findTimeline(patientId, limit);
+        } else if (after.diagnosisDate() == null) {
+            entries = medicalHistoryRepository.findUndatedTimelineAfter(patientId, after.id(), limit);
+        } else {
+            entries = medicalHistoryRepository.findTimelineAfter(patientId, after.diagnosisDate(), after.id(), limit);
+        }
+
+        boolean hasNext = entries.size() > pageSize;
+        List<MedicalHistorySummary> content = entries.stream()
+                .limit(pageSize)
+                .map(entry -> MedicalHistorySummary.builder()
+                        .id(entry.getId())
+                        .conditionName(entry.getConditionName())
+                        .diagnosisDate(entry.getDiagnosisDate())
+                        .isChronic(entry.getIsChronic())
+                        .build())
+                .collect(Collectors.toList());
+        MedicalHistorySummary last = content.isEmpty() ? null : content.get(content.size() - 1);
+        return CursorPage.<MedicalHistorySummary>builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? MedicalHistoryCursor.encode(last.getDiagnosisDate(), last.getId()) : null)
+                .build();
+    }
+
+    public MedicalHistoryResponse getMedicalHistoryEntry(Long patientId, Long historyId) {
+        log.info("Fetching medical history ID: {} for patient ID: {}", historyId, patientId);
+        return medicalHistoryRepository.findByIdAndPatientId(historyId, patientId)
+                .map(this::mapToMedicalHistoryResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("MedicalHistory", "id", historyId));
+    }
+
     @Transactional
     public MedicalHistoryResponse addMedicalHistory(Long patientId, MedicalHistoryRequest request) {
         log.info("Adding medical history for patient ID: {}", patientId);
@@ -0,0 +1,108 @@
+package com.hms.service;
+
+import com.hms.entity.Doctor;
+import com.hms.entity.Patient;
+import com.hms.entity.User;
+import com.hms.repository.DoctorRepository;
+import com.hms.repository.PatientRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Name, phone and email lookup for patients and doctors, served from in-memory trigram indexes instead of
+ * a {@code LIKE '%x%'} scan of {@code users}.
+ * <p>
+ * Both indexes are loaded on startup and kept current by the services, which report changes here; they
+ * apply after the surrounding transaction commits. Periodic rebuilds pick up changes made on other nodes
+ * or outside the services: doctors here, patients in {@link PatientIndexRefresher}.
+ */
+@Component
+@Slf4j
+public class PersonSearchIndex {
+
+    private final DoctorRepository doctorRepository;
+    private final TransactionTemplate readTransaction;
+    private final int maxResults;
+    private final double minSimilarity;
+    private final NameSearchIndex patients = new NameSearchIndex();
+    private final NameSearchIndex doctors = new NameSearchIndex();
+
+    public PersonSearchIndex(DoctorRepository doctorRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${hms.search.max-results:50}") int maxResults,
+                             @Value("${hms.search.min-similarity:0.5}") double minSimilarity) {
+        this.doctorRepository = doctorRepository;
+        this.maxResults = maxResults;
+        this.minSimilarity = minSimilarity;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuildDoctors();
+    }
+
+    // Patients are reloaded by PatientIndexRefresher, together with the duplicate index
+    @Scheduled(initialDelayString = "${hms.search.rebuild-interval-ms:600000}",
+            fixedDelayString = "${hms.search.rebuild-interval-ms:600000}")
+    public void rebuildDoctors() {
+        long started = System.nanoTime();
+        int doctorCount = doctors.rebuild(() -> readTransaction.execute(status ->
+                doctorRepository.findSearchEntries().stream().map(PersonSearchIndex::document).toList()));
+        log.info("Search index rebuilt with {} doctors in {} ms", doctorCount, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Ids of the best matching patients, best first, at most {@code limit} (capped at the configured maximum).
+     */
+    public List<Long> searchPatients(String query, int limit) {
+        return patients.search(query, Math.min(limit, maxResults), minSimilarity);
+    }
+
+    public List<Long> searchDoctors(String query, int limit) {
+        return doctors.search(query, Math.min(limit, maxResults), minSimilarity);
+    }
+
+    public void patientSaved(Patient patient) {
+        NameSearchIndex.Document document = document(patient.getId(), patient.getUser());
+        AfterCommit.run(() -> patients.put(document));
+    }
+
+    public void patientDeleted(Long patientId) {
+        AfterCommit.run(() -> patients.remove(patientId));
+    }
+
+    public void doctorSaved(Doctor doctor) {
+        NameSearchIndex.Document document = document(doctor.getId(), doctor.getUser());
+        AfterCommit.run(() -> doctors.put(document));
+    }
+
+    public void doctorDeleted(Long doctorId) {
+        AfterCommit.run(() -> doctors.remove(doctorId));
+    }
+
+    NameSearchIndex patientIndex() {
+        return patients;
+    }
+
+    static NameSearchIndex.Document document(PatientRepository.SearchEntry entry) {
+        return new NameSearchIndex.Document(entry.getId(), entry.getFirstName(), entry.getLastName(), entry.getPhone(), entry.getEmail());
+    }
+
+    private static NameSearchIndex.Document document(DoctorRepository.SearchEntry entry) {
+        return new NameSearchIndex.Document(entry.getId(), entry.getFirstName(), entry.getLastName(), entry.getPhone(), entry.getEmail());
+    }
+
+    private static NameSearchIndex.Document document(Long id, User user) {
+        return new NameSearchIndex.Document(id, user.getFirstName(), user.getLastName(), user.getPhone(), user.getEmail());
+    }
+}
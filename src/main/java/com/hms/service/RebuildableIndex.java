@@ -0,0 +1,156 @@
+package com.hms.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * An in-memory index that is updated in place and periodically replaced by a full reload.
+ * <p>
+ * A rebuild fills fresh contents while readers keep using the old ones. Changes made while the rebuild
+ * loads are journalled and replayed on top before the swap, so a change committed after the load's
+ * snapshot is not lost.
+ *
+ * @param <V> the indexed values, each identified by a {@code long} id
+ * @param <C> the index structure holding them
+ */
+abstract class RebuildableIndex<V, C extends RebuildableIndex.Contents<V>> {
+
+    // Not thread-safe; only touched under the index lock, or before it is published by a rebuild
+    interface Contents<V> {
+
+        void put(V value);
+
+        void remove(long id);
+
+        int size();
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Supplier<C> empty;
+    private final ToLongFunction<V> ids;
+
+    // Guarded by lock
+    private C contents;
+    private List<Change<V>> journal;
+
+    // A put, or a removal when value is null
+    private record Change<V>(long id, V value) {
+    }
+
+    RebuildableIndex(Supplier<C> empty, ToLongFunction<V> ids) {
+        this.empty = empty;
+        this.ids = ids;
+        this.contents = empty.get();
+    }
+
+    void put(V value) {
+        lock.writeLock().lock();
+        try {
+            contents.put(value);
+            if (journal != null) {
+                journal.add(new Change<>(ids.applyAsLong(value), value));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            contents.remove(id);
+            if (journal != null) {
+                journal.add(new Change<>(id, null));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the contents with {@code loader}'s values. Returns the number of values indexed.
+     */
+    int rebuild(Supplier<List<V>> loader) {
+        startRebuild();
+        List<V> values;
+        try {
+            values = loader.get();
+        } catch (RuntimeException e) {
+            abandonRebuild();
+            throw e;
+        }
+        return finishRebuild(values);
+    }
+
+    /**
+     * Starts journalling changes. Call before taking the snapshot that {@link #finishRebuild} is given, and
+     * {@link #abandonRebuild} if it cannot be taken.
+     */
+    void startRebuild() {
+        lock.writeLock().lock();
+        try {
+            journal = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int finishRebuild(List<V> values) {
+        C fresh = empty.get();
+        for (V value : values) {
+            fresh.put(value);
+        }
+        lock.writeLock().lock();
+        try {
+            if (journal != null) {
+                for (Change<V> change : journal) {
+                    if (change.value() == null) {
+                        fresh.remove(change.id());
+                    } else {
+                        fresh.put(change.value());
+                    }
+                }
+            }
+            journal = null;
+            contents = fresh;
+            return fresh.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void abandonRebuild() {
+        lock.writeLock().lock();
+        try {
+            journal = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return contents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs {@code reader} against the current contents under the read lock; it must not keep references to them.
+     */
+    <R> R read(Function<C, R> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(contents);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.hms.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.domain.Money;
+import com.hms.dto.response.ReconciliationReport;
+import com.hms.entity.Invoice;
+import com.hms.entity.Payment;
+import com.hms.enums.ImportFormat;
+import com.hms.enums.PaymentStatus;
+import com.hms.repository.InvoiceRepository;
+import com.hms.repository.PaymentBatchRepository;
+import com.hms.repository.PaymentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports bank/card statements (CSV or NDJSON, one transaction per line) and applies each line as a
+ * payment on the invoice it references.
+ * <p>
+ * Files are read and queued by a {@link ChunkedFileImporter} and applied in chunks of lines, each chunk in
+ * one transaction: one lookup for already applied transaction ids, one for the referenced invoices,
+ * then batched payment inserts and invoice updates. Transaction ids that were already applied, including
+ * ones recorded concurrently and caught by their unique index, are skipped, so a failed import can simply be
+ * run again.
+ */
+@Service
+@Slf4j
+public class ReconciliationService {
+
+    static final String DEFAULT_PAYMENT_METHOD = "BANK_TRANSFER";
+
+    private final PaymentRepository paymentRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final DailyRevenueRollup dailyRevenueRollup;
+    private final PatientAccountLedger patientAccountLedger;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate chunkTransaction;
+    private final ChunkedFileImporter<StatementLine, Progress> importer;
+
+    public ReconciliationService(PaymentRepository paymentRepository,
+                                 InvoiceRepository invoiceRepository,
+                                 DailyRevenueRollup dailyRevenueRollup,
+                                 PatientAccountLedger patientAccountLedger,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${hms.billing.reconciliation.chunk-lines:500}") int chunkLines,
+                                 @Value("${hms.billing.reconciliation.read-buffer-bytes:65536}") int readBufferBytes,
+                                 @Value("${hms.billing.reconciliation.max-line-length:4096}") int maxLineLength,
+                                 @Value("${hms.billing.reconciliation.max-errors:200}") int maxErrors,
+                                 @Value("${hms.billing.reconciliation.retained-imports:20}") int retainedImports) {
+        this.paymentRepository = paymentRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.dailyRevenueRollup = dailyRevenueRollup;
+        this.patientAccountLedger = patientAccountLedger;
+        this.objectMapper = objectMapper;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.importer = new ChunkedFileImporter<>("Reconciliation import", "reconciliation-import",
+                format -> format == ImportFormat.CSV ? new CsvLineParser() : new NdjsonLineParser(),
+                this::applyChunk,
+                (importId, fileName, format, totalBytes) -> new Progress(importId, fileName, format, totalBytes, maxErrors),
+                chunkLines, readBufferBytes, maxLineLength, retainedImports);
+    }
+
+    @PreDestroy
+    void stop() {
+        importer.stop();
+    }
+
+    /**
+     * Spools the upload to a temporary file and queues it for import. Returns the queued import's report.
+     */
+    public ReconciliationReport startImport(MultipartFile file, ImportFormat format) {
+        log.info("Queueing reconciliation import of {} ({} bytes)", file.getOriginalFilename(), file.getSize());
+        return importer.submit(file, format).snapshot();
+    }
+
+    public ReconciliationReport getImport(String importId) {
+        log.info("Fetching reconciliation import {}", importId);
+        return importer.get(importId).snapshot();
+    }
+
+    /**
+     * Imports {@code file} on the calling thread and returns the final report.
+     */
+    ReconciliationReport importFile(Path file, ImportFormat format) throws IOException {
+        return importer.importFile(file, format).snapshot();
+    }
+
+    private void applyChunk(List<StatementLine> chunk, Progress progress) {
+        ChunkResult result = chunkTransaction.execute(status -> applyInTransaction(chunk));
+        // Counted only once the chunk has committed
+        progress.add(result);
+        log.debug("Reconciliation import {}: {}", progress.importId(), progress.summary());
+    }
+
+    private ChunkResult applyInTransaction(List<StatementLine> chunk) {
+        ChunkResult result = new ChunkResult();
+        // Transaction ids applied earlier, plus those seen so far in this chunk
+        Set<String> seen = new HashSet<>(paymentRepository.findExistingTransactionIds(
+                chunk.stream().map(StatementLine::transactionId).collect(Collectors.toSet())));
+        Map<String, InvoiceRepository.InvoiceBalance> invoices = invoiceRepository.findBalancesByInvoiceNumbers(
+                        chunk.stream().map(StatementLine::invoiceNumber).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(InvoiceRepository.InvoiceBalance::getInvoiceNumber, Function.identity()));
+
+        List<StatementLine> candidates = new ArrayList<>(chunk.size());
+        List<Long> patientIds = new ArrayList<>(chunk.size());
+        List<Payment> payments = new ArrayList<>(chunk.size());
+        for (StatementLine line : chunk) {
+            InvoiceRepository.InvoiceBalance invoice = invoices.get(line.invoiceNumber());
+            if (!seen.add(line.transactionId())) {
+                result.duplicates++;
+            } else if (invoice == null) {
+                result.unmatched++;
+                result.errors.add(line.error("No invoice with number " + line.invoiceNumber()));
+            } else if (invoice.getStatus() == PaymentStatus.PAID || invoice.getStatus() == PaymentStatus.CANCELLED) {
+                result.rejected++;
+                result.errors.add(line.error("Invoice " + line.invoiceNumber() + " is " + invoice.getStatus()));
+            } else {
+                candidates.add(line);
+                patientIds.add(invoice.getPatientId());
+                payments.add(Payment.builder()
+                        .invoice(Invoice.builder().id(invoice.getId()).build())
+                        .amount(line.amount())
+                        .paymentMethod(line.paymentMethod())
+                        .transactionId(line.transactionId())
+                        .paymentDate(line.paymentDate())
+                        .notes(line.notes())
+                        .receivedBy("RECONCILIATION")
+                        .build());
+            }
+        }
+
+        PaymentBatchRepository.Outcome[] outcomes = paymentRepository.applyAll(payments);
+        List<Payment> recorded = new ArrayList<>(payments.size());
+        Map<Long, Money> paidByPatient = new HashMap<>();
+        for (int i = 0; i < outcomes.length; i++) {
+            StatementLine line = candidates.get(i);
+            switch (outcomes[i]) {
+                case APPLIED -> {
+                    Money amount = Money.of(payments.get(i).getAmount());
+                    recorded.add(payments.get(i));
+                    paidByPatient.merge(patientIds.get(i), amount, Money::plus);
+                    result.applied++;
+                    result.appliedAmount = result.appliedAmount.plus(amount);
+                }
+                case DUPLICATE -> result.duplicates++;
+                case REJECTED -> {
+                    result.rejected++;
+                    result.errors.add(line.error("Amount exceeds the remaining balance of invoice " + line.invoiceNumber()));
+                }
+            }
+        }
+        dailyRevenueRollup.recordAll(recorded);
+        patientAccountLedger.paymentsReceived(paidByPatient);
+        return result;
+    }
+
+    record StatementLine(long lineNumber, String transactionId, String invoiceNumber, BigDecimal amount,
+                         String paymentMethod, LocalDateTime paymentDate, String notes) {
+
+        StatementLine {
+            if (transactionId == null || transactionId.isBlank()) {
+                throw new IllegalArgumentException("transactionId is required");
+            }
+            if (invoiceNumber == null || invoiceNumber.isBlank()) {
+                throw new IllegalArgumentException("invoiceNumber is required");
+            }
+            if (amount == null || amount.signum() <= 0 || amount.stripTrailingZeros().scale() > 2) {
+                throw new IllegalArgumentException("amount must be positive with at most two decimals");
+            }
+            transactionId = transactionId.trim();
+            invoiceNumber = invoiceNumber.trim();
+            paymentMethod = paymentMethod == null || paymentMethod.isBlank() ? DEFAULT_PAYMENT_METHOD : paymentMethod.trim();
+            if (paymentDate == null) {
+                paymentDate = LocalDateTime.now();
+            }
+        }
+
+        ReconciliationReport.LineError error(String message) {
+            return ReconciliationReport.LineError.builder()
+                    .line(lineNumber)
+                    .transactionId(transactionId)
+                    .error(message)
+                    .build();
+        }
+    }
+
+    /**
+     * Comma-separated with a header row naming the columns: transactionId, invoiceNumber and amount are
+     * required; paymentMethod, paymentDate and notes are optional. Fields may be double-quoted.
+     */
+    private static final class CsvLineParser implements ChunkedFileImporter.LineParser<StatementLine> {
+
+        private Map<String, Integer> columns;
+
+        @Override
+        public StatementLine parse(long lineNumber, String text) {
+            List<String> fields = CsvFields.split(text);
+            if (columns == null) {
+                columns = new HashMap<>();
+                for (int i = 0; i < fields.size(); i++) {
+                    columns.put(fields.get(i).trim().toLowerCase(Locale.ROOT), i);
+                }
+                for (String required : List.of("transactionid", "invoicenumber", "amount")) {
+                    if (!columns.containsKey(required)) {
+                        throw new IllegalStateException("CSV header is missing the " + required + " column");
+                    }
+                }
+                return null;
+            }
+            return new StatementLine(lineNumber, field(fields, "transactionid"), field(fields, "invoicenumber"),
+                    parseAmount(field(fields, "amount")), field(fields, "paymentmethod"),
+                    parseDate(field(fields, "paymentdate")), field(fields, "notes"));
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            return index != null && index < fields.size() ? fields.get(index) : null;
+        }
+    }
+
+    /**
+     * One JSON object per line with the same field names as the CSV header.
+     */
+    private final class NdjsonLineParser implements ChunkedFileImporter.LineParser<StatementLine> {
+
+        @Override
+        public StatementLine parse(long lineNumber, String text) {
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(text);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Line is not valid JSON");
+            }
+            if (!node.isObject()) {
+                throw new IllegalArgumentException("Line is not a JSON object");
+            }
+            JsonNode amount = node.path("amount");
+            return new StatementLine(lineNumber, text(node, "transactionId"), text(node, "invoiceNumber"),
+                    amount.isNumber() ? amount.decimalValue() : parseAmount(text(node, "amount")),
+                    text(node, "paymentMethod"), parseDate(text(node, "paymentDate")), text(node, "notes"));
+        }
+
+        private static String text(JsonNode node, String field) {
+            JsonNode value = node.get(field);
+            return value == null || value.isNull() ? null : value.asText();
+        }
+    }
+
+    private static BigDecimal parseAmount(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("amount is not a number: " + value);
+        }
+    }
+
+    // Accepts an ISO date-time, or an ISO date meaning the start of that day
+    private static LocalDateTime parseDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return value.length() <= 10 ? LocalDate.parse(value.trim()).atStartOfDay() : LocalDateTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("paymentDate is not an ISO date or date-time: " + value);
+        }
+    }
+
+    private static final class ChunkResult {
+        private long applied;
+        private Money appliedAmount = Money.ZERO;
+        private long duplicates;
+        private long unmatched;
+        private long rejected;
+        private final List<ReconciliationReport.LineError> errors = new ArrayList<>();
+    }
+
+    private static final class Progress extends ImportProgress<ReconciliationReport.LineError> {
+
+        // Guarded by this
+        private long applied;
+        private Money appliedAmount = Money.ZERO;
+        private long duplicates;
+        private long unmatched;
+        private long rejected;
+
+        Progress(String importId, String fileName, ImportFormat format, long totalBytes, int maxErrors) {
+            super(importId, fileName, format, totalBytes, maxErrors);
+        }
+
+        @Override
+        ReconciliationReport.LineError lineError(long line, String message) {
+            return ReconciliationReport.LineError.builder().line(line).error(message).build();
+        }
+
+        synchronized void add(ChunkResult result) {
+            applied += result.applied;
+            appliedAmount = appliedAmount.plus(result.appliedAmount);
+            duplicates += result.duplicates;
+            unmatched += result.unmatched;
+            rejected += result.rejected;
+            result.errors.forEach(this::addError);
+        }
+
+        @Override
+        synchronized String summary() {
+            return String.format("%d lines, %d applied, %d duplicates, %d unmatched, %d rejected, %d invalid",
+                    linesRead(), applied, duplicates, unmatched, rejected, invalid());
+        }
+
+        synchronized ReconciliationReport snapshot() {
+            return ReconciliationReport.builder()
+                    .importId(importId())
+                    .fileName(fileName())
+                    .format(format().name())
+                    .status(status())
+                    .totalBytes(totalBytes())
+                    .bytesRead(bytesRead())
+                    .linesRead(linesRead())
+                    .applied(applied)
+                    .appliedAmount(appliedAmount.toBigDecimal())
+                    .duplicates(duplicates)
+                    .unmatched(unmatched)
+                    .rejected(rejected)
+                    .invalid(invalid())
+                    .errors(errors())
+                    .failure(failure())
+                    .startedAt(startedAt())
+                    .finishedAt(finishedAt())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.hms.domain;
+
+import com.hms.entity.Invoice;
+import com.hms.entity.InvoiceItem;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    @DisplayName("Should convert to and from BigDecimal without rounding")
+    void conversion_IsExact() {
+        assertThat(Money.of(new BigDecimal("12.5")).minorUnits()).isEqualTo(1250);
+        assertThat(Money.of(new BigDecimal("1E+3")).minorUnits()).isEqualTo(100_000);
+        assertThat(Money.of(new BigDecimal("-0.07")).toBigDecimal()).isEqualTo(new BigDecimal("-0.07"));
+        assertThat(Money.ofMinor(1999).toString()).isEqualTo("19.99 USD");
+
+        assertThatThrownBy(() -> Money.of(new BigDecimal("0.005"))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1E+20"))).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    @DisplayName("Should reject overflow and mixed currencies")
+    void arithmetic_IsChecked() {
+        assertThat(Money.ofMinor(150).times(3).minus(Money.ofMinor(50)).plus(Money.ZERO)).isEqualTo(Money.ofMinor(400));
+        assertThat(Money.ofMinor(-1).signum()).isNegative();
+
+        assertThatThrownBy(() -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ofMinor(Long.MAX_VALUE / 2).times(3)).isInstanceOf(ArithmeticException.class);
+        Money euros = Money.of(BigDecimal.ONE, Currency.getInstance("EUR"));
+        assertThatThrownBy(() -> Money.ofMinor(100).plus(euros)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should total invoices of 1 to 500 items like the BigDecimal computation")
+    void recalculateTotal_MatchesBigDecimal() {
+        Random random = new Random(42);
+        for (int size : new int[]{1, 10, 100, 500}) {
+            Invoice invoice = Invoice.builder().build();
+            for (int i = 0; i < size; i++) {
+                invoice.getItems().add(InvoiceItem.builder()
+                        .amount(BigDecimal.valueOf(1 + random.nextInt(500_000), 2))
+                        .quantity(1 + random.nextInt(12))
+                        .build());
+            }
+            invoice.recalculateTotal();
+            assertThat(invoice.getTotalAmount()).isEqualTo(bigDecimalTotal(invoice.getItems()));
+        }
+    }
+
+    private static BigDecimal bigDecimalTotal(List<InvoiceItem> items) {
+        return items.stream()
+                .map(item -> item.getAmount().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
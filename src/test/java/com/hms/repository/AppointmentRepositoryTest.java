@@ -0,0 +1,204 @@
+package com.hms.repository;
+
+import com.hms.entity.*;
+import com.hms.enums.AppointmentStatus;
+import com.hms.enums.Gender;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class AppointmentRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(3);
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Doctor doctor;
+    private Patient patient;
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        doctor = persistDoctor();
+        patient = persistPatient();
+    }
+
+    @Test
+    @DisplayName("Listing queries issue one statement regardless of row count")
+    void listingQueries_ConstantStatementCount() {
+        seedAppointments(5);
+        long small = countStatements(() -> appointmentRepository.findByDateRange(DAY.atStartOfDay(), DAY.atTime(23, 59)));
+
+        seedAppointments(40);
+        long large = countStatements(() -> appointmentRepository.findByDateRange(DAY.atStartOfDay(), DAY.atTime(23, 59)));
+
+        assertThat(small).isEqualTo(1);
+        assertThat(large).isEqualTo(small);
+        assertThat(countStatements(() -> appointmentRepository.findByPatientId(patient.getId()))).isEqualTo(1);
+        assertThat(countStatements(() -> appointmentRepository.findByStatus(AppointmentStatus.PENDING))).isEqualTo(1);
+        assertThat(countStatements(() -> appointmentRepository.findByDoctorIdAndDateRange(
+                doctor.getId(), DAY.atStartOfDay(), DAY.atTime(23, 59)))).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Keyset pages are contiguous and ordered by time then id")
+    void keysetPages_AreContiguous() {
+        List<Appointment> seeded = seedAppointments(7);
+        Sort order = Sort.by("appointmentTime", "id");
+
+        Window<Appointment> first = appointmentRepository.findAllBy(ScrollPosition.keyset(), order, Limit.of(4));
+        Window<Appointment> second = appointmentRepository.findAllBy(
+                first.positionAt(first.size() - 1), order, Limit.of(4));
+
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.hasNext()).isFalse();
+        assertThat(first.getContent()).extracting(Appointment::getId)
+                .containsExactlyElementsOf(seeded.subList(0, 4).stream().map(Appointment::getId).toList());
+        assertThat(second.getContent()).extracting(Appointment::getId)
+                .containsExactlyElementsOf(seeded.subList(4, 7).stream().map(Appointment::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Overlap check honours duration and ignores the excluded appointment")
+    void existsOverlappingAppointment_UsesDuration() {
+        Appointment booked = seedAppointments(1).get(0);
+        entityManager.flush();
+        LocalDateTime start = booked.getAppointmentTime();
+
+        assertThat(appointmentRepository.existsOverlappingAppointment(
+                doctor.getId(), start.plusMinutes(29), start.plusMinutes(60), null)).isTrue();
+        assertThat(appointmentRepository.existsOverlappingAppointment(
+                doctor.getId(), start.plusMinutes(30), start.plusMinutes(60), null)).isFalse();
+        assertThat(appointmentRepository.existsOverlappingAppointment(
+                doctor.getId(), start.minusMinutes(15), start.plusMinutes(1), booked.getId())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Sweeper queries pick only ended appointments and the update honours the status guard")
+    void findEndedBefore_AndGuardedUpdate() {
+        List<Appointment> seeded = seedAppointments(3);
+        entityManager.flush();
+        LocalDateTime cutoff = seeded.get(1).getAppointmentTime().plusMinutes(30);
+
+        List<AppointmentRepository.ScheduledSlot> ended =
+                appointmentRepository.findEndedBefore(AppointmentStatus.PENDING, cutoff, Limit.of(10));
+        assertThat(ended).extracting(AppointmentRepository.ScheduledSlot::getId)
+                .containsExactly(seeded.get(0).getId());
+
+        List<Long> ids = seeded.stream().map(Appointment::getId).toList();
+        int updated = appointmentRepository.updateStatusWhereCurrent(
+                ids.subList(0, 2), AppointmentStatus.CONFIRMED, AppointmentStatus.COMPLETED, LocalDateTime.now());
+        assertThat(updated).isZero();
+
+        updated = appointmentRepository.updateStatusWhereCurrent(
+                ids.subList(0, 2), AppointmentStatus.PENDING, AppointmentStatus.CANCELLED, LocalDateTime.now());
+        assertThat(updated).isEqualTo(2);
+        assertThat(appointmentRepository.findIdsByIdInAndStatus(ids, AppointmentStatus.CANCELLED))
+                .containsExactlyInAnyOrderElementsOf(ids.subList(0, 2));
+    }
+
+    private long countStatements(Supplier<List<Appointment>> query) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        for (Appointment appointment : query.get()) {
+            // Touch everything AppointmentService.mapToResponse reads
+            appointment.getPatient().getUser().getFirstName();
+            appointment.getDoctor().getUser().getLastName();
+            if (appointment.getInvoice() != null) {
+                appointment.getInvoice().getId();
+            }
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<Appointment> seedAppointments(int count) {
+        List<Appointment> created = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Patient owner = i % 2 == 0 ? patient : persistPatient();
+            Appointment appointment = Appointment.builder()
+                    .patient(owner)
+                    .doctor(doctor)
+                    .appointmentTime(DAY.atTime(8, 0).plusMinutes(sequence++))
+                    .status(AppointmentStatus.PENDING)
+                    .durationMinutes(30)
+                    .build();
+            entityManager.persist(appointment);
+            if (i % 3 == 0) {
+                Invoice invoice = Invoice.builder()
+                        .invoiceNumber("INV-TEST-" + sequence)
+                        .appointment(appointment)
+                        .patient(owner)
+                        .totalAmount(new BigDecimal("100.00"))
+                        .build();
+                entityManager.persist(invoice);
+                appointment.setInvoice(invoice);
+            }
+            created.add(appointment);
+        }
+        return created;
+    }
+
+    private Doctor persistDoctor() {
+        Doctor newDoctor = Doctor.builder()
+                .user(persistUser("doctor"))
+                .specialization("Cardiology")
+                .licenseNumber("LIC-" + sequence++)
+                .consultationFee(new BigDecimal("150.00"))
+                .build();
+        entityManager.persist(newDoctor);
+        return newDoctor;
+    }
+
+    private Patient persistPatient() {
+        Patient newPatient = Patient.builder()
+                .user(persistUser("patient"))
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .gender(Gender.FEMALE)
+                .build();
+        entityManager.persist(newPatient);
+        return newPatient;
+    }
+
+    private User persistUser(String prefix) {
+        User user = User.builder()
+                .email(prefix + (sequence++) + "@test.com")
+                .password("password")
+                .firstName("First")
+                .lastName("Last")
+                .build();
+        entityManager.persist(user);
+        return user;
+    }
+}
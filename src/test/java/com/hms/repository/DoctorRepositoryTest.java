@@ -0,0 +1,104 @@
+package com.hms.repository;
+
+import com.hms.entity.Doctor;
+import com.hms.entity.User;
+import com.hms.enums.Role;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class DoctorRepositoryTest {
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private int sequence;
+
+    @Test
+    @DisplayName("Bookable doctors load with their users in one statement regardless of doctor count")
+    void findBookableDoctors_ConstantStatementCount() {
+        seedDoctors(3, "Cardiology");
+        long small = countStatements(() -> doctorRepository.findBookableDoctors("Cardiology"));
+
+        seedDoctors(20, "Cardiology");
+        long large = countStatements(() -> doctorRepository.findBookableDoctors("Cardiology"));
+
+        assertThat(small).isEqualTo(1);
+        assertThat(large).isEqualTo(small);
+        assertThat(countStatements(() -> doctorRepository.findBookableDoctors(null))).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Doctors looked up by id load with their users in one statement regardless of doctor count")
+    void findAllWithUserByIdIn_ConstantStatementCount() {
+        List<Long> small = seedDoctors(3, "Neurology");
+        long smallCount = countStatements(() -> doctorRepository.findAllWithUserByIdIn(small));
+
+        List<Long> large = seedDoctors(20, "Neurology");
+        long largeCount = countStatements(() -> doctorRepository.findAllWithUserByIdIn(large));
+
+        assertThat(smallCount).isEqualTo(1);
+        assertThat(largeCount).isEqualTo(smallCount);
+    }
+
+    private long countStatements(Supplier<List<Doctor>> query) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        for (Doctor doctor : query.get()) {
+            // Touch everything the slot search and search results read
+            doctor.getUser().getFirstName();
+            doctor.getUser().getLastName();
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<Long> seedDoctors(int count, String specialization) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = User.builder()
+                    .email("doctor" + (sequence++) + "@test.com")
+                    .password("password")
+                    .firstName("First")
+                    .lastName("Last")
+                    .roles(new HashSet<>(Set.of(Role.ROLE_DOCTOR)))
+                    .build();
+            entityManager.persist(user);
+            Doctor doctor = Doctor.builder()
+                    .user(user)
+                    .specialization(specialization)
+                    .licenseNumber("LIC-" + sequence++)
+                    .consultationFee(new BigDecimal("150.00"))
+                    .isAvailable(true)
+                    .build();
+            entityManager.persist(doctor);
+            ids.add(doctor.getId());
+        }
+        return ids;
+    }
+}
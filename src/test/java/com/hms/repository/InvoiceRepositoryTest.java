@@ -0,0 +1,198 @@
+package com.hms.repository;
+
+import com.hms.entity.Invoice;
+import com.hms.entity.InvoiceItem;
+import com.hms.entity.Patient;
+import com.hms.entity.Payment;
+import com.hms.entity.User;
+import com.hms.enums.Gender;
+import com.hms.enums.PaymentStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class InvoiceRepositoryTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final Set<PaymentStatus> OPEN = EnumSet.of(PaymentStatus.PENDING, PaymentStatus.PARTIALLY_PAID);
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Patient patient;
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        User user = User.builder()
+                .email("invoice-repository@test.com")
+                .password("password")
+                .firstName("Ada")
+                .lastName("Byron")
+                .build();
+        entityManager.persist(user);
+        patient = Patient.builder()
+                .user(user)
+                .dateOfBirth(LocalDate.of(1985, 12, 10))
+                .gender(Gender.FEMALE)
+                .build();
+        entityManager.persist(patient);
+    }
+
+    @Test
+    @DisplayName("Overdue marking only moves open invoices that are past due")
+    void markOverdue_OnlyOpenPastDueInvoices() {
+        Invoice pastDue = persistInvoice(PaymentStatus.PENDING, TODAY.minusDays(3), "0.00");
+        Invoice partlyPaid = persistInvoice(PaymentStatus.PARTIALLY_PAID, TODAY.minusDays(1), "40.00");
+        Invoice dueToday = persistInvoice(PaymentStatus.PENDING, TODAY, "0.00");
+        Invoice paid = persistInvoice(PaymentStatus.PAID, TODAY.minusDays(5), "100.00");
+        persistInvoice(PaymentStatus.PENDING, null, "0.00");
+        entityManager.flush();
+
+        List<Long> ids = invoiceRepository.findIdsDueBefore(OPEN, TODAY, Limit.of(10));
+        assertThat(ids).containsExactlyInAnyOrder(pastDue.getId(), partlyPaid.getId());
+
+        // The guard skips an invoice paid between the select and the update
+        List<Long> selected = List.of(pastDue.getId(), partlyPaid.getId(), paid.getId(), dueToday.getId());
+        assertThat(invoiceRepository.markOverdue(selected, OPEN, TODAY, LocalDateTime.now())).isEqualTo(2);
+        entityManager.clear();
+
+        assertThat(invoiceRepository.findByStatus(PaymentStatus.OVERDUE))
+                .extracting(Invoice::getId)
+                .containsExactlyInAnyOrder(pastDue.getId(), partlyPaid.getId());
+        assertThat(invoiceRepository.findOverdueSummaries())
+                .extracting(InvoiceRepository.OverdueInvoice::getId)
+                .containsExactly(pastDue.getId(), partlyPaid.getId());
+        assertThat(invoiceRepository.findOverdueSummaries().get(0).getPatientLastName()).isEqualTo("Byron");
+    }
+
+    @Test
+    @DisplayName("Overdue summaries report a missing paid amount as zero")
+    void findOverdueSummaries_NullPaidAmount() {
+        Invoice unpaid = persistInvoice(PaymentStatus.OVERDUE, TODAY.minusDays(2), null);
+        entityManager.flush();
+
+        InvoiceRepository.OverdueInvoice summary = invoiceRepository.findOverdueSummaries().get(0);
+        assertThat(summary.getId()).isEqualTo(unpaid.getId());
+        assertThat(summary.getPaidAmount()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    @DisplayName("A partial payment keeps an invoice overdue; settling it marks it paid")
+    void applyPayment_OverdueInvoice() {
+        Invoice overdue = persistInvoice(PaymentStatus.OVERDUE, TODAY.minusDays(10), "0.00");
+        entityManager.flush();
+
+        assertThat(invoiceRepository.applyPayment(overdue.getId(), new BigDecimal("30.00"), LocalDateTime.now())).isEqualTo(1);
+        assertThat(invoiceRepository.findById(overdue.getId()).orElseThrow().getStatus()).isEqualTo(PaymentStatus.OVERDUE);
+
+        assertThat(invoiceRepository.applyPayment(overdue.getId(), new BigDecimal("70.00"), LocalDateTime.now())).isEqualTo(1);
+        assertThat(invoiceRepository.findById(overdue.getId()).orElseThrow().getStatus()).isEqualTo(PaymentStatus.PAID);
+    }
+
+    @Test
+    @DisplayName("Invoice read model issues three statements regardless of invoice count")
+    void readModel_ConstantStatementCount() {
+        seedInvoicesWithLines(3);
+        long small = countReadModelStatements();
+
+        seedInvoicesWithLines(12);
+        long large = countReadModelStatements();
+
+        assertThat(small).isEqualTo(3);
+        assertThat(large).isEqualTo(small);
+    }
+
+    private long countReadModelStatements() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Invoice> headers = invoiceRepository.findAllHeaders();
+        List<Long> ids = headers.stream().map(Invoice::getId).toList();
+        // Touch everything BillingService reads when assembling responses
+        for (Invoice invoice : headers) {
+            invoice.getPatient().getUser().getFirstName();
+            if (invoice.getAppointment() != null) {
+                invoice.getAppointment().getId();
+            }
+        }
+        for (InvoiceItem item : invoiceRepository.findItemsByInvoiceIds(ids)) {
+            assertThat(ids).contains(item.getInvoice().getId());
+        }
+        for (Payment payment : invoiceRepository.findPaymentsByInvoiceIds(ids)) {
+            assertThat(ids).contains(payment.getInvoice().getId());
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void seedInvoicesWithLines(int count) {
+        for (int i = 0; i < count; i++) {
+            User user = User.builder()
+                    .email("read-model-" + sequence + "@test.com")
+                    .password("password")
+                    .firstName("Read")
+                    .lastName("Model")
+                    .build();
+            entityManager.persist(user);
+            Patient owner = Patient.builder()
+                    .user(user)
+                    .dateOfBirth(LocalDate.of(1990, 1, 1))
+                    .gender(Gender.MALE)
+                    .build();
+            entityManager.persist(owner);
+            Invoice invoice = Invoice.builder()
+                    .invoiceNumber("INV-REPO-" + sequence++)
+                    .patient(owner)
+                    .totalAmount(new BigDecimal("100.00"))
+                    .build();
+            invoice.addItem(InvoiceItem.builder().description("Consultation").amount(new BigDecimal("60.00")).build());
+            invoice.addItem(InvoiceItem.builder().description("Lab work").amount(new BigDecimal("40.00")).build());
+            entityManager.persist(invoice);
+            entityManager.persist(Payment.builder()
+                    .invoice(invoice)
+                    .amount(new BigDecimal("25.00"))
+                    .paymentMethod("CARD")
+                    .build());
+        }
+    }
+
+    private Invoice persistInvoice(PaymentStatus status, LocalDate dueDate, String paid) {
+        Invoice invoice = Invoice.builder()
+                .invoiceNumber("INV-REPO-" + sequence++)
+                .patient(patient)
+                .totalAmount(new BigDecimal("100.00"))
+                .paidAmount(paid != null ? new BigDecimal(paid) : null)
+                .status(status)
+                .dueDate(dueDate)
+                .build();
+        entityManager.persist(invoice);
+        return invoice;
+    }
+}
@@ -0,0 +1,90 @@
+package com.hms.repository;
+
+import com.hms.entity.Patient;
+import com.hms.entity.User;
+import com.hms.enums.Gender;
+import com.hms.enums.Role;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class PatientRepositoryTest {
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private int sequence;
+
+    @Test
+    @DisplayName("Patients looked up by id load with their users in one statement regardless of patient count")
+    void findAllWithUserByIdIn_ConstantStatementCount() {
+        List<Long> small = seedPatients(3);
+        long smallCount = countStatements(small);
+
+        List<Long> large = seedPatients(20);
+        long largeCount = countStatements(large);
+
+        assertThat(smallCount).isEqualTo(1);
+        assertThat(largeCount).isEqualTo(smallCount);
+    }
+
+    private long countStatements(List<Long> ids) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Patient> patients = patientRepository.findAllWithUserByIdIn(ids);
+        assertThat(patients).hasSize(ids.size());
+        for (Patient patient : patients) {
+            // Touch everything the search results and duplicate candidates read
+            patient.getUser().getFirstName();
+            patient.getUser().getPhone();
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<Long> seedPatients(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = User.builder()
+                    .email("patient" + (sequence++) + "@test.com")
+                    .password("password")
+                    .firstName("First")
+                    .lastName("Last")
+                    .roles(new HashSet<>(Set.of(Role.ROLE_PATIENT)))
+                    .build();
+            entityManager.persist(user);
+            Patient patient = Patient.builder()
+                    .user(user)
+                    .dateOfBirth(LocalDate.of(1980, 1, 1))
+                    .gender(Gender.OTHER)
+                    .build();
+            entityManager.persist(patient);
+            ids.add(patient.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,232 @@
+package com.hms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.dto.response.AgingReportRow;
+import com.hms.entity.Appointment;
+import com.hms.entity.Doctor;
+import com.hms.entity.Invoice;
+import com.hms.entity.Patient;
+import com.hms.entity.User;
+import com.hms.enums.Gender;
+import com.hms.enums.PaymentStatus;
+import com.hms.exception.BadRequestException;
+import com.hms.repository.AppointmentRepository;
+import com.hms.repository.DoctorRepository;
+import com.hms.repository.InvoiceRepository;
+import com.hms.repository.PatientRepository;
+import com.hms.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AgingReportServiceIntegrationTest {
+
+    private static final LocalDate AS_OF = LocalDate.of(2026, 6, 30);
+
+    @Autowired
+    private AgingReportService agingReportService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Patient first;
+    private Patient second;
+    private int invoiceNumber;
+
+    @BeforeEach
+    void setUp() {
+        first = createPatient("aging-first");
+        second = createPatient("aging-second");
+        Doctor cardiology = createDoctor("aging-cardio", "Cardiology");
+        Doctor neurology = createDoctor("aging-neuro", "Neurology");
+
+        createInvoice(first, cardiology, AS_OF.minusDays(10), "100.00", "0", PaymentStatus.PENDING);
+        createInvoice(first, cardiology, AS_OF, "20.00", "0", PaymentStatus.PENDING);
+        createInvoice(first, neurology, AS_OF.minusDays(45), "200.00", "50.00", PaymentStatus.PARTIALLY_PAID);
+        createInvoice(first, null, AS_OF.minusDays(75), "300.00", "0", PaymentStatus.OVERDUE);
+        createInvoice(second, cardiology, AS_OF.minusDays(200), "400.00", "0", PaymentStatus.OVERDUE);
+        // Not yet due on AS_OF
+        createInvoice(second, cardiology, AS_OF.plusDays(5), "50.00", "0", PaymentStatus.PENDING);
+        // No due date: aged from the invoice date, which is after AS_OF
+        createInvoice(second, null, null, "80.00", "0", PaymentStatus.PENDING);
+        // Not receivable
+        createInvoice(second, neurology, AS_OF.minusDays(100), "500.00", "500.00", PaymentStatus.PAID);
+        createInvoice(second, neurology, AS_OF.minusDays(100), "70.00", "0", PaymentStatus.CANCELLED);
+    }
+
+    @AfterEach
+    void tearDown() {
+        invoiceRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        patientRepository.deleteAll();
+        doctorRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Open balances are bucketed by age per patient")
+    void agingByPatient() throws IOException {
+        List<AgingReportRow> rows = read(agingReportService.prepare(AgingReportService.GroupBy.PATIENT, AS_OF, null, null));
+
+        assertThat(rows).hasSize(2);
+        assertRow(rows.get(0), first.getId().toString(), 4, "0", "120.00", "150.00", "300.00", "0", "570.00");
+        assertThat(rows.get(0).getName()).isEqualTo("aging-first Test");
+        assertRow(rows.get(1), second.getId().toString(), 3, "130.00", "0", "0", "0", "400.00", "530.00");
+    }
+
+    @Test
+    @DisplayName("Open balances are bucketed by age per doctor specialization")
+    void agingBySpecialization() throws IOException {
+        List<AgingReportRow> rows = read(agingReportService.prepare(AgingReportService.GroupBy.SPECIALIZATION, AS_OF, null, null));
+
+        assertThat(rows).extracting(AgingReportRow::getKey).containsExactly("Cardiology", "Neurology", "Unassigned");
+        assertRow(rows.get(0), "Cardiology", 4, "50.00", "120.00", "0", "0", "400.00", "570.00");
+        assertRow(rows.get(1), "Neurology", 1, "0", "0", "150.00", "0", "0", "150.00");
+        assertRow(rows.get(2), "Unassigned", 2, "80.00", "0", "0", "300.00", "0", "380.00");
+    }
+
+    @Test
+    @DisplayName("Partitioned aggregation merges to the same rows as a single query")
+    void partitionedMatchesSingleQuery() throws IOException {
+        AgingReportService single = service(100_000);
+        AgingReportService partitioned = service(7);
+        try {
+            for (AgingReportService.GroupBy groupBy : AgingReportService.GroupBy.values()) {
+                assertThat(read(partitioned.prepare(groupBy, AS_OF, null, null)))
+                        .isEqualTo(read(single.prepare(groupBy, AS_OF, null, null)));
+            }
+        } finally {
+            single.stop();
+            partitioned.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("A date range limits the invoices by aging date")
+    void agingWithinRange() throws IOException {
+        List<AgingReportRow> rows = read(agingReportService.prepare(AgingReportService.GroupBy.PATIENT, AS_OF,
+                AS_OF.minusDays(50), AS_OF));
+
+        assertThat(rows).hasSize(1);
+        assertRow(rows.get(0), first.getId().toString(), 3, "0", "120.00", "150.00", "0", "0", "270.00");
+        assertThatThrownBy(() -> agingReportService.prepare(AgingReportService.GroupBy.PATIENT, AS_OF, AS_OF, AS_OF.minusDays(1)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private void assertRow(AgingReportRow row, String key, long count, String notYetDue, String days0To30,
+                           String days31To60, String days61To90, String over90Days, String total) {
+        assertThat(row.getKey()).isEqualTo(key);
+        assertThat(row.getInvoiceCount()).isEqualTo(count);
+        assertThat(row.getNotYetDue()).isEqualByComparingTo(notYetDue);
+        assertThat(row.getDays0To30()).isEqualByComparingTo(days0To30);
+        assertThat(row.getDays31To60()).isEqualByComparingTo(days31To60);
+        assertThat(row.getDays61To90()).isEqualByComparingTo(days61To90);
+        assertThat(row.getOver90Days()).isEqualByComparingTo(over90Days);
+        assertThat(row.getTotal()).isEqualByComparingTo(total);
+    }
+
+    private List<AgingReportRow> read(AgingReportService.AgingReport report) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        report.writeTo(out);
+        List<AgingReportRow> rows = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                AgingReportRow row = objectMapper.readValue(line, AgingReportRow.class);
+                // Scale differs between the query and merged sums; compare values only
+                row.setNotYetDue(row.getNotYetDue().stripTrailingZeros());
+                row.setDays0To30(row.getDays0To30().stripTrailingZeros());
+                row.setDays31To60(row.getDays31To60().stripTrailingZeros());
+                row.setDays61To90(row.getDays61To90().stripTrailingZeros());
+                row.setOver90Days(row.getOver90Days().stripTrailingZeros());
+                row.setTotal(row.getTotal().stripTrailingZeros());
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private AgingReportService service(int partitionDays) {
+        return new AgingReportService(invoiceRepository, objectMapper, transactionManager, partitionDays, 3, 30);
+    }
+
+    private void createInvoice(Patient patient, Doctor doctor, LocalDate dueDate, String total, String paid,
+                               PaymentStatus status) {
+        Appointment appointment = doctor == null ? null : appointmentRepository.save(Appointment.builder()
+                .patient(patient)
+                .doctor(doctor)
+                .appointmentTime(AS_OF.minusDays(300).atTime(9, 0).plusMinutes(30L * invoiceNumber))
+                .build());
+        invoiceRepository.save(Invoice.builder()
+                .invoiceNumber("INV-AGING-" + (++invoiceNumber))
+                .patient(patient)
+                .appointment(appointment)
+                .dueDate(dueDate)
+                .totalAmount(new BigDecimal(total))
+                .paidAmount(new BigDecimal(paid))
+                .status(status)
+                .build());
+    }
+
+    private Patient createPatient(String name) {
+        return patientRepository.save(Patient.builder()
+                .user(createUser(name))
+                .dateOfBirth(LocalDate.of(1970, 3, 3))
+                .gender(Gender.FEMALE)
+                .build());
+    }
+
+    private Doctor createDoctor(String name, String specialization) {
+        return doctorRepository.save(Doctor.builder()
+                .user(createUser(name))
+                .specialization(specialization)
+                .licenseNumber("LIC-" + name)
+                .consultationFee(new BigDecimal("100.00"))
+                .isAvailable(true)
+                .build());
+    }
+
+    private User createUser(String name) {
+        return userRepository.save(User.builder()
+                .email(name + "@test.com")
+                .password("password")
+                .firstName(name)
+                .lastName("Test")
+                .build());
+    }
+}
@@ -0,0 +1,203 @@
+package com.hms.service;
+
+import com.hms.dto.request.AppointmentRequest;
+import com.hms.dto.response.AppointmentBatchResponse;
+import com.hms.entity.Appointment;
+import com.hms.entity.Doctor;
+import com.hms.entity.Patient;
+import com.hms.entity.User;
+import com.hms.enums.Gender;
+import com.hms.exception.BadRequestException;
+import com.hms.repository.AppointmentRepository;
+import com.hms.repository.DoctorRepository;
+import com.hms.repository.PatientRepository;
+import com.hms.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AppointmentBookingIntegrationTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(10);
+    private static final int SLOTS = 20;
+    private static final int ATTEMPTS_PER_SLOT = 8;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentConflictIndex conflictIndex;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<Doctor> doctors = new ArrayList<>();
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        doctors.add(createDoctor("stress-doctor-a"));
+        doctors.add(createDoctor("stress-doctor-b"));
+        patient = patientRepository.save(Patient.builder()
+                .user(createUser("stress-patient"))
+                .dateOfBirth(LocalDate.of(1985, 5, 20))
+                .gender(Gender.MALE)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        appointmentRepository.deleteAll();
+        patientRepository.deleteAll();
+        doctorRepository.deleteAll();
+        userRepository.deleteAll();
+        conflictIndex.clear();
+    }
+
+    @Test
+    @DisplayName("Concurrent overlapping bookings never double-book a doctor")
+    void concurrentBookings_NoDoubleBooking() throws Exception {
+        List<Callable<Boolean>> bookings = new ArrayList<>();
+        for (Doctor doctor : doctors) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                for (int attempt = 0; attempt < ATTEMPTS_PER_SLOT; attempt++) {
+                    LocalDateTime time = DAY.atTime(8, 0).plusMinutes(slot * 30L + attempt * 4L);
+                    bookings.add(() -> book(doctor, time));
+                }
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch startGate = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Callable<Boolean> booking : bookings) {
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    if (booking.call()) {
+                        accepted.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            startGate.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int stored = 0;
+        for (Doctor doctor : doctors) {
+            List<Appointment> booked = appointmentRepository.findByDoctorId(doctor.getId()).stream()
+                    .sorted(Comparator.comparing(Appointment::getAppointmentTime))
+                    .toList();
+            for (int i = 1; i < booked.size(); i++) {
+                Appointment previous = booked.get(i - 1);
+                LocalDateTime previousEnd = previous.getAppointmentTime().plusMinutes(previous.getDurationMinutes());
+                assertThat(booked.get(i).getAppointmentTime())
+                        .as("appointment %d overlaps %d", booked.get(i).getId(), previous.getId())
+                        .isAfterOrEqualTo(previousEnd);
+            }
+            assertThat(booked).hasSizeGreaterThanOrEqualTo(SLOTS / 2);
+            stored += booked.size();
+        }
+        assertThat(stored).isEqualTo(accepted.get());
+    }
+
+    @Test
+    @DisplayName("Batch booking inserts valid rows and reports per-item failures")
+    void createAppointmentsBatch_ReportsPerItem() {
+        Doctor doctor = doctors.get(0);
+        appointmentService.createAppointment(request(doctor.getId(), DAY.atTime(9, 0)));
+
+        List<AppointmentRequest> batch = List.of(
+                request(doctor.getId(), DAY.atTime(10, 0)),
+                request(doctor.getId(), DAY.atTime(9, 15)),
+                request(doctor.getId(), DAY.atTime(10, 20)),
+                request(999_999L, DAY.atTime(11, 0)),
+                request(doctor.getId(), LocalDateTime.now().minusDays(1)),
+                request(doctors.get(1).getId(), DAY.atTime(10, 0)));
+
+        AppointmentBatchResponse response = appointmentService.createAppointmentsBatch(batch);
+
+        assertThat(response.getCreated()).isEqualTo(2);
+        assertThat(response.getFailed()).isEqualTo(4);
+        assertThat(response.getResults()).extracting(AppointmentBatchResponse.ItemResult::isSuccess)
+                .containsExactly(true, false, false, false, false, true);
+        assertThat(response.getResults().get(1).getError()).contains("already has an appointment");
+        assertThat(response.getResults().get(2).getError()).contains("already has an appointment");
+        assertThat(response.getResults().get(3).getError()).contains("Doctor not found");
+        assertThat(response.getResults().get(4).getError()).contains("future");
+
+        Long createdId = response.getResults().get(0).getAppointmentId();
+        assertThat(appointmentRepository.findById(createdId))
+                .hasValueSatisfying(stored -> assertThat(stored.getAppointmentTime()).isEqualTo(DAY.atTime(10, 0)));
+        assertThat(conflictIndex.hasConflict(doctor.getId(), DAY.atTime(10, 10), DAY.atTime(10, 20), null)).isTrue();
+    }
+
+    private AppointmentRequest request(Long doctorId, LocalDateTime time) {
+        return AppointmentRequest.builder()
+                .patientId(patient.getId())
+                .doctorId(doctorId)
+                .appointmentTime(time)
+                .durationMinutes(30)
+                .build();
+    }
+
+    private boolean book(Doctor doctor, LocalDateTime time) {
+        try {
+            appointmentService.createAppointment(request(doctor.getId(), time));
+            return true;
+        } catch (BadRequestException e) {
+            return false;
+        }
+    }
+
+    private Doctor createDoctor(String name) {
+        return doctorRepository.save(Doctor.builder()
+                .user(createUser(name))
+                .specialization("Cardiology")
+                .licenseNumber("LIC-" + name)
+                .consultationFee(new BigDecimal("100.00"))
+                .isAvailable(true)
+                .build());
+    }
+
+    private User createUser(String name) {
+        return userRepository.save(User.builder()
+                .email(name + "@test.com")
+                .password("password")
+                .firstName(name)
+                .lastName("Test")
+                .build());
+    }
+}
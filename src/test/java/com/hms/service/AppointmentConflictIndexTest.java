@@ -0,0 +1,155 @@
+package com.hms.service;
+
+import com.hms.entity.Appointment;
+import com.hms.entity.Doctor;
+import com.hms.enums.AppointmentStatus;
+import com.hms.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentConflictIndexTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(2);
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @InjectMocks
+    private AppointmentConflictIndex conflictIndex;
+
+    private Doctor doctor;
+
+    @BeforeEach
+    void setUp() {
+        doctor = Doctor.builder().id(1L).build();
+        lenient().when(appointmentRepository.findActiveIntervals(eq(1L), any(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("Should detect partially overlapping visits of different lengths")
+    void hasConflict_PartialOverlap() {
+        warm(DAY);
+        conflictIndex.track(appointment(10L, DAY.atTime(9, 0), 45));
+
+        assertThat(conflictIndex.hasConflict(1L, DAY.atTime(9, 30), DAY.atTime(10, 0), null)).isTrue();
+        assertThat(conflictIndex.hasConflict(1L, DAY.atTime(8, 30), DAY.atTime(9, 1), null)).isTrue();
+        assertThat(conflictIndex.hasConflict(1L, DAY.atTime(9, 45), DAY.atTime(10, 15), null)).isFalse();
+        assertThat(conflictIndex.hasConflict(1L, DAY.atTime(8, 30), DAY.atTime(9, 0), null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should ignore the appointment being rescheduled")
+    void hasConflict_ExcludesSelf() {
+        warm(DAY);
+        conflictIndex.track(appointment(10L, DAY.atTime(9, 0), 30));
+
+        assertThat(conflictIndex.hasConflict(1L, DAY.atTime(9, 15), DAY.atTime(9, 45), 10L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should drop cancelled and moved appointments from the index")
+    void track_KeepsIndexCurrent() {
+        warm(DAY);
+        Appointment appointment = appointment(10L, DAY.atTime(9, 0), 30);
+        conflictIndex.track(appointment);
+
+        appointment.setAppointmentTime(DAY.atTime(14, 0));
+        conflictIndex.track(appointment);
+        assertThat(conflictIndex.hasConflict(1L, DAY.atTime(9, 0), DAY.atTime(9, 30), null)).isFalse();
+        assertThat(conflictIndex.hasConflict(1L, DAY.atTime(14, 10), DAY.atTime(14, 20), null)).isTrue();
+
+        conflictIndex.untrack(appointment);
+        assertThat(conflictIndex.hasConflict(1L, DAY.atTime(14, 10), DAY.atTime(14, 20), null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should warm each doctor-day from the repository only once")
+    void hasConflict_WarmsLazily() {
+        AppointmentRepository.TimeSlot slot = mock(AppointmentRepository.TimeSlot.class);
+        when(slot.getId()).thenReturn(5L);
+        when(slot.getAppointmentTime()).thenReturn(DAY.minusDays(1).atTime(23, 30));
+        when(slot.getDurationMinutes()).thenReturn(60);
+        when(appointmentRepository.findActiveIntervals(eq(1L), eq(DAY.minusDays(1).atStartOfDay()), any()))
+                .thenReturn(List.of(slot));
+
+        assertThat(conflictIndex.hasConflict(1L, DAY.atTime(0, 15), DAY.atTime(0, 45), null)).isTrue();
+        assertThat(conflictIndex.hasConflict(1L, DAY.atTime(0, 20), DAY.atTime(1, 0), null)).isTrue();
+
+        verify(appointmentRepository, times(1))
+                .findActiveIntervals(eq(1L), eq(DAY.minusDays(1).atStartOfDay()), any());
+    }
+
+    @Test
+    @DisplayName("Should reload invalidated days from the repository")
+    void invalidate_ReloadsDay() {
+        warm(DAY);
+        conflictIndex.track(appointment(10L, DAY.atTime(9, 0), 30));
+        assertThat(conflictIndex.hasConflict(1L, DAY.atTime(9, 0), DAY.atTime(9, 30), null)).isTrue();
+
+        // Cancelled on another node: the repository no longer returns it
+        conflictIndex.invalidate(1L, DAY.atTime(9, 0), DAY.atTime(9, 30));
+
+        assertThat(conflictIndex.hasConflict(1L, DAY.atTime(9, 0), DAY.atTime(9, 30), null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should leave days that were never loaded to the repository")
+    void track_UnloadedDay_IsNotCached() {
+        conflictIndex.track(appointment(10L, DAY.atTime(9, 0), 30));
+
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    @Test
+    @DisplayName("Should not cache a day that changed while it was loading")
+    void schedule_ChangedWhileLoading_IsReloaded() {
+        Appointment appointment = appointment(10L, DAY.atTime(9, 0), 30);
+        AppointmentRepository.TimeSlot slot = mock(AppointmentRepository.TimeSlot.class);
+        when(slot.getId()).thenReturn(10L);
+        when(slot.getAppointmentTime()).thenReturn(DAY.atTime(9, 0));
+        when(slot.getDurationMinutes()).thenReturn(30);
+        // The booking commits after the query read the day but before the day is cached
+        when(appointmentRepository.findActiveIntervals(eq(1L), eq(DAY.atStartOfDay()), any()))
+                .thenAnswer(invocation -> {
+                    conflictIndex.track(appointment);
+                    return List.of();
+                })
+                .thenReturn(List.of(slot));
+
+        assertThat(conflictIndex.getIntervals(1L, DAY)).isEmpty();
+        assertThat(conflictIndex.getIntervals(1L, DAY)).extracting(AppointmentConflictIndex.Interval::id)
+                .containsExactly(10L);
+        assertThat(conflictIndex.getIntervals(1L, DAY)).hasSize(1);
+        verify(appointmentRepository, times(2)).findActiveIntervals(eq(1L), eq(DAY.atStartOfDay()), any());
+    }
+
+    private void warm(LocalDate day) {
+        conflictIndex.getIntervals(1L, day.minusDays(1));
+        conflictIndex.getIntervals(1L, day);
+    }
+
+    private Appointment appointment(Long id, LocalDateTime time, int minutes) {
+        return Appointment.builder()
+                .id(id)
+                .doctor(doctor)
+                .appointmentTime(time)
+                .durationMinutes(minutes)
+                .status(AppointmentStatus.PENDING)
+                .build();
+    }
+}
@@ -0,0 +1,143 @@
+package com.hms.service;
+
+import com.hms.dto.response.AppointmentDeltaResponse;
+import com.hms.entity.Appointment;
+import com.hms.entity.Doctor;
+import com.hms.entity.Patient;
+import com.hms.enums.AppointmentStatus;
+import com.hms.event.AppointmentChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class AppointmentEventStreamTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(1);
+
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private CountDownLatch sendGate;
+    private AppointmentEventStream eventStream;
+
+    @BeforeEach
+    void setUp() {
+        sendGate = new CountDownLatch(0);
+        eventStream = new AppointmentEventStream(16, 60_000, 10, 2) {
+            @Override
+            SseEmitter createEmitter(long timeoutMillis) {
+                RecordingEmitter emitter = new RecordingEmitter(sendGate);
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        sendGate.countDown();
+        eventStream.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should deliver only deltas matching the subscriber's filters")
+    void onAppointmentChanged_AppliesFilters() {
+        eventStream.subscribe(1L, null, null);
+        eventStream.subscribe(null, DAY, null);
+        eventStream.subscribe(null, null, AppointmentStatus.CONFIRMED);
+
+        eventStream.onAppointmentChanged(statusChange(10L, 1L, AppointmentStatus.PENDING, AppointmentStatus.CONFIRMED));
+        eventStream.onAppointmentChanged(statusChange(11L, 2L, AppointmentStatus.PENDING, AppointmentStatus.CANCELLED));
+
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> {
+            assertThat(emitters.get(0).appointmentIds()).containsExactly(10L);
+            assertThat(emitters.get(1).appointmentIds()).containsExactly(10L, 11L);
+            assertThat(emitters.get(2).appointmentIds()).containsExactly(10L);
+        });
+    }
+
+    @Test
+    @DisplayName("Should disconnect a stalled subscriber without blocking the publisher or other subscribers")
+    void onAppointmentChanged_SlowSubscriber_Overflows() {
+        sendGate = new CountDownLatch(1);
+        eventStream.subscribe(null, null, null);
+        sendGate = new CountDownLatch(0);
+        eventStream.subscribe(null, null, null);
+
+        for (long id = 1; id <= 50; id++) {
+            eventStream.onAppointmentChanged(statusChange(id, 1L, AppointmentStatus.PENDING, AppointmentStatus.CONFIRMED));
+            if (id % 10 == 0) {
+                // Let the healthy subscriber catch up; the stalled one keeps accumulating
+                int delivered = (int) id;
+                await().atMost(5, TimeUnit.SECONDS).until(() -> emitters.get(1).appointmentIds().size() == delivered);
+            }
+        }
+
+        assertThat(emitters.get(0).appointmentIds()).isEmpty();
+        emitters.get(0).gate.countDown();
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> {
+            assertThat(emitters.get(0).events).contains(AppointmentEventStream.EVENT_OVERFLOW);
+            assertThat(emitters.get(0).completed).isTrue();
+            assertThat(eventStream.getSubscriberCount()).isEqualTo(1);
+        });
+    }
+
+    private AppointmentChangedEvent statusChange(Long id, Long doctorId, AppointmentStatus from, AppointmentStatus to) {
+        Appointment appointment = Appointment.builder()
+                .id(id)
+                .doctor(Doctor.builder().id(doctorId).build())
+                .patient(Patient.builder().id(5L).build())
+                .appointmentTime(DAY.atTime(9, 0))
+                .durationMinutes(30)
+                .status(to)
+                .build();
+        return AppointmentChangedEvent.of(AppointmentChangedEvent.Type.STATUS_CHANGED, appointment, null, from);
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final CountDownLatch gate;
+        private final List<Object> payloads = new CopyOnWriteArrayList<>();
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private volatile boolean completed;
+
+        RecordingEmitter(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            builder.build().forEach(part -> {
+                if (part.getData() instanceof AppointmentDeltaResponse delta) {
+                    payloads.add(delta);
+                } else if (part.getData() instanceof String text && text.startsWith("event:")) {
+                    events.add(text.substring("event:".length(), text.indexOf('\n')));
+                }
+            });
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+
+        List<Long> appointmentIds() {
+            return payloads.stream().map(p -> ((AppointmentDeltaResponse) p).getAppointmentId()).toList();
+        }
+    }
+}
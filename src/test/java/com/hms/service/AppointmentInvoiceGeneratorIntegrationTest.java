@@ -0,0 +1,210 @@
+package com.hms.service;
+
+import com.hms.dto.request.AppointmentStatusRequest;
+import com.hms.dto.request.InvoiceRequest;
+import com.hms.entity.Appointment;
+import com.hms.entity.Doctor;
+import com.hms.entity.Invoice;
+import com.hms.entity.Patient;
+import com.hms.entity.User;
+import com.hms.enums.AppointmentStatus;
+import com.hms.enums.Gender;
+import com.hms.enums.PaymentStatus;
+import com.hms.repository.AppointmentRepository;
+import com.hms.repository.DoctorRepository;
+import com.hms.repository.InvoiceRepository;
+import com.hms.repository.PatientRepository;
+import com.hms.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AppointmentInvoiceGeneratorIntegrationTest {
+
+    private static final LocalDateTime START = LocalDate.now().minusDays(3).atTime(8, 0);
+
+    @Autowired
+    private AppointmentInvoiceGenerator invoiceGenerator;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private AppointmentConflictIndex conflictIndex;
+
+    @Autowired
+    private AppointmentSweeper appointmentSweeper;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Doctor doctor;
+    private Patient patient;
+    private int slot;
+
+    @BeforeEach
+    void setUp() {
+        doctor = doctorRepository.save(Doctor.builder()
+                .user(createUser("invoicing-doctor"))
+                .specialization("Dermatology")
+                .licenseNumber("LIC-invoicing")
+                .consultationFee(new BigDecimal("150.00"))
+                .isAvailable(true)
+                .build());
+        patient = patientRepository.save(Patient.builder()
+                .user(createUser("invoicing-patient"))
+                .dateOfBirth(LocalDate.of(1990, 9, 9))
+                .gender(Gender.FEMALE)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM patient_accounts");
+        jdbcTemplate.update("DELETE FROM invoice_items");
+        jdbcTemplate.update("DELETE FROM invoices");
+        appointmentRepository.deleteAll();
+        patientRepository.deleteAll();
+        doctorRepository.deleteAll();
+        userRepository.deleteAll();
+        conflictIndex.clear();
+    }
+
+    @Test
+    @DisplayName("Completing an appointment invoices the consultation fee in the background")
+    void completedAppointment_IsInvoiced() {
+        Appointment first = createAppointment(AppointmentStatus.CONFIRMED);
+        Appointment second = createAppointment(AppointmentStatus.CONFIRMED);
+
+        complete(first);
+        complete(second);
+
+        await().atMost(Duration.ofSeconds(10)).until(() ->
+                invoiceRepository.findByAppointmentId(first.getId()).isPresent()
+                        && invoiceRepository.findByAppointmentId(second.getId()).isPresent());
+        Invoice invoice = invoiceRepository.findByAppointmentId(first.getId()).orElseThrow();
+        assertThat(invoice.getTotalAmount()).isEqualByComparingTo("150.00");
+        assertThat(invoice.getStatus()).isEqualTo(PaymentStatus.PENDING);
+        assertThat(invoice.getDueDate()).isEqualTo(LocalDate.now().plusDays(30));
+        assertThat(billingService.getInvoicesByPatient(patient.getId()))
+                .filteredOn(response -> response.getId().equals(invoice.getId()))
+                .singleElement()
+                .satisfies(response -> assertThat(response.getItems()).singleElement().satisfies(item -> {
+            assertThat(item.getDescription()).isEqualTo("Consultation - Dermatology");
+            assertThat(item.getAmount()).isEqualByComparingTo("150.00");
+        }));
+        assertThat(billingService.getPatientBalance(patient.getId()).getOutstandingBalance()).isEqualByComparingTo("300.00");
+    }
+
+    @Test
+    @DisplayName("Appointments already invoiced or not completed are skipped")
+    void generate_IsIdempotent() {
+        Appointment manual = createAppointment(AppointmentStatus.COMPLETED);
+        Appointment pending = createAppointment(AppointmentStatus.CONFIRMED);
+        billingService.createInvoice(InvoiceRequest.builder()
+                .patientId(patient.getId())
+                .appointmentId(manual.getId())
+                .items(List.of(InvoiceRequest.InvoiceItemRequest.builder()
+                        .description("Procedure")
+                        .amount(new BigDecimal("80.00"))
+                        .build()))
+                .build());
+        List<Long> completed = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            completed.add(createAppointment(AppointmentStatus.COMPLETED).getId());
+        }
+        List<Long> ids = new ArrayList<>(completed);
+        ids.add(manual.getId());
+        ids.add(pending.getId());
+
+        assertThat(invoiceGenerator.generate(ids)).isEqualTo(25);
+        assertThat(invoiceGenerator.generate(ids)).isZero();
+
+        assertThat(invoiceRepository.findByAppointmentId(manual.getId()).orElseThrow().getTotalAmount())
+                .isEqualByComparingTo("80.00");
+        assertThat(invoiceRepository.findByAppointmentId(pending.getId())).isEmpty();
+        assertThat(completed).allSatisfy(id -> assertThat(invoiceRepository.findByAppointmentId(id)).isPresent());
+        assertThat(billingService.getPatientBalance(patient.getId()).getOutstandingBalance())
+                .isEqualByComparingTo("3830.00");
+    }
+
+    @Test
+    @DisplayName("Appointments completed by the sweeper are neither invoiced nor caught up")
+    void sweptAppointment_IsNotInvoiced() {
+        Appointment swept = createAppointment(AppointmentStatus.CONFIRMED);
+        appointmentSweeper.sweep(LocalDateTime.now());
+        assertThat(appointmentRepository.findById(swept.getId()).orElseThrow().getStatus())
+                .isEqualTo(AppointmentStatus.COMPLETED);
+        invoiceGenerator.catchUp();
+
+        // The queue is drained in order, so once the later staff completion is invoiced the swept one was skipped
+        Appointment attended = createAppointment(AppointmentStatus.CONFIRMED);
+        complete(attended);
+        await().atMost(Duration.ofSeconds(10)).until(() ->
+                invoiceRepository.findByAppointmentId(attended.getId()).isPresent());
+
+        assertThat(invoiceRepository.findByAppointmentId(swept.getId())).isEmpty();
+        assertThat(appointmentRepository.findUninvoicedCompletedSince(START, Limit.of(10)))
+                .isEmpty();
+    }
+
+    private void complete(Appointment appointment) {
+        appointmentService.updateAppointmentStatus(appointment.getId(), AppointmentStatusRequest.builder()
+                .status(AppointmentStatus.COMPLETED)
+                .build());
+    }
+
+    private Appointment createAppointment(AppointmentStatus status) {
+        return appointmentRepository.save(Appointment.builder()
+                .patient(patient)
+                .doctor(doctor)
+                .appointmentTime(START.plusMinutes(30L * slot++))
+                .status(status)
+                .build());
+    }
+
+    private User createUser(String name) {
+        return userRepository.save(User.builder()
+                .email(name + "@test.com")
+                .password("password")
+                .firstName(name)
+                .lastName("Test")
+                .build());
+    }
+}
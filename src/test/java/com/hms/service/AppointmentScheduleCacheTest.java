@@ -0,0 +1,98 @@
+package com.hms.service;
+
+import com.hms.dto.response.AppointmentResponse;
+import com.hms.entity.Appointment;
+import com.hms.entity.Doctor;
+import com.hms.entity.Patient;
+import com.hms.enums.AppointmentStatus;
+import com.hms.event.AppointmentChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AppointmentScheduleCacheTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(1);
+
+    private SimpleMeterRegistry meterRegistry;
+    private AppointmentScheduleCache scheduleCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scheduleCache = new AppointmentScheduleCache(meterRegistry, 300, 100);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Should serve repeated reads from one immutable snapshot")
+    void getDaySchedule_CachesSnapshot() {
+        List<AppointmentResponse> first = scheduleCache.getDaySchedule(DAY, this::load);
+        List<AppointmentResponse> second = scheduleCache.getDaySchedule(DAY, this::load);
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThatThrownBy(() -> first.add(new AppointmentResponse())).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(counter("hit")).isEqualTo(1);
+        assertThat(counter("miss")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should evict only the days and doctor touched by a change")
+    void onAppointmentChanged_EvictsAffectedKeys() {
+        scheduleCache.getDaySchedule(DAY, this::load);
+        scheduleCache.getDoctorDaySchedule(1L, DAY, this::load);
+        scheduleCache.getDoctorDaySchedule(2L, DAY, this::load);
+        scheduleCache.getDaySchedule(DAY.plusDays(1), this::load);
+        loads.set(0);
+
+        // Doctor 1 moved from DAY to DAY + 2
+        Appointment moved = Appointment.builder()
+                .id(10L)
+                .doctor(Doctor.builder().id(1L).build())
+                .patient(Patient.builder().id(5L).build())
+                .appointmentTime(DAY.plusDays(2).atTime(9, 0))
+                .status(AppointmentStatus.PENDING)
+                .build();
+        scheduleCache.onAppointmentChanged(AppointmentChangedEvent.of(AppointmentChangedEvent.Type.RESCHEDULED,
+                moved, DAY.atTime(9, 0), AppointmentStatus.PENDING));
+
+        scheduleCache.getDaySchedule(DAY, this::load);
+        scheduleCache.getDoctorDaySchedule(1L, DAY, this::load);
+        assertThat(loads).hasValue(2);
+
+        scheduleCache.getDoctorDaySchedule(2L, DAY, this::load);
+        scheduleCache.getDaySchedule(DAY.plusDays(1), this::load);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should not store a snapshot loaded while a change was committed")
+    void getDaySchedule_InvalidatedDuringLoad_IsNotStored() {
+        scheduleCache.getDaySchedule(DAY, () -> {
+            scheduleCache.invalidate(1L, DAY);
+            return load();
+        });
+        scheduleCache.getDaySchedule(DAY, this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private List<AppointmentResponse> load() {
+        loads.incrementAndGet();
+        return List.of(AppointmentResponse.builder().id((long) loads.get()).build());
+    }
+
+    private double counter(String result) {
+        return meterRegistry.get("hms.appointments.schedule.cache").tag("result", result).counter().count();
+    }
+}
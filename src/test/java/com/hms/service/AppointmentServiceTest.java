@@ -3,14 +3,20 @@ package com.hms.service;
 import com.hms.dto.request.AppointmentRequest;
 import com.hms.dto.request.AppointmentStatusRequest;
 import com.hms.dto.response.AppointmentResponse;
+import com.hms.dto.response.CursorPage;
+import com.hms.dto.response.DoctorSlotsResponse;
 import com.hms.entity.Appointment;
 import com.hms.entity.Doctor;
+import com.hms.entity.DoctorAvailability;
 import com.hms.entity.Patient;
 import com.hms.entity.User;
 import com.hms.enums.AppointmentStatus;
+import com.hms.enums.DayOfWeek;
+import com.hms.event.AppointmentChangedEvent;
 import com.hms.exception.BadRequestException;
 import com.hms.exception.ResourceNotFoundException;
 import com.hms.repository.AppointmentRepository;
+import com.hms.repository.DoctorAvailabilityRepository;
 import com.hms.repository.DoctorRepository;
 import com.hms.repository.PatientRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,16 +26,28 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,6 +62,21 @@ class AppointmentServiceTest {
     @Mock
     private DoctorRepository doctorRepository;
 
+    @Mock
+    private DoctorAvailabilityRepository availabilityRepository;
+
+    @Mock
+    private AppointmentConflictIndex conflictIndex;
+
+    @Mock
+    private BookingCoordinator bookingCoordinator;
+
+    @Mock
+    private AppointmentScheduleCache scheduleCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private AppointmentService appointmentService;
 
@@ -146,7 +179,7 @@ class AppointmentServiceTest {
 
         when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
         when(doctorRepository.findById(1L)).thenReturn(Optional.of(testDoctor));
-        when(appointmentRepository.existsConflictingAppointment(anyLong(), any())).thenReturn(false);
+        when(appointmentRepository.existsOverlappingAppointment(anyLong(), any(), any(), any())).thenReturn(false);
         when(appointmentRepository.save(any(Appointment.class))).thenReturn(testAppointment);
 
         // When
@@ -189,12 +222,62 @@ class AppointmentServiceTest {
 
         when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
         when(doctorRepository.findById(1L)).thenReturn(Optional.of(testDoctor));
-        when(appointmentRepository.existsConflictingAppointment(anyLong(), any())).thenReturn(true);
+        when(appointmentRepository.existsOverlappingAppointment(anyLong(), any(), any(), any())).thenReturn(true);
+
+        // When/Then
+        assertThatThrownBy(() -> appointmentService.createAppointment(request))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("already has an appointment");
+    }
+
+    @Test
+    @DisplayName("Should confirm an overlap found in the conflict index against the database before rejecting")
+    void createAppointment_IndexConflict_ConfirmedByDatabase() {
+        // Given
+        AppointmentRequest request = AppointmentRequest.builder()
+                .patientId(1L)
+                .doctorId(1L)
+                .appointmentTime(LocalDateTime.now().plusDays(1))
+                .durationMinutes(45)
+                .build();
+
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
+        when(doctorRepository.findById(1L)).thenReturn(Optional.of(testDoctor));
+        when(conflictIndex.hasConflict(eq(1L), any(), any(), isNull())).thenReturn(true);
+        when(appointmentRepository.existsOverlappingAppointment(eq(1L), any(), any(), isNull())).thenReturn(true);
 
         // When/Then
         assertThatThrownBy(() -> appointmentService.createAppointment(request))
                 .isInstanceOf(BadRequestException.class)
                 .hasMessageContaining("already has an appointment");
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+    }
+
+    @Test
+    @DisplayName("Should book a slot the conflict index still holds when the database shows it free")
+    void createAppointment_StaleIndexConflict_Books() {
+        // Given
+        ReflectionTestUtils.setField(appointmentService, "verifyConflictsWithDatabase", false);
+        AppointmentRequest request = AppointmentRequest.builder()
+                .patientId(1L)
+                .doctorId(1L)
+                .appointmentTime(LocalDateTime.now().plusDays(1))
+                .durationMinutes(45)
+                .build();
+
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
+        when(doctorRepository.findById(1L)).thenReturn(Optional.of(testDoctor));
+        when(conflictIndex.hasConflict(eq(1L), any(), any(), isNull())).thenReturn(true);
+        when(appointmentRepository.existsOverlappingAppointment(eq(1L), any(), any(), isNull())).thenReturn(false);
+        when(appointmentRepository.save(any(Appointment.class))).thenReturn(testAppointment);
+
+        // When
+        AppointmentResponse result = appointmentService.createAppointment(request);
+
+        // Then
+        assertThat(result).isNotNull();
+        verify(appointmentRepository).save(any(Appointment.class));
+        verify(conflictIndex).invalidate(eq(1L), any(), any());
     }
 
     @Test
@@ -264,5 +347,116 @@ class AppointmentServiceTest {
 
         // Then
         verify(appointmentRepository).save(any(Appointment.class));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof AppointmentChangedEvent changed
+                && changed.type() == AppointmentChangedEvent.Type.CANCELLED
+                && changed.previousStatus() == AppointmentStatus.PENDING));
+    }
+
+    @Test
+    @DisplayName("Should serve date listings through the schedule cache")
+    void getDoctorAppointmentsByDate_UsesScheduleCache() {
+        // Given
+        LocalDate date = testAppointment.getAppointmentTime().toLocalDate();
+        when(scheduleCache.getDoctorDaySchedule(eq(1L), eq(date), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<AppointmentResponse>>>getArgument(2).get());
+        when(appointmentRepository.findByDoctorIdAndDateRange(eq(1L), any(), any())).thenReturn(List.of(testAppointment));
+
+        // When
+        List<AppointmentResponse> result = appointmentService.getDoctorAppointmentsByDate(1L, date);
+
+        // Then
+        assertThat(result).extracting(AppointmentResponse::getId).containsExactly(1L);
+        verify(scheduleCache).getDoctorDaySchedule(eq(1L), eq(date), any());
+    }
+
+    @Test
+    @DisplayName("Should return a page with a continuation cursor when more rows exist")
+    void getAppointmentsPage_HasNext_ReturnsCursor() {
+        // Given
+        Window<Appointment> window = Window.from(List.of(testAppointment), i -> ScrollPosition.keyset(), true);
+        when(appointmentRepository.findAllBy(any(ScrollPosition.class), any(Sort.class), eq(Limit.of(1))))
+                .thenReturn(window);
+
+        // When
+        CursorPage<AppointmentResponse> page = appointmentService.getAppointmentsPage(null, 1);
+
+        // Then
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(page.getNextCursor()).isNotBlank();
+
+        ScrollPosition position = AppointmentCursor.decode(page.getNextCursor());
+        assertThat(position).isInstanceOf(KeysetScrollPosition.class);
+        assertThat(((KeysetScrollPosition) position).getKeys())
+                .containsEntry("appointmentTime", testAppointment.getAppointmentTime())
+                .containsEntry("id", 1L);
+    }
+
+    @Test
+    @DisplayName("Should cap page size and omit cursor on the last page")
+    void getAppointmentsPageByStatus_LastPage_NoCursor() {
+        // Given
+        Window<Appointment> window = Window.from(List.of(testAppointment), i -> ScrollPosition.keyset(), false);
+        when(appointmentRepository.findByStatus(eq(AppointmentStatus.PENDING), any(ScrollPosition.class),
+                any(Sort.class), eq(Limit.of(AppointmentService.MAX_PAGE_SIZE))))
+                .thenReturn(window);
+
+        // When
+        CursorPage<AppointmentResponse> page = appointmentService.getAppointmentsPageByStatus(
+                AppointmentStatus.PENDING, null, 10_000);
+
+        // Then
+        assertThat(page.isHasNext()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed cursor")
+    void getAppointmentsPage_InvalidCursor_ThrowsException() {
+        assertThatThrownBy(() -> appointmentService.getAppointmentsPage("not-a-cursor", 10))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("cursor");
+    }
+
+    @Test
+    @DisplayName("Should return availability windows minus booked intervals")
+    void findAvailableSlots_SubtractsBookings() {
+        // Given
+        LocalDate monday = LocalDate.now().plusDays(7).with(TemporalAdjusters.next(java.time.DayOfWeek.MONDAY));
+        DoctorAvailability window = DoctorAvailability.builder()
+                .doctor(testDoctor)
+                .dayOfWeek(DayOfWeek.MONDAY)
+                .startTime(LocalTime.of(9, 0))
+                .endTime(LocalTime.of(12, 0))
+                .build();
+        AppointmentRepository.TimeSlot booked = mock(AppointmentRepository.TimeSlot.class);
+        when(booked.getDoctorId()).thenReturn(1L);
+        when(booked.getAppointmentTime()).thenReturn(monday.atTime(10, 0));
+        when(booked.getDurationMinutes()).thenReturn(45);
+
+        when(doctorRepository.findBookableDoctors("Cardiology")).thenReturn(List.of(testDoctor));
+        when(availabilityRepository.findByDoctorIdInAndIsAvailableTrue(List.of(1L))).thenReturn(List.of(window));
+        when(appointmentRepository.findActiveIntervalsForDoctors(eq(List.of(1L)), any(), any()))
+                .thenReturn(List.of(booked));
+
+        // When
+        List<DoctorSlotsResponse> result = appointmentService.findAvailableSlots(
+                "Cardiology", monday, monday.plusDays(6), 30);
+
+        // Then
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getSlots())
+                .extracting(DoctorSlotsResponse.Slot::getStart)
+                .containsExactly(monday.atTime(9, 0), monday.atTime(9, 30),
+                        monday.atTime(11, 0), monday.atTime(11, 30));
+    }
+
+    @Test
+    @DisplayName("Should reject slot searches over too wide a range")
+    void findAvailableSlots_RangeTooWide_ThrowsException() {
+        LocalDate from = LocalDate.now();
+
+        assertThatThrownBy(() -> appointmentService.findAvailableSlots(null, from, from.plusDays(60), null))
+                .isInstanceOf(BadRequestException.class);
     }
 }
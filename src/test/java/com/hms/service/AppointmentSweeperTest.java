@@ -0,0 +1,126 @@
+package com.hms.service;
+
+import com.hms.enums.AppointmentStatus;
+import com.hms.event.AppointmentChangedEvent;
+import com.hms.repository.AppointmentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentSweeperTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.now().minusHours(12);
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AppointmentSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new AppointmentSweeper(appointmentRepository, eventPublisher, transactionManager, meterRegistry,
+                true, 12, 2, 10, 5);
+    }
+
+    @Test
+    @DisplayName("Should finalise stale appointments chunk by chunk, one transaction each")
+    void sweep_MovesEveryChunk() {
+        // Given: three stale PENDING rows in chunks of two, one stale CONFIRMED row
+        AppointmentRepository.ScheduledSlot first = slot(1L);
+        AppointmentRepository.ScheduledSlot second = slot(2L);
+        AppointmentRepository.ScheduledSlot third = slot(3L);
+        AppointmentRepository.ScheduledSlot confirmed = slot(4L);
+        when(appointmentRepository.findEndedBefore(AppointmentStatus.PENDING, CUTOFF, Limit.of(2)))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third))
+                .thenReturn(List.of());
+        when(appointmentRepository.findEndedBefore(AppointmentStatus.CONFIRMED, CUTOFF, Limit.of(2)))
+                .thenReturn(List.of(confirmed))
+                .thenReturn(List.of());
+        when(appointmentRepository.updateStatusWhereCurrent(anyList(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+        // When
+        Map<AppointmentStatus, Integer> moved = sweeper.sweep(CUTOFF);
+
+        // Then
+        assertThat(moved).containsEntry(AppointmentStatus.PENDING, 3).containsEntry(AppointmentStatus.CONFIRMED, 1);
+        verify(appointmentRepository).updateStatusWhereCurrent(eq(List.of(1L, 2L)),
+                eq(AppointmentStatus.PENDING), eq(AppointmentStatus.CANCELLED), any());
+        verify(appointmentRepository).updateStatusWhereCurrent(eq(List.of(4L)),
+                eq(AppointmentStatus.CONFIRMED), eq(AppointmentStatus.COMPLETED), any());
+        verify(transactionManager, times(5)).commit(any());
+        verify(eventPublisher, times(4)).publishEvent(
+                argThat((Object event) -> ((AppointmentChangedEvent) event).source() == AppointmentChangedEvent.Source.SWEEPER));
+        assertThat(meterRegistry.get("hms.appointments.sweeper.finalised").tag("from", "PENDING").counter().count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should only announce rows the status guard actually moved")
+    void sweep_ConcurrentChange_SkipsEvent() {
+        // Given: row 2 was cancelled by a user between the select and the update
+        AppointmentRepository.ScheduledSlot first = slot(1L);
+        AppointmentRepository.ScheduledSlot second = slot(2L);
+        when(appointmentRepository.findEndedBefore(eq(AppointmentStatus.PENDING), any(), any()))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of());
+        when(appointmentRepository.findEndedBefore(eq(AppointmentStatus.CONFIRMED), any(), any())).thenReturn(List.of());
+        when(appointmentRepository.updateStatusWhereCurrent(anyList(), any(), any(), any())).thenReturn(1);
+        when(appointmentRepository.findIdsByIdInAndStatus(List.of(1L, 2L), AppointmentStatus.CANCELLED))
+                .thenReturn(List.of(1L));
+
+        // When
+        sweeper.sweep(CUTOFF);
+
+        // Then
+        verify(eventPublisher, times(1)).publishEvent(
+                argThat((Object event) -> ((AppointmentChangedEvent) event).appointmentId().equals(1L)));
+    }
+
+    @Test
+    @DisplayName("Should stop at the per-run chunk cap")
+    void sweep_StopsAtChunkCap() {
+        // Given: an endless supply of stale rows
+        when(appointmentRepository.findEndedBefore(any(), any(), any())).thenAnswer(invocation -> List.of(slot(9L)));
+        when(appointmentRepository.updateStatusWhereCurrent(anyList(), any(), any(), any())).thenReturn(1);
+
+        // When
+        sweeper.sweep(CUTOFF);
+
+        // Then
+        verify(appointmentRepository, times(10)).updateStatusWhereCurrent(anyList(), any(), any(), any());
+    }
+
+    private AppointmentRepository.ScheduledSlot slot(Long id) {
+        AppointmentRepository.ScheduledSlot slot = mock(AppointmentRepository.ScheduledSlot.class);
+        lenient().when(slot.getId()).thenReturn(id);
+        return slot;
+    }
+}
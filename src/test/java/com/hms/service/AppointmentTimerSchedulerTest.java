@@ -0,0 +1,138 @@
+package com.hms.service;
+
+import com.hms.entity.Appointment;
+import com.hms.entity.Doctor;
+import com.hms.entity.Patient;
+import com.hms.enums.AppointmentStatus;
+import com.hms.event.AppointmentChangedEvent;
+import com.hms.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentTimerSchedulerTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private AppointmentNotifier notifier;
+
+    private AppointmentTimerScheduler scheduler;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new AppointmentTimerScheduler(appointmentRepository, notifier,
+                true, 1000, 48, 30, 15, List.of(1440L, 60L), 100);
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        scheduler.initialise(now.minusDays(1));
+    }
+
+    @Test
+    @DisplayName("Should arm reminders and an overdue timer for loaded appointments")
+    void extendHorizon_ArmsTimers() {
+        // Given
+        AppointmentRepository.ScheduledSlot slot = slot(7L, now.plusHours(30));
+        when(appointmentRepository.findActiveStartingBetween(now.minusDays(1), now.plusHours(48)))
+                .thenReturn(List.of(slot));
+
+        // When
+        scheduler.extendHorizon(now);
+
+        // Then
+        assertThat(scheduler.pendingTimers()).isEqualTo(3);
+        assertThat(scheduler.advance(now.plusHours(6).plusSeconds(1)))
+                .extracting(AppointmentTimer::kind).containsExactly(AppointmentTimer.Kind.REMINDER);
+        assertThat(scheduler.advance(now.plusHours(29).plusSeconds(1)))
+                .extracting(AppointmentTimer::kind).containsExactly(AppointmentTimer.Kind.REMINDER);
+        assertThat(scheduler.advance(now.plusHours(30).plusMinutes(45).plusSeconds(1)))
+                .extracting(AppointmentTimer::kind).containsExactly(AppointmentTimer.Kind.OVERDUE);
+    }
+
+    @Test
+    @DisplayName("Should only query the newly uncovered part of the horizon")
+    void extendHorizon_IsIncremental() {
+        // Given
+        when(appointmentRepository.findActiveStartingBetween(any(), any())).thenReturn(List.of());
+
+        // When
+        scheduler.extendHorizon(now);
+        scheduler.extendHorizon(now.plusMinutes(30));
+
+        // Then
+        verify(appointmentRepository).findActiveStartingBetween(now.minusDays(1), now.plusHours(48));
+        verify(appointmentRepository).findActiveStartingBetween(now.plusHours(48), now.plusHours(48).plusMinutes(30));
+    }
+
+    @Test
+    @DisplayName("Should re-arm rescheduled appointments and drop cancelled ones")
+    void onAppointmentChanged_KeepsTimersCurrent() {
+        // Given
+        AppointmentRepository.ScheduledSlot slot = slot(7L, now.plusHours(30));
+        when(appointmentRepository.findActiveStartingBetween(any(), any())).thenReturn(List.of(slot));
+        scheduler.extendHorizon(now);
+
+        // When: moved to a slot with no reminder left before it, then cancelled
+        Appointment appointment = appointment(7L, now.plusMinutes(30), AppointmentStatus.CONFIRMED);
+        scheduler.onAppointmentChanged(AppointmentChangedEvent.of(AppointmentChangedEvent.Type.RESCHEDULED,
+                appointment, now.plusHours(30), AppointmentStatus.CONFIRMED));
+
+        // Then
+        assertThat(scheduler.pendingTimers()).isEqualTo(1);
+
+        appointment.setStatus(AppointmentStatus.CANCELLED);
+        scheduler.onAppointmentChanged(AppointmentChangedEvent.of(AppointmentChangedEvent.Type.CANCELLED,
+                appointment, null, AppointmentStatus.CONFIRMED));
+        assertThat(scheduler.pendingTimers()).isZero();
+        assertThat(scheduler.advance(now.plusDays(3))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should leave appointments beyond the horizon to a later refill")
+    void onAppointmentChanged_BeyondHorizon_NotArmed() {
+        // Given
+        when(appointmentRepository.findActiveStartingBetween(any(), any())).thenReturn(List.of());
+        scheduler.extendHorizon(now);
+
+        // When
+        scheduler.onAppointmentChanged(AppointmentChangedEvent.created(
+                appointment(8L, now.plusDays(5), AppointmentStatus.PENDING)));
+
+        // Then
+        assertThat(scheduler.pendingTimers()).isZero();
+        verify(appointmentRepository, times(1)).findActiveStartingBetween(any(), eq(now.plusHours(48)));
+    }
+
+    private AppointmentRepository.ScheduledSlot slot(Long id, LocalDateTime time) {
+        AppointmentRepository.ScheduledSlot slot = mock(AppointmentRepository.ScheduledSlot.class);
+        when(slot.getId()).thenReturn(id);
+        when(slot.getAppointmentTime()).thenReturn(time);
+        when(slot.getDurationMinutes()).thenReturn(30);
+        return slot;
+    }
+
+    private Appointment appointment(Long id, LocalDateTime time, AppointmentStatus status) {
+        return Appointment.builder()
+                .id(id)
+                .doctor(Doctor.builder().id(1L).build())
+                .patient(Patient.builder().id(2L).build())
+                .appointmentTime(time)
+                .durationMinutes(30)
+                .status(status)
+                .build();
+    }
+}
@@ -1,8 +1,10 @@
 package com.hms.service;
 
+import com.hms.dto.request.ForgotPasswordRequest;
 import com.hms.dto.request.LoginRequest;
 import com.hms.dto.request.RefreshTokenRequest;
 import com.hms.dto.request.RegisterRequest;
+import com.hms.dto.request.ResetPasswordRequest;
 import com.hms.dto.response.AuthResponse;
 import com.hms.entity.User;
 import com.hms.enums.Role;
@@ -22,6 +24,7 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
@@ -46,6 +49,9 @@ class AuthServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private PasswordResetNotifier passwordResetNotifier;
+
     @InjectMocks
     private AuthService authService;
 
@@ -203,4 +209,71 @@ class AuthServiceTest {
                 .isInstanceOf(UnauthorizedException.class)
                 .hasMessageContaining("invalid or expired");
     }
+
+    @Test
+    @DisplayName("Should send a reset token to an existing account")
+    void requestPasswordReset_SendsToken() {
+        // Given
+        when(userRepository.findByEmail("doctor@hms.com")).thenReturn(Optional.of(testUser));
+        when(jwtService.generatePasswordResetToken(testUser)).thenReturn("resetToken");
+        when(jwtService.getPasswordResetExpiration()).thenReturn(3600000L);
+
+        // When
+        authService.requestPasswordReset(new ForgotPasswordRequest("doctor@hms.com"));
+
+        // Then
+        verify(passwordResetNotifier).sendResetToken(eq(testUser), eq("resetToken"), any(Instant.class));
+    }
+
+    @Test
+    @DisplayName("Should not send a reset token for an unknown email")
+    void requestPasswordReset_UnknownEmail_SendsNothing() {
+        // Given
+        when(userRepository.findByEmail("nobody@hms.com")).thenReturn(Optional.empty());
+
+        // When
+        authService.requestPasswordReset(new ForgotPasswordRequest("nobody@hms.com"));
+
+        // Then
+        verifyNoInteractions(passwordResetNotifier);
+    }
+
+    @Test
+    @DisplayName("Should set the password and clear the reset marker")
+    void resetPassword_Success() {
+        // Given
+        testUser.setPassword(User.UNUSABLE_PASSWORD);
+        testUser.setPasswordResetRequired(true);
+        when(jwtService.extractUsername("resetToken")).thenReturn("doctor@hms.com");
+        when(userRepository.findByEmail("doctor@hms.com")).thenReturn(Optional.of(testUser));
+        when(jwtService.isPasswordResetTokenValid("resetToken", testUser)).thenReturn(true);
+        when(passwordEncoder.encode("newPassword1")).thenReturn("encodedNewPassword");
+        when(userRepository.save(testUser)).thenReturn(testUser);
+        when(jwtService.generateToken(any(User.class))).thenReturn("accessToken");
+        when(jwtService.generateRefreshToken(any(User.class))).thenReturn("refreshToken");
+        when(jwtService.getJwtExpiration()).thenReturn(86400000L);
+
+        // When
+        AuthResponse response = authService.resetPassword(new ResetPasswordRequest("resetToken", "newPassword1"));
+
+        // Then
+        assertThat(response.getAccessToken()).isEqualTo("accessToken");
+        assertThat(testUser.getPassword()).isEqualTo("encodedNewPassword");
+        assertThat(testUser.getPasswordResetRequired()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid reset token")
+    void resetPassword_InvalidToken_ThrowsException() {
+        // Given
+        when(jwtService.extractUsername("resetToken")).thenReturn("doctor@hms.com");
+        when(userRepository.findByEmail("doctor@hms.com")).thenReturn(Optional.of(testUser));
+        when(jwtService.isPasswordResetTokenValid("resetToken", testUser)).thenReturn(false);
+
+        // When/Then
+        assertThatThrownBy(() -> authService.resetPassword(new ResetPasswordRequest("resetToken", "newPassword1")))
+                .isInstanceOf(UnauthorizedException.class)
+                .hasMessageContaining("invalid or expired");
+        verify(userRepository, never()).save(any(User.class));
+    }
 }
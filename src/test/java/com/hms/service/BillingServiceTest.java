@@ -1,10 +1,12 @@
 package com.hms.service;
 
+import com.hms.domain.Money;
 import com.hms.dto.request.InvoiceRequest;
 import com.hms.dto.request.PaymentRequest;
 import com.hms.dto.response.InvoiceResponse;
 import com.hms.dto.response.PaymentResponse;
 import com.hms.entity.Invoice;
+import com.hms.entity.InvoiceItem;
 import com.hms.entity.Patient;
 import com.hms.entity.Payment;
 import com.hms.entity.User;
@@ -34,6 +36,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -51,6 +54,18 @@ class BillingServiceTest {
     @Mock
     private AppointmentRepository appointmentRepository;
 
+    @Mock
+    private InvoiceNumberAllocator invoiceNumberAllocator;
+
+    @Mock
+    private DailyRevenueRollup dailyRevenueRollup;
+
+    @Mock
+    private PatientAccountLedger patientAccountLedger;
+
+    @Mock
+    private PatientAccountVerifier patientAccountVerifier;
+
     @InjectMocks
     private BillingService billingService;
 
@@ -85,10 +100,25 @@ class BillingServiceTest {
     }
 
     @Test
-    @DisplayName("Should get all invoices")
+    @DisplayName("Should get all invoices with items and payments loaded in batches")
     void getAllInvoices_Success() {
         // Given
-        when(invoiceRepository.findAll()).thenReturn(Arrays.asList(testInvoice));
+        InvoiceItem item = InvoiceItem.builder()
+                .id(7L)
+                .invoice(testInvoice)
+                .description("Consultation")
+                .amount(new BigDecimal("500.00"))
+                .quantity(1)
+                .build();
+        Payment payment = Payment.builder()
+                .id(9L)
+                .invoice(testInvoice)
+                .amount(new BigDecimal("100.00"))
+                .paymentMethod("CARD")
+                .build();
+        when(invoiceRepository.findAllHeaders()).thenReturn(Arrays.asList(testInvoice));
+        when(invoiceRepository.findItemsByInvoiceIds(List.of(1L))).thenReturn(List.of(item));
+        when(invoiceRepository.findPaymentsByInvoiceIds(List.of(1L))).thenReturn(List.of(payment));
 
         // When
         List<InvoiceResponse> result = billingService.getAllInvoices();
@@ -96,6 +126,8 @@ class BillingServiceTest {
         // Then
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getInvoiceNumber()).isEqualTo("INV-12345");
+        assertThat(result.get(0).getItems()).extracting(InvoiceResponse.InvoiceItemResponse::getId).containsExactly(7L);
+        assertThat(result.get(0).getPayments()).extracting(InvoiceResponse.PaymentSummary::getId).containsExactly(9L);
     }
 
     @Test
@@ -139,6 +171,7 @@ class BillingServiceTest {
                 .build();
 
         when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
+        when(invoiceNumberAllocator.nextInvoiceNumber()).thenReturn("INV-01-00000001");
         when(invoiceRepository.save(any(Invoice.class))).thenReturn(testInvoice);
 
         // When
@@ -146,7 +179,8 @@ class BillingServiceTest {
 
         // Then
         assertThat(result).isNotNull();
-        verify(invoiceRepository).save(any(Invoice.class));
+        verify(invoiceRepository).save(argThat(invoice -> "INV-01-00000001".equals(invoice.getInvoiceNumber())));
+        verify(patientAccountLedger).invoiceIssued(1L, Money.of(new BigDecimal("500.00")));
     }
 
     @Test
@@ -169,7 +203,7 @@ class BillingServiceTest {
 
         when(invoiceRepository.findById(1L)).thenReturn(Optional.of(testInvoice));
         when(paymentRepository.save(any(Payment.class))).thenReturn(savedPayment);
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(testInvoice);
+        when(invoiceRepository.applyPayment(eq(1L), eq(new BigDecimal("200.00")), any())).thenReturn(1);
 
         // When
         PaymentResponse result = billingService.recordPayment(request);
@@ -178,6 +212,36 @@ class BillingServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getAmount()).isEqualByComparingTo(new BigDecimal("200.00"));
         verify(paymentRepository).save(any(Payment.class));
+        verify(invoiceRepository, never()).save(any(Invoice.class));
+        verify(dailyRevenueRollup).record(savedPayment);
+        verify(patientAccountLedger).paymentReceived(1L, Money.of(new BigDecimal("200.00")));
+    }
+
+    @Test
+    @DisplayName("Should reject a payment that lost the race for the remaining balance")
+    void recordPayment_ConcurrentPayment_ThrowsException() {
+        // Given: the snapshot shows 500 due, but another payment of 400 commits first
+        PaymentRequest request = PaymentRequest.builder()
+                .invoiceId(1L)
+                .amount(new BigDecimal("300.00"))
+                .paymentMethod("CASH")
+                .build();
+        Invoice current = Invoice.builder()
+                .id(1L)
+                .totalAmount(new BigDecimal("500.00"))
+                .paidAmount(new BigDecimal("400.00"))
+                .status(PaymentStatus.PARTIALLY_PAID)
+                .build();
+
+        when(invoiceRepository.findById(1L)).thenReturn(Optional.of(testInvoice)).thenReturn(Optional.of(current));
+        when(invoiceRepository.applyPayment(eq(1L), any(), any())).thenReturn(0);
+
+        // When/Then
+        assertThatThrownBy(() -> billingService.recordPayment(request))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("remaining balance of 100.00");
+        verify(dailyRevenueRollup, never()).record(any());
+        verify(patientAccountLedger, never()).paymentReceived(any(), any());
     }
 
     @Test
@@ -220,15 +284,33 @@ class BillingServiceTest {
     @Test
     @DisplayName("Should cancel invoice successfully")
     void cancelInvoice_Success() {
+        // Given: 150.00 of the 500.00 has been paid
+        testInvoice.setPaidAmount(new BigDecimal("150.00"));
+        testInvoice.setStatus(PaymentStatus.PARTIALLY_PAID);
+        when(invoiceRepository.findById(1L)).thenReturn(Optional.of(testInvoice));
+        when(invoiceRepository.cancelIfOpen(eq(1L), any())).thenReturn(1);
+
+        // When
+        billingService.cancelInvoice(1L);
+
+        // Then
+        verify(invoiceRepository).cancelIfOpen(eq(1L), any());
+        verify(patientAccountLedger).invoiceCancelled(1L, Money.of(new BigDecimal("350.00")));
+    }
+
+    @Test
+    @DisplayName("Should leave the patient account alone when cancelling an invoice twice")
+    void cancelInvoice_AlreadyCancelled_NoChange() {
         // Given
+        testInvoice.setStatus(PaymentStatus.CANCELLED);
         when(invoiceRepository.findById(1L)).thenReturn(Optional.of(testInvoice));
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(testInvoice);
 
         // When
         billingService.cancelInvoice(1L);
 
         // Then
-        verify(invoiceRepository).save(any(Invoice.class));
+        verify(invoiceRepository, never()).cancelIfOpen(any(), any());
+        verifyNoInteractions(patientAccountLedger);
     }
 
     @Test
@@ -0,0 +1,57 @@
+package com.hms.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChannelLineReaderTest {
+
+    @Test
+    @DisplayName("Should split lines across buffer boundaries without breaking multi-byte characters")
+    void readLine_SmallBuffer() throws IOException {
+        String text = "\uFEFFtransactionId,invoiceNumber\r\nTX-\u00fc1,INV-\u20ac42\n\nlast line without newline";
+
+        List<String> lines = readAll(text, 5, 100);
+
+        assertThat(lines).containsExactly("transactionId,invoiceNumber", "TX-\u00fc1,INV-\u20ac42", "", "last line without newline");
+    }
+
+    @Test
+    @DisplayName("Should cut off and flag lines longer than the limit")
+    void readLine_TruncatesLongLines() throws IOException {
+        ChannelLineReader reader = reader("short\n" + "x".repeat(50) + "\nnext\n", 8, 10);
+
+        assertThat(reader.readLine()).isEqualTo("short");
+        assertThat(reader.wasTruncated()).isFalse();
+        assertThat(reader.readLine()).isEqualTo("x".repeat(10));
+        assertThat(reader.wasTruncated()).isTrue();
+        assertThat(reader.readLine()).isEqualTo("next");
+        assertThat(reader.wasTruncated()).isFalse();
+        assertThat(reader.readLine()).isNull();
+        assertThat(reader.getBytesRead()).isEqualTo(62);
+    }
+
+    private List<String> readAll(String text, int bufferSize, int maxLineLength) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (ChannelLineReader reader = reader(text, bufferSize, maxLineLength)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private ChannelLineReader reader(String text, int bufferSize, int maxLineLength) {
+        return new ChannelLineReader(Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))),
+                bufferSize, maxLineLength);
+    }
+}
@@ -0,0 +1,228 @@
+package com.hms.service;
+
+import com.hms.dto.request.InvoiceRequest;
+import com.hms.dto.request.PaymentRequest;
+import com.hms.entity.DailyRevenue;
+import com.hms.entity.Patient;
+import com.hms.entity.User;
+import com.hms.enums.Gender;
+import com.hms.repository.DailyRevenueRepository;
+import com.hms.repository.PatientRepository;
+import com.hms.repository.PaymentRepository;
+import com.hms.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DailyRevenueRollupIntegrationTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private DailyRevenueRollup dailyRevenueRollup;
+
+    @Autowired
+    private DailyRevenueRepository dailyRevenueRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long invoiceId;
+
+    @BeforeEach
+    void setUp() {
+        Patient patient = patientRepository.save(Patient.builder()
+                .user(userRepository.save(User.builder()
+                        .email("revenue-rollup@test.com")
+                        .password("password")
+                        .firstName("Revenue")
+                        .lastName("Rollup")
+                        .build()))
+                .dateOfBirth(LocalDate.of(1970, 1, 1))
+                .gender(Gender.MALE)
+                .build());
+        invoiceId = billingService.createInvoice(InvoiceRequest.builder()
+                .patientId(patient.getId())
+                .items(List.of(InvoiceRequest.InvoiceItemRequest.builder()
+                        .description("Treatment plan")
+                        .amount(new BigDecimal("1000000.00"))
+                        .quantity(1)
+                        .build()))
+                .build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM daily_revenue");
+        jdbcTemplate.update("DELETE FROM payments");
+        jdbcTemplate.update("DELETE FROM patient_accounts");
+        jdbcTemplate.update("DELETE FROM invoice_items");
+        jdbcTemplate.update("DELETE FROM invoices");
+        patientRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Recorded payments are added to the rollup and match a rebuild")
+    void recordPayment_UpdatesRollup() {
+        pay("120.00", "CARD");
+        pay("30.50", "CARD");
+        pay("75.00", "CASH");
+
+        List<DailyRevenue> incremental = rollupRows();
+        assertThat(incremental).extracting(DailyRevenue::getPaymentMethod).containsExactly("CARD", "CASH");
+        assertThat(incremental.get(0).getTotalAmount()).isEqualByComparingTo("150.50");
+        assertThat(incremental.get(0).getPaymentCount()).isEqualTo(2);
+        assertThat(incremental.get(1).getTotalAmount()).isEqualByComparingTo("75.00");
+
+        assertThat(dailyRevenueRollup.rebuild()).isEqualTo(2);
+        List<DailyRevenue> rebuilt = rollupRows();
+        for (int i = 0; i < rebuilt.size(); i++) {
+            assertThat(rebuilt.get(i).getTotalAmount()).isEqualByComparingTo(incremental.get(i).getTotalAmount());
+            assertThat(rebuilt.get(i).getPaymentCount()).isEqualTo(incremental.get(i).getPaymentCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Payments recorded while the rollup is rebuilt are neither lost nor counted twice")
+    void rebuild_ConcurrentWithRecordPayment() throws Exception {
+        insertHistory(30);
+        int writers = 4;
+        int paymentsPerWriter = 25;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            Future<Integer> rebuilds = executor.submit(() -> {
+                int count = 0;
+                while (writing.get()) {
+                    dailyRevenueRollup.rebuild();
+                    count++;
+                }
+                return count;
+            });
+            List<Future<?>> payments = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                String method = w % 2 == 0 ? "CARD" : "CASH";
+                payments.add(executor.submit(() -> {
+                    for (int i = 0; i < paymentsPerWriter; i++) {
+                        pay("10.25", method);
+                    }
+                }));
+            }
+            for (Future<?> payment : payments) {
+                payment.get(60, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            assertThat(rebuilds.get(60, TimeUnit.SECONDS)).isPositive();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<DailyRevenue.Key, BigDecimal> expected = jdbcTemplate.query(
+                "SELECT CAST(payment_date AS DATE) AS revenue_date, payment_method, SUM(amount) AS total " +
+                        "FROM payments GROUP BY CAST(payment_date AS DATE), payment_method",
+                (rs, rowNum) -> Map.entry(
+                        new DailyRevenue.Key(rs.getDate("revenue_date").toLocalDate(), rs.getString("payment_method")),
+                        rs.getBigDecimal("total"))).stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        List<DailyRevenue> rows = rollupRows();
+        assertThat(rows).hasSize(expected.size());
+        for (DailyRevenue row : rows) {
+            assertThat(row.getTotalAmount())
+                    .as("%s %s", row.getRevenueDate(), row.getPaymentMethod())
+                    .isEqualByComparingTo(expected.get(new DailyRevenue.Key(row.getRevenueDate(), row.getPaymentMethod())));
+        }
+        assertThat(rows.stream().filter(row -> row.getRevenueDate().equals(TODAY)).mapToLong(DailyRevenue::getPaymentCount).sum())
+                .isEqualTo(writers * paymentsPerWriter);
+    }
+
+    @Test
+    @DisplayName("Range totals from the rollup equal totals over raw payments")
+    void getTotal_MatchesRawPayments() {
+        insertHistory(400);
+        pay("42.00", "CARD");
+        dailyRevenueRollup.rebuild();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<LocalDateTime[]> ranges = List.of(
+                range(TODAY.minusDays(365).atStartOfDay(), TODAY.atTime(LocalTime.MAX)),
+                range(TODAY.minusDays(365).atTime(12, 0), now),
+                range(TODAY.minusDays(30).atTime(9, 0), TODAY.minusDays(2).atTime(9, 0)),
+                range(TODAY.minusDays(10).atTime(8, 0), TODAY.minusDays(10).atTime(10, 0)),
+                range(TODAY.minusDays(5).atStartOfDay(), TODAY.minusDays(4).atStartOfDay()),
+                range(TODAY.minusDays(500).atStartOfDay(), now.plusDays(1)));
+        for (LocalDateTime[] range : ranges) {
+            BigDecimal raw = paymentRepository.getTotalPaymentsByDateRange(range[0], range[1]);
+            assertThat(billingService.getTotalPaymentsByDateRange(range[0], range[1]))
+                    .as("%s .. %s", range[0], range[1])
+                    .isEqualByComparingTo(raw != null ? raw : BigDecimal.ZERO);
+        }
+    }
+
+    private void pay(String amount, String method) {
+        billingService.recordPayment(PaymentRequest.builder()
+                .invoiceId(invoiceId)
+                .amount(new BigDecimal(amount))
+                .paymentMethod(method)
+                .build());
+    }
+
+    // Two payments a day, one of them at midnight so day boundaries are exercised
+    private void insertHistory(int days) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int d = 1; d <= days; d++) {
+            LocalDate day = TODAY.minusDays(d);
+            rows.add(new Object[]{invoiceId, new BigDecimal(d % 97 + ".25"), "CARD", day.atStartOfDay()});
+            rows.add(new Object[]{invoiceId, new BigDecimal(d % 13 + 1 + ".10"), d % 2 == 0 ? "CASH" : "INSURANCE",
+                    day.atTime(9, 0)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO payments (invoice_id, amount, payment_method, payment_date) " +
+                "VALUES (?, ?, ?, ?)", rows);
+    }
+
+    private List<DailyRevenue> rollupRows() {
+        return dailyRevenueRepository.findAll().stream()
+                .sorted(Comparator.comparing(DailyRevenue::getRevenueDate).thenComparing(DailyRevenue::getPaymentMethod))
+                .toList();
+    }
+
+    private static LocalDateTime[] range(LocalDateTime start, LocalDateTime end) {
+        return new LocalDateTime[]{start, end};
+    }
+}
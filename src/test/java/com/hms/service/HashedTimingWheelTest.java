@@ -0,0 +1,43 @@
+package com.hms.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedTimingWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    @Test
+    @DisplayName("Should fire timers on their tick, including ones several rotations out")
+    void advance_FiresDueTimersOnly() {
+        HashedTimingWheel<Long, String> wheel = new HashedTimingWheel<>(10, 8, START);
+        wheel.schedule(1L, "soon", START + 25);
+        wheel.schedule(2L, "next-rotation", START + 25 + 80);
+        wheel.schedule(3L, "far", START + 10_000);
+
+        assertThat(wheel.advance(START + 20)).isEmpty();
+        assertThat(wheel.advance(START + 30)).containsExactly("soon");
+        assertThat(wheel.advance(START + 100)).isEmpty();
+        assertThat(wheel.advance(START + 110)).containsExactly("next-rotation");
+        // A long pause walks at most one rotation but still releases everything overdue
+        assertThat(wheel.advance(START + 50_000)).containsExactly("far");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should cancel every timer of a key and fire overdue timers on the next advance")
+    void cancel_RemovesAllTimersOfKey() {
+        HashedTimingWheel<Long, String> wheel = new HashedTimingWheel<>(10, 8, START);
+        wheel.schedule(1L, "reminder", START + 40);
+        wheel.schedule(1L, "overdue", START + 90);
+        wheel.schedule(2L, "late", START - 500);
+
+        wheel.cancel(1L);
+
+        assertThat(wheel.isScheduled(1L)).isFalse();
+        assertThat(wheel.advance(START)).containsExactly("late");
+        assertThat(wheel.advance(START + 200)).isEmpty();
+    }
+}
@@ -0,0 +1,152 @@
+package com.hms.service;
+
+import com.hms.dto.request.InvoiceRequest;
+import com.hms.dto.response.InvoiceResponse;
+import com.hms.entity.Patient;
+import com.hms.entity.User;
+import com.hms.enums.Gender;
+import com.hms.repository.InvoiceRepository;
+import com.hms.repository.PatientRepository;
+import com.hms.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A pool smaller than the number of callers and small blocks, so refills happen while every connection is taken
+@SpringBootTest(properties = {
+        "hms.billing.invoice-number.block-size=50",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "spring.datasource.hikari.connection-timeout=2000"
+})
+@ActiveProfiles("test")
+class InvoiceNumberAllocatorIntegrationTest {
+
+    private static final int THREADS = 16;
+    private static final int VALUES = 100_000;
+    private static final int INVOICES = 100_000;
+
+    @Autowired
+    private InvoiceNumberAllocator invoiceNumberAllocator;
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        patient = patientRepository.save(Patient.builder()
+                .user(userRepository.save(User.builder()
+                        .email("invoice-numbers@test.com")
+                        .password("password")
+                        .firstName("Invoice")
+                        .lastName("Numbers")
+                        .build()))
+                .dateOfBirth(LocalDate.of(1980, 3, 3))
+                .gender(Gender.OTHER)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM patient_accounts");
+        jdbcTemplate.update("DELETE FROM invoice_items");
+        jdbcTemplate.update("DELETE FROM invoices");
+        patientRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("100k numbers drawn concurrently by three nodes never collide")
+    void concurrentNodes_NoCollisions() throws Exception {
+        // Three allocators sharing one database sequence stand in for three application nodes
+        // Nodes configured with a different block size follow the sequence's increment instead of overlapping
+        List<InvoiceNumberAllocator> nodes = List.of(
+                invoiceNumberAllocator,
+                new InvoiceNumberAllocator(jdbcTemplate, "02", 50),
+                new InvoiceNumberAllocator(jdbcTemplate, "03", 1000));
+        nodes.get(1).createSequence();
+        nodes.get(2).createSequence();
+        long reservationsBefore = nodes.stream().mapToLong(InvoiceNumberAllocator::getReservations).sum();
+
+        Set<Long> values = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            InvoiceNumberAllocator node = nodes.get(t % nodes.size());
+            futures.add(pool.submit(() -> {
+                long previous = -1;
+                for (int i = 0; i < VALUES / THREADS; i++) {
+                    long value = node.nextValue();
+                    assertThat(value).isGreaterThan(previous);
+                    previous = value;
+                    values.add(value);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(120, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(values).hasSize(VALUES);
+        long reservations = nodes.stream().mapToLong(InvoiceNumberAllocator::getReservations).sum() - reservationsBefore;
+        assertThat(reservations).isLessThanOrEqualTo(VALUES / 50 + nodes.size());
+    }
+
+    @Test
+    @DisplayName("100k invoices created concurrently through the service on a saturated pool get unique numbers")
+    void createInvoice_SaturatedPool() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<InvoiceResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < INVOICES; i++) {
+            futures.add(pool.submit(() -> billingService.createInvoice(InvoiceRequest.builder()
+                    .patientId(patient.getId())
+                    .items(List.of(InvoiceRequest.InvoiceItemRequest.builder()
+                            .description("Consultation")
+                            .amount(new BigDecimal("100.00"))
+                            .quantity(1)
+                            .build()))
+                    .build())));
+        }
+        List<String> numbers = new ArrayList<>();
+        for (Future<InvoiceResponse> future : futures) {
+            numbers.add(future.get(60, TimeUnit.SECONDS).getInvoiceNumber());
+        }
+        pool.shutdown();
+
+        // Blocks of 50, so this went through two thousand refills with all four connections in use
+        assertThat(numbers).doesNotHaveDuplicates().allMatch(number -> number.matches("INV-01-\\d{8}"));
+        assertThat(invoiceRepository.count()).isEqualTo(INVOICES);
+    }
+}
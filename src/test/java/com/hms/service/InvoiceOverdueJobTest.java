@@ -0,0 +1,77 @@
+package com.hms.service;
+
+import com.hms.repository.InvoiceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceOverdueJobTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private InvoiceOverdueJob job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        job = new InvoiceOverdueJob(invoiceRepository, transactionManager, meterRegistry, true, 2, 10, 5);
+    }
+
+    @Test
+    @DisplayName("Should mark past-due invoices chunk by chunk, one transaction each")
+    void markOverdue_MarksEveryChunk() {
+        // Given: three past-due invoices in chunks of two
+        when(invoiceRepository.findIdsDueBefore(InvoiceOverdueJob.OPEN_STATUSES, TODAY, Limit.of(2)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L))
+                .thenReturn(List.of());
+        when(invoiceRepository.markOverdue(anyList(), eq(InvoiceOverdueJob.OPEN_STATUSES), eq(TODAY), any()))
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+        // When
+        int marked = job.markOverdue(TODAY);
+
+        // Then
+        assertThat(marked).isEqualTo(3);
+        verify(invoiceRepository).markOverdue(eq(List.of(1L, 2L)), any(), eq(TODAY), any());
+        verify(transactionManager, times(3)).commit(any());
+        assertThat(meterRegistry.get("hms.billing.invoices.marked-overdue").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should stop at the per-run chunk cap")
+    void markOverdue_StopsAtChunkCap() {
+        // Given: an endless supply of past-due invoices
+        when(invoiceRepository.findIdsDueBefore(any(), any(), any())).thenReturn(List.of(9L));
+        when(invoiceRepository.markOverdue(anyList(), any(), any(), any())).thenReturn(1);
+
+        // When
+        job.markOverdue(TODAY);
+
+        // Then
+        verify(invoiceRepository, times(10)).markOverdue(anyList(), any(), any(), any());
+    }
+}
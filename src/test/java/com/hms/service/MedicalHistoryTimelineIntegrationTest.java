@@ -0,0 +1,117 @@
+package com.hms.service;
+
+import com.hms.dto.request.MedicalHistoryRequest;
+import com.hms.dto.request.PatientRequest;
+import com.hms.dto.response.CursorPage;
+import com.hms.dto.response.MedicalHistoryResponse;
+import com.hms.dto.response.MedicalHistorySummary;
+import com.hms.enums.Gender;
+import com.hms.exception.BadRequestException;
+import com.hms.exception.ResourceNotFoundException;
+import com.hms.repository.MedicalHistoryRepository;
+import com.hms.repository.PatientRepository;
+import com.hms.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MedicalHistoryTimelineIntegrationTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private MedicalHistoryRepository medicalHistoryRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        medicalHistoryRepository.deleteAll();
+        patientRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Timeline pages cover every entry once, newest first with undated entries last")
+    void timeline_PagesThroughAllEntries() {
+        Long patientId = patient("timeline@test.com");
+        Long undatedOld = history(patientId, "Allergy", null);
+        Long older = history(patientId, "Asthma", LocalDate.of(2010, 4, 1));
+        Long sameDayFirst = history(patientId, "Fracture", LocalDate.of(2020, 6, 15));
+        Long sameDaySecond = history(patientId, "Concussion", LocalDate.of(2020, 6, 15));
+        Long undatedNew = history(patientId, "Migraine", null);
+        Long newest = history(patientId, "Diabetes", LocalDate.of(2023, 1, 9));
+
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<MedicalHistorySummary> page = patientService.getMedicalHistoryTimeline(patientId, cursor, 2);
+            page.getContent().forEach(summary -> ids.add(summary.getId()));
+            cursor = page.getNextCursor();
+            assertThat(page.isHasNext()).isEqualTo(cursor != null);
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(ids).containsExactly(newest, sameDaySecond, sameDayFirst, older, undatedNew, undatedOld);
+
+        MedicalHistorySummary first = patientService.getMedicalHistoryTimeline(patientId, null, null).getContent().get(0);
+        assertThat(first.getConditionName()).isEqualTo("Diabetes");
+        assertThat(first.getIsChronic()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Detail fetch returns the full entry only for its own patient")
+    void entry_ReturnsFullTextForOwner() {
+        Long patientId = patient("detail@test.com");
+        Long otherPatientId = patient("other@test.com");
+        Long historyId = history(patientId, "Hypertension", LocalDate.of(2019, 2, 2));
+
+        MedicalHistoryResponse entry = patientService.getMedicalHistoryEntry(patientId, historyId);
+        assertThat(entry.getNotes()).isEqualTo("Notes for Hypertension");
+        assertThat(entry.getTreatment()).isEqualTo("Treatment for Hypertension");
+
+        assertThatThrownBy(() -> patientService.getMedicalHistoryEntry(otherPatientId, historyId))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> patientService.getMedicalHistoryTimeline(patientId, "not a cursor", 10))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private Long patient(String email) {
+        return patientService.createPatient(PatientRequest.builder()
+                .email(email)
+                .firstName("Tess")
+                .lastName("Lindqvist")
+                .dateOfBirth(LocalDate.of(1960, 1, 1))
+                .gender(Gender.FEMALE)
+                .build()).getId();
+    }
+
+    private Long history(Long patientId, String condition, LocalDate diagnosisDate) {
+        return patientService.addMedicalHistory(patientId, MedicalHistoryRequest.builder()
+                .conditionName(condition)
+                .diagnosisDate(diagnosisDate)
+                .treatment("Treatment for " + condition)
+                .notes("Notes for " + condition)
+                .isChronic("Diabetes".equals(condition))
+                .build()).getId();
+    }
+}
@@ -0,0 +1,70 @@
+package com.hms.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NameSearchIndexTest {
+
+    private static final double MIN_SIMILARITY = 0.5;
+
+    @Test
+    @DisplayName("Should rank prefix matches first and tolerate accents, case and a typo")
+    void search_RanksMatches() {
+        NameSearchIndex index = new NameSearchIndex();
+        index.put(new NameSearchIndex.Document(1, "Anna", "Schmidt", "+1 555-0100", "anna.schmidt@example.com"));
+        index.put(new NameSearchIndex.Document(2, "Joanne", "Baker", "555 0134", "jbaker@example.com"));
+        index.put(new NameSearchIndex.Document(3, "André", "Annan", null, null));
+        index.put(new NameSearchIndex.Document(4, "Peter", "Wong", "555-0199", "pwong@example.com"));
+
+        // Both start a word with "ann"; ties go by last name
+        assertThat(index.search("ann", 10, MIN_SIMILARITY)).containsExactly(3L, 1L);
+        assertThat(index.search("ANDRE", 10, MIN_SIMILARITY)).containsExactly(3L);
+        assertThat(index.search("joanne", 10, MIN_SIMILARITY)).containsExactly(2L);
+        assertThat(index.search("schmit", 10, MIN_SIMILARITY)).containsExactly(1L);
+        assertThat(index.search("anna schm", 10, MIN_SIMILARITY)).first().isEqualTo(1L);
+        assertThat(index.search("jbaker", 10, MIN_SIMILARITY)).containsExactly(2L);
+        assertThat(index.search("zzz", 10, MIN_SIMILARITY)).isEmpty();
+        assertThat(index.search("  ", 10, MIN_SIMILARITY)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should match phone numbers by their digits and cap the result size")
+    void search_PhoneAndLimit() {
+        NameSearchIndex index = new NameSearchIndex();
+        index.put(new NameSearchIndex.Document(1, "Anna", "Schmidt", "+1 555-0100", null));
+        index.put(new NameSearchIndex.Document(2, "Joanne", "Baker", "555 0134", null));
+        index.put(new NameSearchIndex.Document(3, "Peter", "Wong", "(555) 0199", null));
+
+        assertThat(index.search("555-0134", 10, MIN_SIMILARITY)).first().isEqualTo(2L);
+        // A leading match outranks the same digits further into the number
+        assertThat(index.search("5550", 10, MIN_SIMILARITY)).containsExactly(2L, 3L, 1L);
+        assertThat(index.search("5550", 1, MIN_SIMILARITY)).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Should reflect updates and removals, including those made during a rebuild")
+    void rebuild_KeepsConcurrentChanges() {
+        NameSearchIndex index = new NameSearchIndex();
+        index.put(new NameSearchIndex.Document(1, "Anna", "Schmidt", null, null));
+        index.put(new NameSearchIndex.Document(1, "Anna", "Meyer", null, null));
+        assertThat(index.search("schmidt", 10, MIN_SIMILARITY)).isEmpty();
+        assertThat(index.search("meyer", 10, MIN_SIMILARITY)).containsExactly(1L);
+
+        int size = index.rebuild(() -> {
+            // Committed after the loader's snapshot was taken
+            index.put(new NameSearchIndex.Document(2, "Peter", "Wong", null, null));
+            index.remove(1);
+            return List.of(new NameSearchIndex.Document(1, "Anna", "Meyer", null, null),
+                    new NameSearchIndex.Document(3, "Lena", "Kraus", null, null));
+        });
+
+        assertThat(size).isEqualTo(2);
+        assertThat(index.search("meyer", 10, MIN_SIMILARITY)).isEmpty();
+        assertThat(index.search("peter", 10, MIN_SIMILARITY)).containsExactly(2L);
+        assertThat(index.search("lena", 10, MIN_SIMILARITY)).containsExactly(3L);
+    }
+}
@@ -0,0 +1,205 @@
+package com.hms.service;
+
+import com.hms.dto.request.InvoiceRequest;
+import com.hms.dto.request.PaymentRequest;
+import com.hms.dto.response.LedgerVerificationReport;
+import com.hms.dto.response.PatientBalanceResponse;
+import com.hms.entity.Patient;
+import com.hms.entity.User;
+import com.hms.enums.Gender;
+import com.hms.repository.PatientAccountRepository;
+import com.hms.repository.PatientRepository;
+import com.hms.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PatientAccountLedgerIntegrationTest {
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PatientAccountLedger patientAccountLedger;
+
+    @Autowired
+    private PatientAccountRepository patientAccountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        patient = patientRepository.save(Patient.builder()
+                .user(userRepository.save(User.builder()
+                        .email("ledger@test.com")
+                        .password("password")
+                        .firstName("Ledger")
+                        .lastName("Patient")
+                        .build()))
+                .dateOfBirth(LocalDate.of(1980, 2, 2))
+                .gender(Gender.MALE)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM patient_accounts");
+        jdbcTemplate.update("DELETE FROM daily_revenue");
+        jdbcTemplate.update("DELETE FROM payments");
+        jdbcTemplate.update("DELETE FROM invoice_items");
+        jdbcTemplate.update("DELETE FROM invoices");
+        patientRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Invoice and payment changes keep the patient balance in step")
+    void balanceFollowsInvoicesAndPayments() {
+        assertBalance("0", "0");
+
+        Long first = createInvoice("100.00");
+        Long second = createInvoice("200.00");
+        assertBalance("300.00", "0");
+
+        billingService.updateInvoice(first, InvoiceRequest.builder().items(items("150.00")).build());
+        assertBalance("350.00", "0");
+
+        pay(first, "40.00");
+        pay(second, "50.00");
+        assertBalance("260.00", "90.00");
+
+        billingService.cancelInvoice(first);
+        billingService.cancelInvoice(first);
+        assertBalance("150.00", "90.00");
+
+        // Editing a cancelled invoice does not bring it back into the balance
+        billingService.updateInvoice(first, InvoiceRequest.builder().items(items("500.00")).build());
+        assertBalance("150.00", "90.00");
+
+        LedgerVerificationReport report = billingService.verifyPatientAccounts(false);
+        assertThat(report.getPatientsChecked()).isGreaterThanOrEqualTo(1);
+        assertThat(report.getDrifted()).isZero();
+    }
+
+    @Test
+    @DisplayName("The verifier flags drift and repairs it only when asked")
+    void verifierFlagsAndRepairsDrift() {
+        Long invoice = createInvoice("300.00");
+        pay(invoice, "100.00");
+        jdbcTemplate.update("UPDATE patient_accounts SET outstanding_balance = 999 WHERE patient_id = ?", patient.getId());
+
+        LedgerVerificationReport flagged = billingService.verifyPatientAccounts(false);
+        assertThat(flagged.getDrifted()).isEqualTo(1);
+        assertThat(flagged.getRepaired()).isZero();
+        assertThat(flagged.getDrifts()).singleElement().satisfies(drift -> {
+            assertThat(drift.getPatientId()).isEqualTo(patient.getId());
+            assertThat(drift.getRecordedOutstanding()).isEqualByComparingTo("999");
+            assertThat(drift.getActualOutstanding()).isEqualByComparingTo("200.00");
+        });
+        assertBalance("999", "100.00");
+
+        LedgerVerificationReport repaired = billingService.verifyPatientAccounts(true);
+        assertThat(repaired.getRepaired()).isEqualTo(1);
+        assertBalance("200.00", "100.00");
+
+        // A missing account row, e.g. for invoices created before the ledger existed, is recreated
+        jdbcTemplate.update("DELETE FROM patient_accounts");
+        assertThat(billingService.verifyPatientAccounts(true).getRepaired()).isEqualTo(1);
+        assertBalance("200.00", "100.00");
+        assertThat(billingService.verifyPatientAccounts(false).getDrifted()).isZero();
+    }
+
+    @Test
+    @DisplayName("Invoices from before the ledger are computed, backfilled and carried into later changes")
+    void preexistingInvoices_AreBackfilled() {
+        // Written behind the ledger's back, as by a release that had no patient_accounts table
+        Long paidInPart = legacyInvoice("LEGACY-1", "120.00", "20.00", "PARTIALLY_PAID");
+        legacyInvoice("LEGACY-2", "80.00", "0", "PENDING");
+        legacyInvoice("LEGACY-3", "500.00", "0", "CANCELLED");
+        jdbcTemplate.update("INSERT INTO payments (invoice_id, amount, payment_method, payment_date) VALUES (?, 20.00, 'CASH', ?)",
+                paidInPart, LocalDateTime.now());
+        assertThat(patientAccountRepository.existsById(patient.getId())).isFalse();
+
+        // Before the backfill the balance is computed rather than reported as zero
+        assertBalance("180.00", "20.00");
+
+        assertThat(patientAccountLedger.backfill()).isEqualTo(1);
+        assertThat(patientAccountLedger.backfill()).isZero();
+        assertThat(patientAccountRepository.findById(patient.getId())).hasValueSatisfying(account ->
+                assertThat(account.getOutstandingBalance()).isEqualByComparingTo("180.00"));
+
+        createInvoice("50.00");
+        pay(paidInPart, "100.00");
+        assertBalance("130.00", "120.00");
+        assertThat(billingService.verifyPatientAccounts(false).getDrifted()).isZero();
+    }
+
+    @Test
+    @DisplayName("A patient's first ledger change seeds the account with invoices from before the ledger")
+    void firstChange_SeedsFromPreexistingInvoices() {
+        legacyInvoice("LEGACY-4", "70.00", "0", "PENDING");
+
+        createInvoice("30.00");
+
+        assertBalance("100.00", "0");
+        assertThat(billingService.verifyPatientAccounts(false).getDrifted()).isZero();
+    }
+
+    private Long legacyInvoice(String number, String total, String paid, String status) {
+        jdbcTemplate.update("INSERT INTO invoices (invoice_number, patient_id, total_amount, paid_amount, status) " +
+                "VALUES (?, ?, ?, ?, ?)", number, patient.getId(), new BigDecimal(total), new BigDecimal(paid), status);
+        return jdbcTemplate.queryForObject("SELECT id FROM invoices WHERE invoice_number = ?", Long.class, number);
+    }
+
+    private void assertBalance(String outstanding, String paid) {
+        PatientBalanceResponse balance = billingService.getPatientBalance(patient.getId());
+        assertThat(balance.getOutstandingBalance()).isEqualByComparingTo(outstanding);
+        assertThat(balance.getTotalPaid()).isEqualByComparingTo(paid);
+    }
+
+    private Long createInvoice(String total) {
+        return billingService.createInvoice(InvoiceRequest.builder()
+                .patientId(patient.getId())
+                .items(items(total))
+                .build()).getId();
+    }
+
+    private void pay(Long invoiceId, String amount) {
+        billingService.recordPayment(PaymentRequest.builder()
+                .invoiceId(invoiceId)
+                .amount(new BigDecimal(amount))
+                .paymentMethod("CASH")
+                .build());
+    }
+
+    private static List<InvoiceRequest.InvoiceItemRequest> items(String amount) {
+        return List.of(InvoiceRequest.InvoiceItemRequest.builder()
+                .description("Treatment")
+                .amount(new BigDecimal(amount))
+                .quantity(1)
+                .build());
+    }
+}
@@ -0,0 +1,151 @@
+package com.hms.service;
+
+import com.hms.dto.response.CursorPage;
+import com.hms.dto.response.PatientBalanceResponse;
+import com.hms.dto.response.PatientChartResponse;
+import com.hms.dto.response.PatientResponse;
+import com.hms.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientChartServiceTest {
+
+    private static final long SECTION_TIMEOUT_MS = 1000;
+
+    @Mock
+    private PatientService patientService;
+
+    @Mock
+    private AppointmentService appointmentService;
+
+    @Mock
+    private BillingService billingService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PatientChartService chartService;
+
+    @BeforeEach
+    void setUp() {
+        chartService = new PatientChartService(patientService, appointmentService, billingService,
+                transactionManager, 8, 10, SECTION_TIMEOUT_MS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        chartService.stop();
+    }
+
+    @Test
+    @DisplayName("Should load all sections in parallel, each in its own read-only transaction")
+    void getChart_LoadsSectionsInParallel() {
+        when(patientService.getPatientById(1L)).then(after(300, PatientResponse.builder().id(1L).build()));
+        when(patientService.getMedicalHistoryTimeline(1L, null, null)).then(after(300, new CursorPage<>()));
+        when(appointmentService.getAppointmentsByPatient(1L)).then(after(300, List.of()));
+        when(billingService.getInvoicesByPatient(1L)).then(after(300, List.of()));
+        when(billingService.getPatientBalance(1L)).then(after(300, PatientBalanceResponse.builder().patientId(1L).build()));
+
+        long started = System.nanoTime();
+        PatientChartResponse chart = chartService.getChart(1L, EnumSet.allOf(PatientChartService.Section.class));
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        // Five 300 ms sections take about as long as one
+        assertThat(elapsedMillis).isLessThan(900);
+        assertThat(chart.getPatient().getId()).isEqualTo(1L);
+        assertThat(chart.getMedicalHistory()).isNotNull();
+        assertThat(chart.getAppointments()).isEmpty();
+        assertThat(chart.getInvoices()).isEmpty();
+        assertThat(chart.getBalance().getPatientId()).isEqualTo(1L);
+        assertThat(chart.getUnavailableSections()).isEmpty();
+        verify(transactionManager, times(5)).getTransaction(argThat(definition -> definition.isReadOnly()));
+    }
+
+    @Test
+    @DisplayName("Should return the other sections when one fails and another times out")
+    void getChart_PartialFailure() {
+        when(patientService.getPatientById(1L)).thenReturn(PatientResponse.builder().id(1L).build());
+        when(appointmentService.getAppointmentsByPatient(1L)).thenReturn(List.of());
+        when(billingService.getInvoicesByPatient(1L)).thenThrow(new IllegalStateException("billing down"));
+        when(billingService.getPatientBalance(1L)).then(after(SECTION_TIMEOUT_MS * 3, null));
+
+        long started = System.nanoTime();
+        PatientChartResponse chart = chartService.getChart(1L, EnumSet.of(PatientChartService.Section.PATIENT,
+                PatientChartService.Section.APPOINTMENTS, PatientChartService.Section.INVOICES,
+                PatientChartService.Section.BALANCE));
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(elapsedMillis).isLessThan(SECTION_TIMEOUT_MS * 2);
+        assertThat(chart.getPatient()).isNotNull();
+        assertThat(chart.getAppointments()).isEmpty();
+        assertThat(chart.getInvoices()).isNull();
+        assertThat(chart.getBalance()).isNull();
+        assertThat(chart.getUnavailableSections())
+                .extracting(PatientChartResponse.UnavailableSection::getSection, PatientChartResponse.UnavailableSection::getReason)
+                .containsExactly(tuple("INVOICES", "FAILED"), tuple("BALANCE", "TIMED_OUT"));
+    }
+
+    @Test
+    @DisplayName("Should fail the whole chart for an unknown patient")
+    void getChart_UnknownPatient() {
+        when(patientService.getPatientById(99L)).thenThrow(new ResourceNotFoundException("Patient", "id", 99L));
+        lenient().when(appointmentService.getAppointmentsByPatient(99L)).thenReturn(List.of());
+
+        assertThatThrownBy(() -> chartService.getChart(99L,
+                EnumSet.of(PatientChartService.Section.PATIENT, PatientChartService.Section.APPOINTMENTS)))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Should only load the sections the caller's role may see")
+    void visibleSections_ByRole() {
+        Set<PatientChartService.Section> doctor =
+                PatientChartService.visibleSections(List.of(new SimpleGrantedAuthority("ROLE_DOCTOR")));
+        Set<PatientChartService.Section> receptionist =
+                PatientChartService.visibleSections(List.of(new SimpleGrantedAuthority("ROLE_RECEPTIONIST")));
+
+        assertThat(doctor).containsExactlyInAnyOrder(PatientChartService.Section.PATIENT,
+                PatientChartService.Section.MEDICAL_HISTORY, PatientChartService.Section.APPOINTMENTS);
+        assertThat(receptionist).doesNotContain(PatientChartService.Section.MEDICAL_HISTORY)
+                .contains(PatientChartService.Section.INVOICES, PatientChartService.Section.BALANCE);
+        assertThat(PatientChartService.visibleSections(List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .isEqualTo(EnumSet.allOf(PatientChartService.Section.class));
+
+        when(patientService.getPatientById(1L)).thenReturn(PatientResponse.builder().id(1L).build());
+        when(patientService.getMedicalHistoryTimeline(1L, null, null)).thenReturn(new CursorPage<>());
+        when(appointmentService.getAppointmentsByPatient(1L)).thenReturn(List.of());
+
+        PatientChartResponse chart = chartService.getChart(1L, doctor);
+
+        assertThat(chart.getInvoices()).isNull();
+        assertThat(chart.getUnavailableSections()).isEmpty();
+        verifyNoInteractions(billingService);
+        verify(transactionManager, never()).rollback(any());
+    }
+
+    private static <T> Answer<T> after(long millis, T value) {
+        return invocation -> {
+            Thread.sleep(millis);
+            return value;
+        };
+    }
+}
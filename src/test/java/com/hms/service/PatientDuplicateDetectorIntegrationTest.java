@@ -0,0 +1,137 @@
+package com.hms.service;
+
+import com.hms.dto.request.PatientRequest;
+import com.hms.dto.response.DuplicateCandidate;
+import com.hms.dto.response.DuplicateScanReport;
+import com.hms.dto.response.PatientResponse;
+import com.hms.entity.Patient;
+import com.hms.entity.User;
+import com.hms.enums.Gender;
+import com.hms.repository.PatientRepository;
+import com.hms.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PatientDuplicateDetectorIntegrationTest {
+
+    private static final LocalDate BIRTHDAY = LocalDate.of(1975, 5, 20);
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientDuplicateDetector patientDuplicateDetector;
+
+    @Autowired
+    private PatientIndexRefresher patientIndexRefresher;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        patientRepository.deleteAll();
+        userRepository.deleteAll();
+        patientIndexRefresher.refresh();
+    }
+
+    @Test
+    @DisplayName("Registering a likely duplicate succeeds and lists the existing patient")
+    void createPatient_FlagsPossibleDuplicates() {
+        PatientResponse katherine = patientService.createPatient(
+                request("d1@test.com", "Katherine", "Holloway", BIRTHDAY, "555-0142"));
+        assertThat(katherine.getPossibleDuplicates()).isEmpty();
+        patientService.createPatient(request("d2@test.com", "Victor", "Alvarez", BIRTHDAY, null));
+
+        PatientResponse kathryn = patientService.createPatient(
+                request("d3@test.com", "Kathryn", "Holloway", BIRTHDAY, "(555) 0142"));
+
+        assertThat(kathryn.getId()).isNotNull();
+        assertThat(kathryn.getPossibleDuplicates()).singleElement().satisfies(candidate -> {
+            assertThat(candidate.getPatientId()).isEqualTo(katherine.getId());
+            assertThat(candidate.getFirstName()).isEqualTo("Katherine");
+            assertThat(candidate.getScore()).isGreaterThan(0.85);
+            assertThat(candidate.getReasons()).contains("NAME", "DATE_OF_BIRTH", "PHONE");
+        });
+
+        patientService.deletePatient(katherine.getId());
+        assertThat(patientService.createPatient(request("d4@test.com", "Katharine", "Holloway", BIRTHDAY, null))
+                .getPossibleDuplicates()).extracting(DuplicateCandidate::getPatientId)
+                .containsExactly(kathryn.getId());
+    }
+
+    @Test
+    @DisplayName("The batch scan reports each likely duplicate pair once")
+    void scan_ReportsPairsOnce() {
+        PatientResponse first = patientService.createPatient(
+                request("s1@test.com", "Benjamin", "Okafor", BIRTHDAY, "555-0177"));
+        PatientResponse second = patientService.createPatient(
+                request("s2@test.com", "Benjamen", "Okafor", BIRTHDAY, "555-0177"));
+        patientService.createPatient(request("s3@test.com", "Benjamin", "Okafor", LocalDate.of(2001, 9, 2), null));
+        patientService.createPatient(request("s4@test.com", "Lucia", "Ferreira", BIRTHDAY, null));
+
+        DuplicateScanReport report = patientService.scanForDuplicates();
+
+        assertThat(report.getPatientsScanned()).isEqualTo(4);
+        assertThat(report.getOversizedBlocks()).isZero();
+        assertThat(report.getDuplicatePairs()).isEqualTo(1);
+        // First and second share four blocks but are compared once
+        assertThat(report.getPairsCompared()).isEqualTo(3);
+        assertThat(report.getPairs()).singleElement().satisfies(pair -> {
+            assertThat(pair.getPatientId()).isEqualTo(first.getId());
+            assertThat(pair.getOtherPatientId()).isEqualTo(second.getId());
+            assertThat(pair.getReasons()).containsExactly("NAME", "DATE_OF_BIRTH", "PHONE");
+        });
+    }
+
+    @Test
+    @DisplayName("Patients written outside the service reach both patient indexes with one refresh")
+    void refresh_LoadsSearchAndDuplicateIndexes() {
+        Patient imported = patientRepository.save(Patient.builder()
+                .user(userRepository.save(User.builder()
+                        .email("r1@test.com")
+                        .password("password")
+                        .firstName("Rosalind")
+                        .lastName("Achterberg")
+                        .phone("555-0188")
+                        .build()))
+                .dateOfBirth(BIRTHDAY)
+                .gender(Gender.FEMALE)
+                .build());
+        assertThat(patientService.searchPatients("achterberg", 10)).isEmpty();
+
+        patientIndexRefresher.refresh();
+
+        assertThat(patientService.searchPatients("achterberg", 10)).extracting(PatientResponse::getId)
+                .containsExactly(imported.getId());
+        PatientResponse registered = patientService.createPatient(
+                request("r2@test.com", "Rosalind", "Achterberg", BIRTHDAY, "555-0188"));
+        assertThat(registered.getPossibleDuplicates()).extracting(DuplicateCandidate::getPatientId)
+                .containsExactly(imported.getId());
+    }
+
+    private static PatientRequest request(String email, String firstName, String lastName, LocalDate dateOfBirth,
+                                          String phone) {
+        return PatientRequest.builder()
+                .email(email)
+                .firstName(firstName)
+                .lastName(lastName)
+                .phone(phone)
+                .dateOfBirth(dateOfBirth)
+                .gender(Gender.FEMALE)
+                .build();
+    }
+}
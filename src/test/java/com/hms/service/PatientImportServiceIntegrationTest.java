@@ -0,0 +1,226 @@
+package com.hms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.dto.request.LoginRequest;
+import com.hms.dto.request.PatientRequest;
+import com.hms.dto.request.ResetPasswordRequest;
+import com.hms.dto.response.AuthResponse;
+import com.hms.dto.response.PatientImportReport;
+import com.hms.dto.response.PatientResponse;
+import com.hms.entity.Patient;
+import com.hms.entity.User;
+import com.hms.enums.Gender;
+import com.hms.enums.ImportFormat;
+import com.hms.enums.ImportStatus;
+import com.hms.enums.Role;
+import com.hms.exception.UnauthorizedException;
+import com.hms.repository.PatientRepository;
+import com.hms.repository.UserRepository;
+import com.hms.security.JwtService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Slf4j
+class PatientImportServiceIntegrationTest {
+
+    @Autowired
+    private PatientImportService patientImportService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PersonSearchIndex personSearchIndex;
+
+    @Autowired
+    private PatientDuplicateDetector patientDuplicateDetector;
+
+    @Autowired
+    private PatientIndexRefresher patientIndexRefresher;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM patients");
+        jdbcTemplate.update("DELETE FROM user_roles");
+        jdbcTemplate.update("DELETE FROM users");
+        patientIndexRefresher.refresh();
+    }
+
+    @Test
+    @DisplayName("CSV rows are imported, skipped or reported, and a second run imports nothing")
+    void importCsv_ImportsValidRows() throws IOException {
+        userRepository.save(User.builder()
+                .email("taken@test.com")
+                .password("password")
+                .firstName("Already")
+                .lastName("Registered")
+                .build());
+        Path file = tempDir.resolve("patients.csv");
+        Files.write(file, List.of(
+                "email,firstName,lastName,dateOfBirth,gender,phone,address",
+                "ines.okoro@test.com,Ines,Okoro,1981-02-03,female,555-0150,\"12 Elm St, Springfield\"",
+                "marek.novak@test.com,Marek,Novak,1975-11-30,MALE,,",
+                "taken@test.com,Someone,Else,1990-01-01,OTHER,,",
+                "marek.novak@test.com,Marek,Novak,1975-11-30,MALE,,",
+                "not-an-email,Bad,Email,1990-01-01,MALE,,",
+                "no.gender@test.com,No,Gender,1990-01-01,,,",
+                "",
+                "bad.date@test.com,Bad,Date,03/02/1981,FEMALE,,",
+                "priya.raman@test.com,Priya,Raman,1999-07-21,FEMALE,,"), StandardCharsets.UTF_8);
+
+        // Chunks of three rows, so the repeated email falls in a later chunk than the first
+        PatientImportService service = service(3);
+        PatientImportReport report = service.importFile(file, ImportFormat.CSV);
+
+        assertThat(report.getStatus()).isEqualTo(ImportStatus.COMPLETED);
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(report.getDuplicates()).isEqualTo(2);
+        assertThat(report.getInvalid()).isEqualTo(3);
+        assertThat(report.getErrors()).extracting(PatientImportReport.LineError::getLine).containsExactly(6L, 7L, 9L);
+        assertThat(report.getBytesRead()).isEqualTo(report.getTotalBytes());
+
+        User user = userRepository.findByEmail("ines.okoro@test.com").orElseThrow();
+        assertThat(user.getRoles()).containsExactly(Role.ROLE_PATIENT);
+        assertThat(user.getPasswordResetRequired()).isTrue();
+        assertThat(user.isCredentialsNonExpired()).isFalse();
+        assertThat(passwordEncoder.matches("tempPassword123", user.getPassword())).isFalse();
+        Patient patient = patientRepository.findByUserId(user.getId()).orElseThrow();
+        assertThat(patient.getAddress()).isEqualTo("12 Elm St, Springfield");
+        assertThat(patient.getGender()).isEqualTo(Gender.FEMALE);
+
+        // Imported patients are searchable and matched against new registrations straight away
+        assertThat(patientService.searchPatients("okoro", 10)).extracting(PatientResponse::getId)
+                .containsExactly(patient.getId());
+        PatientResponse registered = patientService.createPatient(PatientRequest.builder()
+                .email("ines.o@test.com")
+                .firstName("Ines")
+                .lastName("Okoro")
+                .dateOfBirth(LocalDate.of(1981, 2, 3))
+                .gender(Gender.FEMALE)
+                .build());
+        assertThat(registered.getPossibleDuplicates()).extracting(candidate -> candidate.getPatientId())
+                .containsExactly(patient.getId());
+
+        PatientImportReport rerun = service.importFile(file, ImportFormat.CSV);
+        assertThat(rerun.getImported()).isZero();
+        assertThat(rerun.getDuplicates()).isEqualTo(5);
+        assertThat(patientRepository.count()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("An imported account sets its password with a reset token and can then sign in")
+    void importedAccount_SetsPasswordWithResetToken() throws IOException {
+        Path file = tempDir.resolve("patients.csv");
+        Files.write(file, List.of(
+                "email,firstName,lastName,dateOfBirth,gender,phone,address",
+                "ines.okoro@test.com,Ines,Okoro,1981-02-03,FEMALE,,"), StandardCharsets.UTF_8);
+        service(10).importFile(file, ImportFormat.CSV);
+        LoginRequest login = LoginRequest.builder().email("ines.okoro@test.com").password("chosenPassword1").build();
+        assertThatThrownBy(() -> authService.login(login)).isInstanceOf(BadCredentialsException.class);
+
+        // The token the notifier would have delivered
+        String token = jwtService.generatePasswordResetToken(userRepository.findByEmail("ines.okoro@test.com").orElseThrow());
+        ResetPasswordRequest reset = ResetPasswordRequest.builder().token(token).newPassword("chosenPassword1").build();
+        AuthResponse signedIn = authService.resetPassword(reset);
+
+        User user = userRepository.findByEmail("ines.okoro@test.com").orElseThrow();
+        assertThat(user.getPasswordResetRequired()).isFalse();
+        assertThat(user.isCredentialsNonExpired()).isTrue();
+        assertThat(jwtService.isTokenValid(signedIn.getAccessToken(), user)).isTrue();
+        assertThat(authService.login(login).getUser().getId()).isEqualTo(user.getId());
+
+        // A reset token is not an access token, and it stops working once the password changes
+        assertThat(jwtService.isTokenValid(token, user)).isFalse();
+        assertThatThrownBy(() -> authService.resetPassword(reset))
+                .isInstanceOf(UnauthorizedException.class)
+                .hasMessageContaining("invalid or expired");
+    }
+
+    @Test
+    @DisplayName("A large NDJSON file uploaded through the service is imported in the background")
+    void startImport_Ndjson() throws IOException {
+        int rows = 20_000;
+        Path file = tempDir.resolve("patients.ndjson");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < rows; i++) {
+                writer.write("{\"email\":\"bulk" + i + "@test.com\",\"firstName\":\"Bulk\",\"lastName\":\"Patient" + i
+                        + "\",\"dateOfBirth\":\"1980-01-01\",\"gender\":\"OTHER\",\"phone\":\"555-" + i + "\"}\n");
+            }
+        }
+        MockMultipartFile upload = new MockMultipartFile("file", "patients.ndjson", "application/x-ndjson",
+                Files.readAllBytes(file));
+
+        long started = System.nanoTime();
+        PatientImportReport queued = patientImportService.startImport(upload, null);
+        await().atMost(Duration.ofSeconds(120)).until(() ->
+                patientImportService.getImport(queued.getImportId()).getFinishedAt() != null);
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Imported {} patients in {} ms ({} rows/s)", rows, elapsedMillis, rows * 1000L / elapsedMillis);
+
+        PatientImportReport report = patientImportService.getImport(queued.getImportId());
+        assertThat(report.getFormat()).isEqualTo("NDJSON");
+        assertThat(report.getStatus()).isEqualTo(ImportStatus.COMPLETED);
+        assertThat(report.getImported()).isEqualTo(rows);
+        assertThat(patientRepository.count()).isEqualTo(rows);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_roles WHERE role = 'ROLE_PATIENT'", Long.class))
+                .isEqualTo(rows);
+    }
+
+    private PatientImportService service(int chunkRows) {
+        return new PatientImportService(patientRepository, userRepository, personSearchIndex, patientDuplicateDetector,
+                objectMapper, transactionManager, chunkRows, 64, 8192, 200, 20);
+    }
+}
@@ -0,0 +1,77 @@
+package com.hms.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PatientMatcherTest {
+
+    private static final LocalDate BIRTHDAY = LocalDate.of(1984, 3, 12);
+
+    @Test
+    @DisplayName("Should compute Soundex codes and Jaro-Winkler similarity")
+    void soundexAndJaroWinkler() {
+        assertThat(PatientMatcher.soundex("robert")).isEqualTo("R163");
+        assertThat(PatientMatcher.soundex("rupert")).isEqualTo("R163");
+        assertThat(PatientMatcher.soundex("ashcraft")).isEqualTo("A261");
+        assertThat(PatientMatcher.soundex("tymczak")).isEqualTo("T522");
+        assertThat(PatientMatcher.soundex("")).isEmpty();
+
+        assertThat(PatientMatcher.jaroWinkler("martha", "marhta")).isCloseTo(0.961, within(0.001));
+        assertThat(PatientMatcher.jaroWinkler("dwayne", "duane")).isCloseTo(0.84, within(0.001));
+        assertThat(PatientMatcher.jaroWinkler("anna", "anna")).isEqualTo(1);
+        assertThat(PatientMatcher.jaroWinkler("abc", "xyz")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should score typos, swapped names and a shared phone as likely duplicates")
+    void score_LikelyDuplicates() {
+        PatientMatcher.Person original = person(1, "Jonathan", "Smith", BIRTHDAY, "+1 (555) 010-0199");
+
+        PatientMatcher.Match typo = PatientMatcher.score(original, person(2, "Jonathon", "Smith", BIRTHDAY, null));
+        assertThat(typo.score()).isGreaterThan(0.95);
+        assertThat(typo.reasons()).containsExactly(PatientMatcher.NAME, PatientMatcher.DATE_OF_BIRTH);
+
+        PatientMatcher.Match swapped = PatientMatcher.score(original, person(3, "Smith", "Jonathan", BIRTHDAY, null));
+        assertThat(swapped.score()).isEqualTo(1);
+
+        // Day and month entered the other way round, same phone without the country code
+        PatientMatcher.Match samePhone = PatientMatcher.score(original,
+                person(4, "Jon", "Smith", LocalDate.of(1984, 12, 3), "555-010-0199"));
+        assertThat(samePhone.score()).isGreaterThan(0.85);
+        assertThat(samePhone.reasons()).containsExactly(PatientMatcher.NAME, PatientMatcher.PHONE);
+
+        PatientMatcher.Match stranger = PatientMatcher.score(original,
+                person(5, "Maria", "Garcia", LocalDate.of(1990, 7, 1), null));
+        assertThat(stranger.score()).isLessThan(0.5);
+        assertThat(stranger.reasons()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should put spelling variants in a shared block and normalise names and phones")
+    void blockKeys_GroupVariants() {
+        PatientMatcher.Person a = person(1, "José", "Muñoz-Díaz", BIRTHDAY, "555 0100");
+        PatientMatcher.Person b = person(2, "Jose", "Munozdiaz", null, null);
+
+        assertThat(a.firstName()).isEqualTo("jose");
+        assertThat(a.lastName()).isEqualTo("munozdiaz");
+        assertThat(a.phone()).isEqualTo("5550100");
+        assertThat(PatientMatcher.blockKeys(a)).containsExactly("n:M523J200", "l:1984-03-12M523",
+                "f:1984-03-12J200", "p:5550100");
+        assertThat(PatientMatcher.blockKeys(b)).containsExactly("n:M523J200");
+
+        // Too short to identify anyone
+        assertThat(person(3, "A", "B", null, "12-34").phone()).isNull();
+        assertThat(PatientMatcher.blockKeys(person(4, "", "", null, null))).isEqualTo(List.of());
+    }
+
+    private static PatientMatcher.Person person(long id, String firstName, String lastName, LocalDate dateOfBirth,
+                                                String phone) {
+        return PatientMatcher.Person.of(id, firstName, lastName, dateOfBirth, phone);
+    }
+}
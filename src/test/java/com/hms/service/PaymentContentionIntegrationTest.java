@@ -0,0 +1,174 @@
+package com.hms.service;
+
+import com.hms.dto.request.InvoiceRequest;
+import com.hms.dto.request.PaymentRequest;
+import com.hms.entity.Invoice;
+import com.hms.entity.Patient;
+import com.hms.entity.User;
+import com.hms.enums.Gender;
+import com.hms.enums.PaymentStatus;
+import com.hms.exception.BadRequestException;
+import com.hms.dto.response.PatientBalanceResponse;
+import com.hms.repository.InvoiceRepository;
+import com.hms.repository.PatientAccountRepository;
+import com.hms.repository.PatientRepository;
+import com.hms.repository.PaymentRepository;
+import com.hms.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Slf4j
+class PaymentContentionIntegrationTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PatientAccountRepository patientAccountRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        patient = patientRepository.save(Patient.builder()
+                .user(userRepository.save(User.builder()
+                        .email("payment-contention@test.com")
+                        .password("password")
+                        .firstName("Payment")
+                        .lastName("Contention")
+                        .build()))
+                .dateOfBirth(LocalDate.of(1975, 7, 7))
+                .gender(Gender.FEMALE)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentRepository.deleteAllInBatch();
+        patientAccountRepository.deleteAllInBatch();
+        invoiceRepository.deleteAll();
+        patientRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Concurrent partial payments are all applied with no lost updates")
+    void concurrentPartialPayments_TotalsAreExact() throws Exception {
+        Long invoiceId = createInvoice("10000.00");
+        int paymentsPerThread = 40;
+
+        Results results = payConcurrently(invoiceId, new BigDecimal("5.00"), paymentsPerThread);
+
+        Invoice invoice = invoiceRepository.findById(invoiceId).orElseThrow();
+        assertThat(results.failures).hasValue(0);
+        assertThat(invoice.getPaidAmount()).isEqualByComparingTo(new BigDecimal("6400.00"));
+        assertThat(invoice.getStatus()).isEqualTo(PaymentStatus.PARTIALLY_PAID);
+        assertThat(paymentRepository.findByInvoiceId(invoiceId)).hasSize(THREADS * paymentsPerThread);
+        PatientBalanceResponse balance = billingService.getPatientBalance(patient.getId());
+        assertThat(balance.getOutstandingBalance()).isEqualByComparingTo(new BigDecimal("3600.00"));
+        assertThat(balance.getTotalPaid()).isEqualByComparingTo(new BigDecimal("6400.00"));
+    }
+
+    @Test
+    @DisplayName("Oversubscribed payments never push an invoice past its total")
+    void oversubscribedPayments_StopAtTotal() throws Exception {
+        Long invoiceId = createInvoice("1000.00");
+
+        // 32 x 5 x 50.00 = 8000.00 offered against 1000.00 due
+        Results results = payConcurrently(invoiceId, new BigDecimal("50.00"), 5);
+
+        Invoice invoice = invoiceRepository.findById(invoiceId).orElseThrow();
+        assertThat(results.successes).hasValue(20);
+        assertThat(results.failures).hasValue(THREADS * 5 - 20);
+        assertThat(invoice.getPaidAmount()).isEqualByComparingTo(invoice.getTotalAmount());
+        assertThat(invoice.getStatus()).isEqualTo(PaymentStatus.PAID);
+        assertThat(paymentRepository.findByInvoiceId(invoiceId)).hasSize(20);
+    }
+
+    private Results payConcurrently(Long invoiceId, BigDecimal amount, int paymentsPerThread) throws Exception {
+        Results results = new Results();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < paymentsPerThread; i++) {
+                    try {
+                        billingService.recordPayment(PaymentRequest.builder()
+                                .invoiceId(invoiceId)
+                                .amount(amount)
+                                .paymentMethod("CARD")
+                                .build());
+                        results.successes.incrementAndGet();
+                    } catch (BadRequestException e) {
+                        results.failures.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(120, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("{} payment attempts on one invoice from {} threads in {} ms",
+                THREADS * paymentsPerThread, THREADS, elapsedMillis);
+        return results;
+    }
+
+    private Long createInvoice(String total) {
+        return billingService.createInvoice(InvoiceRequest.builder()
+                .patientId(patient.getId())
+                .items(List.of(InvoiceRequest.InvoiceItemRequest.builder()
+                        .description("Procedure")
+                        .amount(new BigDecimal(total))
+                        .quantity(1)
+                        .build()))
+                .build()).getId();
+    }
+
+    private static final class Results {
+        private final AtomicInteger successes = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+    }
+}
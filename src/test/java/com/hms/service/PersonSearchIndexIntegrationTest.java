@@ -0,0 +1,99 @@
+package com.hms.service;
+
+import com.hms.dto.request.PatientRequest;
+import com.hms.dto.response.PatientResponse;
+import com.hms.entity.Patient;
+import com.hms.entity.User;
+import com.hms.enums.Gender;
+import com.hms.repository.PatientRepository;
+import com.hms.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PersonSearchIndexIntegrationTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientIndexRefresher patientIndexRefresher;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        patientRepository.deleteAll();
+        userRepository.deleteAll();
+        patientIndexRefresher.refresh();
+    }
+
+    @Test
+    @DisplayName("Patients created, renamed and deleted through the service are searchable immediately")
+    void search_FollowsPatientService() {
+        PatientResponse anna = patientService.createPatient(request("p1@test.com", "Anna", "Searle", "555-0101"));
+        PatientResponse hannah = patientService.createPatient(request("p2@test.com", "Hannah", "Seymour", "555-0102"));
+        patientService.createPatient(request("p3@test.com", "Omar", "Quint", "555-0103"));
+
+        // "Searle" contains the whole query, "Seymour" only its first two trigrams
+        assertThat(patientService.searchPatients("sea", 10)).extracting(PatientResponse::getId)
+                .containsExactly(anna.getId(), hannah.getId());
+        assertThat(patientService.searchPatients("555 0102", 10)).first()
+                .extracting(PatientResponse::getLastName).isEqualTo("Seymour");
+        assertThat(patientService.searchPatients("se", 1)).hasSize(1);
+
+        patientService.updatePatient(hannah.getId(), PatientRequest.builder().lastName("Searcy").build());
+        assertThat(patientService.searchPatients("searc", 10)).extracting(PatientResponse::getId)
+                .containsExactly(hannah.getId(), anna.getId());
+        assertThat(patientService.searchPatients("seymour", 10)).isEmpty();
+
+        patientService.deletePatient(anna.getId());
+        assertThat(patientService.searchPatients("searc", 10)).extracting(PatientResponse::getId)
+                .containsExactly(hannah.getId());
+    }
+
+    @Test
+    @DisplayName("Patients written outside the service are picked up by the periodic rebuild")
+    void rebuild_LoadsFromDatabase() {
+        Patient patient = patientRepository.save(Patient.builder()
+                .user(userRepository.save(User.builder()
+                        .email("imported@test.com")
+                        .password("password")
+                        .firstName("Imre")
+                        .lastName("Portman")
+                        .build()))
+                .dateOfBirth(LocalDate.of(1970, 7, 7))
+                .gender(Gender.MALE)
+                .build());
+        assertThat(patientService.searchPatients("portman", 10)).isEmpty();
+
+        patientIndexRefresher.refresh();
+
+        assertThat(patientService.searchPatients("portman", 10)).extracting(PatientResponse::getId)
+                .containsExactly(patient.getId());
+    }
+
+    private static PatientRequest request(String email, String firstName, String lastName, String phone) {
+        return PatientRequest.builder()
+                .email(email)
+                .firstName(firstName)
+                .lastName(lastName)
+                .phone(phone)
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .gender(Gender.FEMALE)
+                .build();
+    }
+}
@@ -0,0 +1,272 @@
+package com.hms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.dto.request.InvoiceRequest;
+import com.hms.dto.request.PaymentRequest;
+import com.hms.dto.response.InvoiceResponse;
+import com.hms.dto.response.ReconciliationReport;
+import com.hms.entity.Invoice;
+import com.hms.entity.Patient;
+import com.hms.entity.Payment;
+import com.hms.entity.User;
+import com.hms.enums.Gender;
+import com.hms.enums.ImportFormat;
+import com.hms.enums.ImportStatus;
+import com.hms.enums.PaymentStatus;
+import com.hms.exception.DuplicateResourceException;
+import com.hms.repository.InvoiceRepository;
+import com.hms.repository.PatientRepository;
+import com.hms.repository.PaymentBatchRepository;
+import com.hms.repository.PaymentRepository;
+import com.hms.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Slf4j
+class ReconciliationServiceIntegrationTest {
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private DailyRevenueRollup dailyRevenueRollup;
+
+    @Autowired
+    private PatientAccountLedger patientAccountLedger;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path tempDir;
+
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        patient = patientRepository.save(Patient.builder()
+                .user(userRepository.save(User.builder()
+                        .email("reconciliation@test.com")
+                        .password("password")
+                        .firstName("Recon")
+                        .lastName("Ciliation")
+                        .build()))
+                .dateOfBirth(LocalDate.of(1965, 4, 4))
+                .gender(Gender.OTHER)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM daily_revenue");
+        jdbcTemplate.update("DELETE FROM patient_accounts");
+        jdbcTemplate.update("DELETE FROM payments");
+        jdbcTemplate.update("DELETE FROM invoice_items");
+        jdbcTemplate.update("DELETE FROM invoices");
+        patientRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("CSV lines are applied, skipped or reported, and a second run applies nothing")
+    void importCsv_AppliesMatchedLines() throws IOException {
+        InvoiceResponse first = createInvoice("100.00");
+        InvoiceResponse second = createInvoice("200.00");
+        InvoiceResponse cancelled = createInvoice("50.00");
+        billingService.cancelInvoice(cancelled.getId());
+        Path file = write("statement.csv",
+                "transactionId,invoiceNumber,amount,paymentMethod,paymentDate,notes",
+                "TX-1," + first.getInvoiceNumber() + ",60.00,CARD,2026-01-15T10:30:00,first part",
+                "TX-2," + first.getInvoiceNumber() + ",40.00,CARD,2026-01-15,\"settles, in full\"",
+                "TX-2," + first.getInvoiceNumber() + ",40.00,CARD,2026-01-15,repeated line",
+                "TX-3," + second.getInvoiceNumber() + ",150.00,,,",
+                "TX-4," + second.getInvoiceNumber() + ",75.00,,,",
+                "TX-5,INV-UNKNOWN,10.00,,,",
+                "TX-6," + cancelled.getInvoiceNumber() + ",10.00,,,",
+                "TX-7," + second.getInvoiceNumber() + ",abc,,,",
+                "",
+                "TX-8," + second.getInvoiceNumber() + ",50.00,,,");
+
+        // Chunks of three lines, so the same invoice is paid across chunk boundaries
+        ReconciliationService service = service(3);
+        ReconciliationReport report = service.importFile(file, ImportFormat.CSV);
+
+        assertThat(report.getStatus()).isEqualTo(ImportStatus.COMPLETED);
+        assertThat(report.getApplied()).isEqualTo(4);
+        assertThat(report.getAppliedAmount()).isEqualByComparingTo("300.00");
+        assertThat(report.getDuplicates()).isEqualTo(1);
+        assertThat(report.getUnmatched()).isEqualTo(1);
+        assertThat(report.getRejected()).isEqualTo(2);
+        assertThat(report.getInvalid()).isEqualTo(1);
+        assertThat(report.getBytesRead()).isEqualTo(report.getTotalBytes());
+        assertThat(report.getErrors()).extracting(ReconciliationReport.LineError::getTransactionId)
+                .contains("TX-4", "TX-5", "TX-6");
+
+        Invoice paid = invoiceRepository.findById(first.getId()).orElseThrow();
+        assertThat(paid.getStatus()).isEqualTo(PaymentStatus.PAID);
+        assertThat(invoiceRepository.findById(second.getId()).orElseThrow().getPaidAmount()).isEqualByComparingTo("200.00");
+        assertThat(paymentRepository.findByInvoiceId(first.getId()))
+                .extracting(payment -> payment.getNotes())
+                .containsExactlyInAnyOrder("first part", "settles, in full");
+        assertThat(billingService.getTotalPaymentsByDateRange(LocalDate.of(2026, 1, 15).atStartOfDay(),
+                LocalDate.of(2026, 1, 15).atTime(23, 59, 59))).isEqualByComparingTo("100.00");
+        assertThat(billingService.getPatientBalance(patient.getId()).getOutstandingBalance()).isEqualByComparingTo("0");
+        assertThat(billingService.getPatientBalance(patient.getId()).getTotalPaid()).isEqualByComparingTo("300.00");
+
+        ReconciliationReport rerun = service.importFile(file, ImportFormat.CSV);
+        assertThat(rerun.getApplied()).isZero();
+        assertThat(rerun.getDuplicates()).isEqualTo(5);
+        assertThat(paymentRepository.count()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("A large NDJSON statement uploaded through the service is applied in the background")
+    void startImport_Ndjson() throws IOException {
+        List<InvoiceResponse> invoices = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            invoices.add(createInvoice("1000.00"));
+        }
+        int lines = 10_000;
+        Path file = tempDir.resolve("statement.ndjson");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < lines; i++) {
+                writer.write("{\"transactionId\":\"BANK-" + i + "\",\"invoiceNumber\":\""
+                        + invoices.get(i % invoices.size()).getInvoiceNumber() + "\",\"amount\":1.25}\n");
+            }
+        }
+        MockMultipartFile upload = new MockMultipartFile("file", "statement.ndjson", "application/x-ndjson",
+                Files.readAllBytes(file));
+
+        long started = System.nanoTime();
+        ReconciliationReport queued = reconciliationService.startImport(upload, null);
+        await().atMost(Duration.ofSeconds(120)).until(() ->
+                reconciliationService.getImport(queued.getImportId()).getFinishedAt() != null);
+        log.info("Reconciled {} statement lines in {} ms", lines, (System.nanoTime() - started) / 1_000_000);
+
+        ReconciliationReport report = reconciliationService.getImport(queued.getImportId());
+        assertThat(report.getFormat()).isEqualTo("NDJSON");
+        assertThat(report.getStatus()).isEqualTo(ImportStatus.COMPLETED);
+        assertThat(report.getLinesRead()).isEqualTo(lines);
+        assertThat(report.getApplied()).isEqualTo(lines);
+        assertThat(invoiceRepository.findById(invoices.get(0).getId()).orElseThrow().getPaidAmount())
+                .isEqualByComparingTo("312.50");
+        assertThat(billingService.getTotalPaymentsByDateRange(LocalDateTime.now().minusDays(1), LocalDateTime.now()))
+                .isEqualByComparingTo("12500.00");
+    }
+
+    @Test
+    @DisplayName("A transaction id recorded behind the import's lookup is skipped by its unique index")
+    void applyAll_TransactionIdRecordedConcurrently() {
+        InvoiceResponse invoice = createInvoice("100.00");
+        billingService.recordPayment(PaymentRequest.builder()
+                .invoiceId(invoice.getId())
+                .amount(new BigDecimal("30.00"))
+                .paymentMethod("BANK_TRANSFER")
+                .transactionId("BANK-RACE")
+                .build());
+
+        // What a chunk does when its lookup ran just before the payment above committed
+        PaymentBatchRepository.Outcome[] outcomes = new TransactionTemplate(transactionManager).execute(status ->
+                paymentRepository.applyAll(List.of(statementPayment(invoice.getId(), "BANK-RACE", "30.00"),
+                        statementPayment(invoice.getId(), "BANK-NEW", "20.00"),
+                        statementPayment(invoice.getId(), "BANK-OVER", "500.00"))));
+
+        assertThat(outcomes).containsExactly(PaymentBatchRepository.Outcome.DUPLICATE,
+                PaymentBatchRepository.Outcome.APPLIED, PaymentBatchRepository.Outcome.REJECTED);
+        assertThat(invoiceRepository.findById(invoice.getId()).orElseThrow().getPaidAmount()).isEqualByComparingTo("50.00");
+        assertThat(paymentRepository.findByInvoiceId(invoice.getId())).extracting(Payment::getTransactionId)
+                .containsExactlyInAnyOrder("BANK-RACE", "BANK-NEW");
+
+        assertThatThrownBy(() -> billingService.recordPayment(PaymentRequest.builder()
+                .invoiceId(invoice.getId())
+                .amount(new BigDecimal("10.00"))
+                .paymentMethod("BANK_TRANSFER")
+                .transactionId("BANK-NEW")
+                .build()))
+                .isInstanceOf(DuplicateResourceException.class);
+        assertThat(invoiceRepository.findById(invoice.getId()).orElseThrow().getPaidAmount()).isEqualByComparingTo("50.00");
+    }
+
+    private static Payment statementPayment(Long invoiceId, String transactionId, String amount) {
+        return Payment.builder()
+                .invoice(Invoice.builder().id(invoiceId).build())
+                .amount(new BigDecimal(amount))
+                .paymentMethod("BANK_TRANSFER")
+                .transactionId(transactionId)
+                .paymentDate(LocalDateTime.now())
+                .receivedBy("RECONCILIATION")
+                .build();
+    }
+
+    private ReconciliationService service(int chunkLines) {
+        return new ReconciliationService(paymentRepository, invoiceRepository, dailyRevenueRollup, patientAccountLedger, objectMapper,
+                transactionManager, chunkLines, 16, 256, 50, 5);
+    }
+
+    private InvoiceResponse createInvoice(String total) {
+        return billingService.createInvoice(InvoiceRequest.builder()
+                .patientId(patient.getId())
+                .items(List.of(InvoiceRequest.InvoiceItemRequest.builder()
+                        .description("Treatment")
+                        .amount(new BigDecimal(total))
+                        .quantity(1)
+                        .build()))
+                .build());
+    }
+
+    private Path write(String name, String... lines) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, String.join("\n", lines) + "\n", StandardCharsets.UTF_8);
+        return file;
+    }
+}